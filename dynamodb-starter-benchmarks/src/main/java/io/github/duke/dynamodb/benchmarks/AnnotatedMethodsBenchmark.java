@@ -0,0 +1,58 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.github.duke.dynamodb.utils.DynamoDbStarterUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DynamoDbStarterUtils#getAnnotatedMethods(Class)}, the reflection pass run for every entity,
+ * against the bare {@link Class#getMethods()} it filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedMethodsBenchmark {
+
+    private GeneratedEntities entities;
+    private Class<?> entity;
+
+    /**
+     * Generates a single entity.
+     */
+    @Setup
+    public void setUp() {
+        entities = GeneratedEntities.generate(1, false);
+        entity = entities.loadClasses().get(0);
+    }
+
+    /**
+     * Deletes the generated entity.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        entities.close();
+    }
+
+    /**
+     * @return The key getters of the entity.
+     */
+    @Benchmark
+    public List<Method> annotatedMethods() {
+        return DynamoDbStarterUtils.getAnnotatedMethods(entity);
+    }
+
+    /**
+     * @return The public methods of the entity, the baseline of {@link #annotatedMethods()}.
+     */
+    @Benchmark
+    public Method[] publicMethods() {
+        return entity.getMethods();
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.github.duke.dynamodb.index.EntityIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the discovery of the entities, by classpath scanning as the starter does without a compile time
+ * {@link EntityIndex}, and by loading the index generated by the {@code dynamodb-starter-processor} module.
+ * Every invocation uses a new scanner, so the class metadata is read from disk as on a real startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClasspathScanBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int entityCount;
+
+    private GeneratedEntities entities;
+
+    /**
+     * Generates the entities and their index.
+     */
+    @Setup
+    public void setUp() {
+        entities = GeneratedEntities.generate(entityCount, true);
+    }
+
+    /**
+     * Deletes the generated entities.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        entities.close();
+    }
+
+    /**
+     * @return The entities found by scanning the classpath.
+     */
+    @Benchmark
+    public Set<BeanDefinition> scan() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.setResourceLoader(new DefaultResourceLoader(entities.getClassLoader()));
+        scanner.addIncludeFilter(new AnnotationTypeFilter(DynamoDbBean.class));
+        return scanner.findCandidateComponents(GeneratedEntities.PACKAGE_NAME);
+    }
+
+    /**
+     * @return The entities read from the compile time index.
+     */
+    @Benchmark
+    public List<EntityIndex.Entry> index() {
+        return EntityIndex.load(entities.getClassLoader()).getEntries(GeneratedEntities.PACKAGE_NAME);
+    }
+}
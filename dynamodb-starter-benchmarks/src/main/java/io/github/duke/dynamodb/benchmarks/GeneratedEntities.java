@@ -0,0 +1,178 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.github.duke.dynamodb.index.EntityIndex;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Generates DynamoDB entity classes into a temporary class directory, so the benchmarks can scan and
+ * provision any number of entities without checking them into the source tree.
+ * <p>
+ * Every entity has a partition and a sort key, plus a global secondary index on an {@code email} attribute and
+ * one on a {@code status} / {@code createdAt} pair, which is the shape of a typical entity of the starter.
+ * Optionally, the compile time {@link EntityIndex} of the generated entities is written as well.
+ */
+final class GeneratedEntities implements AutoCloseable {
+
+    static final String PACKAGE_NAME = "io.github.duke.dynamodb.benchmarks.generated";
+
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String STRING = Type.getDescriptor(String.class);
+
+    private final Path directory;
+    private final URLClassLoader classLoader;
+    private final List<String> classNames;
+
+    private GeneratedEntities(Path directory, List<String> classNames) {
+        this.directory = directory;
+        this.classNames = classNames;
+        try {
+            this.classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()},
+                    GeneratedEntities.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates the entity classes.
+     *
+     * @param count     The number of entities.
+     * @param withIndex Whether the compile time entity index is generated too.
+     * @return The generated entities, to be closed once the benchmark is done.
+     */
+    static GeneratedEntities generate(int count, boolean withIndex) {
+        try {
+            Path directory = Files.createTempDirectory("dynamodb-starter-benchmarks");
+            Path packageDirectory = Files.createDirectories(directory.resolve(PACKAGE_NAME.replace('.', '/')));
+            List<String> classNames = new ArrayList<>(count);
+            StringBuilder index = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                String simpleName = "GeneratedEntity" + i;
+                String className = PACKAGE_NAME + "." + simpleName;
+                Files.write(packageDirectory.resolve(simpleName + ".class"), entityClass(className));
+                classNames.add(className);
+                index.append(className).append("\tfalse\n");
+            }
+            if (withIndex) {
+                Path indexFile = directory.resolve(EntityIndex.INDEX_LOCATION);
+                Files.createDirectories(indexFile.getParent());
+                Files.writeString(indexFile, index);
+            }
+            return new GeneratedEntities(directory, classNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to generate the benchmark entities", e);
+        }
+    }
+
+    /**
+     * @return The class loader of the generated entities.
+     */
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @return The binary names of the generated entities.
+     */
+    List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Loads the generated entities.
+     *
+     * @return The entity classes.
+     */
+    List<Class<?>> loadClasses() {
+        List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Closes the class loader and deletes the generated classes.
+     */
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static byte[] entityClass(String className) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className.replace('.', '/'), null, OBJECT, null);
+        writer.visitAnnotation(Type.getDescriptor(DynamoDbBean.class), true).visitEnd();
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        getter(writer, "getId", STRING, new KeyAnnotation(DynamoDbPartitionKey.class, null));
+        getter(writer, "getCreatedAt", "Ljava/lang/Long;", new KeyAnnotation(DynamoDbSortKey.class, null),
+                new KeyAnnotation(DynamoDbSecondarySortKey.class, "status-index"));
+        getter(writer, "getEmail", STRING, new KeyAnnotation(DynamoDbSecondaryPartitionKey.class, "email-index"));
+        getter(writer, "getStatus", STRING, new KeyAnnotation(DynamoDbSecondaryPartitionKey.class, "status-index"));
+        getter(writer, "getName", STRING);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes an annotated getter returning {@code null}.
+     */
+    private static void getter(ClassWriter writer, String name, String returnType, KeyAnnotation... annotations) {
+        MethodVisitor getter = writer.visitMethod(Opcodes.ACC_PUBLIC, name, "()" + returnType, null, null);
+        for (KeyAnnotation annotation : annotations) {
+            AnnotationVisitor annotationVisitor = getter.visitAnnotation(Type.getDescriptor(annotation.type()), true);
+            if (annotation.indexName() != null) {
+                AnnotationVisitor indexNames = annotationVisitor.visitArray("indexNames");
+                indexNames.visit(null, annotation.indexName());
+                indexNames.visitEnd();
+            }
+            annotationVisitor.visitEnd();
+        }
+        getter.visitCode();
+        getter.visitInsn(Opcodes.ACONST_NULL);
+        getter.visitInsn(Opcodes.ARETURN);
+        getter.visitMaxs(0, 0);
+        getter.visitEnd();
+    }
+
+    private record KeyAnnotation(Class<?> type, String indexName) {
+    }
+}
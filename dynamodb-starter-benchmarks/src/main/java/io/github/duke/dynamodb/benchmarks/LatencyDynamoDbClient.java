@@ -0,0 +1,125 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-process stand-in of the DynamoDB control plane, with a fixed latency injected into every call.
+ * <p>
+ * Only the calls sent by the starter while provisioning are supported: {@code CreateTable},
+ * {@code DescribeTable} and {@code ListTables}. Created tables are ACTIVE straight away, so the waiters of the
+ * starter return on their first poll and the measured time is the one of the starter plus the injected latency.
+ */
+final class LatencyDynamoDbClient implements DynamoDbClient {
+
+    private static final int LIST_TABLES_PAGE_SIZE = 100;
+
+    private final Duration latency;
+    private final Map<String, TableDescription> tables = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param latency The latency of every call.
+     */
+    LatencyDynamoDbClient(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Deletes every table.
+     */
+    void reset() {
+        tables.clear();
+    }
+
+    /**
+     * @return The number of tables.
+     */
+    int tableCount() {
+        return tables.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CreateTableResponse createTable(CreateTableRequest request) {
+        simulateLatency();
+        TableDescription table = TableDescription.builder()
+                .tableName(request.tableName())
+                .tableStatus(TableStatus.ACTIVE)
+                .keySchema(request.keySchema())
+                .attributeDefinitions(request.attributeDefinitions())
+                .globalSecondaryIndexes(request.globalSecondaryIndexes().stream()
+                        .map(index -> GlobalSecondaryIndexDescription.builder()
+                                .indexName(index.indexName())
+                                .keySchema(index.keySchema())
+                                .projection(index.projection())
+                                .indexStatus(IndexStatus.ACTIVE)
+                                .build())
+                        .toList())
+                .build();
+        if (tables.putIfAbsent(request.tableName(), table) != null) {
+            throw ResourceInUseException.builder().message("Table already exists: " + request.tableName()).build();
+        }
+        return CreateTableResponse.builder().tableDescription(table).build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DescribeTableResponse describeTable(DescribeTableRequest request) {
+        simulateLatency();
+        TableDescription table = tables.get(request.tableName());
+        if (table == null) {
+            throw ResourceNotFoundException.builder().message("Table not found: " + request.tableName()).build();
+        }
+        return DescribeTableResponse.builder().table(table).build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ListTablesResponse listTables(ListTablesRequest request) {
+        simulateLatency();
+        List<String> tableNames = tables.keySet().stream()
+                .filter(tableName -> request.exclusiveStartTableName() == null
+                        || tableName.compareTo(request.exclusiveStartTableName()) > 0)
+                .limit(LIST_TABLES_PAGE_SIZE)
+                .toList();
+        ListTablesResponse.Builder response = ListTablesResponse.builder().tableNames(tableNames);
+        if (tableNames.size() == LIST_TABLES_PAGE_SIZE) {
+            response.lastEvaluatedTableName(tableNames.get(tableNames.size() - 1));
+        }
+        return response.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        tables.clear();
+    }
+
+    private void simulateLatency() {
+        if (!latency.isZero()) {
+            LockSupport.parkNanos(latency.toNanos());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import io.github.duke.dynamodb.manifest.SchemaManifest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a startup provisioning every table, end to end: entity discovery, schema resolution, table
+ * inventory, concurrent creation and the wait for the tables to be ACTIVE. DynamoDB is replaced with an
+ * in-process stand-in adding {@code latencyMillis} to every call, so the benchmark shows how much of the
+ * control plane latency the provisioning overlaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProvisioningBenchmark {
+
+    @Param({"10", "100"})
+    private int entityCount;
+
+    @Param({"0", "20"})
+    private long latencyMillis;
+
+    @Param({"1", "25"})
+    private int maxConcurrency;
+
+    private GeneratedEntities entities;
+    private LatencyDynamoDbClient dynamoDbClient;
+    private DynamoDbBeanListener listener;
+
+    /**
+     * Generates the entities.
+     */
+    @Setup
+    public void setUp() {
+        entities = GeneratedEntities.generate(entityCount, true);
+        dynamoDbClient = new LatencyDynamoDbClient(Duration.ofMillis(latencyMillis));
+    }
+
+    /**
+     * Deletes the tables of the last startup and creates the listener of the next one.
+     */
+    @Setup(Level.Invocation)
+    public void setUpStartup() {
+        dynamoDbClient.reset();
+        listener = StarterFixture.listener(dynamoDbClient, entities, SchemaManifest.disabled(), maxConcurrency);
+    }
+
+    /**
+     * Releases the listener of the last startup.
+     */
+    @TearDown(Level.Invocation)
+    public void tearDownStartup() {
+        if (dynamoDbClient.tableCount() != entityCount) {
+            throw new IllegalStateException(dynamoDbClient.tableCount() + " table(s) provisioned, expected " + entityCount);
+        }
+        listener.destroy();
+    }
+
+    /**
+     * Deletes the generated entities.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        entities.close();
+    }
+
+    /**
+     * Runs a startup provisioning every table.
+     */
+    @Benchmark
+    public void provision() {
+        listener.onApplicationEvent(null);
+    }
+}
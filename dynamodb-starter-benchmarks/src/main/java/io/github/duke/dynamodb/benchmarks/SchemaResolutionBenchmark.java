@@ -0,0 +1,109 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import io.github.duke.dynamodb.manifest.ManifestMode;
+import io.github.duke.dynamodb.manifest.SchemaManifest;
+import io.github.duke.dynamodb.manifest.SchemaManifestStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the resolution of the table requests of the entities: key and index resolution, throughput and
+ * projections, and the schema fingerprints.
+ * <p>
+ * The tables are provisioned once in the setup, recording the schema manifest, so every measured startup
+ * matches the manifest and stops before calling DynamoDB. The key models are cached per class, as they are
+ * after the first startup of a long-lived class loader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaResolutionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int entityCount;
+
+    private GeneratedEntities entities;
+    private LatencyDynamoDbClient dynamoDbClient;
+    private SchemaManifest schemaManifest;
+    private DynamoDbBeanListener listener;
+
+    /**
+     * Generates the entities, provisions their tables and records the manifest.
+     */
+    @Setup
+    public void setUp() {
+        entities = GeneratedEntities.generate(entityCount, true);
+        dynamoDbClient = new LatencyDynamoDbClient(Duration.ZERO);
+        schemaManifest = new SchemaManifest(ManifestMode.TABLE, new InMemoryManifestStore());
+        DynamoDbBeanListener provisioning = StarterFixture.listener(dynamoDbClient, entities, schemaManifest, 25);
+        provisioning.onApplicationEvent(null);
+        provisioning.destroy();
+    }
+
+    /**
+     * Creates the listener of the next startup.
+     */
+    @Setup(Level.Invocation)
+    public void setUpStartup() {
+        listener = StarterFixture.listener(dynamoDbClient, entities, schemaManifest, 25);
+    }
+
+    /**
+     * Releases the listener of the last startup.
+     */
+    @TearDown(Level.Invocation)
+    public void tearDownStartup() {
+        listener.destroy();
+    }
+
+    /**
+     * Deletes the generated entities.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        entities.close();
+    }
+
+    /**
+     * Runs a startup which only resolves the tables.
+     */
+    @Benchmark
+    public void resolve() {
+        listener.onApplicationEvent(null);
+    }
+
+    /**
+     * Keeps the manifest in memory.
+     */
+    private static final class InMemoryManifestStore implements SchemaManifestStore {
+        private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, String> load(Collection<String> tableNames) {
+            Map<String, String> loaded = new HashMap<>();
+            tableNames.forEach(tableName -> {
+                String fingerprint = fingerprints.get(tableName);
+                if (fingerprint != null) {
+                    loaded.put(tableName, fingerprint);
+                }
+            });
+            return loaded;
+        }
+
+        @Override
+        public void save(Map<String, String> fingerprints) {
+            this.fingerprints.putAll(fingerprints);
+        }
+    }
+}
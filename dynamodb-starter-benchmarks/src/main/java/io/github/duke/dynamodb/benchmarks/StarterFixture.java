@@ -0,0 +1,69 @@
+package io.github.duke.dynamodb.benchmarks;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import io.github.duke.dynamodb.coordination.ProvisioningLock;
+import io.github.duke.dynamodb.inventory.TableInventory;
+import io.github.duke.dynamodb.manifest.SchemaManifest;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics;
+import io.github.duke.dynamodb.provisioning.ProvisioningMode;
+import io.github.duke.dynamodb.provisioning.TableProvisioner;
+import io.github.duke.dynamodb.readiness.TableReadiness;
+import io.github.duke.dynamodb.reconcile.IndexReconciler;
+import io.github.duke.dynamodb.schema.DynamoDbTableRegistry;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.ProjectionResolver;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import io.github.duke.dynamodb.schema.ThroughputResolver;
+import io.github.duke.dynamodb.seed.SeedLoader;
+import io.github.duke.dynamodb.warmup.TableWarmer;
+import org.springframework.core.env.StandardEnvironment;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+
+/**
+ * Wires a {@link DynamoDbBeanListener} the way the starter configuration does, without a Spring context.
+ */
+final class StarterFixture {
+
+    static final String TABLE_PREFIX = "bench_";
+
+    private StarterFixture() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    /**
+     * Creates a listener provisioning the generated entities in {@link ProvisioningMode#BLOCKING} mode.
+     *
+     * @param dynamoDbClient The DynamoDB client.
+     * @param entities       The generated entities, discovered through their class loader.
+     * @param schemaManifest The schema manifest.
+     * @param maxConcurrency The maximum number of tables being created at the same time.
+     * @return The listener.
+     */
+    static DynamoDbBeanListener listener(DynamoDbClient dynamoDbClient, GeneratedEntities entities,
+                                         SchemaManifest schemaManifest, int maxConcurrency) {
+        DefaultDynamoDbTableNameResolver tableNameResolver = new DefaultDynamoDbTableNameResolver(TABLE_PREFIX);
+        ProvisioningMetrics metrics = ProvisioningMetrics.disabled();
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        // the listener discovers the entities with the context class loader
+        thread.setContextClassLoader(entities.getClassLoader());
+        try {
+            return new DynamoDbBeanListener(
+                    new TableProvisioner(dynamoDbClient, (DynamoDbAsyncClient) null, maxConcurrency, 60, metrics),
+                    new TableInventory(dynamoDbClient, (DynamoDbAsyncClient) null, TABLE_PREFIX, 10),
+                    schemaManifest, IndexReconciler.disabled(), new EntityKeyModelRegistry(),
+                    new ThroughputResolver(new StandardEnvironment()), new ProjectionResolver(),
+                    new TableReadiness(tableNameResolver), SeedLoader.disabled(), TableWarmer.disabled(),
+                    new DynamoDbTableRegistry(dynamoDbClient, (DynamoDbAsyncClient) null, new TableSchemaRegistry(),
+                            tableNameResolver),
+                    ProvisioningLock.disabled(),
+                    metrics, tableNameResolver, GeneratedEntities.PACKAGE_NAME, BillingMode.PAY_PER_REQUEST, 0, 0,
+                    ProvisioningMode.BLOCKING);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package io.github.duke.dynamodb.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+
+/**
+ * Annotation processor recording every {@code @DynamoDbBean} class into a compile time index.
+ * <p>
+ * The index is written to {@value #INDEX_LOCATION} with one tab separated line per entity:
+ * <pre>
+ * {@code <class name>  <document flag>}
+ * </pre>
+ * When the index is present on the classpath, the starter reads it instead of scanning packages.
+ * <p>
+ * An incremental build only hands the recompiled sources to the processor, so the index of the previous build
+ * found in the class output is merged: its entities which are still compiled classes annotated with
+ * {@code @DynamoDbBean} are kept, the deleted ones and those which lost the annotation are dropped. The processor
+ * therefore supports every annotation type, to run on compilations without any entity too, and never claims them.
+ * <p>
+ * The processor also writes the GraalVM reachability metadata of the entities to {@value #NATIVE_IMAGE_LOCATION}:
+ * the reflection configuration of every entity and of its {@code @DynamoDbConvertedBy} converters, which the
+ * enhanced client table schemas and the starter introspect, and the resource configuration embedding the index,
+ * so a native image discovers the entities without classpath scanning. Pass {@code -A}{@value #NATIVE_IMAGE_OPTION}
+ * {@code =false} to the compiler to skip it.
+ * <p>
+ * Annotation types are matched by name so the processor has no dependency on the SDK or the starter.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(DynamoDbEntityIndexProcessor.NATIVE_IMAGE_OPTION)
+public class DynamoDbEntityIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/dynamodb-starter/entities.index";
+    public static final String NATIVE_IMAGE_LOCATION = "META-INF/native-image/io.github.codewithduke/dynamodb-starter-entities/";
+
+    static final String NATIVE_IMAGE_OPTION = "dynamodb.starter.nativeImage";
+
+    static final String DYNAMO_DB_BEAN = "software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean";
+    private static final String DYNAMO_DB_DOCUMENT = "io.github.duke.dynamodb.annotation.DynamoDbDocument";
+    private static final String MAPPER_ANNOTATIONS = "software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.";
+    private static final String CONVERTED_BY = MAPPER_ANNOTATIONS + "DynamoDbConvertedBy";
+
+    private final Map<String, String> entries = new TreeMap<>();
+    private final Set<String> reflectiveTypes = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            if (!DYNAMO_DB_BEAN.contentEquals(annotation.getQualifiedName())) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    addEntity((TypeElement) element);
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            boolean previous = mergePreviousIndex();
+            if (entries.isEmpty() && !previous) {
+                return false;
+            }
+            writeIndex();
+            if (!"false".equalsIgnoreCase(processingEnv.getOptions().get(NATIVE_IMAGE_OPTION))) {
+                writeNativeImageMetadata();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records an entity into the index and collects its reflective types.
+     *
+     * @param entity The entity type.
+     */
+    private void addEntity(TypeElement entity) {
+        boolean document = findAnnotation(entity, DYNAMO_DB_DOCUMENT) != null;
+        entries.put(processingEnv.getElementUtils().getBinaryName(entity).toString(), String.valueOf(document));
+        collectReflectiveTypes(entity);
+    }
+
+    /**
+     * Adds the entities of the index written by the previous build which were not part of this compilation,
+     * as long as they are still compiled classes annotated with {@code @DynamoDbBean}.
+     *
+     * @return {@code true} if there was a previous index.
+     */
+    private boolean mergePreviousIndex() {
+        List<String> previous = readPreviousIndex();
+        if (previous == null) {
+            return false;
+        }
+        for (String className : previous) {
+            if (entries.containsKey(className)) {
+                continue;
+            }
+            TypeElement entity = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+            if (entity != null && entity.getKind() == ElementKind.CLASS
+                    && findAnnotation(entity, DYNAMO_DB_BEAN) != null) {
+                addEntity(entity);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The class names of the index found in the class output, or {@code null} if there is none.
+     */
+    private List<String> readPreviousIndex() {
+        FileObject resource;
+        try {
+            resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    classNames.add(line.split("\t", 2)[0]);
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            // no index was written by a previous build
+            return null;
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to read the previous "
+                    + INDEX_LOCATION + ", the entities compiled by previous builds are dropped: " + e.getMessage());
+            return null;
+        }
+        return classNames;
+    }
+
+    /**
+     * Collects the types a native image must keep reflective for an entity: the entity, its super classes,
+     * whose getters are part of the table schema, and the converters of its attributes.
+     *
+     * @param entity The entity type.
+     */
+    private void collectReflectiveTypes(TypeElement entity) {
+        TypeElement current = entity;
+        while (current != null) {
+            reflectiveTypes.add(processingEnv.getElementUtils().getBinaryName(current).toString());
+            for (Element member : current.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                AnnotationMirror convertedBy = findAnnotation(member, CONVERTED_BY);
+                if (convertedBy != null) {
+                    convertedBy.getElementValues().values().forEach(value -> {
+                        if (value.getValue() instanceof DeclaredType converter) {
+                            reflectiveTypes.add(processingEnv.getElementUtils()
+                                    .getBinaryName((TypeElement) converter.asElement()).toString());
+                        }
+                    });
+                }
+            }
+            current = superclass(current);
+        }
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationName.equals(annotationName(mirror))) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return Object.class.getName().contentEquals(element.getQualifiedName()) ? null : element;
+    }
+
+    private void writeIndex() {
+        StringBuilder index = new StringBuilder("# Generated by " + getClass().getName() + "\n");
+        entries.forEach((className, entry) -> index.append(className).append('\t').append(entry).append('\n'));
+        writeResource(INDEX_LOCATION, index.toString());
+    }
+
+    /**
+     * Writes the reflection and resource configuration picked up by {@code native-image} from the classpath.
+     */
+    private void writeNativeImageMetadata() {
+        StringBuilder reflectConfig = new StringBuilder("[\n");
+        Iterator<String> types = reflectiveTypes.iterator();
+        while (types.hasNext()) {
+            reflectConfig.append("  {\"name\": \"").append(types.next()).append("\", ")
+                    .append("\"allDeclaredConstructors\": true, \"allPublicConstructors\": true, ")
+                    .append("\"allDeclaredMethods\": true, \"allPublicMethods\": true, \"allDeclaredFields\": true}")
+                    .append(types.hasNext() ? ",\n" : "\n");
+        }
+        reflectConfig.append("]\n");
+        String resourceConfig = "{\"resources\": {\"includes\": [{\"pattern\": \"\\\\Q" + INDEX_LOCATION
+                + "\\\\E\"}]}}\n";
+        writeResource(NATIVE_IMAGE_LOCATION + "reflect-config.json", reflectConfig.toString());
+        writeResource(NATIVE_IMAGE_LOCATION + "resource-config.json", resourceConfig);
+    }
+
+    private void writeResource(String location, String content) {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + location + ": " + e.getMessage());
+        }
+    }
+}
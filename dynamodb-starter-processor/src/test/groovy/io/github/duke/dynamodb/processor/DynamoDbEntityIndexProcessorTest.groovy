@@ -0,0 +1,125 @@
+package io.github.duke.dynamodb.processor
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.tools.Diagnostic
+import javax.tools.DiagnosticCollector
+import javax.tools.JavaFileObject
+import javax.tools.SimpleJavaFileObject
+import javax.tools.StandardLocation
+import javax.tools.ToolProvider
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+class DynamoDbEntityIndexProcessorTest extends Specification {
+
+    static final Map<String, String> ANNOTATIONS = [
+            "software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean"       :
+                    "public @interface DynamoDbBean {}",
+            "software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy":
+                    "public @interface DynamoDbConvertedBy { Class<?> value(); }",
+            "io.github.duke.dynamodb.annotation.DynamoDbDocument"                            :
+                    "public @interface DynamoDbDocument {}"]
+
+    @TempDir
+    Path output
+
+    def 'should index the entities and write their native image metadata'() {
+        when:
+        compile(ANNOTATIONS + [
+                "app.User"            : """@DynamoDbBean public class User {
+                                              @DynamoDbConvertedBy(InstantConverter.class) public String getCreatedAt() { return null; }
+                                          }""",
+                "app.Address"         : "@DynamoDbBean @DynamoDbDocument public class Address {}",
+                "app.InstantConverter": "public class InstantConverter {}",
+                "app.Helper"          : "public class Helper {}"])
+
+        then:
+        index() == ["app.Address\ttrue", "app.User\tfalse"]
+        def reflectConfig = Files.readString(output.resolve(DynamoDbEntityIndexProcessor.NATIVE_IMAGE_LOCATION + "reflect-config.json"))
+        reflectConfig.contains('"app.User"')
+        reflectConfig.contains('"app.InstantConverter"')
+        !reflectConfig.contains('"app.Helper"')
+        Files.exists(output.resolve(DynamoDbEntityIndexProcessor.NATIVE_IMAGE_LOCATION + "resource-config.json"))
+    }
+
+    def 'should keep the entities of the previous build on an incremental compilation'() {
+        given:
+        compile(ANNOTATIONS + ["app.User" : "@DynamoDbBean public class User {}",
+                               "app.Order": "@DynamoDbBean public class Order {}"])
+
+        when:
+        compile(["app.Account": "@DynamoDbBean public class Account {}"])
+
+        then:
+        index() == ["app.Account\tfalse", "app.Order\tfalse", "app.User\tfalse"]
+    }
+
+    def 'should drop the entities deleted or no longer annotated since the previous build'() {
+        given:
+        compile(ANNOTATIONS + ["app.User" : "@DynamoDbBean public class User {}",
+                               "app.Order": "@DynamoDbBean public class Order {}",
+                               "app.Event": "@DynamoDbBean public class Event {}"])
+        Files.delete(output.resolve("app/Order.class"))
+
+        when:
+        compile(["app.User": "public class User {}"])
+
+        then:
+        index() == ["app.Event\tfalse"]
+    }
+
+    def 'should skip the native image metadata when disabled'() {
+        when:
+        compile(ANNOTATIONS + ["app.User": "@DynamoDbBean public class User {}"],
+                "-A" + DynamoDbEntityIndexProcessor.NATIVE_IMAGE_OPTION + "=false")
+
+        then:
+        index() == ["app.User\tfalse"]
+        !Files.exists(output.resolve(DynamoDbEntityIndexProcessor.NATIVE_IMAGE_LOCATION))
+    }
+
+    def 'should not write an index without entities'() {
+        when:
+        compile(ANNOTATIONS + ["app.Helper": "public class Helper {}"])
+
+        then:
+        !Files.exists(output.resolve(DynamoDbEntityIndexProcessor.INDEX_LOCATION))
+    }
+
+    private List<String> index() {
+        Files.readAllLines(output.resolve(DynamoDbEntityIndexProcessor.INDEX_LOCATION))
+                .findAll { !it.startsWith("#") }
+    }
+
+    /**
+     * Compiles the given classes into the output directory, which is also the class path as in an incremental build.
+     */
+    private void compile(Map<String, String> classes, String... options) {
+        def compiler = ToolProvider.getSystemJavaCompiler()
+        def diagnostics = new DiagnosticCollector<JavaFileObject>()
+        def fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, [output.toFile()])
+        fileManager.setLocation(StandardLocation.CLASS_PATH, [output.toFile()])
+        def sources = classes.collect { className, body -> source(className, body) }
+        def task = compiler.getTask(null, fileManager, diagnostics, options as List, null, sources)
+        task.setProcessors([new DynamoDbEntityIndexProcessor()])
+        def success = task.call()
+        fileManager.close()
+        assert success, diagnostics.diagnostics.findAll { it.kind == Diagnostic.Kind.ERROR }.join("\n")
+    }
+
+    private static JavaFileObject source(String className, String body) {
+        def packageName = className.substring(0, className.lastIndexOf('.'))
+        def imports = ANNOTATIONS.keySet().findAll { !it.startsWith(packageName + ".") }.collect { "import $it;" }
+        def code = "package $packageName;\n${imports.join('\n')}\n$body\n"
+        new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                code
+            }
+        }
+    }
+}
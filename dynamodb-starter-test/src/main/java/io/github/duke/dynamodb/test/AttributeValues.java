@@ -0,0 +1,159 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Compares and measures attribute values the way DynamoDB does: strings and binaries by their unsigned
+ * UTF-8 / byte values, numbers by their numeric value.
+ */
+final class AttributeValues {
+    private AttributeValues() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    /**
+     * Stands for the missing sort key of tables and indexes without one. Equal to itself only.
+     */
+    static final AttributeValue NO_SORT_KEY = AttributeValue.fromNul(true);
+
+    /**
+     * Orders scalar values of the same type. Values of different types are ordered by type.
+     */
+    static final Comparator<AttributeValue> ORDER = AttributeValues::compare;
+
+    private static final int COLLECTION_OVERHEAD = 3;
+    private static final int ELEMENT_OVERHEAD = 1;
+
+    /**
+     * @param value The value.
+     * @return The scalar type of the value, or {@code null} if it is not a string, number or binary.
+     */
+    static ScalarAttributeType scalarType(AttributeValue value) {
+        if (value.s() != null) {
+            return ScalarAttributeType.S;
+        }
+        if (value.n() != null) {
+            return ScalarAttributeType.N;
+        }
+        if (value.b() != null) {
+            return ScalarAttributeType.B;
+        }
+        return null;
+    }
+
+    /**
+     * @param value The value.
+     * @return {@code true} if the value is an empty string or binary.
+     */
+    static boolean isEmpty(AttributeValue value) {
+        return (value.s() != null && value.s().isEmpty())
+                || (value.b() != null && value.b().asByteArrayUnsafe().length == 0);
+    }
+
+    /**
+     * Compares two scalar values.
+     *
+     * @param left  The left value.
+     * @param right The right value.
+     * @return A negative, zero or positive number as the left value is lower than, equal to or greater than the
+     * right value.
+     */
+    static int compare(AttributeValue left, AttributeValue right) {
+        ScalarAttributeType leftType = scalarType(left);
+        ScalarAttributeType rightType = scalarType(right);
+        if (leftType != rightType) {
+            return Integer.compare(rank(leftType), rank(rightType));
+        }
+        if (leftType == null) {
+            return 0;
+        }
+        return switch (leftType) {
+            case S -> Arrays.compareUnsigned(left.s().getBytes(StandardCharsets.UTF_8),
+                    right.s().getBytes(StandardCharsets.UTF_8));
+            case N -> new BigDecimal(left.n()).compareTo(new BigDecimal(right.n()));
+            default -> Arrays.compareUnsigned(left.b().asByteArrayUnsafe(), right.b().asByteArrayUnsafe());
+        };
+    }
+
+    /**
+     * @param value  The value.
+     * @param prefix The prefix.
+     * @return {@code true} if the string or binary value starts with the prefix.
+     */
+    static boolean beginsWith(AttributeValue value, AttributeValue prefix) {
+        if (value.s() != null && prefix.s() != null) {
+            return value.s().startsWith(prefix.s());
+        }
+        if (value.b() != null && prefix.b() != null) {
+            byte[] bytes = value.b().asByteArrayUnsafe();
+            byte[] start = prefix.b().asByteArrayUnsafe();
+            return bytes.length >= start.length
+                    && Arrays.equals(bytes, 0, start.length, start, 0, start.length);
+        }
+        return false;
+    }
+
+    /**
+     * Estimates the size of an item the way DynamoDB accounts for it.
+     *
+     * @param item The item attributes.
+     * @return The size in bytes.
+     */
+    static long size(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += utf8Length(attribute.getKey()) + size(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static long size(AttributeValue value) {
+        if (value.s() != null) {
+            return utf8Length(value.s());
+        }
+        if (value.n() != null) {
+            return numberLength(value.n());
+        }
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+        if (value.hasSs()) {
+            return value.ss().stream().mapToLong(AttributeValues::utf8Length).sum();
+        }
+        if (value.hasNs()) {
+            return value.ns().stream().mapToLong(AttributeValues::numberLength).sum();
+        }
+        if (value.hasBs()) {
+            return value.bs().stream().map(SdkBytes::asByteArrayUnsafe).mapToLong(bytes -> bytes.length).sum();
+        }
+        if (value.hasM()) {
+            return COLLECTION_OVERHEAD + value.m().size() * ELEMENT_OVERHEAD + size(value.m());
+        }
+        if (value.hasL()) {
+            return COLLECTION_OVERHEAD + value.l().stream().mapToLong(element -> ELEMENT_OVERHEAD + size(element)).sum();
+        }
+        // BOOL and NULL
+        return 1;
+    }
+
+    private static int rank(ScalarAttributeType type) {
+        return type == null ? -1 : type.ordinal();
+    }
+
+    private static long utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long numberLength(String number) {
+        long digits = number.chars().filter(Character::isDigit).count();
+        return (digits + 1) / 2 + 1;
+    }
+}
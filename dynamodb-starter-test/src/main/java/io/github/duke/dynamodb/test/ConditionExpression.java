@@ -0,0 +1,399 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@code ConditionExpression} or {@code FilterExpression}, evaluated against an item.
+ * <p>
+ * Supports the comparators {@code =}, {@code <>}, {@code <}, {@code <=}, {@code >}, {@code >=}, {@code BETWEEN}
+ * and {@code IN}, the functions {@code attribute_exists}, {@code attribute_not_exists}, {@code attribute_type},
+ * {@code begins_with}, {@code contains} and {@code size}, and {@code NOT}, {@code AND} and {@code OR} with their
+ * DynamoDB precedence and parentheses. Operands are document paths, with expression attribute names, and expression
+ * attribute values. As in DynamoDB, a comparison with a missing attribute is false, {@code <>} included.
+ */
+final class ConditionExpression {
+
+    private static final Set<String> FUNCTIONS =
+            Set.of("attribute_exists", "attribute_not_exists", "attribute_type", "begins_with", "contains");
+
+    private final Predicate<Map<String, AttributeValue>> condition;
+
+    private ConditionExpression(Predicate<Map<String, AttributeValue>> condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * Parses a condition or filter expression.
+     *
+     * @param expression The expression.
+     * @param names      The expression attribute names, may be {@code null}.
+     * @param values     The expression attribute values, may be {@code null}.
+     * @param parameter  The request parameter holding the expression, for the error messages.
+     * @return The condition.
+     * @throws software.amazon.awssdk.services.dynamodb.model.DynamoDbException A validation error if the expression
+     *                                                                         is invalid.
+     */
+    static ConditionExpression parse(String expression, Map<String, String> names, Map<String, AttributeValue> values,
+                                     String parameter) {
+        Parser parser = new Parser(tokenize(expression, parameter), names, values == null ? Map.of() : values,
+                parameter);
+        Predicate<Map<String, AttributeValue>> condition = parser.or();
+        if (!parser.isDone()) {
+            throw invalid(parameter, "Syntax error; token: \"" + parser.peek() + "\"");
+        }
+        return new ConditionExpression(condition);
+    }
+
+    /**
+     * @param item The item, {@code null} if it does not exist.
+     * @return {@code true} if the item satisfies the condition.
+     */
+    boolean matches(Map<String, AttributeValue> item) {
+        return condition.test(item == null ? Map.of() : item);
+    }
+
+    private static List<String> tokenize(String expression, String parameter) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',' || c == '=') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '<' || c == '>') {
+                char following = i + 1 < expression.length() ? expression.charAt(i + 1) : ' ';
+                boolean twoCharacters = following == '=' || (c == '<' && following == '>');
+                tokens.add(twoCharacters ? expression.substring(i, i + 2) : String.valueOf(c));
+                i += twoCharacters ? 2 : 1;
+            } else {
+                int start = i;
+                while (i < expression.length() && isWordCharacter(expression.charAt(i))) {
+                    i++;
+                }
+                if (start == i) {
+                    throw invalid(parameter, "Invalid character '" + c + "' in expression: " + expression);
+                }
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '#' || c == ':' || c == '-' || c == '.'
+                || c == '[' || c == ']';
+    }
+
+    private static RuntimeException invalid(String parameter, String message) {
+        return Errors.validation("Invalid " + parameter + ": " + message);
+    }
+
+    private static boolean equal(AttributeValue left, AttributeValue right) {
+        ScalarAttributeType type = AttributeValues.scalarType(left);
+        if (type != null && type == AttributeValues.scalarType(right)) {
+            return AttributeValues.compare(left, right) == 0;
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * @return The comparison of two values of the same scalar type, {@code null} if they cannot be ordered.
+     */
+    private static Integer order(AttributeValue left, AttributeValue right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        ScalarAttributeType type = AttributeValues.scalarType(left);
+        return type != null && type == AttributeValues.scalarType(right) ? AttributeValues.compare(left, right) : null;
+    }
+
+    private static boolean contains(AttributeValue value, AttributeValue operand) {
+        if (value.s() != null) {
+            return operand.s() != null && value.s().contains(operand.s());
+        }
+        if (value.b() != null) {
+            return operand.b() != null && indexOf(value.b().asByteArrayUnsafe(), operand.b().asByteArrayUnsafe()) >= 0;
+        }
+        if (value.hasSs()) {
+            return operand.s() != null && value.ss().contains(operand.s());
+        }
+        if (value.hasNs()) {
+            return operand.n() != null
+                    && value.ns().stream().anyMatch(n -> new BigDecimal(n).compareTo(new BigDecimal(operand.n())) == 0);
+        }
+        if (value.hasBs()) {
+            return operand.b() != null && value.bs().contains(operand.b());
+        }
+        return value.hasL() && value.l().stream().anyMatch(element -> equal(element, operand));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            int j = 0;
+            while (j < part.length && bytes[i + j] == part[j]) {
+                j++;
+            }
+            if (j == part.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The size of a value as the {@code size} function returns it, {@code null} for numbers and booleans.
+     */
+    private static AttributeValue size(AttributeValue value) {
+        Integer size = null;
+        if (value.s() != null) {
+            size = value.s().length();
+        } else if (value.b() != null) {
+            size = value.b().asByteArrayUnsafe().length;
+        } else if (value.hasSs()) {
+            size = value.ss().size();
+        } else if (value.hasNs()) {
+            size = value.ns().size();
+        } else if (value.hasBs()) {
+            size = value.bs().size();
+        } else if (value.hasL()) {
+            size = value.l().size();
+        } else if (value.hasM()) {
+            size = value.m().size();
+        }
+        return size == null ? null : AttributeValue.fromN(String.valueOf(size));
+    }
+
+    private static String typeOf(AttributeValue value) {
+        if (value.hasSs()) {
+            return "SS";
+        }
+        if (value.hasNs()) {
+            return "NS";
+        }
+        if (value.hasBs()) {
+            return "BS";
+        }
+        if (value.hasL()) {
+            return "L";
+        }
+        if (value.hasM()) {
+            return "M";
+        }
+        if (value.bool() != null) {
+            return "BOOL";
+        }
+        if (value.nul() != null) {
+            return "NULL";
+        }
+        ScalarAttributeType type = AttributeValues.scalarType(value);
+        return type == null ? null : type.toString();
+    }
+
+    /**
+     * A recursive descent parser of condition expressions, by increasing precedence: {@code OR}, {@code AND},
+     * {@code NOT}, then the comparisons and functions.
+     */
+    private static final class Parser {
+        private final List<String> tokens;
+        private final Map<String, String> names;
+        private final Map<String, AttributeValue> values;
+        private final String parameter;
+        private int position;
+
+        private Parser(List<String> tokens, Map<String, String> names, Map<String, AttributeValue> values,
+                       String parameter) {
+            this.tokens = tokens;
+            this.names = names;
+            this.values = values;
+            this.parameter = parameter;
+        }
+
+        private Predicate<Map<String, AttributeValue>> or() {
+            Predicate<Map<String, AttributeValue>> condition = and();
+            while (peek().equalsIgnoreCase("OR")) {
+                position++;
+                condition = condition.or(and());
+            }
+            return condition;
+        }
+
+        private Predicate<Map<String, AttributeValue>> and() {
+            Predicate<Map<String, AttributeValue>> condition = not();
+            while (peek().equalsIgnoreCase("AND")) {
+                position++;
+                condition = condition.and(not());
+            }
+            return condition;
+        }
+
+        private Predicate<Map<String, AttributeValue>> not() {
+            if (peek().equalsIgnoreCase("NOT")) {
+                position++;
+                return not().negate();
+            }
+            return comparison();
+        }
+
+        private Predicate<Map<String, AttributeValue>> comparison() {
+            if (peek().equals("(")) {
+                position++;
+                Predicate<Map<String, AttributeValue>> condition = or();
+                expect(")");
+                return condition;
+            }
+            if (FUNCTIONS.contains(peek())) {
+                return function(next());
+            }
+            Function<Map<String, AttributeValue>, AttributeValue> left = operand();
+            String operator = next();
+            if (operator.equalsIgnoreCase("BETWEEN")) {
+                Function<Map<String, AttributeValue>, AttributeValue> lower = operand();
+                if (!next().equalsIgnoreCase("AND")) {
+                    throw invalid(parameter, "BETWEEN requires AND");
+                }
+                Function<Map<String, AttributeValue>, AttributeValue> upper = operand();
+                return item -> {
+                    AttributeValue value = left.apply(item);
+                    Integer fromLower = order(value, lower.apply(item));
+                    Integer fromUpper = order(value, upper.apply(item));
+                    return fromLower != null && fromUpper != null && fromLower >= 0 && fromUpper <= 0;
+                };
+            }
+            if (operator.equalsIgnoreCase("IN")) {
+                expect("(");
+                List<Function<Map<String, AttributeValue>, AttributeValue>> candidates = new ArrayList<>();
+                candidates.add(operand());
+                while (peek().equals(",")) {
+                    position++;
+                    candidates.add(operand());
+                }
+                expect(")");
+                return item -> {
+                    AttributeValue value = left.apply(item);
+                    return value != null && candidates.stream()
+                            .map(candidate -> candidate.apply(item))
+                            .anyMatch(candidate -> candidate != null && equal(value, candidate));
+                };
+            }
+            Function<Map<String, AttributeValue>, AttributeValue> right = operand();
+            return switch (operator) {
+                case "=" -> item -> {
+                    AttributeValue value = left.apply(item);
+                    AttributeValue other = right.apply(item);
+                    return value != null && other != null && equal(value, other);
+                };
+                case "<>" -> item -> {
+                    AttributeValue value = left.apply(item);
+                    AttributeValue other = right.apply(item);
+                    return value != null && other != null && !equal(value, other);
+                };
+                case "<" -> ordered(left, right, comparison -> comparison < 0);
+                case "<=" -> ordered(left, right, comparison -> comparison <= 0);
+                case ">" -> ordered(left, right, comparison -> comparison > 0);
+                case ">=" -> ordered(left, right, comparison -> comparison >= 0);
+                default -> throw invalid(parameter, "Syntax error; token: \"" + operator + "\"");
+            };
+        }
+
+        private Predicate<Map<String, AttributeValue>> ordered(Function<Map<String, AttributeValue>, AttributeValue> left,
+                                                               Function<Map<String, AttributeValue>, AttributeValue> right,
+                                                               Predicate<Integer> accepted) {
+            return item -> {
+                Integer comparison = order(left.apply(item), right.apply(item));
+                return comparison != null && accepted.test(comparison);
+            };
+        }
+
+        private Predicate<Map<String, AttributeValue>> function(String name) {
+            expect("(");
+            DocumentPath path = path();
+            Predicate<Map<String, AttributeValue>> condition = switch (name) {
+                case "attribute_exists" -> item -> path.resolve(item) != null;
+                case "attribute_not_exists" -> item -> path.resolve(item) == null;
+                default -> {
+                    expect(",");
+                    Function<Map<String, AttributeValue>, AttributeValue> operand = operand();
+                    yield item -> {
+                        AttributeValue value = path.resolve(item);
+                        AttributeValue argument = operand.apply(item);
+                        if (value == null || argument == null) {
+                            return false;
+                        }
+                        return switch (name) {
+                            case "attribute_type" -> argument.s() != null && argument.s().equals(typeOf(value));
+                            case "begins_with" -> AttributeValues.beginsWith(value, argument);
+                            default -> contains(value, argument);
+                        };
+                    };
+                }
+            };
+            expect(")");
+            return condition;
+        }
+
+        private Function<Map<String, AttributeValue>, AttributeValue> operand() {
+            String token = peek();
+            if (token.startsWith(":")) {
+                position++;
+                AttributeValue value = values.get(token);
+                if (value == null) {
+                    throw Errors.validation("Invalid " + parameter + ": An expression attribute value used in "
+                            + "expression is not defined; attribute value: " + token);
+                }
+                return item -> value;
+            }
+            if (token.equals("size") && position + 1 < tokens.size() && tokens.get(position + 1).equals("(")) {
+                position += 2;
+                DocumentPath path = path();
+                expect(")");
+                return item -> {
+                    AttributeValue value = path.resolve(item);
+                    return value == null ? null : size(value);
+                };
+            }
+            DocumentPath path = path();
+            return path::resolve;
+        }
+
+        private DocumentPath path() {
+            String token = next();
+            if (token.equals("(") || token.equals(")") || token.equals(",")) {
+                throw invalid(parameter, "Syntax error; token: \"" + token + "\"");
+            }
+            return DocumentPath.parse(token, names, parameter);
+        }
+
+        private void expect(String token) {
+            String actual = next();
+            if (!actual.equals(token)) {
+                throw invalid(parameter, "Syntax error; expected \"" + token + "\" but got \"" + actual + "\"");
+            }
+        }
+
+        private String next() {
+            if (isDone()) {
+                throw invalid(parameter, "Syntax error; unexpected end of expression");
+            }
+            return tokens.get(position++);
+        }
+
+        private String peek() {
+            return isDone() ? "" : tokens.get(position);
+        }
+
+        private boolean isDone() {
+            return position >= tokens.size();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A document path of an expression: a top level attribute followed by map keys and list indexes, such as
+ * {@code #address.city} or {@code tags[0]}, with expression attribute names resolved.
+ *
+ * @param segments The attribute and map key names ({@link String}) and the list indexes ({@link Integer}).
+ */
+record DocumentPath(List<Object> segments) {
+
+    /**
+     * Parses a document path.
+     *
+     * @param text      The document path.
+     * @param names     The expression attribute names, may be {@code null}.
+     * @param parameter The request parameter holding the path, for the error messages.
+     * @return The document path.
+     * @throws software.amazon.awssdk.services.dynamodb.model.DynamoDbException A validation error if the path is
+     *                                                                         invalid.
+     */
+    static DocumentPath parse(String text, Map<String, String> names, String parameter) {
+        List<Object> segments = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                int end = text.indexOf(']', i);
+                if (segments.isEmpty() || end < 0) {
+                    throw invalid(parameter, text);
+                }
+                try {
+                    segments.add(Integer.parseInt(text.substring(i + 1, end)));
+                } catch (NumberFormatException e) {
+                    throw invalid(parameter, text);
+                }
+                i = end + 1;
+                continue;
+            }
+            if (c == '.') {
+                if (segments.isEmpty()) {
+                    throw invalid(parameter, text);
+                }
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && text.charAt(i) != '.' && text.charAt(i) != '[') {
+                i++;
+            }
+            String name = text.substring(start, i);
+            if (name.isEmpty() || name.startsWith(":")) {
+                throw invalid(parameter, text);
+            }
+            segments.add(name.startsWith("#") ? resolveName(name, names, parameter) : name);
+        }
+        if (segments.isEmpty()) {
+            throw invalid(parameter, text);
+        }
+        return new DocumentPath(List.copyOf(segments));
+    }
+
+    /**
+     * @return The top level attribute of the path.
+     */
+    String attributeName() {
+        return (String) segments.get(0);
+    }
+
+    /**
+     * @param item The item, may be {@code null}.
+     * @return The value at this path, or {@code null} if the item has none.
+     */
+    AttributeValue resolve(Map<String, AttributeValue> item) {
+        if (item == null) {
+            return null;
+        }
+        AttributeValue value = item.get(attributeName());
+        for (Object segment : segments.subList(1, segments.size())) {
+            if (value == null) {
+                return null;
+            }
+            if (segment instanceof Integer index) {
+                value = value.hasL() && index < value.l().size() ? value.l().get(index) : null;
+            } else {
+                value = value.hasM() ? value.m().get(segment) : null;
+            }
+        }
+        return value;
+    }
+
+    private static String resolveName(String placeholder, Map<String, String> names, String parameter) {
+        String name = names == null ? null : names.get(placeholder);
+        if (name == null) {
+            throw Errors.validation("Invalid " + parameter + ": An expression attribute name used in the document "
+                    + "path is not defined; attribute name: " + placeholder);
+        }
+        return name;
+    }
+
+    private static RuntimeException invalid(String parameter, String text) {
+        return Errors.validation("Invalid " + parameter + ": Syntax error; token: \"" + text + "\"");
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.util.Map;
+
+/**
+ * Builds the exceptions DynamoDB returns, with the same error codes, so callers handle them as in production.
+ */
+final class Errors {
+    private Errors() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    private static final int BAD_REQUEST = 400;
+    private static final String SERVICE_NAME = "DynamoDb";
+
+    /**
+     * @param message The error message.
+     * @return A {@code ValidationException}, which the SDK has no dedicated type for.
+     */
+    static DynamoDbException validation(String message) {
+        return (DynamoDbException) DynamoDbException.builder()
+                .message(message)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("ValidationException", message))
+                .build();
+    }
+
+    /**
+     * @param tableName The missing table.
+     * @return A {@link ResourceNotFoundException}.
+     */
+    static ResourceNotFoundException tableNotFound(String tableName) {
+        String message = "Requested resource not found: Table: " + tableName + " not found";
+        return (ResourceNotFoundException) ResourceNotFoundException.builder()
+                .message(message)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("ResourceNotFoundException", message))
+                .build();
+    }
+
+    /**
+     * @param message The error message.
+     * @return A {@link ResourceNotFoundException}.
+     */
+    static ResourceNotFoundException notFound(String message) {
+        return (ResourceNotFoundException) ResourceNotFoundException.builder()
+                .message(message)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("ResourceNotFoundException", message))
+                .build();
+    }
+
+    /**
+     * @param message The error message.
+     * @return A {@link ResourceInUseException}.
+     */
+    static ResourceInUseException inUse(String message) {
+        return (ResourceInUseException) ResourceInUseException.builder()
+                .message(message)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("ResourceInUseException", message))
+                .build();
+    }
+
+    /**
+     * @param message The error message.
+     * @return A {@link LimitExceededException}.
+     */
+    static LimitExceededException limitExceeded(String message) {
+        return (LimitExceededException) LimitExceededException.builder()
+                .message(message)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("LimitExceededException", message))
+                .build();
+    }
+
+    /**
+     * @param item The item which failed the condition, {@code null} unless the request asked for it.
+     * @return A {@link ConditionalCheckFailedException}.
+     */
+    static ConditionalCheckFailedException conditionalCheckFailed(Map<String, AttributeValue> item) {
+        String message = "The conditional request failed";
+        return (ConditionalCheckFailedException) ConditionalCheckFailedException.builder()
+                .message(message)
+                .item(item)
+                .statusCode(BAD_REQUEST)
+                .awsErrorDetails(details("ConditionalCheckFailedException", message))
+                .build();
+    }
+
+    private static AwsErrorDetails details(String errorCode, String message) {
+        return AwsErrorDetails.builder()
+                .errorCode(errorCode)
+                .errorMessage(message)
+                .serviceName(SERVICE_NAME)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbAsyncWaiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DynamoDbAsyncClient} over the tables of an {@link InMemoryDynamoDbClient}.
+ * <p>
+ * Requests run on the calling thread and return completed futures, failed with the exception the synchronous
+ * client throws, so synchronous and asynchronous callers of a test see the same tables.
+ */
+public class InMemoryDynamoDbAsyncClient implements DynamoDbAsyncClient {
+
+    private final InMemoryDynamoDbClient delegate;
+
+    /**
+     * Creates an asynchronous client with its own tables.
+     */
+    public InMemoryDynamoDbAsyncClient() {
+        this(new InMemoryDynamoDbClient());
+    }
+
+    /**
+     * @param delegate The synchronous client holding the tables.
+     */
+    public InMemoryDynamoDbAsyncClient(InMemoryDynamoDbClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return The synchronous client holding the tables.
+     */
+    public InMemoryDynamoDbClient getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release: the tables belong to the synchronous client.
+    }
+
+    @Override
+    public DynamoDbAsyncWaiter waiter() {
+        return DynamoDbAsyncWaiter.builder().client(this).build();
+    }
+
+    @Override
+    public CompletableFuture<CreateTableResponse> createTable(CreateTableRequest request) {
+        return call(() -> delegate.createTable(request));
+    }
+
+    @Override
+    public CompletableFuture<DescribeTableResponse> describeTable(DescribeTableRequest request) {
+        return call(() -> delegate.describeTable(request));
+    }
+
+    @Override
+    public CompletableFuture<ListTablesResponse> listTables(ListTablesRequest request) {
+        return call(() -> delegate.listTables(request));
+    }
+
+    @Override
+    public CompletableFuture<ListTablesResponse> listTables() {
+        return call(delegate::listTables);
+    }
+
+    @Override
+    public CompletableFuture<UpdateTableResponse> updateTable(UpdateTableRequest request) {
+        return call(() -> delegate.updateTable(request));
+    }
+
+    @Override
+    public CompletableFuture<DeleteTableResponse> deleteTable(DeleteTableRequest request) {
+        return call(() -> delegate.deleteTable(request));
+    }
+
+    @Override
+    public CompletableFuture<ListTagsOfResourceResponse> listTagsOfResource(ListTagsOfResourceRequest request) {
+        return call(() -> delegate.listTagsOfResource(request));
+    }
+
+    @Override
+    public CompletableFuture<TagResourceResponse> tagResource(TagResourceRequest request) {
+        return call(() -> delegate.tagResource(request));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+        return call(() -> delegate.putItem(request));
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        return call(() -> delegate.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<DeleteItemResponse> deleteItem(DeleteItemRequest request) {
+        return call(() -> delegate.deleteItem(request));
+    }
+
+    @Override
+    public CompletableFuture<QueryResponse> query(QueryRequest request) {
+        return call(() -> delegate.query(request));
+    }
+
+    @Override
+    public CompletableFuture<ScanResponse> scan(ScanRequest request) {
+        return call(() -> delegate.scan(request));
+    }
+
+    @Override
+    public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+        return call(() -> delegate.batchWriteItem(request));
+    }
+
+    @Override
+    public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+        return call(() -> delegate.batchGetItem(request));
+    }
+
+    private static <T> CompletableFuture<T> call(Supplier<T> request) {
+        try {
+            return CompletableFuture.completedFuture(request.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
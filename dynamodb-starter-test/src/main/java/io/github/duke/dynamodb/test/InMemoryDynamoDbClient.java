@@ -0,0 +1,418 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbWaiter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An in-process {@link DynamoDbClient} keeping tables in memory, for tests and local development.
+ * <p>
+ * Supports the table operations (create, describe, list, update, delete and tagging) and the item operations (put,
+ * get, delete, query, scan, batch write and batch get) over tables and their global and local secondary indexes.
+ * Requests are validated like DynamoDB does: key schemas, attribute definitions, key attribute types, index limits
+ * and batch sizes, with the same exception types and error codes. Tables and indexes are ACTIVE as soon as they
+ * are created, so waiters return immediately.
+ * <p>
+ * Condition expressions of puts and deletes are checked atomically with the write, filter expressions of queries
+ * and scans are applied to each page after its limit, and projection expressions support document paths. Update
+ * expressions are not supported: the operations not listed above fail with an {@link UnsupportedOperationException}.
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final int MAX_LIST_TABLES = 100;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_BATCH_GET = 100;
+    private static final double WRITE_UNIT_BYTES = 1024;
+    private static final double READ_UNIT_BYTES = 4096;
+
+    private final ConcurrentMap<String, InMemoryTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Deletes every table.
+     */
+    public void reset() {
+        tables.clear();
+    }
+
+    /**
+     * Deletes every item of every table, keeping the tables.
+     */
+    public void truncate() {
+        tables.values().forEach(InMemoryTable::truncate);
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+
+    @Override
+    public DynamoDbWaiter waiter() {
+        return DynamoDbWaiter.builder().client(this).build();
+    }
+
+    @Override
+    public CreateTableResponse createTable(CreateTableRequest request) {
+        InMemoryTable table = InMemoryTable.create(request);
+        if (tables.putIfAbsent(table.getTableName(), table) != null) {
+            throw Errors.inUse("Table already exists: " + table.getTableName());
+        }
+        return CreateTableResponse.builder().tableDescription(table.describe(TableStatus.ACTIVE)).build();
+    }
+
+    @Override
+    public DescribeTableResponse describeTable(DescribeTableRequest request) {
+        return DescribeTableResponse.builder().table(table(request.tableName()).describe(TableStatus.ACTIVE)).build();
+    }
+
+    @Override
+    public ListTablesResponse listTables(ListTablesRequest request) {
+        int limit = request.limit() == null ? MAX_LIST_TABLES : request.limit();
+        if (limit < 1 || limit > MAX_LIST_TABLES) {
+            throw Errors.validation("1 validation error detected: Value '" + limit + "' at 'limit' failed to satisfy "
+                    + "constraint: Member must have value less than or equal to " + MAX_LIST_TABLES);
+        }
+        NavigableSet<String> names = new TreeSet<>(tables.keySet());
+        if (request.exclusiveStartTableName() != null) {
+            names = names.tailSet(request.exclusiveStartTableName(), false);
+        }
+        List<String> page = names.stream().limit(limit).toList();
+        ListTablesResponse.Builder response = ListTablesResponse.builder().tableNames(page);
+        if (names.size() > limit) {
+            response.lastEvaluatedTableName(page.get(page.size() - 1));
+        }
+        return response.build();
+    }
+
+    @Override
+    public ListTablesResponse listTables() {
+        return listTables(ListTablesRequest.builder().build());
+    }
+
+    @Override
+    public UpdateTableResponse updateTable(UpdateTableRequest request) {
+        InMemoryTable table = table(request.tableName());
+        table.update(request);
+        return UpdateTableResponse.builder().tableDescription(table.describe(TableStatus.ACTIVE)).build();
+    }
+
+    @Override
+    public DeleteTableResponse deleteTable(DeleteTableRequest request) {
+        InMemoryTable table = tables.remove(request.tableName());
+        if (table == null) {
+            throw Errors.tableNotFound(request.tableName());
+        }
+        return DeleteTableResponse.builder().tableDescription(table.describe(TableStatus.DELETING)).build();
+    }
+
+    @Override
+    public ListTagsOfResourceResponse listTagsOfResource(ListTagsOfResourceRequest request) {
+        return ListTagsOfResourceResponse.builder().tags(tableOf(request.resourceArn()).tags()).build();
+    }
+
+    @Override
+    public TagResourceResponse tagResource(TagResourceRequest request) {
+        tableOf(request.resourceArn()).tag(request.tags());
+        return TagResourceResponse.builder().build();
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        InMemoryTable table = table(request.tableName());
+        ConditionExpression condition = condition(request.conditionExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues(), "ConditionExpression");
+        Map<String, AttributeValue> previous;
+        synchronized (table) {
+            table.validateItem(request.item());
+            check(condition, table.get(table.keyOf(request.item())), request.returnValuesOnConditionCheckFailure());
+            previous = table.put(request.item());
+        }
+        PutItemResponse.Builder response = PutItemResponse.builder();
+        if (request.returnValues() == ReturnValue.ALL_OLD && previous != null) {
+            response.attributes(previous);
+        }
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(capacity(table, writeUnits(request.item(), previous)));
+        }
+        return response.build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        InMemoryTable table = table(request.tableName());
+        Map<String, AttributeValue> item = table.get(request.key());
+        GetItemResponse.Builder response = GetItemResponse.builder();
+        if (item != null) {
+            response.item(Projections.apply(item, request.projectionExpression(),
+                    request.expressionAttributeNames(), request.attributesToGet()));
+        }
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            long size = item == null ? 0 : AttributeValues.size(item);
+            response.consumedCapacity(capacity(table, readUnits(size, Boolean.TRUE.equals(request.consistentRead()))));
+        }
+        return response.build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        InMemoryTable table = table(request.tableName());
+        ConditionExpression condition = condition(request.conditionExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues(), "ConditionExpression");
+        Map<String, AttributeValue> previous;
+        synchronized (table) {
+            check(condition, table.get(request.key()), request.returnValuesOnConditionCheckFailure());
+            previous = table.delete(request.key());
+        }
+        DeleteItemResponse.Builder response = DeleteItemResponse.builder();
+        if (request.returnValues() == ReturnValue.ALL_OLD && previous != null) {
+            response.attributes(previous);
+        }
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(capacity(table, writeUnits(previous, null)));
+        }
+        return response.build();
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        if (request.keyConditionExpression() == null) {
+            throw Errors.validation("Either the KeyConditions or KeyConditionExpression parameter must be specified "
+                    + "in the request.");
+        }
+        InMemoryTable table = table(request.tableName());
+        List<KeyCondition> conditions = KeyCondition.parse(request.keyConditionExpression(),
+                request.expressionAttributeNames(), request.expressionAttributeValues());
+        InMemoryTable.Page page = table.query(request.indexName(), conditions,
+                !Boolean.FALSE.equals(request.scanIndexForward()), startKey(request.exclusiveStartKey()),
+                request.limit());
+        List<Map<String, AttributeValue>> items = filter(page.items(), condition(request.filterExpression(),
+                request.expressionAttributeNames(), request.expressionAttributeValues(), "FilterExpression"));
+
+        QueryResponse.Builder response = QueryResponse.builder()
+                .count(items.size())
+                .scannedCount(page.scannedCount())
+                .lastEvaluatedKey(page.lastEvaluatedKey());
+        if (request.select() != Select.COUNT) {
+            response.items(items.stream()
+                    .map(item -> Projections.apply(item, request.projectionExpression(),
+                            request.expressionAttributeNames(), request.attributesToGet()))
+                    .toList());
+        }
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(capacity(table,
+                    readUnits(page.scannedBytes(), Boolean.TRUE.equals(request.consistentRead()))));
+        }
+        return response.build();
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        InMemoryTable table = table(request.tableName());
+        InMemoryTable.Page page = table.scan(request.indexName(), request.segment(), request.totalSegments(),
+                startKey(request.exclusiveStartKey()), request.limit());
+        List<Map<String, AttributeValue>> items = filter(page.items(), condition(request.filterExpression(),
+                request.expressionAttributeNames(), request.expressionAttributeValues(), "FilterExpression"));
+
+        ScanResponse.Builder response = ScanResponse.builder()
+                .count(items.size())
+                .scannedCount(page.scannedCount())
+                .lastEvaluatedKey(page.lastEvaluatedKey());
+        if (request.select() != Select.COUNT) {
+            response.items(items.stream()
+                    .map(item -> Projections.apply(item, request.projectionExpression(),
+                            request.expressionAttributeNames(), request.attributesToGet()))
+                    .toList());
+        }
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(capacity(table,
+                    readUnits(page.scannedBytes(), Boolean.TRUE.equals(request.consistentRead()))));
+        }
+        return response.build();
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        Map<String, List<WriteRequest>> requestItems = request.requestItems();
+        int count = requestItems.values().stream().mapToInt(List::size).sum();
+        if (count == 0 || count > MAX_BATCH_WRITE) {
+            throw Errors.validation("1 validation error detected: Value at 'requestItems' failed to satisfy "
+                    + "constraint: Map value must satisfy constraint: [Member must have length less than or equal to "
+                    + MAX_BATCH_WRITE + ", Member must have length greater than or equal to 1]");
+        }
+        // validate the whole batch before writing anything, as DynamoDB rejects it as a whole
+        Map<String, InMemoryTable> batchTables = new LinkedHashMap<>();
+        for (Map.Entry<String, List<WriteRequest>> entry : requestItems.entrySet()) {
+            InMemoryTable table = table(entry.getKey());
+            batchTables.put(entry.getKey(), table);
+            Set<Map<String, AttributeValue>> keys = new HashSet<>();
+            for (WriteRequest write : entry.getValue()) {
+                Map<String, AttributeValue> item;
+                if (write.putRequest() != null) {
+                    item = write.putRequest().item();
+                    table.validateItem(item);
+                } else {
+                    item = write.deleteRequest().key();
+                    table.validateKey(item);
+                }
+                if (!keys.add(table.keyOf(item))) {
+                    throw Errors.validation("Provided list of item keys contains duplicates");
+                }
+            }
+        }
+        Map<String, Double> units = new LinkedHashMap<>();
+        for (Map.Entry<String, List<WriteRequest>> entry : requestItems.entrySet()) {
+            InMemoryTable table = batchTables.get(entry.getKey());
+            for (WriteRequest write : entry.getValue()) {
+                double consumed;
+                if (write.putRequest() != null) {
+                    Map<String, AttributeValue> previous = table.put(write.putRequest().item());
+                    consumed = writeUnits(write.putRequest().item(), previous);
+                } else {
+                    consumed = writeUnits(table.delete(write.deleteRequest().key()), null);
+                }
+                units.merge(entry.getKey(), consumed, Double::sum);
+            }
+        }
+        BatchWriteItemResponse.Builder response = BatchWriteItemResponse.builder().unprocessedItems(Map.of());
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(units.entrySet().stream()
+                    .map(consumed -> capacity(batchTables.get(consumed.getKey()), consumed.getValue()))
+                    .toList());
+        }
+        return response.build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        Map<String, KeysAndAttributes> requestItems = request.requestItems();
+        int count = requestItems.values().stream().mapToInt(keys -> keys.keys().size()).sum();
+        if (count == 0 || count > MAX_BATCH_GET) {
+            throw Errors.validation("Too many items requested for the BatchGetItem call");
+        }
+        Map<String, List<Map<String, AttributeValue>>> responses = new LinkedHashMap<>();
+        List<ConsumedCapacity> consumedCapacity = new ArrayList<>();
+        for (Map.Entry<String, KeysAndAttributes> entry : requestItems.entrySet()) {
+            InMemoryTable table = table(entry.getKey());
+            KeysAndAttributes keys = entry.getValue();
+            if (new HashSet<>(keys.keys()).size() != keys.keys().size()) {
+                throw Errors.validation("Provided list of item keys contains duplicates");
+            }
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            double units = 0;
+            for (Map<String, AttributeValue> key : keys.keys()) {
+                Map<String, AttributeValue> item = table.get(key);
+                units += readUnits(item == null ? 0 : AttributeValues.size(item),
+                        Boolean.TRUE.equals(keys.consistentRead()));
+                if (item != null) {
+                    items.add(Projections.apply(item, keys.projectionExpression(), keys.expressionAttributeNames(),
+                            keys.attributesToGet()));
+                }
+            }
+            responses.put(entry.getKey(), items);
+            consumedCapacity.add(capacity(table, units));
+        }
+        BatchGetItemResponse.Builder response = BatchGetItemResponse.builder()
+                .responses(responses)
+                .unprocessedKeys(Map.of());
+        if (isCapacityRequested(request.returnConsumedCapacity())) {
+            response.consumedCapacity(consumedCapacity);
+        }
+        return response.build();
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return The table.
+     * @throws ResourceNotFoundException If the table does not exist.
+     */
+    private InMemoryTable table(String tableName) {
+        InMemoryTable table = tableName == null ? null : tables.get(tableName);
+        if (table == null) {
+            throw Errors.tableNotFound(tableName);
+        }
+        return table;
+    }
+
+    /**
+     * @param resourceArn The ARN of a table.
+     * @return The table.
+     * @throws ResourceNotFoundException If no table has this ARN.
+     */
+    private InMemoryTable tableOf(String resourceArn) {
+        return tables.values().stream()
+                .filter(table -> table.getTableArn().equals(resourceArn))
+                .findFirst()
+                .orElseThrow(() -> Errors.notFound("Requested resource not found: ResourceArn: " + resourceArn
+                        + " not found"));
+    }
+
+    private static Map<String, AttributeValue> startKey(Map<String, AttributeValue> exclusiveStartKey) {
+        // the SDK turns an unset map into an auto construct map, which stands for no start key
+        return exclusiveStartKey == null || exclusiveStartKey.isEmpty() ? null : exclusiveStartKey;
+    }
+
+    /**
+     * @return The parsed expression, or {@code null} if the request has none.
+     */
+    private static ConditionExpression condition(String expression, Map<String, String> names,
+                                                 Map<String, AttributeValue> values, String parameter) {
+        return expression == null ? null : ConditionExpression.parse(expression, names, values, parameter);
+    }
+
+    /**
+     * @param condition             The condition of a write, may be {@code null}.
+     * @param current               The item the write replaces or deletes, {@code null} if it does not exist.
+     * @param returnValuesOnFailure Whether the exception should carry the current item.
+     * @throws ConditionalCheckFailedException If the current item does not satisfy the condition.
+     */
+    private static void check(ConditionExpression condition, Map<String, AttributeValue> current,
+                              ReturnValuesOnConditionCheckFailure returnValuesOnFailure) {
+        if (condition != null && !condition.matches(current)) {
+            throw Errors.conditionalCheckFailed(
+                    returnValuesOnFailure == ReturnValuesOnConditionCheckFailure.ALL_OLD ? current : null);
+        }
+    }
+
+    private static List<Map<String, AttributeValue>> filter(List<Map<String, AttributeValue>> items,
+                                                            ConditionExpression filter) {
+        return filter == null ? items : items.stream().filter(filter::matches).toList();
+    }
+
+    private static boolean isCapacityRequested(ReturnConsumedCapacity returnConsumedCapacity) {
+        return returnConsumedCapacity != null && returnConsumedCapacity != ReturnConsumedCapacity.NONE;
+    }
+
+    /**
+     * A write consumes one unit per KB of the larger of the new and the replaced item.
+     */
+    private static double writeUnits(Map<String, AttributeValue> item, Map<String, AttributeValue> previous) {
+        long size = Math.max(item == null ? 0 : AttributeValues.size(item),
+                previous == null ? 0 : AttributeValues.size(previous));
+        return Math.max(1, Math.ceil(size / WRITE_UNIT_BYTES));
+    }
+
+    /**
+     * A strongly consistent read consumes one unit per 4 KB, an eventually consistent read half of it.
+     */
+    private static double readUnits(long size, boolean consistentRead) {
+        double units = Math.max(1, Math.ceil(size / READ_UNIT_BYTES));
+        return consistentRead ? units : units / 2;
+    }
+
+    private static ConsumedCapacity capacity(InMemoryTable table, double units) {
+        return ConsumedCapacity.builder()
+                .tableName(table.getTableName())
+                .capacityUnits(units)
+                .table(Capacity.builder().capacityUnits(units).build())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.duke.dynamodb.test;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+/**
+ * Configuration class replacing the DynamoDB clients of the application with in-memory ones.
+ * <p>
+ * Both clients are {@link Primary}, so they win over the clients of the application or of Spring Cloud AWS, and
+ * share the same tables. Having the {@code dynamodb-starter-test} module on the test classpath is enough to
+ * register this configuration in Spring Boot applications; other applications import it.
+ *
+ * @see InMemoryDynamoDbClient
+ */
+@Configuration
+public class InMemoryDynamoDbConfig {
+
+    /**
+     * @return The in-memory synchronous client.
+     */
+    @Bean
+    @Primary
+    public InMemoryDynamoDbClient inMemoryDynamoDbClient() {
+        return new InMemoryDynamoDbClient();
+    }
+
+    /**
+     * @param inMemoryDynamoDbClient The in-memory synchronous client holding the tables.
+     * @return The in-memory asynchronous client.
+     */
+    @Bean
+    @Primary
+    public DynamoDbAsyncClient inMemoryDynamoDbAsyncClient(InMemoryDynamoDbClient inMemoryDynamoDbClient) {
+        return new InMemoryDynamoDbAsyncClient(inMemoryDynamoDbClient);
+    }
+}
@@ -0,0 +1,753 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A single in-memory table with its secondary indexes.
+ * <p>
+ * Items are stored per partition key, each partition sorted by sort key, so queries on the table return items
+ * in sort key order without sorting. Queries and scans of secondary indexes go over every item of the table, which
+ * is fine for the data sets of tests. Indexes are ACTIVE as soon as they are created: there is no backfill.
+ * <p>
+ * Every operation is synchronized, so a table is safe to share between threads.
+ */
+final class InMemoryTable {
+
+    static final long MAX_ITEM_SIZE = 400 * 1024;
+    static final long MAX_PAGE_SIZE = 1024 * 1024;
+
+    private static final int MAX_GLOBAL_INDEXES = 20;
+    private static final int MAX_LOCAL_INDEXES = 5;
+    private static final int MAX_PROJECTED_ATTRIBUTES = 100;
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-zA-Z0-9_.-]{3,255}");
+
+    /**
+     * The key schema of a table or an index.
+     *
+     * @param hashKey  The partition key attribute.
+     * @param rangeKey The sort key attribute, {@code null} if none.
+     */
+    record KeyDefinition(String hashKey, String rangeKey) {
+
+        static KeyDefinition of(List<KeySchemaElement> keySchema, String owner) {
+            if (keySchema == null || keySchema.isEmpty() || keySchema.size() > 2) {
+                throw Errors.validation("1 validation error detected: Value '" + keySchema + "' at 'keySchema' of "
+                        + owner + " failed to satisfy constraint: Member must have length less than or equal to 2");
+            }
+            if (keySchema.get(0).keyType() != KeyType.HASH) {
+                throw Errors.validation("Invalid KeySchema: The first KeySchemaElement is not a HASH key type");
+            }
+            if (keySchema.size() == 1) {
+                return new KeyDefinition(keySchema.get(0).attributeName(), null);
+            }
+            if (keySchema.get(1).keyType() != KeyType.RANGE) {
+                throw Errors.validation("Invalid KeySchema: The second KeySchemaElement is not a RANGE key type");
+            }
+            if (keySchema.get(0).attributeName().equals(keySchema.get(1).attributeName())) {
+                throw Errors.validation("Both the Hash Key and the Range Key element in the KeySchema have the same name");
+            }
+            return new KeyDefinition(keySchema.get(0).attributeName(), keySchema.get(1).attributeName());
+        }
+
+        List<String> names() {
+            return rangeKey == null ? List.of(hashKey) : List.of(hashKey, rangeKey);
+        }
+
+        AttributeValue range(Map<String, AttributeValue> item) {
+            return rangeKey == null ? AttributeValues.NO_SORT_KEY : item.get(rangeKey);
+        }
+
+        List<KeySchemaElement> toKeySchema() {
+            List<KeySchemaElement> keySchema = new ArrayList<>();
+            keySchema.add(KeySchemaElement.builder().attributeName(hashKey).keyType(KeyType.HASH).build());
+            if (rangeKey != null) {
+                keySchema.add(KeySchemaElement.builder().attributeName(rangeKey).keyType(KeyType.RANGE).build());
+            }
+            return keySchema;
+        }
+    }
+
+    /**
+     * A secondary index.
+     */
+    private record Index(String name, KeyDefinition key, Projection projection, boolean local,
+                         ProvisionedThroughput provisionedThroughput, OnDemandThroughput onDemandThroughput) {
+    }
+
+    /**
+     * A page of query or scan results.
+     *
+     * @param items            The items of the page, projected.
+     * @param scannedCount     The number of items evaluated.
+     * @param scannedBytes     The size of the evaluated items.
+     * @param lastEvaluatedKey The key to continue from, {@code null} on the last page.
+     */
+    record Page(List<Map<String, AttributeValue>> items, int scannedCount, long scannedBytes,
+                Map<String, AttributeValue> lastEvaluatedKey) {
+    }
+
+    private final String tableName;
+    private final Instant creationDateTime = Instant.now();
+    private final KeyDefinition key;
+    private final Map<String, ScalarAttributeType> attributeTypes = new LinkedHashMap<>();
+    private final Map<String, Index> indexes = new LinkedHashMap<>();
+    private final Map<String, String> tags = new TreeMap<>();
+    private final NavigableMap<AttributeValue, NavigableMap<AttributeValue, Map<String, AttributeValue>>> partitions =
+            new TreeMap<>(AttributeValues.ORDER);
+    private BillingMode billingMode;
+    private ProvisionedThroughput provisionedThroughput;
+    private OnDemandThroughput onDemandThroughput;
+    private long itemCount;
+
+    private InMemoryTable(CreateTableRequest request) {
+        this.tableName = request.tableName();
+        this.key = KeyDefinition.of(request.keySchema(), "table");
+        this.billingMode = request.billingMode() == null ? BillingMode.PROVISIONED : request.billingMode();
+        this.provisionedThroughput = request.provisionedThroughput();
+        this.onDemandThroughput = request.onDemandThroughput();
+        request.tags().forEach(tag -> tags.put(tag.key(), tag.value()));
+    }
+
+    /**
+     * Validates a create table request the way DynamoDB does and creates the table.
+     *
+     * @param request The request.
+     * @return The table.
+     */
+    static InMemoryTable create(CreateTableRequest request) {
+        if (request.tableName() == null || !TABLE_NAME.matcher(request.tableName()).matches()) {
+            throw Errors.validation("1 validation error detected: Value '" + request.tableName() + "' at 'tableName' "
+                    + "failed to satisfy constraint: Member must satisfy regular expression pattern: [a-zA-Z0-9_.-]+");
+        }
+        InMemoryTable table = new InMemoryTable(request);
+        table.validateBilling(table.provisionedThroughput, "table");
+        for (AttributeDefinition definition : request.attributeDefinitions()) {
+            if (definition.attributeType() == null || definition.attributeType() == ScalarAttributeType.UNKNOWN_TO_SDK_VERSION) {
+                throw Errors.validation("1 validation error detected: Value '" + definition.attributeTypeAsString()
+                        + "' at 'attributeDefinitions.member.attributeType' failed to satisfy constraint: "
+                        + "Member must satisfy enum value set: [B, N, S]");
+            }
+            table.attributeTypes.put(definition.attributeName(), definition.attributeType());
+        }
+        if (request.globalSecondaryIndexes().size() > MAX_GLOBAL_INDEXES) {
+            throw Errors.validation("One or more parameter values were invalid: GlobalSecondaryIndex count exceeds the "
+                    + "per-table limit of " + MAX_GLOBAL_INDEXES);
+        }
+        if (request.localSecondaryIndexes().size() > MAX_LOCAL_INDEXES) {
+            throw Errors.validation("One or more parameter values were invalid: LocalSecondaryIndex count exceeds the "
+                    + "per-table limit of " + MAX_LOCAL_INDEXES);
+        }
+        for (LocalSecondaryIndex index : request.localSecondaryIndexes()) {
+            table.addIndex(index.indexName(), index.keySchema(), index.projection(), true, null, null);
+        }
+        for (GlobalSecondaryIndex index : request.globalSecondaryIndexes()) {
+            table.addIndex(index.indexName(), index.keySchema(), index.projection(), false,
+                    index.provisionedThroughput(), index.onDemandThroughput());
+        }
+        table.validateAttributeDefinitions();
+        table.validateProjectedAttributeCount();
+        return table;
+    }
+
+    /**
+     * @return The table name.
+     */
+    String getTableName() {
+        return tableName;
+    }
+
+    String getTableArn() {
+        return "arn:aws:dynamodb:local:000000000000:table/" + tableName;
+    }
+
+    /**
+     * @return The tags of the table, sorted by key.
+     */
+    synchronized List<Tag> tags() {
+        return tags.entrySet().stream()
+                .map(tag -> Tag.builder().key(tag.getKey()).value(tag.getValue()).build())
+                .toList();
+    }
+
+    /**
+     * Adds tags to the table, replacing the values of the existing keys.
+     *
+     * @param added The tags.
+     */
+    synchronized void tag(List<Tag> added) {
+        added.forEach(tag -> tags.put(tag.key(), tag.value()));
+    }
+
+    /**
+     * Stores an item, replacing the item with the same key.
+     *
+     * @param item The item.
+     * @return The replaced item, or {@code null}.
+     */
+    synchronized Map<String, AttributeValue> put(Map<String, AttributeValue> item) {
+        validateItem(item);
+        Map<String, AttributeValue> stored = Collections.unmodifiableMap(new LinkedHashMap<>(item));
+        Map<String, AttributeValue> previous = partitions
+                .computeIfAbsent(item.get(key.hashKey()), hash -> new TreeMap<>(AttributeValues.ORDER))
+                .put(key.range(item), stored);
+        if (previous == null) {
+            itemCount++;
+        }
+        return previous;
+    }
+
+    /**
+     * @param itemKey The primary key of the item.
+     * @return The item, or {@code null}.
+     */
+    synchronized Map<String, AttributeValue> get(Map<String, AttributeValue> itemKey) {
+        validateKey(itemKey);
+        NavigableMap<AttributeValue, Map<String, AttributeValue>> partition = partitions.get(itemKey.get(key.hashKey()));
+        return partition == null ? null : partition.get(key.range(itemKey));
+    }
+
+    /**
+     * @param itemKey The primary key of the item.
+     * @return The deleted item, or {@code null}.
+     */
+    synchronized Map<String, AttributeValue> delete(Map<String, AttributeValue> itemKey) {
+        validateKey(itemKey);
+        AttributeValue hash = itemKey.get(key.hashKey());
+        NavigableMap<AttributeValue, Map<String, AttributeValue>> partition = partitions.get(hash);
+        if (partition == null) {
+            return null;
+        }
+        Map<String, AttributeValue> previous = partition.remove(key.range(itemKey));
+        if (partition.isEmpty()) {
+            partitions.remove(hash);
+        }
+        if (previous != null) {
+            itemCount--;
+        }
+        return previous;
+    }
+
+    /**
+     * Deletes every item.
+     */
+    synchronized void truncate() {
+        partitions.clear();
+        itemCount = 0;
+    }
+
+    /**
+     * @return The number of items.
+     */
+    synchronized long itemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Queries the table or one of its indexes.
+     *
+     * @param indexName         The index, or {@code null} for the table.
+     * @param conditions        The key conditions.
+     * @param forward           Whether items are returned in ascending sort key order.
+     * @param exclusiveStartKey The key to continue from, or {@code null}.
+     * @param limit             The maximum number of items to evaluate, or {@code null}.
+     * @return The page of items.
+     */
+    synchronized Page query(String indexName, List<KeyCondition> conditions, boolean forward,
+                            Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+        Index index = index(indexName);
+        KeyDefinition view = index == null ? key : index.key();
+        KeyCondition hashCondition = null;
+        KeyCondition rangeCondition = null;
+        for (KeyCondition condition : conditions) {
+            if (condition.attributeName().equals(view.hashKey()) && hashCondition == null) {
+                if (condition.operator() != KeyCondition.Operator.EQ) {
+                    throw Errors.validation("Query key condition not supported");
+                }
+                hashCondition = condition;
+            } else if (condition.attributeName().equals(view.rangeKey()) && rangeCondition == null) {
+                rangeCondition = condition;
+            } else {
+                throw Errors.validation("Query condition missed key schema element: " + view.hashKey());
+            }
+        }
+        if (hashCondition == null) {
+            throw Errors.validation("Query condition missed key schema element: " + view.hashKey());
+        }
+        AttributeValue hash = hashCondition.operands().get(0);
+        KeyCondition partitionCondition = hashCondition;
+        KeyCondition sortCondition = rangeCondition;
+
+        List<Map<String, AttributeValue>> candidates = new ArrayList<>();
+        if (index == null) {
+            NavigableMap<AttributeValue, Map<String, AttributeValue>> partition = partitions.get(hash);
+            if (partition != null && AttributeValues.scalarType(hash) == attributeTypes.get(key.hashKey())) {
+                partition.values().stream()
+                        .filter(item -> sortCondition == null || sortCondition.matches(item.get(view.rangeKey())))
+                        .forEach(candidates::add);
+            }
+        } else {
+            items().stream()
+                    .filter(item -> isIndexed(item, view) && partitionCondition.matches(item.get(view.hashKey())))
+                    .filter(item -> sortCondition == null || sortCondition.matches(item.get(view.rangeKey())))
+                    .forEach(candidates::add);
+            candidates.sort(viewOrder(view));
+        }
+        if (!forward) {
+            Collections.reverse(candidates);
+        }
+        return page(candidates, index, view, forward, exclusiveStartKey, limit);
+    }
+
+    /**
+     * Scans the table or one of its indexes.
+     *
+     * @param indexName         The index, or {@code null} for the table.
+     * @param segment           The segment of a parallel scan, or {@code null}.
+     * @param totalSegments     The number of segments of a parallel scan, or {@code null}.
+     * @param exclusiveStartKey The key to continue from, or {@code null}.
+     * @param limit             The maximum number of items to evaluate, or {@code null}.
+     * @return The page of items.
+     */
+    synchronized Page scan(String indexName, Integer segment, Integer totalSegments,
+                           Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+        if ((segment == null) != (totalSegments == null)) {
+            throw Errors.validation("The TotalSegments parameter is required but was not present in the request "
+                    + "when parameter Segment is present");
+        }
+        if (segment != null && (totalSegments < 1 || segment < 0 || segment >= totalSegments)) {
+            throw Errors.validation("The Segment parameter must be greater than or equal to 0 and less than "
+                    + "TotalSegments; Segment: " + segment + ", TotalSegments: " + totalSegments);
+        }
+        Index index = index(indexName);
+        KeyDefinition view = index == null ? key : index.key();
+        List<Map<String, AttributeValue>> candidates = new ArrayList<>();
+        for (Map<String, AttributeValue> item : items()) {
+            if (isIndexed(item, view)
+                    && (segment == null || segmentOf(item.get(view.hashKey()), totalSegments) == segment)) {
+                candidates.add(item);
+            }
+        }
+        if (index != null) {
+            candidates.sort(viewOrder(view));
+        }
+        return page(candidates, index, view, true, exclusiveStartKey, limit);
+    }
+
+    /**
+     * Applies an update table request: billing mode, throughput, and global secondary index creations, updates
+     * and deletions.
+     *
+     * @param request The request.
+     */
+    synchronized void update(UpdateTableRequest request) {
+        if (request.billingMode() != null) {
+            billingMode = request.billingMode();
+            if (billingMode == BillingMode.PAY_PER_REQUEST) {
+                provisionedThroughput = null;
+            }
+        }
+        if (request.provisionedThroughput() != null) {
+            provisionedThroughput = request.provisionedThroughput();
+        }
+        if (request.onDemandThroughput() != null) {
+            onDemandThroughput = request.onDemandThroughput();
+        }
+        validateBilling(provisionedThroughput, "table");
+        request.attributeDefinitions().forEach(definition ->
+                attributeTypes.put(definition.attributeName(), definition.attributeType()));
+
+        long structuralUpdates = request.globalSecondaryIndexUpdates().stream()
+                .filter(update -> update.create() != null || update.delete() != null)
+                .count();
+        if (structuralUpdates > 1) {
+            throw Errors.limitExceeded("Subscriber limit exceeded: Only 1 online index can be created or deleted "
+                    + "simultaneously per table");
+        }
+        for (GlobalSecondaryIndexUpdate update : request.globalSecondaryIndexUpdates()) {
+            if (update.create() != null) {
+                CreateGlobalSecondaryIndexAction create = update.create();
+                if (indexes.containsKey(create.indexName())) {
+                    throw Errors.validation("One or more parameter values were invalid: Attempting to create an index "
+                            + "which already exists");
+                }
+                if (indexes.values().stream().filter(index -> !index.local()).count() >= MAX_GLOBAL_INDEXES) {
+                    throw Errors.limitExceeded("GlobalSecondaryIndex count exceeds the per-table limit of "
+                            + MAX_GLOBAL_INDEXES);
+                }
+                addIndex(create.indexName(), create.keySchema(), create.projection(), false,
+                        create.provisionedThroughput(), create.onDemandThroughput());
+            } else if (update.delete() != null) {
+                Index index = indexes.get(update.delete().indexName());
+                if (index == null || index.local()) {
+                    throw Errors.notFound("Requested resource not found: Index: " + update.delete().indexName()
+                            + " not found");
+                }
+                indexes.remove(index.name());
+                // like DynamoDB, drop the definitions of the attributes no key uses anymore
+                Set<String> keys = new HashSet<>(key.names());
+                indexes.values().forEach(remaining -> keys.addAll(remaining.key().names()));
+                attributeTypes.keySet().retainAll(keys);
+            } else if (update.update() != null) {
+                Index index = indexes.get(update.update().indexName());
+                if (index == null || index.local()) {
+                    throw Errors.notFound("Requested resource not found: Index: " + update.update().indexName()
+                            + " not found");
+                }
+                indexes.put(index.name(), new Index(index.name(), index.key(), index.projection(), false,
+                        Optional.ofNullable(update.update().provisionedThroughput()).orElse(index.provisionedThroughput()),
+                        Optional.ofNullable(update.update().onDemandThroughput()).orElse(index.onDemandThroughput())));
+            }
+        }
+        validateAttributeDefinitions();
+        validateProjectedAttributeCount();
+    }
+
+    /**
+     * @param status The status to report.
+     * @return The description of the table.
+     */
+    synchronized TableDescription describe(TableStatus status) {
+        List<Map<String, AttributeValue>> items = items();
+        TableDescription.Builder description = TableDescription.builder()
+                .tableName(tableName)
+                .tableArn(getTableArn())
+                .tableId(UUID.nameUUIDFromBytes(tableName.getBytes()).toString())
+                .tableStatus(status)
+                .creationDateTime(creationDateTime)
+                .keySchema(key.toKeySchema())
+                .attributeDefinitions(attributeTypes.entrySet().stream()
+                        .map(type -> AttributeDefinition.builder()
+                                .attributeName(type.getKey())
+                                .attributeType(type.getValue())
+                                .build())
+                        .toList())
+                .itemCount(itemCount)
+                .tableSizeBytes(items.stream().mapToLong(AttributeValues::size).sum())
+                .billingModeSummary(BillingModeSummary.builder().billingMode(billingMode).build())
+                .provisionedThroughput(throughputDescription(provisionedThroughput))
+                .onDemandThroughput(onDemandThroughput);
+
+        List<GlobalSecondaryIndexDescription> globalIndexes = new ArrayList<>();
+        List<LocalSecondaryIndexDescription> localIndexes = new ArrayList<>();
+        for (Index index : indexes.values()) {
+            List<Map<String, AttributeValue>> indexed = items.stream().filter(item -> isIndexed(item, index.key())).toList();
+            long indexSize = indexed.stream().mapToLong(AttributeValues::size).sum();
+            if (index.local()) {
+                localIndexes.add(LocalSecondaryIndexDescription.builder()
+                        .indexName(index.name())
+                        .keySchema(index.key().toKeySchema())
+                        .projection(index.projection())
+                        .itemCount((long) indexed.size())
+                        .indexSizeBytes(indexSize)
+                        .build());
+            } else {
+                globalIndexes.add(GlobalSecondaryIndexDescription.builder()
+                        .indexName(index.name())
+                        .indexArn("arn:aws:dynamodb:local:000000000000:table/" + tableName + "/index/" + index.name())
+                        .keySchema(index.key().toKeySchema())
+                        .projection(index.projection())
+                        .indexStatus(IndexStatus.ACTIVE)
+                        .backfilling(false)
+                        .itemCount((long) indexed.size())
+                        .indexSizeBytes(indexSize)
+                        .provisionedThroughput(throughputDescription(index.provisionedThroughput()))
+                        .onDemandThroughput(index.onDemandThroughput())
+                        .build());
+            }
+        }
+        if (!globalIndexes.isEmpty()) {
+            description.globalSecondaryIndexes(globalIndexes);
+        }
+        if (!localIndexes.isEmpty()) {
+            description.localSecondaryIndexes(localIndexes);
+        }
+        return description.build();
+    }
+
+    /**
+     * Validates an item to store: key attributes of the table and of the indexes, and size.
+     *
+     * @param item The item.
+     */
+    synchronized void validateItem(Map<String, AttributeValue> item) {
+        for (String attributeName : key.names()) {
+            AttributeValue value = item.get(attributeName);
+            if (value == null) {
+                throw Errors.validation("One or more parameter values were invalid: Missing the key "
+                        + attributeName + " in the item");
+            }
+            validateKeyValue(attributeName, value, null);
+        }
+        for (Index index : indexes.values()) {
+            for (String attributeName : index.key().names()) {
+                AttributeValue value = item.get(attributeName);
+                if (value != null) {
+                    validateKeyValue(attributeName, value, index.name());
+                }
+            }
+        }
+        if (AttributeValues.size(item) > MAX_ITEM_SIZE) {
+            throw Errors.validation("Item size has exceeded the maximum allowed size");
+        }
+    }
+
+    /**
+     * @param item An item or a key, validated.
+     * @return The primary key attributes of the item.
+     */
+    Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> itemKey = new HashMap<>();
+        key.names().forEach(name -> itemKey.put(name, item.get(name)));
+        return itemKey;
+    }
+
+    private void validateKeyValue(String attributeName, AttributeValue value, String indexName) {
+        ScalarAttributeType expected = attributeTypes.get(attributeName);
+        ScalarAttributeType actual = AttributeValues.scalarType(value);
+        if (actual != expected) {
+            throw Errors.validation("One or more parameter values were invalid: Type mismatch for "
+                    + (indexName == null ? "key " + attributeName : "Index Key " + attributeName)
+                    + " expected: " + expected + " actual: " + (actual == null ? value.type() : actual)
+                    + (indexName == null ? "" : " IndexName: " + indexName));
+        }
+        if (AttributeValues.isEmpty(value)) {
+            throw Errors.validation("One or more parameter values are not valid. The AttributeValue for a key "
+                    + "attribute cannot contain an empty " + (value.s() != null ? "string" : "binary")
+                    + " value." + (indexName == null ? " Key: " : " IndexName: " + indexName + ", IndexKey: ")
+                    + attributeName);
+        }
+    }
+
+    /**
+     * Validates a primary key: exactly the key attributes of the table, with their declared types.
+     *
+     * @param itemKey The key.
+     */
+    synchronized void validateKey(Map<String, AttributeValue> itemKey) {
+        if (itemKey == null || itemKey.size() != key.names().size()) {
+            throw Errors.validation("The provided key element does not match the schema");
+        }
+        for (String attributeName : key.names()) {
+            AttributeValue value = itemKey.get(attributeName);
+            if (value == null || AttributeValues.scalarType(value) != attributeTypes.get(attributeName)) {
+                throw Errors.validation("The provided key element does not match the schema");
+            }
+        }
+    }
+
+    private void addIndex(String indexName, List<KeySchemaElement> keySchema, Projection projection, boolean local,
+                          ProvisionedThroughput throughput, OnDemandThroughput onDemand) {
+        if (indexName == null || indexName.length() < 3) {
+            throw Errors.validation("1 validation error detected: Value '" + indexName + "' at 'indexName' failed to "
+                    + "satisfy constraint: Member must have length greater than or equal to 3");
+        }
+        if (indexes.containsKey(indexName)) {
+            throw Errors.validation("One or more parameter values were invalid: Duplicate index name: " + indexName);
+        }
+        KeyDefinition indexKey = KeyDefinition.of(keySchema, "index " + indexName);
+        if (local) {
+            if (key.rangeKey() == null) {
+                throw Errors.validation("One or more parameter values were invalid: Table KeySchema does not have a "
+                        + "range key, which is required when specifying a LocalSecondaryIndex");
+            }
+            if (!indexKey.hashKey().equals(key.hashKey()) || indexKey.rangeKey() == null) {
+                throw Errors.validation("One or more parameter values were invalid: Index KeySchema does not have the "
+                        + "same leading hash key as table KeySchema for index: " + indexName);
+            }
+        } else {
+            validateBilling(throughput, "index: " + indexName);
+        }
+        validateProjection(projection, indexName);
+        indexes.put(indexName, new Index(indexName, indexKey, projection, local, throughput, onDemand));
+    }
+
+    private void validateBilling(ProvisionedThroughput throughput, String owner) {
+        if (billingMode == BillingMode.PROVISIONED && (throughput == null
+                || throughput.readCapacityUnits() == null || throughput.writeCapacityUnits() == null)) {
+            throw Errors.validation("One or more parameter values were invalid: ReadCapacityUnits and "
+                    + "WriteCapacityUnits must both be specified when BillingMode is PROVISIONED, for " + owner);
+        }
+        if (billingMode == BillingMode.PAY_PER_REQUEST && throughput != null) {
+            throw Errors.validation("One or more parameter values were invalid: Neither ReadCapacityUnits nor "
+                    + "WriteCapacityUnits can be specified when BillingMode is PAY_PER_REQUEST, for " + owner);
+        }
+    }
+
+    private static void validateProjection(Projection projection, String indexName) {
+        if (projection == null || projection.projectionType() == null) {
+            throw Errors.validation("One or more parameter values were invalid: Projection must be specified for "
+                    + "index: " + indexName);
+        }
+        boolean include = projection.projectionType() == ProjectionType.INCLUDE;
+        if (include && !projection.hasNonKeyAttributes()) {
+            throw Errors.validation("One or more parameter values were invalid: NonKeyAttributes must be specified "
+                    + "when ProjectionType is INCLUDE, for index: " + indexName);
+        }
+        if (!include && projection.hasNonKeyAttributes()) {
+            throw Errors.validation("One or more parameter values were invalid: ProjectionType is "
+                    + projection.projectionType() + ", but NonKeyAttributes is specified, for index: " + indexName);
+        }
+    }
+
+    private void validateProjectedAttributeCount() {
+        long projected = indexes.values().stream()
+                .filter(index -> index.projection().hasNonKeyAttributes())
+                .flatMap(index -> index.projection().nonKeyAttributes().stream())
+                .distinct()
+                .count();
+        if (projected > MAX_PROJECTED_ATTRIBUTES) {
+            throw Errors.validation("One or more parameter values were invalid: Too many projected attributes: "
+                    + projected + ", the limit is " + MAX_PROJECTED_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * Checks that every key attribute is defined and every definition is a key attribute.
+     */
+    private void validateAttributeDefinitions() {
+        Set<String> keys = new LinkedHashSet<>(key.names());
+        indexes.values().forEach(index -> keys.addAll(index.key().names()));
+        Set<String> undefined = new LinkedHashSet<>(keys);
+        undefined.removeAll(attributeTypes.keySet());
+        if (!undefined.isEmpty()) {
+            throw Errors.validation("One or more parameter values were invalid: Some index key attributes are not "
+                    + "defined in AttributeDefinitions. Keys: " + undefined + ", AttributeDefinitions: "
+                    + attributeTypes.keySet());
+        }
+        if (!keys.containsAll(attributeTypes.keySet())) {
+            throw Errors.validation("One or more parameter values were invalid: Number of attributes in KeySchema "
+                    + "does not exactly match number of attributes defined in AttributeDefinitions");
+        }
+    }
+
+    private Index index(String indexName) {
+        if (indexName == null) {
+            return null;
+        }
+        Index index = indexes.get(indexName);
+        if (index == null) {
+            throw Errors.validation("The table does not have the specified index: " + indexName);
+        }
+        return index;
+    }
+
+    /**
+     * @return Every item, in primary key order.
+     */
+    private List<Map<String, AttributeValue>> items() {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        partitions.values().forEach(partition -> items.addAll(partition.values()));
+        return items;
+    }
+
+    private static boolean isIndexed(Map<String, AttributeValue> item, KeyDefinition view) {
+        return view.names().stream().allMatch(item::containsKey);
+    }
+
+    /**
+     * Pages through the candidates, in order, starting after the exclusive start key.
+     */
+    private Page page(List<Map<String, AttributeValue>> candidates, Index index, KeyDefinition view, boolean forward,
+                      Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw Errors.validation("1 validation error detected: Value '" + limit + "' at 'limit' failed to satisfy "
+                    + "constraint: Member must have value greater than or equal to 1");
+        }
+        Comparator<Map<String, AttributeValue>> order = viewOrder(view);
+        int start = 0;
+        if (exclusiveStartKey != null && !exclusiveStartKey.isEmpty()) {
+            List<String> startKeyNames = new ArrayList<>(key.names());
+            view.names().stream().filter(name -> !startKeyNames.contains(name)).forEach(startKeyNames::add);
+            if (!exclusiveStartKey.keySet().containsAll(startKeyNames)) {
+                throw Errors.validation("The provided starting key is invalid: The provided key element does not "
+                        + "match the schema");
+            }
+            while (start < candidates.size()) {
+                int comparison = order.compare(candidates.get(start), exclusiveStartKey);
+                if (forward ? comparison > 0 : comparison < 0) {
+                    break;
+                }
+                start++;
+            }
+        }
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        long scannedBytes = 0;
+        int position = start;
+        while (position < candidates.size() && (limit == null || items.size() < limit) && scannedBytes < MAX_PAGE_SIZE) {
+            Map<String, AttributeValue> item = candidates.get(position++);
+            scannedBytes += AttributeValues.size(item);
+            items.add(project(item, index));
+        }
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        if (position < candidates.size()) {
+            lastEvaluatedKey = new LinkedHashMap<>();
+            Map<String, AttributeValue> last = candidates.get(position - 1);
+            for (String name : key.names()) {
+                lastEvaluatedKey.put(name, last.get(name));
+            }
+            for (String name : view.names()) {
+                lastEvaluatedKey.put(name, last.get(name));
+            }
+        }
+        return new Page(items, items.size(), scannedBytes, lastEvaluatedKey);
+    }
+
+    /**
+     * Orders items by the key of the view, then by the primary key, as DynamoDB orders the items of an index.
+     */
+    private Comparator<Map<String, AttributeValue>> viewOrder(KeyDefinition view) {
+        Comparator<Map<String, AttributeValue>> order = Comparator
+                .comparing((Map<String, AttributeValue> item) -> item.get(view.hashKey()), AttributeValues.ORDER)
+                .thenComparing(view::range, AttributeValues.ORDER);
+        if (view == key) {
+            return order;
+        }
+        return order
+                .thenComparing(item -> item.get(key.hashKey()), AttributeValues.ORDER)
+                .thenComparing(key::range, AttributeValues.ORDER);
+    }
+
+    private Map<String, AttributeValue> project(Map<String, AttributeValue> item, Index index) {
+        if (index == null || index.projection().projectionType() == ProjectionType.ALL) {
+            return item;
+        }
+        Set<String> attributes = new HashSet<>(key.names());
+        attributes.addAll(index.key().names());
+        if (index.projection().projectionType() == ProjectionType.INCLUDE) {
+            attributes.addAll(index.projection().nonKeyAttributes());
+        }
+        Map<String, AttributeValue> projected = new LinkedHashMap<>();
+        item.forEach((name, value) -> {
+            if (attributes.contains(name)) {
+                projected.put(name, value);
+            }
+        });
+        return projected;
+    }
+
+    private static int segmentOf(AttributeValue hash, int totalSegments) {
+        String canonical = switch (Objects.requireNonNull(AttributeValues.scalarType(hash))) {
+            case N -> new BigDecimal(hash.n()).stripTrailingZeros().toPlainString();
+            case B -> Base64.getEncoder().encodeToString(hash.b().asByteArrayUnsafe());
+            default -> hash.s();
+        };
+        return Math.floorMod(canonical.hashCode(), totalSegments);
+    }
+
+    private static ProvisionedThroughputDescription throughputDescription(ProvisionedThroughput throughput) {
+        if (throughput == null) {
+            return ProvisionedThroughputDescription.builder().readCapacityUnits(0L).writeCapacityUnits(0L)
+                    .numberOfDecreasesToday(0L).build();
+        }
+        return ProvisionedThroughputDescription.builder()
+                .readCapacityUnits(throughput.readCapacityUnits())
+                .writeCapacityUnits(throughput.writeCapacityUnits())
+                .numberOfDecreasesToday(0L)
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A condition of a {@code KeyConditionExpression} on a single key attribute.
+ * <p>
+ * Supports the grammar of key conditions: {@code =}, {@code <}, {@code <=}, {@code >}, {@code >=},
+ * {@code BETWEEN ... AND ...} and {@code begins_with(...)}, joined with {@code AND} and optionally parenthesized,
+ * with expression attribute names and values.
+ *
+ * @param attributeName The key attribute name.
+ * @param operator      The comparison operator.
+ * @param operands      The compared values, two for {@code BETWEEN}, one otherwise.
+ */
+record KeyCondition(String attributeName, Operator operator, List<AttributeValue> operands) {
+
+    /**
+     * The comparison operators of key conditions.
+     */
+    enum Operator {
+        EQ, LT, LE, GT, GE, BETWEEN, BEGINS_WITH
+    }
+
+    /**
+     * @param value The value of the key attribute of an item.
+     * @return {@code true} if the value satisfies the condition.
+     */
+    boolean matches(AttributeValue value) {
+        if (value == null || AttributeValues.scalarType(value) != AttributeValues.scalarType(operands.get(0))) {
+            return false;
+        }
+        int comparison = AttributeValues.compare(value, operands.get(0));
+        return switch (operator) {
+            case EQ -> comparison == 0;
+            case LT -> comparison < 0;
+            case LE -> comparison <= 0;
+            case GT -> comparison > 0;
+            case GE -> comparison >= 0;
+            case BETWEEN -> comparison >= 0 && AttributeValues.compare(value, operands.get(1)) <= 0;
+            case BEGINS_WITH -> AttributeValues.beginsWith(value, operands.get(0));
+        };
+    }
+
+    /**
+     * Parses a key condition expression.
+     *
+     * @param expression The expression.
+     * @param names      The expression attribute names, may be {@code null}.
+     * @param values     The expression attribute values, may be {@code null}.
+     * @return The conditions joined with {@code AND}.
+     * @throws software.amazon.awssdk.services.dynamodb.model.DynamoDbException A validation error if the expression
+     *                                                                         is invalid.
+     */
+    static List<KeyCondition> parse(String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        Parser parser = new Parser(tokenize(expression), names == null ? Map.of() : names,
+                values == null ? Map.of() : values);
+        List<KeyCondition> conditions = parser.conditions();
+        if (!parser.isDone()) {
+            throw invalid("Syntax error; token: \"" + parser.peek() + "\"");
+        }
+        return conditions;
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',' || c == '=') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '<' || c == '>') {
+                boolean orEqual = i + 1 < expression.length() && expression.charAt(i + 1) == '=';
+                tokens.add(orEqual ? c + "=" : String.valueOf(c));
+                i += orEqual ? 2 : 1;
+            } else {
+                int start = i;
+                while (i < expression.length() && isWordCharacter(expression.charAt(i))) {
+                    i++;
+                }
+                if (start == i) {
+                    throw invalid("Invalid character '" + c + "' in expression: " + expression);
+                }
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '#' || c == ':' || c == '-' || c == '.';
+    }
+
+    private static RuntimeException invalid(String message) {
+        return Errors.validation("Invalid KeyConditionExpression: " + message);
+    }
+
+    /**
+     * A recursive descent parser of key condition expressions.
+     */
+    private static final class Parser {
+        private final List<String> tokens;
+        private final Map<String, String> names;
+        private final Map<String, AttributeValue> values;
+        private int position;
+
+        private Parser(List<String> tokens, Map<String, String> names, Map<String, AttributeValue> values) {
+            this.tokens = tokens;
+            this.names = names;
+            this.values = values;
+        }
+
+        private List<KeyCondition> conditions() {
+            List<KeyCondition> conditions = new ArrayList<>(condition());
+            while (!isDone() && peek().equalsIgnoreCase("AND")) {
+                position++;
+                conditions.addAll(condition());
+            }
+            return conditions;
+        }
+
+        private List<KeyCondition> condition() {
+            if (peek().equals("(")) {
+                position++;
+                List<KeyCondition> conditions = conditions();
+                expect(")");
+                return conditions;
+            }
+            if (peek().equals("begins_with")) {
+                position++;
+                expect("(");
+                String attributeName = name();
+                expect(",");
+                AttributeValue prefix = value();
+                expect(")");
+                return List.of(new KeyCondition(attributeName, Operator.BEGINS_WITH, List.of(prefix)));
+            }
+            String attributeName = name();
+            String operator = next();
+            if (operator.equalsIgnoreCase("BETWEEN")) {
+                AttributeValue lower = value();
+                if (!next().equalsIgnoreCase("AND")) {
+                    throw invalid("BETWEEN requires AND");
+                }
+                AttributeValue upper = value();
+                if (AttributeValues.compare(lower, upper) > 0) {
+                    throw invalid("The BETWEEN operator requires upper bound to be greater than or equal to lower bound");
+                }
+                return List.of(new KeyCondition(attributeName, Operator.BETWEEN, List.of(lower, upper)));
+            }
+            Operator comparison = switch (operator) {
+                case "=" -> Operator.EQ;
+                case "<" -> Operator.LT;
+                case "<=" -> Operator.LE;
+                case ">" -> Operator.GT;
+                case ">=" -> Operator.GE;
+                default -> throw invalid("Unsupported operator in key condition: " + operator);
+            };
+            return List.of(new KeyCondition(attributeName, comparison, List.of(value())));
+        }
+
+        private String name() {
+            String token = next();
+            if (token.startsWith("#")) {
+                String name = names.get(token);
+                if (name == null) {
+                    throw Errors.validation("Value provided in ExpressionAttributeNames unused in expressions or "
+                            + "an expression attribute name used in expression is not defined; attribute name: " + token);
+                }
+                return name;
+            }
+            if (token.startsWith(":") || token.equals("(") || token.equals(")") || token.equals(",")) {
+                throw invalid("Syntax error; token: \"" + token + "\"");
+            }
+            return token;
+        }
+
+        private AttributeValue value() {
+            String token = next();
+            AttributeValue value = values.get(token);
+            if (!token.startsWith(":") || value == null) {
+                throw Errors.validation("An expression attribute value used in expression is not defined; "
+                        + "attribute value: " + token);
+            }
+            if (AttributeValues.scalarType(value) == null) {
+                throw invalid("Key conditions only compare strings, numbers and binaries; value: " + token);
+            }
+            return value;
+        }
+
+        private void expect(String token) {
+            String actual = next();
+            if (!actual.equals(token)) {
+                throw invalid("Syntax error; expected \"" + token + "\" but got \"" + actual + "\"");
+            }
+        }
+
+        private String next() {
+            if (isDone()) {
+                throw invalid("Syntax error; unexpected end of expression");
+            }
+            return tokens.get(position++);
+        }
+
+        private String peek() {
+            return isDone() ? "" : tokens.get(position);
+        }
+
+        private boolean isDone() {
+            return position >= tokens.size();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.duke.dynamodb.test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies the {@code ProjectionExpression} or {@code AttributesToGet} of a read request to an item.
+ * <p>
+ * Projected document paths keep their enclosing maps and lists, and the projected elements of a list keep their
+ * order without the elements in between, as DynamoDB returns them.
+ */
+final class Projections {
+    private Projections() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    /**
+     * @param item                 The item.
+     * @param projectionExpression The projection expression, may be {@code null}.
+     * @param names                The expression attribute names, may be {@code null}.
+     * @param attributesToGet      The legacy attribute list, may be {@code null} or empty.
+     * @return The projected item, or the item itself when nothing is projected.
+     */
+    static Map<String, AttributeValue> apply(Map<String, AttributeValue> item, String projectionExpression,
+                                             Map<String, String> names, List<String> attributesToGet) {
+        List<DocumentPath> paths = new ArrayList<>();
+        if (projectionExpression != null) {
+            for (String token : projectionExpression.split(",")) {
+                paths.add(DocumentPath.parse(token.trim(), names, "ProjectionExpression"));
+            }
+        } else if (attributesToGet != null && !attributesToGet.isEmpty()) {
+            attributesToGet.forEach(attribute -> paths.add(new DocumentPath(List.of(attribute))));
+        } else {
+            return item;
+        }
+        // the projected values, under nested maps keyed by map key or list index
+        Map<Object, Object> projected = new LinkedHashMap<>();
+        for (DocumentPath path : paths) {
+            AttributeValue value = path.resolve(item);
+            if (value != null) {
+                project(projected, path.segments(), 0, value);
+            }
+        }
+        Map<String, AttributeValue> result = new LinkedHashMap<>();
+        projected.forEach((attribute, value) -> result.put((String) attribute, toValue(value)));
+        return result;
+    }
+
+    private static void project(Map<Object, Object> node, List<Object> segments, int position, AttributeValue value) {
+        Object segment = segments.get(position);
+        if (position == segments.size() - 1) {
+            node.put(segment, value);
+            return;
+        }
+        Object child = node.get(segment);
+        if (child instanceof AttributeValue) {
+            // the enclosing value is projected as a whole
+            return;
+        }
+        if (child == null) {
+            child = segments.get(position + 1) instanceof Integer ? new TreeMap<>() : new LinkedHashMap<>();
+            node.put(segment, child);
+        }
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> childNode = (Map<Object, Object>) child;
+        project(childNode, segments, position + 1, value);
+    }
+
+    private static AttributeValue toValue(Object projected) {
+        if (projected instanceof AttributeValue value) {
+            return value;
+        }
+        if (projected instanceof TreeMap<?, ?> elements) {
+            return AttributeValue.fromL(elements.values().stream().map(Projections::toValue).toList());
+        }
+        Map<String, AttributeValue> members = new LinkedHashMap<>();
+        ((Map<?, ?>) projected).forEach((name, value) -> members.put((String) name, toValue(value)));
+        return AttributeValue.fromM(members);
+    }
+}
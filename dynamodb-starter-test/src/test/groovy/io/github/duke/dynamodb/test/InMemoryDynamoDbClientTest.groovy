@@ -0,0 +1,373 @@
+package io.github.duke.dynamodb.test
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DeleteGlobalSecondaryIndexAction
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexUpdate
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.PutRequest
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest
+import software.amazon.awssdk.services.dynamodb.model.TableStatus
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+
+class InMemoryDynamoDbClientTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def setup() {
+        client.createTable(ordersTable())
+    }
+
+    def 'should create an active table with its indexes'() {
+        when:
+        def table = client.describeTable(DescribeTableRequest.builder().tableName("orders").build() as DescribeTableRequest).table()
+
+        then:
+        table.tableStatus() == TableStatus.ACTIVE
+        table.keySchema()*.attributeName() == ["customer", "placedAt"]
+        table.globalSecondaryIndexes()*.indexName() == ["byStatus"]
+        client.waiter().waitUntilTableExists(DescribeTableRequest.builder().tableName("orders").build() as DescribeTableRequest)
+                .matched().response().isPresent()
+    }
+
+    def 'should reject invalid table definitions'() {
+        when:
+        client.createTable(CreateTableRequest.builder()
+                .tableName("invalid")
+                .keySchema(key("id", KeyType.HASH))
+                .attributeDefinitions(attribute("id", ScalarAttributeType.S), attribute("unused", ScalarAttributeType.S))
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest)
+
+        then:
+        def e = thrown(DynamoDbException)
+        e.awsErrorDetails().errorCode() == "ValidationException"
+
+        when:
+        client.createTable(ordersTable())
+
+        then:
+        thrown(ResourceInUseException)
+    }
+
+    def 'should drop the attribute definitions of a deleted index'() {
+        when:
+        client.updateTable(UpdateTableRequest.builder()
+                .tableName("orders")
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                        .delete(DeleteGlobalSecondaryIndexAction.builder().indexName("byStatus").build())
+                        .build())
+                .build() as UpdateTableRequest)
+        def table = client.describeTable(DescribeTableRequest.builder().tableName("orders").build() as DescribeTableRequest).table()
+
+        then:
+        table.globalSecondaryIndexes().isEmpty()
+        table.attributeDefinitions()*.attributeName() == ["customer", "placedAt"]
+    }
+
+    def 'should validate the key attributes of items'() {
+        when:
+        put([customer: s("alice"), placedAt: s("not a number")])
+
+        then:
+        def e = thrown(DynamoDbException)
+        e.message.contains("Type mismatch for key placedAt")
+
+        when:
+        put([customer: s("alice")])
+
+        then:
+        e = thrown(DynamoDbException)
+        e.message.contains("Missing the key placedAt")
+
+        when:
+        client.getItem(GetItemRequest.builder().tableName("orders").key([customer: s("alice")]).build() as GetItemRequest)
+
+        then:
+        e = thrown(DynamoDbException)
+        e.message.contains("The provided key element does not match the schema")
+    }
+
+    def 'should query the sort keys of a partition in order'() {
+        given:
+        [10, 2, 33, 4].each { put([customer: s("alice"), placedAt: n(it), status: s("OPEN")]) }
+        put([customer: s("bob"), placedAt: n(1), status: s("OPEN")])
+
+        when:
+        def ascending = query("customer = :customer AND placedAt > :from", [":customer": s("alice"), ":from": n(3)], true)
+        def descending = query("customer = :customer", [":customer": s("alice")], false)
+
+        then:
+        ascending.items()*.get("placedAt")*.n() == ["4", "10", "33"]
+        descending.items()*.get("placedAt")*.n() == ["33", "10", "4", "2"]
+    }
+
+    def 'should query global secondary indexes with their projection'() {
+        given:
+        put([customer: s("alice"), placedAt: n(1), status: s("OPEN"), total: n(10)])
+        put([customer: s("bob"), placedAt: n(2), status: s("OPEN"), total: n(20)])
+        put([customer: s("carol"), placedAt: n(3), status: s("SHIPPED"), total: n(30)])
+
+        when:
+        def response = client.query(QueryRequest.builder()
+                .tableName("orders")
+                .indexName("byStatus")
+                .keyConditionExpression("#status = :status")
+                .expressionAttributeNames(["#status": "status"])
+                .expressionAttributeValues([":status": s("OPEN")])
+                .build() as QueryRequest)
+
+        then:
+        response.items()*.get("customer")*.s() == ["alice", "bob"]
+        response.items().every { !it.containsKey("total") }
+    }
+
+    def 'should page scans with the last evaluated key'() {
+        given:
+        (1..7).each { put([customer: s("customer" + it), placedAt: n(it)]) }
+
+        when:
+        def customers = []
+        Map<String, AttributeValue> startKey = null
+        def pages = 0
+        do {
+            def response = client.scan(ScanRequest.builder().tableName("orders").limit(3).exclusiveStartKey(startKey)
+                    .build() as ScanRequest)
+            customers.addAll(response.items()*.get("customer")*.s())
+            startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null
+            pages++
+        } while (startKey)
+
+        then:
+        pages == 3
+        customers.sort() == (1..7).collect { "customer" + it }
+    }
+
+    def 'should check the condition of puts and deletes against the current item'() {
+        when:
+        client.putItem(PutItemRequest.builder()
+                .tableName("orders")
+                .item([customer: s("alice"), placedAt: n(1), status: s("OPEN")])
+                .conditionExpression("attribute_not_exists(customer)")
+                .build() as PutItemRequest)
+        client.putItem(PutItemRequest.builder()
+                .tableName("orders")
+                .item([customer: s("alice"), placedAt: n(1), status: s("SHIPPED")])
+                .conditionExpression("attribute_not_exists(customer) OR #status = :open AND placedAt < :placedAt")
+                .expressionAttributeNames(["#status": "status"])
+                .expressionAttributeValues([":open": s("OPEN"), ":placedAt": n(2)])
+                .build() as PutItemRequest)
+
+        then:
+        get("alice", 1).status.s() == "SHIPPED"
+
+        when:
+        client.putItem(PutItemRequest.builder()
+                .tableName("orders")
+                .item([customer: s("alice"), placedAt: n(1), status: s("OPEN")])
+                .conditionExpression("attribute_not_exists(customer)")
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build() as PutItemRequest)
+
+        then:
+        def e = thrown(ConditionalCheckFailedException)
+        e.awsErrorDetails().errorCode() == "ConditionalCheckFailedException"
+        e.item().status.s() == "SHIPPED"
+
+        when:
+        client.deleteItem(DeleteItemRequest.builder()
+                .tableName("orders")
+                .key([customer: s("alice"), placedAt: n(1)])
+                .conditionExpression("#status <> :shipped")
+                .expressionAttributeNames(["#status": "status"])
+                .expressionAttributeValues([":shipped": s("SHIPPED")])
+                .build() as DeleteItemRequest)
+
+        then:
+        e = thrown(ConditionalCheckFailedException)
+        !e.hasItem()
+        get("alice", 1) != null
+
+        when:
+        client.deleteItem(DeleteItemRequest.builder()
+                .tableName("orders")
+                .key([customer: s("alice"), placedAt: n(1)])
+                .conditionExpression("#status = :undefined")
+                .expressionAttributeNames(["#status": "status"])
+                .build() as DeleteItemRequest)
+
+        then:
+        e = thrown(DynamoDbException)
+        e.awsErrorDetails().errorCode() == "ValidationException"
+    }
+
+    def 'should filter the scanned items of each page'() {
+        given:
+        (1..6).each { put([customer: s("customer" + it), placedAt: n(it), status: s(it % 2 ? "OPEN" : "SHIPPED")]) }
+
+        when:
+        def response = client.scan(ScanRequest.builder()
+                .tableName("orders")
+                .filterExpression("#status IN (:open) AND NOT placedAt BETWEEN :low AND :high")
+                .expressionAttributeNames(["#status": "status"])
+                .expressionAttributeValues([":open": s("OPEN"), ":low": n(2), ":high": n(4)])
+                .build() as ScanRequest)
+
+        then:
+        response.count() == 2
+        response.scannedCount() == 6
+        response.items()*.get("placedAt")*.n().sort() == ["1", "5"]
+
+        when:
+        def query = client.query(QueryRequest.builder()
+                .tableName("orders")
+                .keyConditionExpression("customer = :customer")
+                .filterExpression("begins_with(#status, :prefix)")
+                .expressionAttributeNames(["#status": "status"])
+                .expressionAttributeValues([":customer": s("customer2"), ":prefix": s("OP")])
+                .build() as QueryRequest)
+
+        then:
+        query.count() == 0
+        query.scannedCount() == 1
+    }
+
+    def 'should project document paths'() {
+        given:
+        put([customer: s("alice"), placedAt: n(1),
+             address : AttributeValue.fromM([city: s("Lyon"), zip: s("69001")]),
+             lines   : AttributeValue.fromL([s("a"), s("b"), s("c")])])
+
+        when:
+        def item = client.getItem(GetItemRequest.builder()
+                .tableName("orders")
+                .key([customer: s("alice"), placedAt: n(1)])
+                .projectionExpression("#address.city, lines[2], lines[0], missing.path")
+                .expressionAttributeNames(["#address": "address"])
+                .build() as GetItemRequest).item()
+
+        then:
+        item == [address: AttributeValue.fromM([city: s("Lyon")]), lines: AttributeValue.fromL([s("a"), s("c")])]
+    }
+
+    def 'should write and read batches'() {
+        given:
+        def writes = (1..25).collect {
+            WriteRequest.builder().putRequest(PutRequest.builder().item([customer: s("c" + it), placedAt: n(it)]).build()).build()
+        }
+
+        when:
+        def written = client.batchWriteItem(BatchWriteItemRequest.builder()
+                .requestItems(["orders": writes])
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build() as BatchWriteItemRequest)
+        def read = client.batchGetItem(BatchGetItemRequest.builder()
+                .requestItems(["orders": KeysAndAttributes.builder()
+                        .keys([[customer: s("c1"), placedAt: n(1)], [customer: s("c25"), placedAt: n(25)]])
+                        .build()])
+                .build() as BatchGetItemRequest)
+
+        then:
+        written.unprocessedItems().isEmpty()
+        written.consumedCapacity()[0].capacityUnits() == 25
+        read.responses()["orders"].size() == 2
+
+        when:
+        client.batchWriteItem(BatchWriteItemRequest.builder()
+                .requestItems(["orders": writes + writes[0..0]])
+                .build() as BatchWriteItemRequest)
+
+        then:
+        thrown(DynamoDbException)
+    }
+
+    def 'should share the tables with the async client'() {
+        given:
+        def asyncClient = new InMemoryDynamoDbAsyncClient(client)
+
+        when:
+        asyncClient.describeTable(DescribeTableRequest.builder().tableName("missing").build() as DescribeTableRequest).join()
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof ResourceNotFoundException
+        asyncClient.listTables().join().tableNames() == ["orders"]
+    }
+
+    private void put(Map<String, AttributeValue> item) {
+        client.putItem(PutItemRequest.builder().tableName("orders").item(item).build() as PutItemRequest)
+    }
+
+    private Map<String, AttributeValue> get(String customer, int placedAt) {
+        def response = client.getItem(GetItemRequest.builder()
+                .tableName("orders")
+                .key([customer: s(customer), placedAt: n(placedAt)])
+                .build() as GetItemRequest)
+        return response.hasItem() ? response.item() : null
+    }
+
+    private def query(String expression, Map<String, AttributeValue> values, boolean forward) {
+        return client.query(QueryRequest.builder()
+                .tableName("orders")
+                .keyConditionExpression(expression)
+                .expressionAttributeValues(values)
+                .scanIndexForward(forward)
+                .build() as QueryRequest)
+    }
+
+    private static CreateTableRequest ordersTable() {
+        return CreateTableRequest.builder()
+                .tableName("orders")
+                .keySchema(key("customer", KeyType.HASH), key("placedAt", KeyType.RANGE))
+                .attributeDefinitions(attribute("customer", ScalarAttributeType.S),
+                        attribute("placedAt", ScalarAttributeType.N), attribute("status", ScalarAttributeType.S))
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("byStatus")
+                        .keySchema(key("status", KeyType.HASH))
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest
+    }
+
+    private static KeySchemaElement key(String name, KeyType keyType) {
+        return KeySchemaElement.builder().attributeName(name).keyType(keyType).build()
+    }
+
+    private static AttributeDefinition attribute(String name, ScalarAttributeType type) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(type).build()
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.fromS(value)
+    }
+
+    private static AttributeValue n(int value) {
+        return AttributeValue.fromN(String.valueOf(value))
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.duke.dynamodb.annotation;
+
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares the attributes projected into a secondary index of an entity.
+ * <p>
+ * Indexes without a declared projection project {@link ProjectionType#ALL} attributes. Projecting only the
+ * keys, or the keys and a few attributes, keeps every table write from being copied in full into the index,
+ * which reduces the write capacity consumed and the storage of the index.
+ * <p>
+ * Constraints:
+ * - {@code nonKeyAttributes} must only be set with {@link ProjectionType#INCLUDE}, and is then required.
+ * - Non-key attributes are attribute names (as declared with {@code @DynamoDbAttribute}) of the entity,
+ * other than its table and index keys, and at most 100 distinct attributes are projected over all indexes.
+ * The projections are validated when the tables are resolved at startup.
+ * Example usage:
+ * <pre>
+ * {@code
+ * @DynamoDbBean
+ * @LocalDynamoSecondaryInfo(localIndexNames = "index1")
+ * @DynamoDbIndexProjection(indexName = "index1", type = ProjectionType.KEYS_ONLY)
+ * @DynamoDbIndexProjection(indexName = "email-index", type = ProjectionType.INCLUDE, nonKeyAttributes = "name")
+ * public class Example {
+ *     // ...
+ * }
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(DynamoDbIndexProjections.class)
+public @interface DynamoDbIndexProjection {
+    /**
+     * @return The global or local secondary index name.
+     */
+    String indexName();
+
+    /**
+     * @return The projection type.
+     */
+    ProjectionType type() default ProjectionType.ALL;
+
+    /**
+     * @return The projected non-key attribute names, only with {@link ProjectionType#INCLUDE}.
+     */
+    String[] nonKeyAttributes() default {};
+}
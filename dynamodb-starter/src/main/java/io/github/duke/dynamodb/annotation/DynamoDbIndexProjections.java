@@ -0,0 +1,15 @@
+package io.github.duke.dynamodb.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container of the repeatable {@link DynamoDbIndexProjection} annotation.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DynamoDbIndexProjections {
+    DynamoDbIndexProjection[] value();
+}
@@ -0,0 +1,44 @@
+package io.github.duke.dynamodb.annotation;
+
+import io.github.duke.dynamodb.cache.EvictionPolicy;
+
+import java.lang.annotation.*;
+
+/**
+ * Opts an entity into the read-through near cache of {@link io.github.duke.dynamodb.cache.EntityCache}.
+ * <p>
+ * Items are cached by primary key in each application instance, for at most {@code ttlSeconds}, and the cache holds
+ * at most {@code maxSize} items. Writes made through the {@code EntityCache} invalidate the cached item, writes made
+ * by other instances or other clients are only seen once the item expires, so the time to live bounds the staleness.
+ * Each value can be overridden per table with properties, e.g.
+ * {@code dynamodb.starter.cache.tables.<table name>.ttlSeconds}, and a table can be cached without the annotation
+ * with {@code dynamodb.starter.cache.tables.<table name>.enabled=true}.
+ * Example usage:
+ * <pre>
+ * {@code
+ * @DynamoDbBean
+ * @DynamoDbNearCache(maxSize = 5000, ttlSeconds = 30)
+ * public class Country {
+ *     // ...
+ * }
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DynamoDbNearCache {
+    /**
+     * @return The maximum number of cached items.
+     */
+    long maxSize() default 10_000;
+
+    /**
+     * @return The time to live of a cached item in seconds, non positive to keep items until they are evicted.
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * @return The item evicted when the cache is full.
+     */
+    EvictionPolicy eviction() default EvictionPolicy.LRU;
+}
@@ -0,0 +1,54 @@
+package io.github.duke.dynamodb.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares the throughput of the table of an entity, or of one of its global secondary indexes.
+ * <p>
+ * Capacity units apply when {@code dynamodb.starter.billing.mode=PROVISIONED}, maximum request units
+ * apply to on demand ({@code PAY_PER_REQUEST}) tables. Values left negative fall back to the global
+ * {@code dynamodb.starter.throughput.*} properties for tables, and to the table throughput for indexes.
+ * Each value can be overridden per table and per index with properties, e.g.
+ * {@code dynamodb.starter.throughput.tables.<table name>.readCapacity} or
+ * {@code dynamodb.starter.throughput.tables.<table name>.indexes.<index name>.maxWriteRequestUnits}.
+ * Example usage:
+ * <pre>
+ * {@code
+ * @DynamoDbBean
+ * @DynamoDbThroughput(readCapacity = 200, writeCapacity = 100)
+ * @DynamoDbThroughput(indexName = "customer-index", readCapacity = 50, writeCapacity = 100)
+ * public class Order {
+ *     // ...
+ * }
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(DynamoDbThroughputs.class)
+public @interface DynamoDbThroughput {
+    /**
+     * @return The global secondary index name, empty for the table itself.
+     */
+    String indexName() default "";
+
+    /**
+     * @return The provisioned read capacity units.
+     */
+    long readCapacity() default -1;
+
+    /**
+     * @return The provisioned write capacity units.
+     */
+    long writeCapacity() default -1;
+
+    /**
+     * @return The maximum on demand read request units.
+     */
+    long maxReadRequestUnits() default -1;
+
+    /**
+     * @return The maximum on demand write request units.
+     */
+    long maxWriteRequestUnits() default -1;
+}
@@ -0,0 +1,51 @@
+package io.github.duke.dynamodb.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Spreads the items of each partition key value of an entity over a fixed number of write shards.
+ * <p>
+ * A low cardinality partition key concentrates the traffic on a few partitions, each of them limited to
+ * 1,000 write and 3,000 read units per second. With N write shards, the stored partition key is the entity
+ * value suffixed with {@code #0} to {@code #N-1}, derived from the sort key value, so writes of a single
+ * logical partition are spread over N physical ones and an item can still be read back with its key.
+ * Sharded entities are read and written through {@link io.github.duke.dynamodb.sharding.ShardingEngine},
+ * which queries every shard in parallel and merges the results by sort key.
+ * <p>
+ * Constraints:
+ * - The annotation goes on the getter (or setter) of the {@code @DynamoDbPartitionKey}, which must be a string.
+ * - The table must have a sort key.
+ * - The shard count is fixed once items were written: the shard of an item is its sort key hash modulo the
+ * shard count, so any other count, higher or lower, looks the existing items up in other shards. It is recorded
+ * on the table as the {@code dynamodb-starter:writeShards} tag, and the startup fails when the entity declares
+ * another one.
+ * Example usage:
+ * <pre>
+ * {@code
+ * @DynamoDbBean
+ * public class Event {
+ *     private String type;
+ *     private String occurredAt;
+ *
+ *     @DynamoDbPartitionKey
+ *     @DynamoDbWriteShards(10)
+ *     public String getType() {
+ *         return type;
+ *     }
+ *
+ *     @DynamoDbSortKey
+ *     public String getOccurredAt() {
+ *         return occurredAt;
+ *     }
+ * }
+ * }
+ * </pre>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DynamoDbWriteShards {
+    /**
+     * @return The number of write shards of each partition key value, between 1 and 1000.
+     */
+    int value();
+}
@@ -0,0 +1,502 @@
+package io.github.duke.dynamodb.batch;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.exception.BatchOperationException;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.KeyAttribute;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import io.github.duke.dynamodb.sharding.ShardKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Writes and reads entities in bulk with {@code BatchWriteItem} and {@code BatchGetItem}.
+ * <p>
+ * Writes are chunked into requests of at most 25 items and 16 MB, reads into requests of at most 100 keys,
+ * using the key schema resolved by the {@link EntityKeyModelRegistry}. Up to {@code maxConcurrency} batches
+ * are in flight at the same time, through the {@link DynamoDbAsyncClient} when one is available or a bounded
+ * worker pool driving the blocking client otherwise. Unprocessed items and keys are sent again after an
+ * exponential backoff with full jitter, at most {@code maxAttempts} times per batch.
+ * <p>
+ * Every batch is logged at debug level with its size, attempts and duration, and every operation returns
+ * a {@link BatchResult} with its overall throughput.
+ * <p>
+ * Entities with write shards are stored with the same shard suffixed partition keys as the
+ * {@link io.github.duke.dynamodb.sharding.ShardingEngine} uses, so it reads back the items written here and the
+ * other way round.
+ */
+@Slf4j
+@Component
+public class BatchEngine implements DisposableBean {
+
+    static final int MAX_WRITE_ITEMS = 25;
+    static final int MAX_GET_KEYS = 100;
+    static final long MAX_REQUEST_BYTES = 16L * 1024 * 1024;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final EntityKeyModelRegistry entityKeyModelRegistry;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a BatchEngine with the necessary dependencies.
+     *
+     * @param dynamoDbClient         The blocking DynamoDB client, used when no async client is available.
+     * @param dynamoDbAsyncClient    Provider of the optional async DynamoDB client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param maxConcurrency         The maximum number of batches in flight.
+     * @param maxAttempts            The maximum number of attempts of a batch with unprocessed items.
+     * @param baseDelayMillis        The base delay of the exponential backoff.
+     * @param maxDelayMillis         The maximum delay of the exponential backoff.
+     */
+    @Autowired
+    public BatchEngine(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                       DefaultDynamoDbTableNameResolver tableNameResolver, EntityKeyModelRegistry entityKeyModelRegistry,
+                       TableSchemaRegistry tableSchemaRegistry,
+                       @Value("${dynamodb.starter.batch.maxConcurrency:8}") int maxConcurrency,
+                       @Value("${dynamodb.starter.batch.maxAttempts:10}") int maxAttempts,
+                       @Value("${dynamodb.starter.batch.baseDelayMillis:50}") long baseDelayMillis,
+                       @Value("${dynamodb.starter.batch.maxDelayMillis:5000}") long maxDelayMillis) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), tableNameResolver, entityKeyModelRegistry,
+                tableSchemaRegistry, maxConcurrency, maxAttempts, baseDelayMillis, maxDelayMillis);
+    }
+
+    /**
+     * Constructs a BatchEngine with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient         The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient    The async DynamoDB client, or {@code null} to use the blocking client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param maxConcurrency         The maximum number of batches in flight.
+     * @param maxAttempts            The maximum number of attempts of a batch with unprocessed items.
+     * @param baseDelayMillis        The base delay of the exponential backoff.
+     * @param maxDelayMillis         The maximum delay of the exponential backoff.
+     */
+    public BatchEngine(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                       DefaultDynamoDbTableNameResolver tableNameResolver, EntityKeyModelRegistry entityKeyModelRegistry,
+                       TableSchemaRegistry tableSchemaRegistry,
+                       int maxConcurrency, int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxConcurrency < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.batch.maxConcurrency and maxAttempts must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.tableNameResolver = tableNameResolver;
+        this.entityKeyModelRegistry = entityKeyModelRegistry;
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.executor = dynamoDbAsyncClient == null
+                ? Executors.newFixedThreadPool(maxConcurrency, BatchEngine::newWorkerThread)
+                : null;
+    }
+
+    private static Thread newWorkerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dynamodb-batch");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Puts every item into the table of the entity, replacing existing items with the same key.
+     *
+     * @param entity The entity class.
+     * @param items  The items to put.
+     * @param <T>    The entity type.
+     * @return The throughput of the operation.
+     * @throws BatchOperationException If a batch failed or still had unprocessed items after the last attempt.
+     */
+    public <T> BatchResult putAll(Class<T> entity, Iterable<T> items) {
+        TableSchema<T> tableSchema = tableSchema(entity);
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        return write(entity, items, item -> {
+            Map<String, AttributeValue> attributes =
+                    ShardKeys.toStoredItem(keyModel, tableSchema.itemToMap(item, true));
+            return WriteRequest.builder().putRequest(PutRequest.builder().item(attributes).build()).build();
+        });
+    }
+
+    /**
+     * Deletes the items with the keys of the given entities.
+     *
+     * @param entity The entity class.
+     * @param keys   Entities holding at least the key attributes of the items to delete.
+     * @param <T>    The entity type.
+     * @return The throughput of the operation.
+     * @throws BatchOperationException If a batch failed or still had unprocessed items after the last attempt.
+     */
+    public <T> BatchResult deleteAll(Class<T> entity, Iterable<T> keys) {
+        Function<T, Map<String, AttributeValue>> toKey = storedKey(entity);
+        return write(entity, keys, key -> WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(toKey.apply(key)).build())
+                .build());
+    }
+
+    /**
+     * Deletes the items with the given keys from a table, whatever entity it holds.
+     *
+     * @param tableName The table name.
+     * @param keys      The key attributes of the items to delete.
+     * @return The throughput of the operation.
+     * @throws BatchOperationException If a batch failed or still had unprocessed items after the last attempt.
+     */
+    public BatchResult deleteKeys(String tableName, Iterable<Map<String, AttributeValue>> keys) {
+        return write(tableName, keys, key -> WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(key).build())
+                .build(), Function.identity());
+    }
+
+    /**
+     * Reads the items with the keys of the given entities. Missing items are skipped.
+     *
+     * @param entity The entity class.
+     * @param keys   Entities holding at least the key attributes of the items to read.
+     * @param <T>    The entity type.
+     * @return The items found, in no particular order.
+     * @throws BatchOperationException If a batch failed or still had unprocessed keys after the last attempt.
+     */
+    public <T> List<T> getAll(Class<T> entity, Iterable<T> keys) {
+        Queue<T> items = new ConcurrentLinkedQueue<>();
+        getAll(entity, keys, items::add);
+        return new ArrayList<>(items);
+    }
+
+    /**
+     * Reads the items with the keys of the given entities and hands each of them to a consumer as soon as
+     * its batch returns, so large reads do not have to be held in memory.
+     *
+     * @param entity   The entity class.
+     * @param keys     Entities holding at least the key attributes of the items to read.
+     * @param consumer The consumer of the items found, called concurrently from the batch threads.
+     * @param <T>      The entity type.
+     * @return The throughput of the operation.
+     * @throws BatchOperationException If a batch failed or still had unprocessed keys after the last attempt.
+     */
+    public <T> BatchResult getAll(Class<T> entity, Iterable<T> keys, Consumer<? super T> consumer) {
+        TableSchema<T> tableSchema = tableSchema(entity);
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        Function<T, Map<String, AttributeValue>> toKey = storedKey(entity);
+        Function<Map<String, AttributeValue>, T> toEntity =
+                item -> tableSchema.mapToItem(ShardKeys.toEntityItem(keyModel, item));
+        String tableName = tableNameResolver.resolve(entity);
+        Pipeline pipeline = new Pipeline(tableName, true);
+
+        // a BatchGetItem request must not contain the same key twice
+        Set<Map<String, AttributeValue>> chunk = new LinkedHashSet<>();
+        for (T key : keys) {
+            if (pipeline.failed()) {
+                break;
+            }
+            chunk.add(toKey.apply(key));
+            if (chunk.size() == MAX_GET_KEYS) {
+                submitGet(pipeline, toEntity, chunk, consumer);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submitGet(pipeline, toEntity, chunk, consumer);
+        }
+        return pipeline.await();
+    }
+
+    private <T> BatchResult write(Class<T> entity, Iterable<T> items, Function<T, WriteRequest> toWriteRequest) {
+        return write(tableNameResolver.resolve(entity), items, toWriteRequest, storedKey(entity));
+    }
+
+    /**
+     * Maps an entity to the key of its stored item, suffixed with its shard when the entity has write shards.
+     */
+    private <T> Function<T, Map<String, AttributeValue>> storedKey(Class<T> entity) {
+        TableSchema<T> tableSchema = tableSchema(entity);
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        List<String> keyNames = keyNames(entity);
+        return item -> ShardKeys.toStoredItem(keyModel, tableSchema.itemToMap(item, keyNames));
+    }
+
+    private <T> BatchResult write(String tableName, Iterable<T> items, Function<T, WriteRequest> toWriteRequest,
+                                  Function<T, Map<String, AttributeValue>> toKey) {
+        Pipeline pipeline = new Pipeline(tableName, false);
+
+        List<WriteRequest> chunk = new ArrayList<>();
+        // a BatchWriteItem request must not contain the same key twice
+        Set<Map<String, AttributeValue>> chunkKeys = new HashSet<>();
+        long chunkBytes = 0;
+        for (T item : items) {
+            // stop reading the items once a batch failed, the operation fails anyway
+            if (pipeline.failed()) {
+                break;
+            }
+            WriteRequest writeRequest = toWriteRequest.apply(item);
+            Map<String, AttributeValue> key = toKey.apply(item);
+            long size = ItemSize.of(writeRequest.putRequest() != null ? writeRequest.putRequest().item() : key);
+            if (chunk.size() == MAX_WRITE_ITEMS || chunkBytes + size > MAX_REQUEST_BYTES || chunkKeys.contains(key)) {
+                submitWrite(pipeline, chunk, chunkBytes);
+                chunk = new ArrayList<>();
+                chunkKeys.clear();
+                chunkBytes = 0;
+            }
+            chunk.add(writeRequest);
+            chunkKeys.add(key);
+            chunkBytes += size;
+        }
+        if (!chunk.isEmpty()) {
+            submitWrite(pipeline, chunk, chunkBytes);
+        }
+        return pipeline.await();
+    }
+
+    private void submitWrite(Pipeline pipeline, List<WriteRequest> chunk, long bytes) {
+        pipeline.submit(chunk.size(), bytes, () -> writeBatch(pipeline, chunk, 1));
+    }
+
+    private <T> void submitGet(Pipeline pipeline, Function<Map<String, AttributeValue>, T> toEntity,
+                               Set<Map<String, AttributeValue>> chunk, Consumer<? super T> consumer) {
+        List<Map<String, AttributeValue>> keys = List.copyOf(chunk);
+        pipeline.submit(keys.size(), keys.stream().mapToLong(ItemSize::of).sum(),
+                () -> getBatch(pipeline, toEntity, keys, consumer, 1));
+    }
+
+    /**
+     * Sends a batch write and, after a backoff, its unprocessed items until none is left.
+     *
+     * @return A future completing with the number of attempts.
+     */
+    private CompletableFuture<Integer> writeBatch(Pipeline pipeline, List<WriteRequest> writeRequests, int attempt) {
+        String tableName = pipeline.tableName;
+        BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                .requestItems(Map.of(tableName, writeRequests))
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+        return send(() -> dynamoDbAsyncClient.batchWriteItem(request), () -> dynamoDbClient.batchWriteItem(request))
+                .thenCompose(response -> {
+                    pipeline.consumed(response.consumedCapacity());
+                    List<WriteRequest> unprocessed = response.unprocessedItems().getOrDefault(tableName, List.of());
+                    if (unprocessed.isEmpty()) {
+                        return CompletableFuture.completedFuture(attempt);
+                    }
+                    checkAttempts(tableName, unprocessed.size(), attempt);
+                    pipeline.retried(unprocessed.size());
+                    return backoff(attempt).thenCompose(ignored -> writeBatch(pipeline, unprocessed, attempt + 1));
+                });
+    }
+
+    /**
+     * Sends a batch get and, after a backoff, its unprocessed keys until none is left.
+     *
+     * @return A future completing with the number of attempts.
+     */
+    private <T> CompletableFuture<Integer> getBatch(Pipeline pipeline,
+                                                    Function<Map<String, AttributeValue>, T> toEntity,
+                                                    List<Map<String, AttributeValue>> keys,
+                                                    Consumer<? super T> consumer, int attempt) {
+        String tableName = pipeline.tableName;
+        BatchGetItemRequest request = BatchGetItemRequest.builder()
+                .requestItems(Map.of(tableName, KeysAndAttributes.builder().keys(keys).build()))
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+        return send(() -> dynamoDbAsyncClient.batchGetItem(request), () -> dynamoDbClient.batchGetItem(request))
+                .thenCompose(response -> {
+                    pipeline.consumed(response.consumedCapacity());
+                    List<Map<String, AttributeValue>> items = response.responses().getOrDefault(tableName, List.of());
+                    pipeline.read(items.size());
+                    items.forEach(item -> consumer.accept(toEntity.apply(item)));
+                    KeysAndAttributes unprocessed = response.unprocessedKeys().get(tableName);
+                    if (unprocessed == null || unprocessed.keys().isEmpty()) {
+                        return CompletableFuture.completedFuture(attempt);
+                    }
+                    checkAttempts(tableName, unprocessed.keys().size(), attempt);
+                    pipeline.retried(unprocessed.keys().size());
+                    return backoff(attempt).thenCompose(ignored ->
+                            getBatch(pipeline, toEntity, unprocessed.keys(), consumer, attempt + 1));
+                });
+    }
+
+    private void checkAttempts(String tableName, int unprocessed, int attempt) {
+        if (attempt >= maxAttempts) {
+            throw new CompletionException(new BatchOperationException(String.format(
+                    "%d item(s) of table %s are still unprocessed after %d attempts", unprocessed, tableName, attempt)));
+        }
+    }
+
+    private <R> CompletableFuture<R> send(Supplier<CompletableFuture<R>> async, Supplier<R> sync) {
+        return dynamoDbAsyncClient != null ? async.get() : CompletableFuture.supplyAsync(sync, executor);
+    }
+
+    /**
+     * Waits for an exponentially growing delay with full jitter: a random time between zero and
+     * {@code min(maxDelay, baseDelay * 2^attempt)}, which spreads the retries of concurrent batches.
+     *
+     * @param attempt The attempt which left unprocessed items.
+     * @return A future completing after the delay.
+     */
+    private CompletableFuture<Void> backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private <T> TableSchema<T> tableSchema(Class<T> entity) {
+        return tableSchemaRegistry.get(entity);
+    }
+
+    private List<String> keyNames(Class<?> entity) {
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        List<String> keyNames = new ArrayList<>();
+        keyNames.add(keyModel.getPartitionKey().attributeName());
+        keyModel.getSortKey().map(KeyAttribute::attributeName).ifPresent(keyNames::add);
+        return keyNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The batches of a single operation: bounds the batches in flight and aggregates their throughput.
+     */
+    private final class Pipeline {
+        private final String tableName;
+        private final boolean read;
+        private final Semaphore inFlight = new Semaphore(maxConcurrency);
+        private final long start = System.nanoTime();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder retriedItems = new LongAdder();
+        private final DoubleAdder consumedCapacity = new DoubleAdder();
+        private final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        /**
+         * @param tableName The table name.
+         * @param read      Whether the items are counted as they are returned rather than as they are sent.
+         */
+        private Pipeline(String tableName, boolean read) {
+            this.tableName = tableName;
+            this.read = read;
+        }
+
+        /**
+         * Sends a batch once a slot is free. Nothing is sent anymore once a batch failed.
+         */
+        private void submit(int size, long bytes, Supplier<CompletableFuture<Integer>> batch) {
+            if (failed()) {
+                return;
+            }
+            acquire(1);
+            // a batch may have failed while waiting for the slot
+            if (failed()) {
+                inFlight.release();
+                return;
+            }
+            long batchStart = System.nanoTime();
+            CompletableFuture<Integer> attempts;
+            try {
+                attempts = batch.get();
+            } catch (RuntimeException e) {
+                attempts = CompletableFuture.failedFuture(e);
+            }
+            attempts.whenComplete((count, error) -> {
+                if (error == null) {
+                    batches.increment();
+                    log.debug("Batch of {} item(s) ({} bytes) on table {} completed in {} ms after {} attempt(s).",
+                            size, bytes, tableName, Duration.ofNanos(System.nanoTime() - batchStart).toMillis(), count);
+                } else {
+                    failures.add(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+                inFlight.release();
+            });
+            if (!read) {
+                items.add(size);
+            }
+        }
+
+        /**
+         * @return {@code true} once a batch failed.
+         */
+        private boolean failed() {
+            return !failures.isEmpty();
+        }
+
+        private void read(int count) {
+            items.add(count);
+        }
+
+        private void retried(int count) {
+            retriedItems.add(count);
+        }
+
+        private void consumed(List<ConsumedCapacity> capacities) {
+            capacities.forEach(capacity -> {
+                if (capacity.capacityUnits() != null) {
+                    consumedCapacity.add(capacity.capacityUnits());
+                }
+            });
+        }
+
+        /**
+         * Waits for every batch in flight and reports the throughput of the operation.
+         */
+        private BatchResult await() {
+            acquire(maxConcurrency);
+            inFlight.release(maxConcurrency);
+            if (failed()) {
+                BatchOperationException exception = new BatchOperationException(
+                        "Batch operation on table " + tableName + " failed");
+                failures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+            BatchResult result = new BatchResult(tableName, items.sum(), batches.sum(), retriedItems.sum(),
+                    consumedCapacity.sum(), Duration.ofNanos(System.nanoTime() - start));
+            log.debug("{} item(s) in {} batch(es) on table {} in {} ms ({} items/s, {} retried, {} capacity units).",
+                    result.items(), result.batches(), tableName, result.elapsed().toMillis(),
+                    Math.round(result.itemsPerSecond()), result.retriedItems(), result.consumedCapacity());
+            return result;
+        }
+
+        private void acquire(int permits) {
+            try {
+                inFlight.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchOperationException("Interrupted while waiting for batches of table " + tableName, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.duke.dynamodb.batch;
+
+import java.time.Duration;
+
+/**
+ * The throughput of a {@link BatchEngine} operation.
+ *
+ * @param tableName        The table name.
+ * @param items            The number of items written, deleted or read.
+ * @param batches          The number of batches, not counting the retries of unprocessed items.
+ * @param retriedItems     The number of unprocessed items which had to be sent again.
+ * @param consumedCapacity The capacity units consumed by every request.
+ * @param elapsed          The wall-clock time of the operation.
+ */
+public record BatchResult(String tableName, long items, long batches, long retriedItems, double consumedCapacity,
+                          Duration elapsed) {
+
+    /**
+     * @return The number of items processed per second.
+     */
+    public double itemsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return items * 1000d / millis;
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.duke.dynamodb.batch;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Estimates the size of DynamoDB items the way DynamoDB accounts for them: attribute names and values,
+ * strings as UTF-8, numbers by their significant digits and a few bytes of overhead for collections.
+ * The estimate is used to keep batch requests under the 16 MB request limit.
+ */
+public class ItemSize {
+    private ItemSize() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    private static final int COLLECTION_OVERHEAD = 3;
+    private static final int ELEMENT_OVERHEAD = 1;
+
+    /**
+     * @param item The item attributes.
+     * @return The estimated size of the item in bytes.
+     */
+    public static long of(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += utf8Length(attribute.getKey()) + of(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static long of(AttributeValue value) {
+        if (value.s() != null) {
+            return utf8Length(value.s());
+        }
+        if (value.n() != null) {
+            return numberLength(value.n());
+        }
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+        if (value.hasSs()) {
+            return value.ss().stream().mapToLong(ItemSize::utf8Length).sum();
+        }
+        if (value.hasNs()) {
+            return value.ns().stream().mapToLong(ItemSize::numberLength).sum();
+        }
+        if (value.hasBs()) {
+            return value.bs().stream().map(SdkBytes::asByteArrayUnsafe).mapToLong(bytes -> bytes.length).sum();
+        }
+        if (value.hasM()) {
+            return COLLECTION_OVERHEAD + value.m().size() * ELEMENT_OVERHEAD + of(value.m());
+        }
+        if (value.hasL()) {
+            return COLLECTION_OVERHEAD + value.l().stream().mapToLong(element -> ELEMENT_OVERHEAD + of(element)).sum();
+        }
+        // BOOL and NULL
+        return 1;
+    }
+
+    private static long utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long numberLength(String number) {
+        // numbers are stored as up to 38 significant digits, two per byte, plus one byte
+        long digits = number.chars().filter(Character::isDigit).count();
+        return (digits + 1) / 2 + 1;
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.duke.dynamodb.cache;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.annotation.DynamoDbNearCache;
+import io.github.duke.dynamodb.metrics.CacheMetrics;
+import io.github.duke.dynamodb.metrics.CacheStats;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.KeyAttribute;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reads entities by primary key through a per entity near cache, and writes them invalidating the cache.
+ * <p>
+ * Only the entities annotated with {@link DynamoDbNearCache}, or enabled with the
+ * {@code dynamodb.starter.cache.tables.<table name>.enabled} property, are cached; the other entities are read
+ * and written straight through. The cache of an entity is created on first use, keyed by the primary key
+ * attributes resolved by the {@link EntityKeyModelRegistry}, and holds the stored attribute values rather than
+ * entity instances, so callers mutating the returned entities cannot corrupt the cache. Items absent from the table
+ * are not cached. The reads filling a cache are strongly consistent, so a cached item never predates a write
+ * acknowledged before the read.
+ * <p>
+ * The statistics of each cache are exposed with {@link #stats(Class)} and published through {@link CacheMetrics}.
+ */
+@Slf4j
+@Component
+public class EntityCache {
+
+    private static final String TABLE_PROPERTY_PREFIX = "dynamodb.starter.cache.tables.";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final EntityKeyModelRegistry entityKeyModelRegistry;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final PropertyResolver propertyResolver;
+    private final CacheMetrics cacheMetrics;
+    private final LongSupplier clock;
+    private final Map<Class<?>, Optional<NearCache<Map<String, AttributeValue>, Map<String, AttributeValue>>>> caches =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an EntityCache with the necessary dependencies.
+     *
+     * @param dynamoDbClient         The DynamoDB client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param propertyResolver       The resolver of the per table cache properties, usually the environment.
+     * @param cacheMetrics           The publisher of the cache statistics.
+     */
+    @Autowired
+    public EntityCache(DynamoDbClient dynamoDbClient, DefaultDynamoDbTableNameResolver tableNameResolver,
+                       EntityKeyModelRegistry entityKeyModelRegistry, TableSchemaRegistry tableSchemaRegistry,
+                       PropertyResolver propertyResolver, CacheMetrics cacheMetrics) {
+        this(dynamoDbClient, tableNameResolver, entityKeyModelRegistry, tableSchemaRegistry, propertyResolver,
+                cacheMetrics, System::nanoTime);
+    }
+
+    /**
+     * Constructs an EntityCache with an explicit clock.
+     *
+     * @param dynamoDbClient         The DynamoDB client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param propertyResolver       The resolver of the per table cache properties.
+     * @param cacheMetrics           The publisher of the cache statistics.
+     * @param clock                  The clock of the time to live, in nanoseconds.
+     */
+    public EntityCache(DynamoDbClient dynamoDbClient, DefaultDynamoDbTableNameResolver tableNameResolver,
+                       EntityKeyModelRegistry entityKeyModelRegistry, TableSchemaRegistry tableSchemaRegistry,
+                       PropertyResolver propertyResolver, CacheMetrics cacheMetrics, LongSupplier clock) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableNameResolver = tableNameResolver;
+        this.entityKeyModelRegistry = entityKeyModelRegistry;
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.propertyResolver = propertyResolver;
+        this.cacheMetrics = cacheMetrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads an item by primary key, from the cache when present.
+     *
+     * @param entity The entity class.
+     * @param key    An entity holding at least the key attributes of the item.
+     * @param <T>    The entity type.
+     * @return The item, or empty if it does not exist.
+     */
+    public <T> Optional<T> get(Class<T> entity, T key) {
+        TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+        Map<String, AttributeValue> primaryKey = primaryKey(entity, key);
+        Optional<NearCache<Map<String, AttributeValue>, Map<String, AttributeValue>>> cache = cache(entity);
+        Map<String, AttributeValue> item = cache.map(c -> c.get(primaryKey)).orElse(null);
+        if (item == null) {
+            long stamp = cache.map(NearCache::stamp).orElse(0L);
+            GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(tableNameResolver.resolve(entity))
+                    .key(primaryKey)
+                    // an eventually consistent read would keep a stale item for the whole time to live
+                    .consistentRead(cache.isPresent())
+                    .build());
+            if (!response.hasItem() || response.item().isEmpty()) {
+                return Optional.empty();
+            }
+            item = response.item();
+            Map<String, AttributeValue> loaded = item;
+            cache.ifPresent(c -> c.put(primaryKey, loaded, stamp));
+        }
+        return Optional.of(tableSchema.mapToItem(item));
+    }
+
+    /**
+     * Puts an item into the table, replacing an existing item with the same key, and invalidates its cached copy.
+     *
+     * @param entity The entity class.
+     * @param item   The item to put.
+     * @param <T>    The entity type.
+     */
+    public <T> void put(Class<T> entity, T item) {
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableNameResolver.resolve(entity))
+                    .item(tableSchemaRegistry.get(entity).itemToMap(item, true))
+                    .build());
+        } finally {
+            // a failed write may still have been applied
+            invalidate(entity, item);
+        }
+    }
+
+    /**
+     * Deletes an item from the table and invalidates its cached copy.
+     *
+     * @param entity The entity class.
+     * @param key    An entity holding at least the key attributes of the item.
+     * @param <T>    The entity type.
+     */
+    public <T> void delete(Class<T> entity, T key) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(tableNameResolver.resolve(entity))
+                    .key(primaryKey(entity, key))
+                    .build());
+        } finally {
+            invalidate(entity, key);
+        }
+    }
+
+    /**
+     * Drops the cached copy of an item, e.g. after it was written by another client.
+     *
+     * @param entity The entity class.
+     * @param key    An entity holding at least the key attributes of the item.
+     * @param <T>    The entity type.
+     */
+    public <T> void invalidate(Class<T> entity, T key) {
+        cache(entity).ifPresent(c -> c.invalidate(primaryKey(entity, key)));
+    }
+
+    /**
+     * Drops every cached item of an entity.
+     *
+     * @param entity The entity class.
+     */
+    public void invalidateAll(Class<?> entity) {
+        cache(entity).ifPresent(NearCache::invalidateAll);
+    }
+
+    /**
+     * @param entity The entity class.
+     * @return The statistics of the cache of the entity, or empty if the entity is not cached.
+     */
+    public Optional<CacheStats> stats(Class<?> entity) {
+        return cache(entity).map(NearCache::stats);
+    }
+
+    private <T> Map<String, AttributeValue> primaryKey(Class<T> entity, T key) {
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        List<String> keyNames = new ArrayList<>();
+        keyNames.add(keyModel.getPartitionKey().attributeName());
+        keyModel.getSortKey().map(KeyAttribute::attributeName).ifPresent(keyNames::add);
+        return tableSchemaRegistry.get(entity).itemToMap(key, keyNames);
+    }
+
+    private Optional<NearCache<Map<String, AttributeValue>, Map<String, AttributeValue>>> cache(Class<?> entity) {
+        return caches.computeIfAbsent(entity, this::createCache);
+    }
+
+    /**
+     * Creates the cache of an entity from its {@link DynamoDbNearCache} and the per table properties.
+     *
+     * @return The cache, or empty if the entity is not cached.
+     * @throws IllegalArgumentException If the entity has write shards, as its stored keys differ from its entity keys.
+     */
+    private Optional<NearCache<Map<String, AttributeValue>, Map<String, AttributeValue>>> createCache(Class<?> entity) {
+        String tableName = tableNameResolver.resolve(entity);
+        String prefix = TABLE_PROPERTY_PREFIX + tableName + ".";
+        DynamoDbNearCache annotation = entity.getAnnotation(DynamoDbNearCache.class);
+        if (!propertyResolver.getProperty(prefix + "enabled", Boolean.class, annotation != null)) {
+            return Optional.empty();
+        }
+        if (entityKeyModelRegistry.get(entity).isWriteSharded()) {
+            throw new IllegalArgumentException(entity.getName() + " has write shards, read it with the ShardingEngine");
+        }
+        long maxSize = propertyResolver.getProperty(prefix + "maxSize", Long.class,
+                annotation == null ? 10_000 : annotation.maxSize());
+        long ttlSeconds = propertyResolver.getProperty(prefix + "ttlSeconds", Long.class,
+                annotation == null ? 60 : annotation.ttlSeconds());
+        EvictionPolicy eviction = propertyResolver.getProperty(prefix + "eviction", EvictionPolicy.class,
+                annotation == null ? EvictionPolicy.LRU : annotation.eviction());
+        NearCache<Map<String, AttributeValue>, Map<String, AttributeValue>> cache =
+                new NearCache<>(maxSize, TimeUnit.SECONDS.toNanos(ttlSeconds), eviction, clock);
+        cacheMetrics.bind(tableName, cache, NearCache::stats);
+        log.info("Near cache of table {}: {} item(s), {} s time to live, {} eviction.",
+                tableName, maxSize, ttlSeconds, eviction);
+        return Optional.of(cache);
+    }
+}
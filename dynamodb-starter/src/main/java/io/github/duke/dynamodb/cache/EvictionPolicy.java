@@ -0,0 +1,15 @@
+package io.github.duke.dynamodb.cache;
+
+/**
+ * The item evicted from a full near cache.
+ */
+public enum EvictionPolicy {
+    /**
+     * The least recently read item, which keeps the hot items of a skewed workload.
+     */
+    LRU,
+    /**
+     * The oldest cached item, which refreshes every item regularly.
+     */
+    FIFO
+}
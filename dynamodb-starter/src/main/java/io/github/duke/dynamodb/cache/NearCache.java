@@ -0,0 +1,148 @@
+package io.github.duke.dynamodb.cache;
+
+import io.github.duke.dynamodb.metrics.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A size and time bounded cache, evicting its entries in {@link EvictionPolicy} order.
+ * <p>
+ * A value loaded from DynamoDB is only stored if its key was not invalidated since the load started, see
+ * {@link #stamp()}, so a read racing with a write cannot put the overwritten item back into the cache. The
+ * invalidated keys are remembered as tombstones holding the version of their invalidation, at most
+ * {@code maxSize} of them; once a tombstone is dropped, every load started before its invalidation is discarded.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+final class NearCache<K, V> {
+
+    private final long maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LinkedHashMap<K, Long> tombstones;
+    private long version;
+    private long floor;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * @param maxSize  The maximum number of entries.
+     * @param ttlNanos The time to live of an entry, non positive for no expiry.
+     * @param eviction The eviction order.
+     * @param clock    The clock in nanoseconds, usually {@link System#nanoTime()}.
+     */
+    NearCache(long maxSize, long ttlNanos, EvictionPolicy eviction, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size of a near cache must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, eviction == EvictionPolicy.LRU) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= NearCache.this.maxSize) {
+                    return false;
+                }
+                if (isExpired(eldest.getValue())) {
+                    expirations++;
+                } else {
+                    evictions++;
+                }
+                return true;
+            }
+        };
+        this.tombstones = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                if (size() <= NearCache.this.maxSize) {
+                    return false;
+                }
+                floor = Math.max(floor, eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param key The key.
+     * @return The cached value, or {@code null} if absent or expired.
+     */
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry)) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * @return The stamp to hand to {@link #put(Object, Object, long)} once the value is loaded.
+     */
+    synchronized long stamp() {
+        return version;
+    }
+
+    /**
+     * Stores a loaded value, unless its key was invalidated since the load started.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @param stamp The {@link #stamp()} taken before the value was loaded.
+     */
+    synchronized void put(K key, V value, long stamp) {
+        Long invalidated = tombstones.get(key);
+        if (stamp < floor || invalidated != null && stamp < invalidated) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, ttlNanos > 0 ? clock.getAsLong() + ttlNanos : Long.MAX_VALUE));
+    }
+
+    /**
+     * @param key The key of the entry to drop.
+     */
+    synchronized void invalidate(K key) {
+        version++;
+        // re-inserted so that the most recent tombstones are the last dropped
+        tombstones.remove(key);
+        tombstones.put(key, version);
+        entries.remove(key);
+    }
+
+    /**
+     * Drops every entry.
+     */
+    synchronized void invalidateAll() {
+        version++;
+        floor = version;
+        tombstones.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return The statistics of the cache.
+     */
+    synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, expirations, entries.size());
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.expiresAt != Long.MAX_VALUE && clock.getAsLong() - entry.expiresAt >= 0;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
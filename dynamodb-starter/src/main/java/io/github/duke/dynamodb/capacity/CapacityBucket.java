@@ -0,0 +1,86 @@
+package io.github.duke.dynamodb.capacity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket of capacity units, refilled at the provisioned rate of a table or index.
+ * <p>
+ * Unlike a permit limiter, requests take the units they are estimated to consume and the bucket may go into debt:
+ * the next requests wait until the debt is paid back. Once the actual consumption is known, {@link #adjust(double, long)}
+ * takes the difference, or gives it back.
+ */
+final class CapacityBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double burstSeconds;
+    private double unitsPerSecond;
+    private double capacity;
+    private double tokens;
+    private long refilledNanos;
+
+    /**
+     * Constructs a full bucket.
+     *
+     * @param unitsPerSecond The refill rate, in capacity units per second.
+     * @param burstSeconds   The number of seconds of refill the bucket holds.
+     * @param nowNanos       The current {@link System#nanoTime()}.
+     */
+    CapacityBucket(double unitsPerSecond, double burstSeconds, long nowNanos) {
+        this.burstSeconds = burstSeconds;
+        this.unitsPerSecond = unitsPerSecond;
+        this.capacity = unitsPerSecond * burstSeconds;
+        this.tokens = capacity;
+        this.refilledNanos = nowNanos;
+    }
+
+    /**
+     * Takes units from the bucket.
+     *
+     * @param units    The estimated units.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return The time to wait before sending the request, in nanoseconds.
+     */
+    synchronized long reserve(double units, long nowNanos) {
+        refill(nowNanos);
+        double available = tokens;
+        tokens -= units;
+        return available >= 0 ? 0 : (long) (-available / unitsPerSecond * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Takes more units from the bucket, or gives units back when negative.
+     *
+     * @param units    The units consumed beyond the reserved ones.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     */
+    synchronized void adjust(double units, long nowNanos) {
+        refill(nowNanos);
+        tokens = Math.min(capacity, tokens - units);
+    }
+
+    /**
+     * Changes the refill rate, e.g. after the table throughput was updated or auto scaled.
+     *
+     * @param unitsPerSecond The new refill rate.
+     * @param nowNanos       The current {@link System#nanoTime()}.
+     */
+    synchronized void rate(double unitsPerSecond, long nowNanos) {
+        refill(nowNanos);
+        this.unitsPerSecond = unitsPerSecond;
+        this.capacity = unitsPerSecond * burstSeconds;
+        this.tokens = Math.min(capacity, tokens);
+    }
+
+    /**
+     * @return The refill rate, in capacity units per second.
+     */
+    synchronized double rate() {
+        return unitsPerSecond;
+    }
+
+    private void refill(long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - refilledNanos) / NANOS_PER_SECOND * unitsPerSecond);
+        refilledNanos = nowNanos;
+    }
+}
@@ -0,0 +1,458 @@
+package io.github.duke.dynamodb.capacity;
+
+import io.github.duke.dynamodb.batch.ItemSize;
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ClientType;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An {@link ExecutionInterceptor} keeping the data plane requests of a DynamoDB client just under the provisioned
+ * throughput of each table and global secondary index, instead of bursting past it into
+ * {@code ProvisionedThroughputExceededException} retries.
+ * <p>
+ * Each table and index has a read and a write {@link CapacityBucket} refilled at {@code utilization} times its
+ * provisioned capacity. A request takes the units it is estimated to consume before being sent, waiting when the
+ * bucket is in debt: writes are estimated from the item size (1 unit per started KB, on the table and on every
+ * global secondary index the item is projected into), reads as a single item (1 unit, half when eventually
+ * consistent). Requests without {@code ReturnConsumedCapacity} are sent with {@code INDEXES}, and the actual
+ * consumption settles the estimate once the response is received. Failed requests give their units back.
+ * <p>
+ * The throughput of the entity tables is first taken from their resolved {@link CreateTableRequest}s, other tables
+ * are described on first use, and every table is described again every {@code refreshSeconds} to follow throughput
+ * updates and auto scaling. On demand tables are never limited.
+ * <p>
+ * Enabled with {@code dynamodb.starter.capacity.enabled}. The
+ * {@link io.github.duke.dynamodb.config.DynamoDbClientPostProcessor} wraps the {@link DynamoDbClient} beans, including
+ * the ones of Spring Cloud AWS, to send their requests through {@link #limit}. Clients built outside of the context
+ * register the interceptor on their builder instead, and their beans are then left as they are:
+ * <pre>
+ * {@code
+ * DynamoDbClient.builder()
+ *         .overrideConfiguration(o -> o.addExecutionInterceptor(capacityRateLimiter))
+ *         .build();
+ * }
+ * </pre>
+ * The wait happens on the calling thread, and a table is described by the first request using it, so the limiter
+ * is only meant for the blocking {@link DynamoDbClient}: the async client beans are not wrapped, and requests of an
+ * async client built with the interceptor, whose calling thread may be an event loop, are rejected with an
+ * {@link IllegalStateException}.
+ */
+@Slf4j
+@Component
+public class CapacityRateLimiter implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Map<CapacityBucket, Double>> RESERVATION =
+            new ExecutionAttribute<>("dynamodb-starter:capacity-reservation");
+    private static final double KB = 1024;
+    private static final double EVENTUALLY_CONSISTENT_READ = 0.5;
+
+    private final Supplier<DynamoDbClient> dynamoDbClient;
+    private final Supplier<List<CreateTableRequest>> entityTables;
+    private final boolean enabled;
+    private final double utilization;
+    private final double burstSeconds;
+    private final long refreshNanos;
+    private final Map<String, TableCapacity> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a CapacityRateLimiter with the necessary dependencies.
+     *
+     * @param dynamoDbClient       Provider of the DynamoDB client describing the tables, resolved lazily since the
+     *                             client is built with this interceptor.
+     * @param dynamoDbBeanListener Provider of the listener resolving the entity tables.
+     * @param enabled              Whether the requests are limited.
+     * @param utilization          The share of the provisioned throughput used, between 0 and 1.
+     * @param burstSeconds         The number of seconds of unused throughput a request can burst into.
+     * @param refreshSeconds       The interval between two {@code DescribeTable} of a table.
+     */
+    @Autowired
+    public CapacityRateLimiter(ObjectProvider<DynamoDbClient> dynamoDbClient,
+                               ObjectProvider<DynamoDbBeanListener> dynamoDbBeanListener,
+                               @Value("${dynamodb.starter.capacity.enabled:false}") boolean enabled,
+                               @Value("${dynamodb.starter.capacity.utilization:0.9}") double utilization,
+                               @Value("${dynamodb.starter.capacity.burstSeconds:1}") double burstSeconds,
+                               @Value("${dynamodb.starter.capacity.refreshSeconds:60}") long refreshSeconds) {
+        this(dynamoDbClient::getObject, () -> {
+            DynamoDbBeanListener listener = dynamoDbBeanListener.getIfAvailable();
+            return listener == null ? List.of() : listener.resolveEntityTables();
+        }, enabled, utilization, burstSeconds, refreshSeconds);
+    }
+
+    /**
+     * Constructs a CapacityRateLimiter with explicit sources of the table throughput.
+     *
+     * @param dynamoDbClient Supplier of the DynamoDB client describing the tables.
+     * @param entityTables   Supplier of the resolved entity tables.
+     * @param enabled        Whether the requests are limited.
+     * @param utilization    The share of the provisioned throughput used, between 0 and 1.
+     * @param burstSeconds   The number of seconds of unused throughput a request can burst into.
+     * @param refreshSeconds The interval between two {@code DescribeTable} of a table.
+     */
+    public CapacityRateLimiter(Supplier<DynamoDbClient> dynamoDbClient, Supplier<List<CreateTableRequest>> entityTables,
+                               boolean enabled, double utilization, double burstSeconds, long refreshSeconds) {
+        if (utilization <= 0 || utilization > 1 || burstSeconds <= 0) {
+            throw new IllegalArgumentException("dynamodb.starter.capacity.utilization must be in ]0, 1] "
+                    + "and burstSeconds positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.entityTables = entityTables;
+        this.enabled = enabled;
+        this.utilization = utilization;
+        this.burstSeconds = burstSeconds;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    /**
+     * Requests the consumed capacity per index, takes the estimated units and waits until they are available.
+     *
+     * @throws IllegalStateException If the request is sent by an async client.
+     */
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        if (!enabled) {
+            return context.request();
+        }
+        if (executionAttributes.getAttribute(SdkExecutionAttribute.CLIENT_TYPE) == ClientType.ASYNC) {
+            throw new IllegalStateException("The CapacityRateLimiter blocks the calling thread, "
+                    + "register it on a DynamoDbClient only");
+        }
+        SdkRequest request = ConsumedCapacities.withConsumedCapacity(context.request());
+        Map<CapacityBucket, Double> reservation = acquire(request);
+        if (!reservation.isEmpty()) {
+            executionAttributes.putAttribute(RESERVATION, reservation);
+        }
+        return request;
+    }
+
+    /**
+     * Settles the reserved units with the consumed capacity of the response.
+     */
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Map<CapacityBucket, Double> reservation = executionAttributes.getAttribute(RESERVATION);
+        if (reservation != null) {
+            settle(reservation, ConsumedCapacities.of(context.response()), System.nanoTime());
+        }
+    }
+
+    /**
+     * Gives the reserved units back, a failed request consumed nothing.
+     */
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Map<CapacityBucket, Double> reservation = executionAttributes.getAttribute(RESERVATION);
+        if (reservation != null) {
+            refund(reservation);
+        }
+    }
+
+    /**
+     * @return Whether the requests are limited.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends a request of a client this interceptor is not registered on, once its estimated units are available,
+     * and settles them with its consumed capacity.
+     *
+     * @param request The request.
+     * @param send    Sends the request, as modified to return its consumed capacity, and returns the response.
+     * @return The response.
+     */
+    public SdkResponse limit(SdkRequest request, Function<SdkRequest, SdkResponse> send) {
+        if (!enabled) {
+            return send.apply(request);
+        }
+        SdkRequest sent = ConsumedCapacities.withConsumedCapacity(request);
+        Map<CapacityBucket, Double> reservation = acquire(sent);
+        SdkResponse response;
+        try {
+            response = send.apply(sent);
+        } catch (RuntimeException e) {
+            refund(reservation);
+            throw e;
+        }
+        settle(reservation, ConsumedCapacities.of(response), System.nanoTime());
+        return response;
+    }
+
+    /**
+     * Takes the estimated units of a request and waits until they are available.
+     *
+     * @return The units taken per bucket.
+     */
+    private Map<CapacityBucket, Double> acquire(SdkRequest request) {
+        Map<CapacityBucket, Double> reservation = new HashMap<>();
+        long wait = reserve(request, reservation, System.nanoTime());
+        if (!reservation.isEmpty()) {
+            await(wait);
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives the units of a failed request back.
+     */
+    private static void refund(Map<CapacityBucket, Double> reservation) {
+        long now = System.nanoTime();
+        reservation.forEach((bucket, units) -> bucket.adjust(-units, now));
+    }
+
+    /**
+     * Takes the estimated units of a request from the buckets of its tables and indexes.
+     *
+     * @param request     The request.
+     * @param reservation The units taken per bucket, filled by this method.
+     * @param nowNanos    The current {@link System#nanoTime()}.
+     * @return The time to wait before sending the request, in nanoseconds.
+     */
+    long reserve(SdkRequest request, Map<CapacityBucket, Double> reservation, long nowNanos) {
+        if (request instanceof GetItemRequest get) {
+            read(get.tableName(), null, get.consistentRead(), 1, reservation, nowNanos);
+        } else if (request instanceof QueryRequest query) {
+            read(query.tableName(), query.indexName(), query.consistentRead(), 1, reservation, nowNanos);
+        } else if (request instanceof ScanRequest scan) {
+            read(scan.tableName(), scan.indexName(), scan.consistentRead(), 1, reservation, nowNanos);
+        } else if (request instanceof BatchGetItemRequest batchGet) {
+            batchGet.requestItems().forEach((tableName, keys) ->
+                    read(tableName, null, keys.consistentRead(), keys.keys().size(), reservation, nowNanos));
+        } else if (request instanceof PutItemRequest put) {
+            write(put.tableName(), put.item(), reservation, nowNanos);
+        } else if (request instanceof UpdateItemRequest update) {
+            write(update.tableName(), null, reservation, nowNanos);
+        } else if (request instanceof DeleteItemRequest delete) {
+            write(delete.tableName(), null, reservation, nowNanos);
+        } else if (request instanceof BatchWriteItemRequest batchWrite) {
+            batchWrite.requestItems().forEach((tableName, writes) -> writes.forEach(write ->
+                    write(tableName, write.putRequest() != null ? write.putRequest().item() : null,
+                            reservation, nowNanos)));
+        }
+        long wait = 0;
+        for (Map.Entry<CapacityBucket, Double> entry : reservation.entrySet()) {
+            wait = Math.max(wait, entry.getKey().reserve(entry.getValue(), nowNanos));
+        }
+        return wait;
+    }
+
+    /**
+     * Takes the difference between the consumed and the reserved units of a request.
+     *
+     * @param reservation The units taken per bucket.
+     * @param consumed    The consumed capacity of the response, empty when it was not returned.
+     * @param nowNanos    The current {@link System#nanoTime()}.
+     */
+    void settle(Map<CapacityBucket, Double> reservation, List<ConsumedCapacity> consumed, long nowNanos) {
+        if (consumed.isEmpty() || consumed.stream().anyMatch(capacity -> capacity.table() == null)) {
+            // without the per index consumption the estimate stands
+            return;
+        }
+        Map<CapacityBucket, Double> actual = new HashMap<>();
+        for (ConsumedCapacity capacity : consumed) {
+            TableCapacity table = tables.get(capacity.tableName());
+            if (table == null) {
+                continue;
+            }
+            table.consumed(null, capacity.table(), actual);
+            // local secondary indexes share the throughput of their table
+            capacity.localSecondaryIndexes().values().forEach(index -> table.consumed(null, index, actual));
+            capacity.globalSecondaryIndexes().forEach((indexName, index) -> table.consumed(indexName, index, actual));
+        }
+        Set<CapacityBucket> buckets = new HashSet<>(reservation.keySet());
+        buckets.addAll(actual.keySet());
+        for (CapacityBucket bucket : buckets) {
+            double difference = actual.getOrDefault(bucket, 0d) - reservation.getOrDefault(bucket, 0d);
+            if (difference != 0) {
+                bucket.adjust(difference, nowNanos);
+            }
+        }
+    }
+
+    private void read(String tableName, String indexName, Boolean consistentRead, int items,
+                      Map<CapacityBucket, Double> reservation, long nowNanos) {
+        double units = Boolean.TRUE.equals(consistentRead) ? items : items * EVENTUALLY_CONSISTENT_READ;
+        CapacityBucket bucket = capacity(tableName, nowNanos).bucket(indexName, true);
+        if (bucket != null) {
+            reservation.merge(bucket, units, Double::sum);
+        }
+    }
+
+    private void write(String tableName, Map<String, AttributeValue> item, Map<CapacityBucket, Double> reservation,
+                       long nowNanos) {
+        TableCapacity table = capacity(tableName, nowNanos);
+        double units = item == null ? 1 : Math.max(1, Math.ceil(ItemSize.of(item) / KB));
+        CapacityBucket bucket = table.bucket(null, false);
+        if (bucket != null) {
+            reservation.merge(bucket, units, Double::sum);
+        }
+        if (item != null) {
+            // an item is only written to the global secondary indexes it has the key attributes of
+            table.indexKeys.forEach((indexName, keys) -> {
+                CapacityBucket indexBucket = table.bucket(indexName, false);
+                if (indexBucket != null && item.keySet().containsAll(keys)) {
+                    reservation.merge(indexBucket, units, Double::sum);
+                }
+            });
+        }
+    }
+
+    private static void await(long waitNanos) {
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(CapacityRateLimiter.class, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the capacity of a table, loading it on first use and describing the table again once stale.
+     * A single caller refreshes a stale table, the others go on with the previous throughput.
+     */
+    private TableCapacity capacity(String tableName, long nowNanos) {
+        TableCapacity table = tables.get(tableName);
+        if (table == null) {
+            // loaded outside of the map, so a DescribeTable does not hold up the requests of other tables;
+            // callers racing on the first use may describe the table more than once
+            TableCapacity loaded = load(tableName, nowNanos);
+            table = Objects.requireNonNullElse(tables.putIfAbsent(tableName, loaded), loaded);
+        }
+        if (nowNanos - table.refreshedNanos > refreshNanos && table.refreshing.compareAndSet(false, true)) {
+            try {
+                describe(table, nowNanos);
+            } finally {
+                table.refreshing.set(false);
+            }
+        }
+        return table;
+    }
+
+    private TableCapacity load(String tableName, long nowNanos) {
+        TableCapacity table = new TableCapacity(tableName, nowNanos);
+        Optional<CreateTableRequest> entityTable = entityTables.get().stream()
+                .filter(request -> request.tableName().equals(tableName))
+                .findFirst();
+        if (entityTable.isEmpty()) {
+            describe(table, nowNanos);
+            return table;
+        }
+        CreateTableRequest request = entityTable.get();
+        boolean provisioned = request.billingMode() == BillingMode.PROVISIONED;
+        ProvisionedThroughput throughput = provisioned ? request.provisionedThroughput() : null;
+        table.throughput(null, throughput == null ? null : throughput.readCapacityUnits(),
+                throughput == null ? null : throughput.writeCapacityUnits(), nowNanos);
+        for (GlobalSecondaryIndex index : request.globalSecondaryIndexes()) {
+            ProvisionedThroughput indexThroughput = provisioned ? index.provisionedThroughput() : null;
+            table.index(index.indexName(), index.keySchema());
+            table.throughput(index.indexName(), indexThroughput == null ? null : indexThroughput.readCapacityUnits(),
+                    indexThroughput == null ? null : indexThroughput.writeCapacityUnits(), nowNanos);
+        }
+        return table;
+    }
+
+    private void describe(TableCapacity table, long nowNanos) {
+        table.refreshedNanos = nowNanos;
+        try {
+            TableDescription description = dynamoDbClient.get()
+                    .describeTable(DescribeTableRequest.builder().tableName(table.tableName).build())
+                    .table();
+            // on demand tables report a provisioned throughput of 0, which disables the limit
+            ProvisionedThroughputDescription throughput = description.provisionedThroughput();
+            table.throughput(null, throughput == null ? null : throughput.readCapacityUnits(),
+                    throughput == null ? null : throughput.writeCapacityUnits(), nowNanos);
+            for (GlobalSecondaryIndexDescription index : description.globalSecondaryIndexes()) {
+                ProvisionedThroughputDescription indexThroughput = index.provisionedThroughput();
+                table.index(index.indexName(), index.keySchema());
+                table.throughput(index.indexName(), indexThroughput == null ? null : indexThroughput.readCapacityUnits(),
+                        indexThroughput == null ? null : indexThroughput.writeCapacityUnits(), nowNanos);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to describe table {}, its throughput is not updated.", table.tableName, e);
+        }
+    }
+
+    /**
+     * The buckets of a table and of its global secondary indexes. A missing bucket is not limited.
+     */
+    private final class TableCapacity {
+
+        private static final String TABLE = "";
+
+        private final String tableName;
+        private final Map<String, CapacityBucket> reads = new ConcurrentHashMap<>();
+        private final Map<String, CapacityBucket> writes = new ConcurrentHashMap<>();
+        private final Map<String, List<String>> indexKeys = new ConcurrentHashMap<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long refreshedNanos;
+
+        private TableCapacity(String tableName, long nowNanos) {
+            this.tableName = tableName;
+            this.refreshedNanos = nowNanos;
+        }
+
+        private CapacityBucket bucket(String indexName, boolean read) {
+            // local secondary indexes, and indexes not described yet, share the throughput of the table
+            String key = indexName != null && indexKeys.containsKey(indexName) ? indexName : TABLE;
+            return (read ? reads : writes).get(key);
+        }
+
+        private void index(String indexName, List<KeySchemaElement> keySchema) {
+            indexKeys.put(indexName, keySchema.stream().map(KeySchemaElement::attributeName).toList());
+        }
+
+        private void throughput(String indexName, Long readUnits, Long writeUnits, long nowNanos) {
+            String key = indexName == null ? TABLE : indexName;
+            throughput(reads, key, readUnits, nowNanos);
+            throughput(writes, key, writeUnits, nowNanos);
+        }
+
+        private void throughput(Map<String, CapacityBucket> buckets, String key, Long units, long nowNanos) {
+            if (units == null || units <= 0) {
+                buckets.remove(key);
+                return;
+            }
+            double rate = units * utilization;
+            CapacityBucket bucket = buckets.putIfAbsent(key, new CapacityBucket(rate, burstSeconds, nowNanos));
+            if (bucket != null && bucket.rate() != rate) {
+                bucket.rate(rate, nowNanos);
+            }
+        }
+
+        private void consumed(String indexName, Capacity capacity, Map<CapacityBucket, Double> actual) {
+            String key = indexName == null ? TABLE : indexName;
+            CapacityBucket read = reads.get(key);
+            if (read != null && capacity.readCapacityUnits() != null) {
+                actual.merge(read, capacity.readCapacityUnits(), Double::sum);
+            }
+            CapacityBucket write = writes.get(key);
+            if (write != null && capacity.writeCapacityUnits() != null) {
+                actual.merge(write, capacity.writeCapacityUnits(), Double::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.duke.dynamodb.capacity;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+/**
+ * Requests and reads the consumed capacity of the data plane calls, for the interceptors accounting for it.
+ */
+public class ConsumedCapacities {
+    private ConsumedCapacities() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    /**
+     * @param request The request.
+     * @return The request returning the consumed capacity per index, or the same request if it is not a data plane
+     * request or already sets {@code ReturnConsumedCapacity}.
+     */
+    public static SdkRequest withConsumedCapacity(SdkRequest request) {
+        if (request instanceof GetItemRequest get && get.returnConsumedCapacity() == null) {
+            return get.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof QueryRequest query && query.returnConsumedCapacity() == null) {
+            return query.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof ScanRequest scan && scan.returnConsumedCapacity() == null) {
+            return scan.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof BatchGetItemRequest batchGet && batchGet.returnConsumedCapacity() == null) {
+            return batchGet.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof PutItemRequest put && put.returnConsumedCapacity() == null) {
+            return put.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof UpdateItemRequest update && update.returnConsumedCapacity() == null) {
+            return update.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof DeleteItemRequest delete && delete.returnConsumedCapacity() == null) {
+            return delete.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        } else if (request instanceof BatchWriteItemRequest batchWrite && batchWrite.returnConsumedCapacity() == null) {
+            return batchWrite.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        }
+        return request;
+    }
+
+    /**
+     * @param response The response.
+     * @return The consumed capacity of the response, one per table, empty when it was not returned.
+     */
+    public static List<ConsumedCapacity> of(SdkResponse response) {
+        ConsumedCapacity consumed = null;
+        if (response instanceof GetItemResponse get) {
+            consumed = get.consumedCapacity();
+        } else if (response instanceof QueryResponse query) {
+            consumed = query.consumedCapacity();
+        } else if (response instanceof ScanResponse scan) {
+            consumed = scan.consumedCapacity();
+        } else if (response instanceof PutItemResponse put) {
+            consumed = put.consumedCapacity();
+        } else if (response instanceof UpdateItemResponse update) {
+            consumed = update.consumedCapacity();
+        } else if (response instanceof DeleteItemResponse delete) {
+            consumed = delete.consumedCapacity();
+        } else if (response instanceof BatchGetItemResponse batchGet) {
+            return batchGet.consumedCapacity();
+        } else if (response instanceof BatchWriteItemResponse batchWrite) {
+            return batchWrite.consumedCapacity();
+        }
+        return consumed == null ? List.of() : List.of(consumed);
+    }
+}
@@ -1,71 +1,157 @@
 package io.github.duke.dynamodb.config;
 
 import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.coordination.ProvisioningLock;
 import io.github.duke.dynamodb.exception.EntityNotFoundException;
-import io.github.duke.dynamodb.utils.DynamoDbStarterUtils;
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import io.github.duke.dynamodb.index.EntityIndex;
+import io.github.duke.dynamodb.inventory.TableInventory;
+import io.github.duke.dynamodb.inventory.TableSnapshot;
+import io.github.duke.dynamodb.manifest.SchemaManifest;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Outcome;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Phase;
+import io.github.duke.dynamodb.provisioning.ProvisioningMode;
+import io.github.duke.dynamodb.provisioning.ProvisioningResult;
+import io.github.duke.dynamodb.provisioning.TableProvisioner;
+import io.github.duke.dynamodb.readiness.TableReadiness;
+import io.github.duke.dynamodb.reconcile.IndexReconciler;
+import io.github.duke.dynamodb.schema.DynamoDbTableRegistry;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.KeyAttribute;
+import io.github.duke.dynamodb.schema.ProjectionResolver;
+import io.github.duke.dynamodb.schema.ThroughputResolver;
+import io.github.duke.dynamodb.seed.SeedLoader;
+import io.github.duke.dynamodb.warmup.TableWarmer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.NativeDetector;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import io.github.duke.dynamodb.annotation.DynamoDbDocument;
 
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * An {@link ApplicationListener} implementation for DynamoDB bean initialization.
  * <p>
- * This listener scans the classpath for beans annotated with {@link DynamoDbBean},
- * and ensures that corresponding DynamoDB tables are created based on the provided configurations.
+ * This listener reads the compile time {@link EntityIndex} (or, when it is missing, scans the classpath)
+ * for beans annotated with {@link DynamoDbBean}, and ensures that corresponding DynamoDB tables are created
+ * based on the provided configurations.
+ * <p>
+ * With {@code dynamodb.starter.provisioning.mode=BACKGROUND} the tables are provisioned on a dedicated
+ * thread and the startup does not wait for them; the {@link TableReadiness} tells which tables are ready.
+ * Every run ends with a {@link io.github.duke.dynamodb.metrics.StartupReport} logged at info level.
  */
 @Slf4j
 @Component
-public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshedEvent> {
+public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
 
     private static final String CLASS_NOT_FOUND_MESSAGE = "Invalid class name";
+    /**
+     * The tag recording the {@code @DynamoDbWriteShards} of the partition key on the tables of sharded entities.
+     */
+    public static final String WRITE_SHARDS_TAG = "dynamodb-starter:writeShards";
 
-    private final DynamoDbClient dynamoDbClient;
+    private final TableProvisioner tableProvisioner;
+    private final TableInventory tableInventory;
+    private final SchemaManifest schemaManifest;
+    private final IndexReconciler indexReconciler;
+    private final EntityKeyModelRegistry entityKeyModelRegistry;
+    private final ThroughputResolver throughputResolver;
+    private final ProjectionResolver projectionResolver;
+    private final TableReadiness tableReadiness;
+    private final SeedLoader seedLoader;
+    private final TableWarmer tableWarmer;
+    private final DynamoDbTableRegistry dynamoDbTableRegistry;
+    private final ProvisioningLock provisioningLock;
+    private final ProvisioningMetrics metrics;
     private final DefaultDynamoDbTableNameResolver prefixedTableNameResolver;
-    private final String tablePrefix;
     private final String packageName;
     private final BillingMode billingMode;
     private final long writeCapacity;
     private final long readCapacity;
+    private final ProvisioningMode provisioningMode;
+    private final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+    private final Map<String, Class<?>> entityClasses = new ConcurrentHashMap<>();
+    private List<CreateTableRequest> entityTables;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-table-provisioning");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Constructs a DynamoDbBeanListener with the necessary dependencies.
      *
-     * @param dynamoDbClient            The DynamoDB client.
+     * @param tableProvisioner          The provisioner creating the resolved tables.
+     * @param tableInventory            The inventory of existing tables.
+     * @param schemaManifest            The manifest of the schema fingerprints recorded by the last startup.
+     * @param indexReconciler           The reconciler of the indexes of existing tables.
+     * @param entityKeyModelRegistry    The registry of the resolved entity keys.
+     * @param throughputResolver        The resolver of per table and per index throughput.
+     * @param projectionResolver        The resolver of the secondary index projections.
+     * @param tableReadiness            The readiness of the provisioned tables.
+     * @param seedLoader                The loader of the fixtures of newly created tables.
+     * @param tableWarmer               The warmer of the client connections and of the tables.
+     * @param dynamoDbTableRegistry     The registry of the enhanced client tables, built for every entity.
+     * @param provisioningLock          The lock electing the instance provisioning the tables.
+     * @param metrics                   The provisioning metrics.
      * @param prefixedTableNameResolver The table name resolver.
-     * @param tablePrefix               The table prefix.
      * @param packageName               The package name to scan for DynamoDB beans.
      * @param billingMode               The billing mode for DynamoDB tables.
-     * @param writeCapacity             The provisioned write capacity for DynamoDB tables.
-     * @param readCapacity              The provisioned read capacity for DynamoDB tables.
+     * @param writeCapacity             The default provisioned write capacity for DynamoDB tables.
+     * @param readCapacity              The default provisioned read capacity for DynamoDB tables.
+     * @param provisioningMode          Whether the startup waits for the tables.
      */
     @Autowired
-    public DynamoDbBeanListener(DynamoDbClient dynamoDbClient, DefaultDynamoDbTableNameResolver prefixedTableNameResolver,
-                                @Value("${dynamodb.starter.table.prefix}") String tablePrefix,
+    public DynamoDbBeanListener(TableProvisioner tableProvisioner, TableInventory tableInventory,
+                                SchemaManifest schemaManifest, IndexReconciler indexReconciler,
+                                EntityKeyModelRegistry entityKeyModelRegistry, ThroughputResolver throughputResolver,
+                                ProjectionResolver projectionResolver, TableReadiness tableReadiness,
+                                SeedLoader seedLoader, TableWarmer tableWarmer,
+                                DynamoDbTableRegistry dynamoDbTableRegistry, ProvisioningLock provisioningLock,
+                                ProvisioningMetrics metrics,
+                                DefaultDynamoDbTableNameResolver prefixedTableNameResolver,
                                 @Value("${dynamodb.starter.package.scan:''}") String packageName,
                                 @Value("${dynamodb.starter.billing.mode}") BillingMode billingMode,
                                 @Value("${dynamodb.starter.throughput.writeCapacity:10}") long writeCapacity,
-                                @Value("${dynamodb.starter.throughput.readCapacity:10}") long readCapacity) {
-        this.dynamoDbClient = dynamoDbClient;
+                                @Value("${dynamodb.starter.throughput.readCapacity:10}") long readCapacity,
+                                @Value("${dynamodb.starter.provisioning.mode:BLOCKING}") ProvisioningMode provisioningMode) {
+        this.tableProvisioner = tableProvisioner;
+        this.tableInventory = tableInventory;
+        this.schemaManifest = schemaManifest;
+        this.indexReconciler = indexReconciler;
+        this.entityKeyModelRegistry = entityKeyModelRegistry;
+        this.throughputResolver = throughputResolver;
+        this.projectionResolver = projectionResolver;
+        this.tableReadiness = tableReadiness;
+        this.seedLoader = seedLoader;
+        this.tableWarmer = tableWarmer;
+        this.dynamoDbTableRegistry = dynamoDbTableRegistry;
+        this.provisioningLock = provisioningLock;
+        this.metrics = metrics;
         this.prefixedTableNameResolver = prefixedTableNameResolver;
-        this.tablePrefix = tablePrefix;
         this.packageName = packageName;
         this.billingMode = billingMode;
         this.writeCapacity = writeCapacity;
         this.readCapacity = readCapacity;
+        this.provisioningMode = provisioningMode;
     }
 
 
@@ -74,16 +160,219 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
      */
     @Override
     public void onApplicationEvent(ContextRefreshedEvent event) {
-        scanForDynamoDbBeans();
+        if (provisioningMode == ProvisioningMode.BACKGROUND) {
+            executor.execute(this::provisionTables);
+        } else {
+            provisionTables();
+        }
+    }
+
+    /**
+     * Provisions the tables, publishes the failure, if any, to the {@link TableReadiness} and logs the
+     * startup report.
+     */
+    private void provisionTables() {
+        metrics.start();
+        try {
+            scanForDynamoDbBeans();
+        } catch (RuntimeException e) {
+            tableReadiness.markFailed(e);
+            if (provisioningMode == ProvisioningMode.BLOCKING) {
+                throw e;
+            }
+            log.error("Background table provisioning failed.", e);
+        } finally {
+            log.info("DynamoDB table provisioning report: {}", metrics.report().format());
+        }
     }
 
     /**
      * {@inheritDoc}
      */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks that the write shards of a sharded entity match the ones recorded on its existing table, as any other
+     * shard count maps the stored items to other shards. Tables created before their entity was sharded are tagged
+     * with its write shards.
+     *
+     * @param createTableRequest The create table request of the entity table.
+     * @param table              The existing table.
+     * @throws TableProvisioningException If the table records other write shards.
+     */
+    private void checkWriteShards(CreateTableRequest createTableRequest, TableDescription table) {
+        Optional<String> declared = createTableRequest.tags().stream()
+                .filter(tag -> WRITE_SHARDS_TAG.equals(tag.key()))
+                .map(Tag::value)
+                .findFirst();
+        if (declared.isEmpty()) {
+            return;
+        }
+        String recorded = tableInventory.tags(table).get(WRITE_SHARDS_TAG);
+        if (recorded == null) {
+            tableInventory.tag(table, WRITE_SHARDS_TAG, declared.get());
+        } else if (!recorded.equals(declared.get())) {
+            throw new TableProvisioningException(String.format("Table %s was written with %s write shards but its "
+                    + "entity declares %s, the write shards cannot change once items exist", table.tableName(),
+                    recorded, declared.get()));
+        }
+    }
+
+    /**
+     * Discovers the DynamoDB entities, from the compile time {@link EntityIndex} when present
+     * and by classpath scanning otherwise, and provisions their tables.
+     * <p>
+     * When the {@link SchemaManifest} is enabled and no resolved schema changed since the last
+     * startup, the existing tables are not verified against DynamoDB at all. When the {@link ProvisioningLock}
+     * is enabled, a single instance provisions the tables and the others skip it once it completed; the lease is
+     * only completed once the indexes of the existing tables are reconciled, and released if reconciling them failed.
+     */
     private void scanForDynamoDbBeans() {
-        ClassPathScanningCandidateComponentProvider scanner = createClassPathScanner();
-        ListTablesResponse tableList = listExistingTables();
-        processBeans(scanner, tableList);
+        List<CreateTableRequest> createTableRequests = resolveEntityTables();
+        // request-path code must not pay the introspection of the entities
+        metrics.time(Phase.RESOLVE_SCHEMA, null, () -> dynamoDbTableRegistry.prebuild(entityClasses.values()));
+
+        Map<String, String> fingerprints = schemaManifest.fingerprints(createTableRequests);
+        tableReadiness.expect(fingerprints.keySet());
+        if (schemaManifest.matches(fingerprints)) {
+            log.debug("Schema manifest unchanged for {} table(s). Skipping.", fingerprints.size());
+            skipTables(createTableRequests);
+            return;
+        }
+        Optional<ProvisioningLock.Lease> lease = metrics.time(Phase.COORDINATE, null,
+                () -> provisioningLock.acquire(fingerprints));
+        if (lease.isEmpty()) {
+            skipTables(createTableRequests);
+            return;
+        }
+        CompletableFuture<Void> reconciled;
+        try {
+            reconciled = createTables(createTableRequests, fingerprints, lease.get());
+        } catch (RuntimeException e) {
+            lease.get().release();
+            throw e;
+        }
+        if (reconciled.isDone() && !reconciled.isCompletedExceptionally()) {
+            lease.get().complete();
+            return;
+        }
+        // the lease stays renewed until the indexes are reconciled, in the background past the startup
+        reconciled.whenComplete((ignored, e) -> {
+            if (e != null) {
+                lease.get().release();
+                return;
+            }
+            try {
+                lease.get().complete();
+            } catch (TableProvisioningException lost) {
+                log.error("Indexes reconciled after the provisioning lock was taken over.", lost);
+            }
+        });
+    }
+
+    /**
+     * Marks the tables as ready without verifying them, as they were already provisioned.
+     *
+     * @param createTableRequests The create table requests of all the entity tables.
+     */
+    private void skipTables(List<CreateTableRequest> createTableRequests) {
+        createTableRequests.forEach(request -> {
+            tableReadiness.markReady(request.tableName());
+            metrics.outcome(request.tableName(), Outcome.SKIPPED);
+        });
+        tableWarmer.warm(createTableRequests);
+        tableReadiness.markAllReady();
+    }
+
+    /**
+     * Creates the missing tables, seeds and warms them, then reconciles the indexes of the existing ones.
+     *
+     * @param createTableRequests The create table requests of all the entity tables.
+     * @param fingerprints        The schema fingerprints of the tables, recorded once reconciled.
+     * @param lease               The lease of the provisioning lock, checked before each step changing the tables.
+     * @return A future completing once the indexes are reconciled and the manifest recorded.
+     */
+    private CompletableFuture<Void> createTables(List<CreateTableRequest> createTableRequests, Map<String, String> fingerprints,
+                              ProvisioningLock.Lease lease) {
+        TableSnapshot tableList = metrics.time(Phase.LIST_TABLES, null, tableInventory::refresh);
+        List<CreateTableRequest> missingTables = new ArrayList<>();
+        List<CreateTableRequest> existingTables = new ArrayList<>();
+        for (CreateTableRequest createTableRequest : createTableRequests) {
+            Optional<TableDescription> table = tableList.describe(createTableRequest.tableName());
+            if (table.isPresent() && table.get().tableStatus() != TableStatus.CREATING) {
+                checkWriteShards(createTableRequest, table.get());
+                log.debug("Table {} already exists. Skipping.", createTableRequest.tableName());
+                existingTables.add(createTableRequest);
+                tableReadiness.markReady(createTableRequest.tableName());
+                metrics.outcome(createTableRequest.tableName(), Outcome.SKIPPED);
+            } else {
+                // tables still being created by another instance are waited for by the provisioner
+                missingTables.add(createTableRequest);
+            }
+        }
+        List<CreateTableRequest> warmTables = missingTables.stream().map(tableWarmer::prewarm).toList();
+        lease.checkHeld();
+        ProvisioningResult result = tableProvisioner.provision(warmTables, table -> {
+            // seeded tables are only ready once their fixture is loaded
+            if (!seedLoader.isEnabled()) {
+                tableReadiness.markReady(table.tableName());
+            }
+        });
+        tableInventory.update(result.all());
+        log.debug("Table(s) {} installation successful.", result.createdTableNames());
+        lease.checkHeld();
+        if (seedLoader.isEnabled()) {
+            result.existing().forEach(table -> tableReadiness.markReady(table.tableName()));
+            seedTables(result);
+        }
+        // new tables are seeded at the warm throughput, then switched to the resolved one
+        tableWarmer.settle(missingTables, result.createdTableNames());
+        tableWarmer.warm(createTableRequests);
+        tableReadiness.markAllReady();
+
+        lease.checkHeld();
+        // the manifest is only recorded once the existing tables caught up with their entities
+        return indexReconciler.reconcile(existingTables, tableList.tables())
+                .thenRun(() -> schemaManifest.record(fingerprints));
+    }
+
+    /**
+     * Discovers the DynamoDB entities, from the compile time {@link EntityIndex} when present and by classpath
+     * scanning otherwise, and resolves the requests creating their tables. The entities are only discovered once:
+     * later calls return the same requests.
+     *
+     * @return The create table requests of all the entity tables, named with the configured table prefix.
+     * @throws IllegalStateException If running in a native image without entity index, which cannot be scanned.
+     */
+    public synchronized List<CreateTableRequest> resolveEntityTables() {
+        if (entityTables == null) {
+            EntityIndex entityIndex = metrics.time(Phase.SCAN, null, () -> EntityIndex.load(classLoader));
+            if (!entityIndex.isPresent() && NativeDetector.inNativeImage()) {
+                throw new IllegalStateException("No " + EntityIndex.INDEX_LOCATION + " in the native image, "
+                        + "compile the entities with the dynamodb-starter-processor annotation processor");
+            }
+            entityTables = List.copyOf(entityIndex.isPresent()
+                    ? processIndexedBeans(entityIndex)
+                    : processBeans(createClassPathScanner()));
+        }
+        return entityTables;
+    }
+
+    /**
+     * Seeds the tables created by this startup from their fixtures and marks them as ready.
+     * Tables which already existed are never seeded.
+     *
+     * @param result The provisioning result.
+     */
+    private void seedTables(ProvisioningResult result) {
+        for (TableDescription table : result.created()) {
+            metrics.time(Phase.SEED, table.tableName(),
+                    () -> seedLoader.seed(entityClasses.get(table.tableName()), table.tableName()));
+            tableReadiness.markReady(table.tableName());
+        }
     }
 
     /**
@@ -98,85 +387,107 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
     }
 
     /**
-     * Lists existing DynamoDB tables.
+     * Processes scanned DynamoDB beans and resolves their tables.
      *
-     * @return The response containing the list of tables.
+     * @param scanner The component scanner.
+     * @return The create table requests of all the entity tables.
      */
-    private ListTablesResponse listExistingTables() {
-        ListTablesRequest tablesRequest = ListTablesRequest.builder()
-                .exclusiveStartTableName(tablePrefix)
-                .build();
-        return dynamoDbClient.listTables(tablesRequest);
+    private List<CreateTableRequest> processBeans(ClassPathScanningCandidateComponentProvider scanner) {
+        log.debug("No DynamoDB entity index found, scanning package '{}'.", packageName);
+        List<CreateTableRequest> createTableRequests = new ArrayList<>();
+        Set<BeanDefinition> candidates = metrics.time(Phase.SCAN, null,
+                () -> scanner.findCandidateComponents(packageName));
+        for (BeanDefinition bd : candidates) {
+            processBean(bd).ifPresent(createTableRequests::add);
+        }
+        return createTableRequests;
     }
 
     /**
-     * Processes DynamoDB beans, checks for existing tables, and creates new ones if needed.
+     * Processes the DynamoDB beans recorded in the compile time index and resolves their tables.
+     * Document entities are skipped without loading their class.
      *
-     * @param scanner   The component scanner.
-     * @param tableList The list of existing tables.
+     * @param entityIndex The compile time entity index.
+     * @return The create table requests of all the entity tables.
      */
-    private void processBeans(ClassPathScanningCandidateComponentProvider scanner, ListTablesResponse tableList) {
-        for (BeanDefinition bd : scanner.findCandidateComponents(packageName)) {
-            processBean(bd, tableList);
+    private List<CreateTableRequest> processIndexedBeans(EntityIndex entityIndex) {
+        List<CreateTableRequest> createTableRequests = new ArrayList<>();
+        for (EntityIndex.Entry entry : entityIndex.getEntries(packageName)) {
+            if (entry.document()) {
+                continue;
+            }
+            createTableRequests.add(processBean(resolveEntityClass(entry.className())));
         }
+        return createTableRequests;
     }
 
     /**
-     * Processes an individual DynamoDB bean, checking for the existence of its table,
-     * and creating a new table if needed.
+     * Processes an individual scanned DynamoDB bean.
      *
-     * @param bd        The BeanDefinition of the DynamoDB bean.
-     * @param tableList The list of existing tables.
+     * @param bd The BeanDefinition of the DynamoDB bean.
+     * @return The create table request, or empty if the bean is a document without a table.
      */
-    private void processBean(BeanDefinition bd, ListTablesResponse tableList) {
-        Class<?> entity = resolveEntityClass(bd);
+    private Optional<CreateTableRequest> processBean(BeanDefinition bd) {
+        Class<?> entity = resolveEntityClass(bd.getBeanClassName());
         if (entity.isAnnotationPresent(DynamoDbDocument.class)) {
-            return;
+            return Optional.empty();
         }
+        return Optional.of(processBean(entity));
+    }
 
+    /**
+     * Processes an individual DynamoDB bean, resolving the request to create its table
+     * from the shared {@link EntityKeyModel} of the entity.
+     *
+     * @param entity The entity class.
+     * @return The create table request.
+     */
+    private CreateTableRequest processBean(Class<?> entity) {
+        long start = System.nanoTime();
         String tableName = prefixedTableNameResolver.resolve(entity);
-
-        if (tableList.tableNames().contains(tableName)) {
-            log.debug("Table {} already exists. Skipping.", tableName);
-            return;
-        }
-
-        String[] localIndexName = DynamoDbStarterUtils.getLocalIndexName(entity);
-
-        List<Method> keys = DynamoDbStarterUtils.getAnnotatedMethods(entity);
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        entityClasses.put(tableName, entity);
 
         List<AttributeDefinition> attributeDefinitions = new ArrayList<>();
         List<KeySchemaElement> tableKeySchema = new ArrayList<>();
         HashMap<String, List<KeySchemaElement>> globalSecondaryIndexKeySchema = new HashMap<>();
         HashMap<String, List<KeySchemaElement>> localSecondaryIndexKeySchema = new HashMap<>();
 
-        attributeAndKeysResolver(attributeDefinitions, tableKeySchema, keys, globalSecondaryIndexKeySchema, localSecondaryIndexKeySchema, localIndexName);
+        attributeAndKeysResolver(attributeDefinitions, tableKeySchema, keyModel.getKeyAttributes(), globalSecondaryIndexKeySchema,
+                localSecondaryIndexKeySchema, keyModel.getLocalIndexNames());
 
-        List<GlobalSecondaryIndex> globalSecondaryIndices = globalSecondaryIndicesResolver(globalSecondaryIndexKeySchema);
-        List<LocalSecondaryIndex> localSecondaryIndices = localSecondaryIndicesResolver(localSecondaryIndexKeySchema);
+        ProvisionedThroughput tableThroughput = billingMode.equals(BillingMode.PROVISIONED)
+                ? throughputResolver.provisioned(entity, tableName, readCapacity, writeCapacity)
+                : null;
+        Map<String, Projection> projections = projectionResolver.resolve(keyModel);
+        List<GlobalSecondaryIndex> globalSecondaryIndices = globalSecondaryIndicesResolver(entity, tableName, tableThroughput,
+                globalSecondaryIndexKeySchema, projections);
+        List<LocalSecondaryIndex> localSecondaryIndices = localSecondaryIndicesResolver(localSecondaryIndexKeySchema, projections);
 
         tableKeySchema.sort(Comparator.comparing(t -> t.keyType().toString()));
-        CreateTableRequest createTableRequest = tableRequestResolver(tableName, attributeDefinitions, tableKeySchema, globalSecondaryIndices, localSecondaryIndices);
-
-        try {
-            dynamoDbClient.createTable(createTableRequest);
-            log.debug("Table {} installation successful.", tableName);
-        } catch (ResourceInUseException e) {
-            log.error(e.getMessage());
+        CreateTableRequest createTableRequest = tableRequestResolver(entity, tableName, tableThroughput,
+                attributeDefinitions, tableKeySchema, globalSecondaryIndices, localSecondaryIndices);
+        if (keyModel.isWriteSharded()) {
+            // the shard count cannot be read back from the key schema, record it on the table
+            createTableRequest = createTableRequest.toBuilder()
+                    .tags(Tag.builder().key(WRITE_SHARDS_TAG).value(String.valueOf(keyModel.getWriteShards())).build())
+                    .build();
         }
+        metrics.record(Phase.RESOLVE_SCHEMA, tableName, start);
+        return createTableRequest;
     }
 
     /**
-     * Resolves the entity class from the provided {@link BeanDefinition}.
+     * Resolves the entity class from its name, without initializing it.
      *
-     * @param bd The BeanDefinition of the DynamoDB bean.
+     * @param className The name of the DynamoDB bean class.
      * @return The resolved entity class.
      * @throws EntityNotFoundException If the class is not found.
      */
-    private Class<?> resolveEntityClass(BeanDefinition bd) {
+    private Class<?> resolveEntityClass(String className) {
         try {
-            return Class.forName(bd.getBeanClassName());
-        } catch (ClassNotFoundException e) {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
             log.error(CLASS_NOT_FOUND_MESSAGE, e);
             throw new EntityNotFoundException(CLASS_NOT_FOUND_MESSAGE);
         }
@@ -185,14 +496,17 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
     /**
      * Resolves the {@link CreateTableRequest} based on the provided parameters.
      *
+     * @param entity                 The entity class.
      * @param tableName              The name of the DynamoDB table.
+     * @param tableThroughput        The provisioned throughput of the table, {@code null} for on demand tables.
      * @param attributeDefinitions   The list of attribute definitions.
      * @param keySchemas             The list of key schema elements.
      * @param globalSecondaryIndices The list of global secondary indexes.
      * @param localSecondaryIndices  The list of local secondary indexes.
      * @return The resolved CreateTableRequest.
      */
-    private CreateTableRequest tableRequestResolver(String tableName, List<AttributeDefinition> attributeDefinitions,
+    private CreateTableRequest tableRequestResolver(Class<?> entity, String tableName, ProvisionedThroughput tableThroughput,
+                                                    List<AttributeDefinition> attributeDefinitions,
                                                     List<KeySchemaElement> keySchemas,
                                                     List<GlobalSecondaryIndex> globalSecondaryIndices,
                                                     List<LocalSecondaryIndex> localSecondaryIndices) {
@@ -209,13 +523,11 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
 
         if (billingMode.equals(BillingMode.PROVISIONED)) {
             createTableRequest
-                    .provisionedThroughput(
-                            ProvisionedThroughput.builder()
-                                    .readCapacityUnits(readCapacity).writeCapacityUnits(writeCapacity).build())
-                    .build();
+                    .provisionedThroughput(tableThroughput);
         } else {
             createTableRequest
-                    .billingMode(BillingMode.PAY_PER_REQUEST);
+                    .billingMode(BillingMode.PAY_PER_REQUEST)
+                    .onDemandThroughput(throughputResolver.onDemand(entity, tableName));
         }
         return createTableRequest.build();
     }
@@ -225,103 +537,85 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
      *
      * @param attributeDefinitions      The list of attribute definitions.
      * @param tableKeySchema            The list of key schema elements for the main table.
-     * @param keys                      The list of annotated methods representing keys.
+     * @param keys                      The key attributes of the entity.
      * @param globalSecondaryIndexKeySchema The map of global secondary index key schemas.
      * @param localSecondaryIndexKeySchema  The map of local secondary index key schemas.
-     * @param localIndexName            The array of local index names.
+     * @param localIndexNames           The local index names.
      */
     private void attributeAndKeysResolver(List<AttributeDefinition> attributeDefinitions, List<KeySchemaElement> tableKeySchema,
-                                          List<Method> keys, HashMap<String, List<KeySchemaElement>> globalSecondaryIndexKeySchema,
-                                          HashMap<String, List<KeySchemaElement>> localSecondaryIndexKeySchema, String[] localIndexName) {
-        for (Method key : keys) {
+                                          List<KeyAttribute> keys, HashMap<String, List<KeySchemaElement>> globalSecondaryIndexKeySchema,
+                                          HashMap<String, List<KeySchemaElement>> localSecondaryIndexKeySchema, Set<String> localIndexNames) {
+        for (KeyAttribute key : keys) {
             attributeDefinitions.add(AttributeDefinition.builder()
-                    .attributeName(DynamoDbStarterUtils.getFieldName(key.getName()))
-                    .attributeType(DynamoDbStarterUtils.getScalarAttributeType(key.getReturnType()))
+                    .attributeName(key.attributeName())
+                    .attributeType(key.attributeType())
                     .build());
             tableKeySchemaResolver(key, tableKeySchema);
-            secondaryIndexKeySchemaResolver(key, globalSecondaryIndexKeySchema, localSecondaryIndexKeySchema, localIndexName);
+            secondaryIndexKeySchemaResolver(key, globalSecondaryIndexKeySchema, localSecondaryIndexKeySchema, localIndexNames);
         }
     }
 
     /**
-     * Resolves the key schema for the main table based on the provided method.
+     * Resolves the key schema for the main table based on the provided key attribute.
      *
-     * @param key           The annotated method representing a key.
+     * @param key            The key attribute.
      * @param tableKeySchema The list of key schema elements for the main table.
      */
-    private void tableKeySchemaResolver(Method key, List<KeySchemaElement> tableKeySchema) {
-        if (key.isAnnotationPresent(DynamoDbPartitionKey.class)) {
+    private void tableKeySchemaResolver(KeyAttribute key, List<KeySchemaElement> tableKeySchema) {
+        if (key.tableKeyType() != null) {
             tableKeySchema.add(KeySchemaElement.builder().
-                    attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.HASH).build());
-        } else if (key.isAnnotationPresent(DynamoDbSortKey.class)) {
-            tableKeySchema.add(KeySchemaElement.builder().
-                    attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.RANGE).build());
+                    attributeName(key.attributeName()).keyType(key.tableKeyType()).build());
         }
     }
 
     /**
-     * Resolves the key schema for secondary indexes based on the provided method.
+     * Resolves the key schema for secondary indexes based on the provided key attribute.
      *
-     * @param key                        The annotated method representing a key.
+     * @param key                        The key attribute.
      * @param globalSecondaryIndexKeySchema The map of global secondary index key schemas.
      * @param localSecondaryIndexKeySchema  The map of local secondary index key schemas.
-     * @param localIndexNames            The array of local index names.
+     * @param localIndexNames            The local index names.
      */
-    private void secondaryIndexKeySchemaResolver(Method key, HashMap<String, List<KeySchemaElement>> globalSecondaryIndexKeySchema,
-                                                 HashMap<String, List<KeySchemaElement>> localSecondaryIndexKeySchema, String[] localIndexNames) {
-        if (key.isAnnotationPresent(DynamoDbSecondaryPartitionKey.class)) {
-            DynamoDbSecondaryPartitionKey dynamoDbSecondaryPartitionKey = key.getAnnotation(DynamoDbSecondaryPartitionKey.class);
-            String[] indexNames = dynamoDbSecondaryPartitionKey.indexNames();
-            for (String index : indexNames) {
-                List<KeySchemaElement> elements;
-                if (Arrays.asList(localIndexNames).contains(index)) {
-                    elements = localSecondaryIndexKeySchema.getOrDefault(index, new ArrayList<>());
-                    elements.add(KeySchemaElement.builder().
-                            attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.HASH).build());
-                    localSecondaryIndexKeySchema.put(index, elements);
-                } else {
-                    elements = globalSecondaryIndexKeySchema.getOrDefault(index, new ArrayList<>());
-                    elements.add(KeySchemaElement.builder().
-                            attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.HASH).build());
-                    globalSecondaryIndexKeySchema.put(index, elements);
-                }
-            }
+    private void secondaryIndexKeySchemaResolver(KeyAttribute key, HashMap<String, List<KeySchemaElement>> globalSecondaryIndexKeySchema,
+                                                 HashMap<String, List<KeySchemaElement>> localSecondaryIndexKeySchema, Set<String> localIndexNames) {
+        for (String index : key.partitionKeyIndexNames()) {
+            HashMap<String, List<KeySchemaElement>> indexKeySchema = localIndexNames.contains(index)
+                    ? localSecondaryIndexKeySchema : globalSecondaryIndexKeySchema;
+            indexKeySchema.computeIfAbsent(index, i -> new ArrayList<>()).add(KeySchemaElement.builder().
+                    attributeName(key.attributeName()).keyType(KeyType.HASH).build());
         }
-        if (key.isAnnotationPresent(DynamoDbSecondarySortKey.class)) {
-            DynamoDbSecondarySortKey dynamoDbSecondarySortKey = key.getAnnotation(DynamoDbSecondarySortKey.class);
-            String[] indexNames = dynamoDbSecondarySortKey.indexNames();
-            for (String index : indexNames) {
-                List<KeySchemaElement> elements;
-                if (Arrays.asList(localIndexNames).contains(index)) {
-                    elements = localSecondaryIndexKeySchema.getOrDefault(index, new ArrayList<>());
-                    elements.add(KeySchemaElement.builder().
-                            attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.RANGE).build());
-                    localSecondaryIndexKeySchema.put(index, elements);
-                } else {
-                    elements = globalSecondaryIndexKeySchema.getOrDefault(index, new ArrayList<>());
-                    elements.add(KeySchemaElement.builder().
-                            attributeName(DynamoDbStarterUtils.getFieldName(key.getName())).keyType(KeyType.RANGE).build());
-                    globalSecondaryIndexKeySchema.put(index, elements);
-
-                }
-            }
+        for (String index : key.sortKeyIndexNames()) {
+            HashMap<String, List<KeySchemaElement>> indexKeySchema = localIndexNames.contains(index)
+                    ? localSecondaryIndexKeySchema : globalSecondaryIndexKeySchema;
+            indexKeySchema.computeIfAbsent(index, i -> new ArrayList<>()).add(KeySchemaElement.builder().
+                    attributeName(key.attributeName()).keyType(KeyType.RANGE).build());
         }
     }
 
     /**
      * Resolves the list of global secondary indexes based on the provided index key schema.
      *
-     * @param indexKeySchema The map of global secondary index key schemas.
+     * @param entity          The entity class.
+     * @param tableName       The name of the DynamoDB table.
+     * @param tableThroughput The provisioned throughput of the table, {@code null} for on demand tables.
+     * @param indexKeySchema  The map of global secondary index key schemas.
+     * @param projections     The projections keyed by index name.
      * @return The list of resolved global secondary indexes.
      */
-    private List<GlobalSecondaryIndex> globalSecondaryIndicesResolver(HashMap<String, List<KeySchemaElement>> indexKeySchema) {
+    private List<GlobalSecondaryIndex> globalSecondaryIndicesResolver(Class<?> entity, String tableName, ProvisionedThroughput tableThroughput,
+                                                                      HashMap<String, List<KeySchemaElement>> indexKeySchema,
+                                                                      Map<String, Projection> projections) {
         List<GlobalSecondaryIndex> globalSecondaryIndices = new ArrayList<>();
         indexKeySchema.forEach((indexName, indexSchemaList) -> {
             indexSchemaList.sort(Comparator.comparing(t -> t.keyType().toString()));
-            GlobalSecondaryIndex glsIndex = GlobalSecondaryIndex.builder().indexName(indexName)
-                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build()).keySchema(indexSchemaList)
-                    .build();
-            globalSecondaryIndices.add(glsIndex);
+            GlobalSecondaryIndex.Builder glsIndex = GlobalSecondaryIndex.builder().indexName(indexName)
+                    .projection(projections.get(indexName)).keySchema(indexSchemaList);
+            if (billingMode.equals(BillingMode.PROVISIONED)) {
+                glsIndex.provisionedThroughput(throughputResolver.provisioned(entity, tableName, indexName, tableThroughput));
+            } else {
+                glsIndex.onDemandThroughput(throughputResolver.onDemand(entity, tableName, indexName));
+            }
+            globalSecondaryIndices.add(glsIndex.build());
         });
         return globalSecondaryIndices;
     }
@@ -330,14 +624,16 @@ public class DynamoDbBeanListener implements ApplicationListener<ContextRefreshe
      * Resolves the list of local secondary indexes based on the provided index key schema.
      *
      * @param indexKeySchema The map of local secondary index key schemas.
+     * @param projections    The projections keyed by index name.
      * @return The list of resolved local secondary indexes.
      */
-    private List<LocalSecondaryIndex> localSecondaryIndicesResolver(HashMap<String, List<KeySchemaElement>> indexKeySchema) {
+    private List<LocalSecondaryIndex> localSecondaryIndicesResolver(HashMap<String, List<KeySchemaElement>> indexKeySchema,
+                                                                    Map<String, Projection> projections) {
         List<LocalSecondaryIndex> localSecondaryIndices = new ArrayList<>();
         indexKeySchema.forEach((indexName, indexSchemaList) -> {
             indexSchemaList.sort(Comparator.comparing(t -> t.keyType().toString()));
             LocalSecondaryIndex glsIndex = LocalSecondaryIndex.builder().indexName(indexName)
-                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build()).keySchema(indexSchemaList)
+                    .projection(projections.get(indexName)).keySchema(indexSchemaList)
                     .build();
             localSecondaryIndices.add(glsIndex);
         });
@@ -0,0 +1,177 @@
+package io.github.duke.dynamodb.config;
+
+import io.github.duke.dynamodb.capacity.CapacityRateLimiter;
+import io.github.duke.dynamodb.metrics.CapacityTelemetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkClient;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link BeanPostProcessor} sending the requests of the {@link DynamoDbClient} and {@link DynamoDbAsyncClient}
+ * beans through the {@link CapacityRateLimiter} and the {@link CapacityTelemetry} when they are enabled, so they
+ * apply to the clients the starter did not build, such as the ones auto-configured by Spring Cloud AWS. The limiter
+ * blocks the calling thread, so it only applies to the {@link DynamoDbClient} beans.
+ * <p>
+ * The SDK clients cannot take an interceptor once built, so each bean is replaced by a proxy of its client interface
+ * delegating to it. The default methods building a request, such as the {@code Consumer<Builder>} overloads and the
+ * paginators, run on the proxy, so the requests they send are intercepted as well. An interceptor already registered
+ * on the builder of a client is not applied twice.
+ * <p>
+ * Once the singletons are instantiated, a warning is logged for each enabled interceptor no client bean was found
+ * to send the requests to.
+ */
+@Slf4j
+@Component
+public class DynamoDbClientPostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<CapacityRateLimiter> capacityRateLimiter;
+    private final ObjectProvider<CapacityTelemetry> capacityTelemetry;
+    private volatile boolean limiterReached;
+    private volatile boolean telemetryReached;
+
+    /**
+     * Constructs a DynamoDbClientPostProcessor with the necessary dependencies.
+     *
+     * @param capacityRateLimiter Provider of the rate limiter, resolved once a client bean is initialized.
+     * @param capacityTelemetry   Provider of the telemetry, resolved once a client bean is initialized.
+     */
+    public DynamoDbClientPostProcessor(ObjectProvider<CapacityRateLimiter> capacityRateLimiter,
+                                       ObjectProvider<CapacityTelemetry> capacityTelemetry) {
+        this.capacityRateLimiter = capacityRateLimiter;
+        this.capacityTelemetry = capacityTelemetry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DynamoDbClient client) {
+            CapacityRateLimiter limiter = enabled(capacityRateLimiter.getIfAvailable());
+            CapacityTelemetry telemetry = enabled(capacityTelemetry.getIfAvailable());
+            limiterReached |= limiter != null;
+            telemetryReached |= telemetry != null;
+            limiter = isRegistered(client, limiter) ? null : limiter;
+            telemetry = isRegistered(client, telemetry) ? null : telemetry;
+            if (limiter == null && telemetry == null) {
+                return bean;
+            }
+            log.debug("Intercepting the requests of the DynamoDB client bean {}.", beanName);
+            CapacityRateLimiter appliedLimiter = limiter;
+            CapacityTelemetry appliedTelemetry = telemetry;
+            return proxy(DynamoDbClient.class, client, (request, send) -> {
+                Function<SdkRequest, SdkResponse> sent = modified -> (SdkResponse) send.apply(modified);
+                Function<SdkRequest, SdkResponse> observed = appliedTelemetry == null ? sent
+                        : modified -> appliedTelemetry.observe(modified, sent);
+                return appliedLimiter == null ? observed.apply(request) : appliedLimiter.limit(request, observed);
+            });
+        }
+        if (bean instanceof DynamoDbAsyncClient client) {
+            CapacityTelemetry telemetry = enabled(capacityTelemetry.getIfAvailable());
+            telemetryReached |= telemetry != null;
+            if (telemetry == null || isRegistered(client, telemetry)) {
+                return bean;
+            }
+            log.debug("Recording the consumed capacity of the DynamoDB client bean {}.", beanName);
+            return proxy(DynamoDbAsyncClient.class, client, (request, send) ->
+                    telemetry.observeAsync(request, sent -> castFuture(send.apply(sent))));
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled(capacityRateLimiter.getIfAvailable()) != null && !limiterReached) {
+            log.warn("dynamodb.starter.capacity.enabled is set but no DynamoDbClient bean was found: register the "
+                    + "CapacityRateLimiter on the builder of the client, or it limits nothing.");
+        }
+        if (enabled(capacityTelemetry.getIfAvailable()) != null && !telemetryReached) {
+            log.warn("dynamodb.starter.telemetry.enabled is set but no DynamoDbClient or DynamoDbAsyncClient bean "
+                    + "was found: register the CapacityTelemetry on the builder of the client, or it records nothing.");
+        }
+    }
+
+    private static CapacityRateLimiter enabled(CapacityRateLimiter limiter) {
+        return limiter != null && limiter.isEnabled() ? limiter : null;
+    }
+
+    private static CapacityTelemetry enabled(CapacityTelemetry telemetry) {
+        return telemetry != null && telemetry.isEnabled() ? telemetry : null;
+    }
+
+    /**
+     * @return Whether the interceptor is registered on the builder of the client, {@code false} without interceptor.
+     */
+    private static boolean isRegistered(SdkClient client, ExecutionInterceptor interceptor) {
+        if (interceptor == null) {
+            return false;
+        }
+        try {
+            return client.serviceClientConfiguration().overrideConfiguration().executionInterceptors()
+                    .contains(interceptor);
+        } catch (UnsupportedOperationException e) {
+            // clients not built by the SDK, such as test doubles, have no configuration to hold it
+            return false;
+        }
+    }
+
+    private static <T> T proxy(Class<T> clientType, T client, Interception interception) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            boolean buildsRequest = method.getName().endsWith("Paginator")
+                    || (args != null && args.length == 1 && args[0] instanceof Consumer);
+            if (method.isDefault() && buildsRequest) {
+                // builds the request and calls back the proxy, or returns a paginator calling it
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            if (args != null && args.length == 1 && args[0] instanceof DynamoDbRequest) {
+                return interception.send((SdkRequest) args[0], request -> invoke(method, client, request));
+            }
+            return invoke(method, client, args);
+        };
+        return clientType.cast(Proxy.newProxyInstance(clientType.getClassLoader(), new Class<?>[]{clientType},
+                handler));
+    }
+
+    private static Object invoke(Method method, Object client, Object... args) {
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SdkResponse> castFuture(Object future) {
+        return (CompletableFuture<SdkResponse>) future;
+    }
+
+    /**
+     * Sends a request of a proxied client, given the function sending the request as modified to the client.
+     */
+    @FunctionalInterface
+    private interface Interception {
+        Object send(SdkRequest request, Function<SdkRequest, Object> send);
+    }
+}
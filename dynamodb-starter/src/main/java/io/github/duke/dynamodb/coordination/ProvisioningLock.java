@@ -0,0 +1,391 @@
+package io.github.duke.dynamodb.coordination;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Elects a single instance of a fleet to provision the entity tables, so instances starting together cost one
+ * set of control plane calls instead of one per instance.
+ * <p>
+ * The lock is an item of a small control table, taken with a conditional {@code PutItem} which only succeeds
+ * when the item is missing, its lease expired, or it records the completion of another schema. The owner renews
+ * the lease while it provisions, then marks the item {@code COMPLETE} with the digest of the schema fingerprints
+ * for one more lease. The other instances wait with a jittered exponential backoff, each wait ending with a single
+ * consistent {@code GetItem}: they skip the provisioning once it is complete for their schema, and take the lock
+ * over when the owner released it or stopped renewing it. The control table is created (on demand billing) on
+ * first use.
+ * <p>
+ * Enabled with {@code dynamodb.starter.coordination.enabled}; the lock item is named after the table prefix, so
+ * the fleets of different prefixes do not wait for each other.
+ */
+@Slf4j
+@Component
+public class ProvisioningLock implements DisposableBean {
+
+    static final String LOCK_ATTRIBUTE = "lockName";
+    static final String OWNER_ATTRIBUTE = "owner";
+    static final String STATUS_ATTRIBUTE = "status";
+    static final String DIGEST_ATTRIBUTE = "digest";
+    static final String EXPIRES_AT_ATTRIBUTE = "expiresAt";
+    static final String IN_PROGRESS = "IN_PROGRESS";
+    static final String COMPLETE = "COMPLETE";
+
+    private static final String ACQUIRE_CONDITION = "attribute_not_exists(#lock) OR #expiresAt < :now "
+            + "OR (#status = :complete AND #digest <> :digest)";
+    private static final String OWNER_CONDITION = "#owner = :owner";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final boolean enabled;
+    private final String controlTableName;
+    private final String lockName;
+    private final long leaseMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long waitMillis;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final ScheduledExecutorService renewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-provisioning-lock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a ProvisioningLock.
+     *
+     * @param dynamoDbClient   The DynamoDB client.
+     * @param enabled          Whether the instances coordinate, otherwise every instance provisions.
+     * @param controlTableName The name of the control table holding the lock item.
+     * @param tablePrefix      The table prefix of the entity tables, naming the lock item.
+     * @param leaseSeconds     The lease of the owner, renewed every third of it while provisioning.
+     * @param baseDelayMillis  The first wait of the other instances, doubled after each check.
+     * @param maxDelayMillis   The maximum wait between two checks.
+     * @param waitSeconds      The maximum time an instance waits for the provisioning of another one.
+     */
+    @Autowired
+    public ProvisioningLock(DynamoDbClient dynamoDbClient,
+                            @Value("${dynamodb.starter.coordination.enabled:false}") boolean enabled,
+                            @Value("${dynamodb.starter.coordination.table:dynamodb_starter_lock}") String controlTableName,
+                            @Value("${dynamodb.starter.table.prefix:}") String tablePrefix,
+                            @Value("${dynamodb.starter.coordination.leaseSeconds:60}") long leaseSeconds,
+                            @Value("${dynamodb.starter.coordination.baseDelayMillis:250}") long baseDelayMillis,
+                            @Value("${dynamodb.starter.coordination.maxDelayMillis:5000}") long maxDelayMillis,
+                            @Value("${dynamodb.starter.coordination.waitSeconds:900}") long waitSeconds) {
+        if (enabled && (leaseSeconds < 1 || baseDelayMillis < 1)) {
+            throw new IllegalArgumentException("dynamodb.starter.coordination.leaseSeconds and baseDelayMillis "
+                    + "must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.enabled = enabled;
+        this.controlTableName = controlTableName;
+        this.lockName = "provisioning:" + (tablePrefix == null ? "" : tablePrefix);
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = Math.max(baseDelayMillis, maxDelayMillis);
+        this.waitMillis = TimeUnit.SECONDS.toMillis(waitSeconds);
+    }
+
+    /**
+     * @return A lock which lets every instance provision.
+     */
+    public static ProvisioningLock disabled() {
+        return new ProvisioningLock(null, false, "", "", 0, 0, 0, 0);
+    }
+
+    /**
+     * @return {@code true} if the instances coordinate.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        renewals.shutdownNow();
+    }
+
+    /**
+     * Takes the lock to provision the tables of the given schema, waiting while another instance holds it.
+     *
+     * @param fingerprints The schema fingerprints of the tables, keyed by table name.
+     * @return The lease of this instance, which must be completed or released, or empty if another instance
+     * completed the provisioning of the same schema.
+     * @throws TableProvisioningException If another instance holds the lock for longer than
+     *                                    {@code dynamodb.starter.coordination.waitSeconds}, or if interrupted.
+     */
+    public Optional<Lease> acquire(Map<String, String> fingerprints) {
+        if (!enabled) {
+            return Optional.of(Lease.NONE);
+        }
+        String digest = digest(fingerprints);
+        long deadline = System.currentTimeMillis() + waitMillis;
+        int checks = 0;
+        while (true) {
+            Map<String, AttributeValue> current = tryAcquire(digest);
+            if (current == null) {
+                log.info("Provisioning lock {} acquired by {}.", lockName, owner);
+                return Optional.of(new OwnedLease(digest));
+            }
+            // a single status check per wait, until the lock can be taken over
+            while (!acquirable(current, digest)) {
+                if (complete(current, digest)) {
+                    log.info("Tables provisioned by {}, skipping.", current.get(OWNER_ATTRIBUTE).s());
+                    return Optional.empty();
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new TableProvisioningException("Timed out waiting for " + current.get(OWNER_ATTRIBUTE).s()
+                            + " to provision the tables, lock " + lockName + " of table " + controlTableName);
+                }
+                sleep(backoff(++checks));
+                current = read();
+            }
+        }
+    }
+
+    /**
+     * The right of an instance to provision the tables.
+     */
+    public interface Lease {
+
+        /**
+         * The lease of a disabled lock.
+         */
+        Lease NONE = new Lease() {
+            @Override
+            public void complete() {
+                // nothing to record
+            }
+
+            @Override
+            public void release() {
+                // nothing to release
+            }
+
+            @Override
+            public void checkHeld() {
+                // never taken over
+            }
+        };
+
+        /**
+         * Records the provisioning as complete, so the waiting instances skip it.
+         *
+         * @throws TableProvisioningException If another instance took the lock over, the provisioning then being
+         *                                    left to it.
+         */
+        void complete();
+
+        /**
+         * Releases the lock after a failed provisioning, so another instance takes it over immediately.
+         */
+        void release();
+
+        /**
+         * Checks that this instance still owns the lock, so a provisioning whose lease expired stops before racing
+         * the instance which took it over.
+         *
+         * @throws TableProvisioningException If another instance took the lock over.
+         */
+        void checkHeld();
+    }
+
+    private final class OwnedLease implements Lease {
+
+        private final String digest;
+        private final ScheduledFuture<?> renewal;
+        private volatile boolean lost;
+
+        private OwnedLease(String digest) {
+            this.digest = digest;
+            long period = Math.max(1, leaseMillis / 3);
+            this.renewal = renewals.scheduleAtFixedRate(() -> write(digest, IN_PROGRESS), period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void complete() {
+            renewal.cancel(false);
+            if (lost || !write(digest, COMPLETE)) {
+                throw takenOver();
+            }
+        }
+
+        @Override
+        public void release() {
+            renewal.cancel(false);
+            try {
+                dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(controlTableName)
+                        .key(Map.of(LOCK_ATTRIBUTE, AttributeValue.fromS(lockName)))
+                        .conditionExpression(OWNER_CONDITION)
+                        .expressionAttributeNames(Map.of("#owner", OWNER_ATTRIBUTE))
+                        .expressionAttributeValues(Map.of(":owner", AttributeValue.fromS(owner)))
+                        .build());
+            } catch (ConditionalCheckFailedException e) {
+                log.debug("Provisioning lock {} already taken over.", lockName);
+            } catch (RuntimeException e) {
+                log.warn("Unable to release the provisioning lock {}, it expires with its lease.", lockName, e);
+            }
+        }
+
+        @Override
+        public void checkHeld() {
+            if (lost) {
+                throw takenOver();
+            }
+        }
+
+        private TableProvisioningException takenOver() {
+            return new TableProvisioningException("Provisioning lock " + lockName
+                    + " was taken over by another instance after its lease expired");
+        }
+
+        /**
+         * Renews the lease with the given status, as long as this instance still owns the lock. Once another
+         * instance took the lock over, the lease is lost and no longer renewed.
+         *
+         * @return {@code false} if the lease is lost.
+         */
+        private boolean write(String digest, String status) {
+            try {
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                        .tableName(controlTableName)
+                        .item(item(digest, status))
+                        .conditionExpression(OWNER_CONDITION)
+                        .expressionAttributeNames(Map.of("#owner", OWNER_ATTRIBUTE))
+                        .expressionAttributeValues(Map.of(":owner", AttributeValue.fromS(owner)))
+                        .build());
+            } catch (ConditionalCheckFailedException e) {
+                log.warn("Provisioning lock {} was taken over after its lease expired.", lockName);
+                lost = true;
+                renewal.cancel(false);
+                return false;
+            } catch (RuntimeException e) {
+                log.warn("Unable to renew the provisioning lock {}.", lockName, e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Puts the lock item if the lock can be taken.
+     *
+     * @return {@code null} if the lock was taken, the current lock item otherwise.
+     */
+    private Map<String, AttributeValue> tryAcquire(String digest) {
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(controlTableName)
+                .item(item(digest, IN_PROGRESS))
+                .conditionExpression(ACQUIRE_CONDITION)
+                .expressionAttributeNames(Map.of("#lock", LOCK_ATTRIBUTE, "#expiresAt", EXPIRES_AT_ATTRIBUTE,
+                        "#status", STATUS_ATTRIBUTE, "#digest", DIGEST_ATTRIBUTE))
+                .expressionAttributeValues(Map.of(
+                        ":now", AttributeValue.fromN(String.valueOf(System.currentTimeMillis())),
+                        ":complete", AttributeValue.fromS(COMPLETE),
+                        ":digest", AttributeValue.fromS(digest)))
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+        try {
+            dynamoDbClient.putItem(request);
+            return null;
+        } catch (ConditionalCheckFailedException e) {
+            return e.hasItem() ? e.item() : read();
+        } catch (ResourceNotFoundException e) {
+            createControlTable();
+            return tryAcquire(digest);
+        }
+    }
+
+    private Map<String, AttributeValue> read() {
+        return dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(controlTableName)
+                .key(Map.of(LOCK_ATTRIBUTE, AttributeValue.fromS(lockName)))
+                .consistentRead(true)
+                .build()).item();
+    }
+
+    private Map<String, AttributeValue> item(String digest, String status) {
+        return Map.of(LOCK_ATTRIBUTE, AttributeValue.fromS(lockName),
+                OWNER_ATTRIBUTE, AttributeValue.fromS(owner),
+                STATUS_ATTRIBUTE, AttributeValue.fromS(status),
+                DIGEST_ATTRIBUTE, AttributeValue.fromS(digest),
+                EXPIRES_AT_ATTRIBUTE, AttributeValue.fromN(String.valueOf(System.currentTimeMillis() + leaseMillis)));
+    }
+
+    /**
+     * Mirrors {@link #ACQUIRE_CONDITION}.
+     */
+    private static boolean acquirable(Map<String, AttributeValue> item, String digest) {
+        return item == null || item.isEmpty()
+                || Long.parseLong(item.get(EXPIRES_AT_ATTRIBUTE).n()) < System.currentTimeMillis()
+                || COMPLETE.equals(item.get(STATUS_ATTRIBUTE).s()) && !digest.equals(item.get(DIGEST_ATTRIBUTE).s());
+    }
+
+    private static boolean complete(Map<String, AttributeValue> item, String digest) {
+        return COMPLETE.equals(item.get(STATUS_ATTRIBUTE).s()) && digest.equals(item.get(DIGEST_ATTRIBUTE).s());
+    }
+
+    private long backoff(int checks) {
+        long backoff = Math.min(maxDelayMillis, baseDelayMillis << Math.min(checks - 1, 20));
+        // equal jitter, so the instances started together spread their checks
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static void sleep(long millis) {
+        LockSupport.parkNanos(ProvisioningLock.class, TimeUnit.MILLISECONDS.toNanos(millis));
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting for the provisioning lock");
+        }
+    }
+
+    private void createControlTable() {
+        try {
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                    .tableName(controlTableName)
+                    .attributeDefinitions(AttributeDefinition.builder()
+                            .attributeName(LOCK_ATTRIBUTE).attributeType(ScalarAttributeType.S).build())
+                    .keySchema(KeySchemaElement.builder()
+                            .attributeName(LOCK_ATTRIBUTE).keyType(KeyType.HASH).build())
+                    .billingMode(BillingMode.PAY_PER_REQUEST)
+                    .build());
+        } catch (ResourceInUseException e) {
+            log.debug("Provisioning lock table {} is already being created.", controlTableName);
+        }
+        dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder().tableName(controlTableName).build());
+    }
+
+    /**
+     * @return A digest of the fingerprints, in table name order.
+     */
+    static String digest(Map<String, String> fingerprints) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(fingerprints).forEach((tableName, fingerprint) ->
+                    digest.update((tableName + '=' + fingerprint + '\n').getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
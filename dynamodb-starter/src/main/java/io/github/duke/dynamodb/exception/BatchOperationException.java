@@ -0,0 +1,11 @@
+package io.github.duke.dynamodb.exception;
+
+public class BatchOperationException extends RuntimeException {
+    public BatchOperationException(String message) {
+        super(message);
+    }
+
+    public BatchOperationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
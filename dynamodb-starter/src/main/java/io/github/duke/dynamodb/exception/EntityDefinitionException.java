@@ -0,0 +1,11 @@
+package io.github.duke.dynamodb.exception;
+
+public class EntityDefinitionException extends RuntimeException {
+    public EntityDefinitionException(String message) {
+        super(message);
+    }
+
+    public EntityDefinitionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
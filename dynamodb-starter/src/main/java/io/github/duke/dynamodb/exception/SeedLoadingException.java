@@ -0,0 +1,11 @@
+package io.github.duke.dynamodb.exception;
+
+public class SeedLoadingException extends RuntimeException {
+    public SeedLoadingException(String message) {
+        super(message);
+    }
+
+    public SeedLoadingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.duke.dynamodb.exception;
+
+public class TableProvisioningException extends RuntimeException {
+    public TableProvisioningException(String message) {
+        super(message);
+    }
+
+    public TableProvisioningException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.duke.dynamodb.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The compile time index of DynamoDB entities generated by the {@code dynamodb-starter-processor} module.
+ * <p>
+ * Every {@value #INDEX_LOCATION} resource on the classpath is merged, so entities compiled into
+ * several jars are all picked up. When no index resource exists, {@link #isPresent()} returns
+ * {@code false} and the caller is expected to fall back to classpath scanning.
+ */
+@Slf4j
+public class EntityIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/dynamodb-starter/entities.index";
+
+    private static final String COMMENT = "#";
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final List<Entry> entries;
+    private final boolean present;
+
+    private EntityIndex(List<Entry> entries, boolean present) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.present = present;
+    }
+
+    /**
+     * Loads and merges all the index resources visible to the given class loader.
+     *
+     * @param classLoader The class loader to look up index resources with.
+     * @return The loaded index, which may be absent.
+     */
+    public static EntityIndex load(ClassLoader classLoader) {
+        List<Entry> entries = new ArrayList<>();
+        boolean present = false;
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+                present = true;
+                readIndex(resources.nextElement(), entries);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + INDEX_LOCATION, e);
+        }
+        return new EntityIndex(entries, present);
+    }
+
+    private static void readIndex(URL resource, List<Entry> entries) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.hasText(line) && !line.startsWith(COMMENT)) {
+                    entries.add(parse(line));
+                }
+            }
+        }
+        log.debug("Loaded DynamoDB entity index {}", resource);
+    }
+
+    private static Entry parse(String line) {
+        // the fields past the document flag, written by earlier processors, are ignored
+        String[] fields = line.split(FIELD_SEPARATOR, -1);
+        return new Entry(fields[0], fields.length > 1 && Boolean.parseBoolean(fields[1]));
+    }
+
+    /**
+     * @return {@code true} if at least one index resource was found on the classpath.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * Returns the indexed entities located in the given package or its sub packages.
+     *
+     * @param packageName The base package, a blank value (or {@code ''}) matches every entity.
+     * @return The matching entries.
+     */
+    public List<Entry> getEntries(String packageName) {
+        String basePackage = packageName == null ? "" : packageName.replace("'", "").trim();
+        if (basePackage.isEmpty()) {
+            return entries;
+        }
+        return entries.stream()
+                .filter(entry -> entry.className().startsWith(basePackage + "."))
+                .toList();
+    }
+
+    /**
+     * An indexed DynamoDB entity.
+     *
+     * @param className The binary name of the entity class.
+     * @param document  Whether the entity is a {@code @DynamoDbDocument} without a table of its own.
+     */
+    public record Entry(String className, boolean document) {
+    }
+}
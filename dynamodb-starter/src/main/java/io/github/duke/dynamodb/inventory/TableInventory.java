@@ -0,0 +1,220 @@
+package io.github.duke.dynamodb.inventory;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.ListTablesRequest;
+import software.amazon.awssdk.services.dynamodb.model.ListTagsOfResourceRequest;
+import software.amazon.awssdk.services.dynamodb.model.ListTagsOfResourceResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.Tag;
+import software.amazon.awssdk.services.dynamodb.model.TagResourceRequest;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps an immutable {@link TableSnapshot} of the DynamoDB tables matching the configured table prefix.
+ * <p>
+ * A refresh pages through every {@code ListTables} result, keeps the names starting with
+ * {@code dynamodb.starter.table.prefix} and describes them in parallel, through the {@link DynamoDbAsyncClient}
+ * when one is available or the blocking client otherwise, with up to {@code describeConcurrency} calls in flight.
+ * The snapshot can be injected and queried by application code without further control plane calls.
+ * <p>
+ * Table descriptions hold no tags: they are read, and written, per table on demand.
+ */
+@Slf4j
+@Component
+public class TableInventory {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final String tablePrefix;
+    private final int describeConcurrency;
+
+    private volatile TableSnapshot snapshot = TableSnapshot.EMPTY;
+
+    /**
+     * Constructs a TableInventory with the necessary dependencies.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient Provider of the optional async DynamoDB client.
+     * @param tablePrefix         The table prefix used to filter tables.
+     * @param describeConcurrency The maximum number of DescribeTable calls in flight.
+     */
+    @Autowired
+    public TableInventory(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                          @Value("${dynamodb.starter.table.prefix}") String tablePrefix,
+                          @Value("${dynamodb.starter.inventory.describeConcurrency:10}") int describeConcurrency) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), tablePrefix, describeConcurrency);
+    }
+
+    /**
+     * Constructs a TableInventory with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient The async DynamoDB client, or {@code null} to use the blocking client.
+     * @param tablePrefix         The table prefix used to filter tables.
+     * @param describeConcurrency The maximum number of DescribeTable calls in flight.
+     */
+    public TableInventory(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                          String tablePrefix, int describeConcurrency) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.tablePrefix = tablePrefix == null ? "" : tablePrefix;
+        this.describeConcurrency = Math.max(1, describeConcurrency);
+    }
+
+    /**
+     * @return The latest snapshot, empty until the first {@link #refresh()}.
+     */
+    public TableSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Lists and describes all the tables matching the table prefix and replaces the current snapshot.
+     * Concurrent {@link #update(Collection)} calls wait for the refresh, so they are never overwritten by it.
+     *
+     * @return The new snapshot.
+     */
+    public synchronized TableSnapshot refresh() {
+        List<String> tableNames = listTableNames();
+        Map<String, TableDescription> tables = new HashMap<>();
+        describeTables(tableNames).forEach(description -> tables.put(description.tableName(), description));
+        snapshot = new TableSnapshot(tables, Instant.now());
+        log.debug("Table inventory refreshed with {} table(s) matching prefix '{}'.", tables.size(), tablePrefix);
+        return snapshot;
+    }
+
+    /**
+     * Adds or replaces table descriptions in the current snapshot, e.g. after tables were created.
+     *
+     * @param descriptions The up-to-date table descriptions.
+     * @return The new snapshot.
+     */
+    public synchronized TableSnapshot update(Collection<TableDescription> descriptions) {
+        snapshot = snapshot.with(descriptions);
+        return snapshot;
+    }
+
+    /**
+     * Reads the tags of a table.
+     *
+     * @param table The table description.
+     * @return The tags of the table, by key.
+     */
+    public Map<String, String> tags(TableDescription table) {
+        Map<String, String> tags = new HashMap<>();
+        String nextToken = null;
+        do {
+            ListTagsOfResourceResponse response = dynamoDbClient.listTagsOfResource(ListTagsOfResourceRequest.builder()
+                    .resourceArn(table.tableArn())
+                    .nextToken(nextToken)
+                    .build());
+            response.tags().forEach(tag -> tags.put(tag.key(), tag.value()));
+            nextToken = response.nextToken();
+        } while (nextToken != null);
+        return tags;
+    }
+
+    /**
+     * Adds a tag to a table, replacing the value of an existing tag with the same key.
+     *
+     * @param table The table description.
+     * @param key   The tag key.
+     * @param value The tag value.
+     */
+    public void tag(TableDescription table, String key, String value) {
+        dynamoDbClient.tagResource(TagResourceRequest.builder()
+                .resourceArn(table.tableArn())
+                .tags(Tag.builder().key(key).value(value).build())
+                .build());
+    }
+
+    /**
+     * Pages through all the table names of the account and region and keeps the ones matching the prefix.
+     *
+     * @return The matching table names.
+     */
+    private List<String> listTableNames() {
+        List<String> tableNames = new ArrayList<>();
+        for (String tableName : dynamoDbClient.listTablesPaginator(ListTablesRequest.builder().build()).tableNames()) {
+            if (tableName.startsWith(tablePrefix)) {
+                tableNames.add(tableName);
+            }
+        }
+        return tableNames;
+    }
+
+    /**
+     * Describes the given tables in parallel, {@code describeConcurrency} at most at a time. Tables deleted in the
+     * meantime are left out.
+     *
+     * @param tableNames The table names.
+     * @return The table descriptions.
+     */
+    private List<TableDescription> describeTables(List<String> tableNames) {
+        if (tableNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ExecutorService executor = dynamoDbAsyncClient == null
+                ? Executors.newFixedThreadPool(Math.min(describeConcurrency, tableNames.size()))
+                : null;
+        try {
+            Semaphore inFlight = new Semaphore(describeConcurrency);
+            List<CompletableFuture<Optional<TableDescription>>> descriptions = new ArrayList<>();
+            for (String tableName : tableNames) {
+                acquire(inFlight);
+                descriptions.add(describeTable(tableName, executor).whenComplete((d, e) -> inFlight.release()));
+            }
+            return descriptions.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private CompletableFuture<Optional<TableDescription>> describeTable(String tableName, ExecutorService executor) {
+        DescribeTableRequest request = DescribeTableRequest.builder().tableName(tableName).build();
+        CompletableFuture<DescribeTableResponse> response = executor == null
+                ? dynamoDbAsyncClient.describeTable(request)
+                : CompletableFuture.supplyAsync(() -> dynamoDbClient.describeTable(request), executor);
+        return response
+                .thenApply(r -> Optional.of(r.table()))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ResourceNotFoundException) {
+                        log.debug("Table {} was deleted while taking the inventory.", tableName);
+                        return Optional.empty();
+                    }
+                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                });
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting to describe the tables", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.duke.dynamodb.inventory;
+
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * An immutable, point in time view of the DynamoDB tables managed by the starter.
+ * <p>
+ * Lookups never reach DynamoDB; use {@link TableInventory#refresh()} to take a new snapshot.
+ */
+public final class TableSnapshot {
+
+    static final TableSnapshot EMPTY = new TableSnapshot(Collections.emptyMap(), Instant.EPOCH);
+
+    private final Map<String, TableDescription> tables;
+    private final Instant takenAt;
+
+    TableSnapshot(Map<String, TableDescription> tables, Instant takenAt) {
+        this.tables = Collections.unmodifiableMap(new TreeMap<>(tables));
+        this.takenAt = takenAt;
+    }
+
+    /**
+     * Returns a new snapshot with the given descriptions added or replaced.
+     *
+     * @param descriptions The table descriptions to merge.
+     * @return The merged snapshot.
+     */
+    TableSnapshot with(Collection<TableDescription> descriptions) {
+        Map<String, TableDescription> merged = new HashMap<>(tables);
+        descriptions.forEach(description -> merged.put(description.tableName(), description));
+        return new TableSnapshot(merged, Instant.now());
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return {@code true} if the table existed when the snapshot was taken.
+     */
+    public boolean contains(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return The description of the table, if it existed when the snapshot was taken.
+     */
+    public Optional<TableDescription> describe(String tableName) {
+        return Optional.ofNullable(tables.get(tableName));
+    }
+
+    /**
+     * @return The sorted names of all the tables in the snapshot.
+     */
+    public Set<String> tableNames() {
+        return tables.keySet();
+    }
+
+    /**
+     * @return All table descriptions, keyed by table name.
+     */
+    public Map<String, TableDescription> tables() {
+        return tables;
+    }
+
+    /**
+     * @return When the snapshot was taken.
+     */
+    public Instant takenAt() {
+        return takenAt;
+    }
+}
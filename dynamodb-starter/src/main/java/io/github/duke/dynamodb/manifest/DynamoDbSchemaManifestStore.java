@@ -0,0 +1,161 @@
+package io.github.duke.dynamodb.manifest;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link SchemaManifestStore} backed by a DynamoDB control table with one item per managed table.
+ * <p>
+ * Loading only uses {@code BatchGetItem}, a data plane call, so unchanged deployments make no control
+ * plane call at all. The control table is created (on demand billing) the first time fingerprints are saved.
+ * Unprocessed keys are retried after an exponential backoff with full jitter, at most {@code maxAttempts} times
+ * per batch. The fingerprints still unprocessed after the last attempt are left out, so the manifest does not
+ * match and the startup verifies the tables.
+ */
+@Slf4j
+public class DynamoDbSchemaManifestStore implements SchemaManifestStore {
+
+    static final String TABLE_NAME_ATTRIBUTE = "tableName";
+    static final String FINGERPRINT_ATTRIBUTE = "fingerprint";
+    private static final int MAX_BATCH_GET_KEYS = 100;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_DELAY_MILLIS = 50;
+    private static final long MAX_DELAY_MILLIS = 1000;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String controlTableName;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * @param dynamoDbClient   The DynamoDB client.
+     * @param controlTableName The name of the control table.
+     */
+    public DynamoDbSchemaManifestStore(DynamoDbClient dynamoDbClient, String controlTableName) {
+        this(dynamoDbClient, controlTableName, MAX_ATTEMPTS, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param dynamoDbClient   The DynamoDB client.
+     * @param controlTableName The name of the control table.
+     * @param maxAttempts      The maximum number of attempts of a batch with unprocessed keys.
+     * @param baseDelayMillis  The base delay of the exponential backoff.
+     * @param maxDelayMillis   The maximum delay of the exponential backoff.
+     */
+    public DynamoDbSchemaManifestStore(DynamoDbClient dynamoDbClient, String controlTableName,
+                                       int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.controlTableName = controlTableName;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> load(Collection<String> tableNames) {
+        Map<String, String> fingerprints = new HashMap<>();
+        List<String> names = new ArrayList<>(tableNames);
+        try {
+            for (int from = 0; from < names.size(); from += MAX_BATCH_GET_KEYS) {
+                List<Map<String, AttributeValue>> keys = names.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, names.size()))
+                        .stream().map(DynamoDbSchemaManifestStore::key).toList();
+                loadBatch(keys, fingerprints);
+            }
+        } catch (ResourceNotFoundException e) {
+            log.debug("Schema manifest table {} does not exist yet.", controlTableName);
+            return Collections.emptyMap();
+        }
+        return fingerprints;
+    }
+
+    private void loadBatch(List<Map<String, AttributeValue>> keys, Map<String, String> fingerprints) {
+        Map<String, KeysAndAttributes> requestItems = Map.of(controlTableName, KeysAndAttributes.builder()
+                .keys(keys).consistentRead(true).build());
+        for (int attempt = 1; ; attempt++) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(requestItems).build());
+            response.responses().getOrDefault(controlTableName, Collections.emptyList())
+                    .forEach(item -> fingerprints.put(item.get(TABLE_NAME_ATTRIBUTE).s(), item.get(FINGERPRINT_ATTRIBUTE).s()));
+            requestItems = response.unprocessedKeys();
+            if (requestItems.isEmpty()) {
+                return;
+            }
+            if (attempt >= maxAttempts) {
+                log.warn("{} key(s) of schema manifest {} are still unprocessed after {} attempts, verifying the tables.",
+                        requestItems.get(controlTableName).keys().size(), controlTableName, attempt);
+                return;
+            }
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Sleeps for an exponentially growing delay with full jitter: a random time between zero and
+     * {@code min(maxDelay, baseDelay * 2^attempt)}.
+     *
+     * @param attempt The attempt which left unprocessed keys.
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while loading the schema manifest", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(Map<String, String> fingerprints) {
+        try {
+            put(fingerprints);
+        } catch (ResourceNotFoundException e) {
+            createControlTable();
+            put(fingerprints);
+        }
+        log.debug("Schema manifest {} updated for table(s) {}.", controlTableName, fingerprints.keySet());
+    }
+
+    private void put(Map<String, String> fingerprints) {
+        fingerprints.forEach((tableName, fingerprint) -> {
+            Map<String, AttributeValue> item = new HashMap<>(key(tableName));
+            item.put(FINGERPRINT_ATTRIBUTE, AttributeValue.fromS(fingerprint));
+            dynamoDbClient.putItem(PutItemRequest.builder().tableName(controlTableName).item(item).build());
+        });
+    }
+
+    private void createControlTable() {
+        try {
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                    .tableName(controlTableName)
+                    .attributeDefinitions(AttributeDefinition.builder()
+                            .attributeName(TABLE_NAME_ATTRIBUTE).attributeType(ScalarAttributeType.S).build())
+                    .keySchema(KeySchemaElement.builder()
+                            .attributeName(TABLE_NAME_ATTRIBUTE).keyType(KeyType.HASH).build())
+                    .billingMode(BillingMode.PAY_PER_REQUEST)
+                    .build());
+        } catch (ResourceInUseException e) {
+            log.debug("Schema manifest table {} is already being created.", controlTableName);
+        }
+        dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder().tableName(controlTableName).build());
+    }
+
+    private static Map<String, AttributeValue> key(String tableName) {
+        return Map.of(TABLE_NAME_ATTRIBUTE, AttributeValue.fromS(tableName));
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.duke.dynamodb.manifest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A {@link SchemaManifestStore} backed by a local properties file, intended for development.
+ */
+@Slf4j
+public class FileSchemaManifestStore implements SchemaManifestStore {
+
+    private final Path file;
+
+    /**
+     * @param file The properties file holding the fingerprints.
+     */
+    public FileSchemaManifestStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> load(Collection<String> tableNames) {
+        Properties properties = read();
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String tableName : tableNames) {
+            String fingerprint = properties.getProperty(tableName);
+            if (fingerprint != null) {
+                fingerprints.put(tableName, fingerprint);
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void save(Map<String, String> fingerprints) {
+        Properties properties = read();
+        properties.putAll(fingerprints);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                properties.store(writer, "DynamoDB starter schema manifest");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write schema manifest " + file, e);
+        }
+        log.debug("Schema manifest {} updated for table(s) {}.", file, fingerprints.keySet());
+    }
+
+    private Properties read() {
+        Properties properties = new Properties();
+        if (!Files.exists(file)) {
+            return properties;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read schema manifest " + file, e);
+        }
+        return properties;
+    }
+}
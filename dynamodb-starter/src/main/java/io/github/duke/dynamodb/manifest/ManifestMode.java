@@ -0,0 +1,19 @@
+package io.github.duke.dynamodb.manifest;
+
+/**
+ * Where the schema fingerprint manifest is persisted.
+ */
+public enum ManifestMode {
+    /**
+     * No manifest, every startup verifies the tables against DynamoDB.
+     */
+    NONE,
+    /**
+     * A local properties file, intended for development.
+     */
+    FILE,
+    /**
+     * A DynamoDB control table shared by every instance.
+     */
+    TABLE
+}
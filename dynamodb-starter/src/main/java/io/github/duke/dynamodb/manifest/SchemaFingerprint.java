@@ -0,0 +1,113 @@
+package io.github.duke.dynamodb.manifest;
+
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Computes a stable fingerprint of a resolved {@link CreateTableRequest}.
+ * <p>
+ * The fingerprint covers the key schema, attribute definitions, global and local secondary indexes
+ * (key schema, projection and throughput), the billing configuration and the tags recording the write shards.
+ * Collections whose order is not meaningful are sorted first, so the same entity always yields the same fingerprint.
+ */
+public class SchemaFingerprint {
+    private SchemaFingerprint() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Computes the fingerprint of a create table request.
+     *
+     * @param request The create table request.
+     * @return The hex encoded SHA-256 of the canonical schema.
+     */
+    public static String of(CreateTableRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance(ALGORITHM)
+                    .digest(canonical(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Builds the canonical text form of the schema part of a create table request.
+     *
+     * @param request The create table request.
+     * @return The canonical schema.
+     */
+    static String canonical(CreateTableRequest request) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("table=").append(request.tableName()).append('\n');
+        builder.append("billing=").append(request.billingModeAsString()).append('\n');
+        appendThroughput(builder, request.provisionedThroughput());
+        appendOnDemandThroughput(builder, request.onDemandThroughput());
+        request.attributeDefinitions().stream()
+                .sorted(Comparator.comparing(AttributeDefinition::attributeName))
+                .forEach(a -> builder.append("attribute=").append(a.attributeName())
+                        .append(':').append(a.attributeTypeAsString()).append('\n'));
+        appendKeySchema(builder, "key", request.keySchema());
+        request.globalSecondaryIndexes().stream()
+                .sorted(Comparator.comparing(GlobalSecondaryIndex::indexName))
+                .forEach(index -> {
+                    builder.append("gsi=").append(index.indexName()).append('\n');
+                    appendKeySchema(builder, "gsi.key", index.keySchema());
+                    appendProjection(builder, index.projection());
+                    appendThroughput(builder, index.provisionedThroughput());
+                    appendOnDemandThroughput(builder, index.onDemandThroughput());
+                });
+        request.localSecondaryIndexes().stream()
+                .sorted(Comparator.comparing(LocalSecondaryIndex::indexName))
+                .forEach(index -> {
+                    builder.append("lsi=").append(index.indexName()).append('\n');
+                    appendKeySchema(builder, "lsi.key", index.keySchema());
+                    appendProjection(builder, index.projection());
+                });
+        // only tables of write sharded entities are tagged, which keeps the other fingerprints unchanged
+        request.tags().stream()
+                .sorted(Comparator.comparing(Tag::key))
+                .forEach(t -> builder.append("tag=").append(t.key()).append(':').append(t.value()).append('\n'));
+        return builder.toString();
+    }
+
+    private static void appendKeySchema(StringBuilder builder, String name, List<KeySchemaElement> keySchema) {
+        keySchema.stream()
+                .sorted(Comparator.comparing(KeySchemaElement::keyTypeAsString))
+                .forEach(k -> builder.append(name).append('=').append(k.attributeName())
+                        .append(':').append(k.keyTypeAsString()).append('\n'));
+    }
+
+    private static void appendProjection(StringBuilder builder, Projection projection) {
+        if (projection == null) {
+            return;
+        }
+        builder.append("projection=").append(projection.projectionTypeAsString());
+        projection.nonKeyAttributes().stream().sorted().forEach(a -> builder.append(',').append(a));
+        builder.append('\n');
+    }
+
+    private static void appendThroughput(StringBuilder builder, ProvisionedThroughput throughput) {
+        if (throughput == null) {
+            return;
+        }
+        builder.append("throughput=").append(throughput.readCapacityUnits())
+                .append(':').append(throughput.writeCapacityUnits()).append('\n');
+    }
+
+    private static void appendOnDemandThroughput(StringBuilder builder, OnDemandThroughput throughput) {
+        if (throughput == null) {
+            return;
+        }
+        builder.append("onDemand=").append(throughput.maxReadRequestUnits())
+                .append(':').append(throughput.maxWriteRequestUnits()).append('\n');
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.duke.dynamodb.manifest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compares the resolved table schemas with the fingerprints recorded by the last successful startup.
+ * <p>
+ * When {@code dynamodb.starter.manifest.mode} is {@link ManifestMode#FILE} or {@link ManifestMode#TABLE}
+ * and every fingerprint matches, the starter skips listing, describing and creating tables entirely.
+ * <strong>Note:</strong> tables deleted outside of the starter are not detected while their fingerprint
+ * is unchanged, so the manifest should be cleared together with such tables. The {@code TableInventory}
+ * snapshot is not refreshed on such startups either.
+ */
+@Slf4j
+@Component
+public class SchemaManifest {
+
+    private final ManifestMode mode;
+    private final SchemaManifestStore store;
+
+    /**
+     * Constructs a SchemaManifest from the configuration properties.
+     *
+     * @param dynamoDbClient   The DynamoDB client, used by the control table store.
+     * @param mode             The manifest mode.
+     * @param file             The manifest file, used in {@link ManifestMode#FILE} mode.
+     * @param controlTableName The control table name, used in {@link ManifestMode#TABLE} mode.
+     */
+    @Autowired
+    public SchemaManifest(DynamoDbClient dynamoDbClient,
+                          @Value("${dynamodb.starter.manifest.mode:NONE}") ManifestMode mode,
+                          @Value("${dynamodb.starter.manifest.file:.dynamodb-starter-manifest.properties}") String file,
+                          @Value("${dynamodb.starter.manifest.table:dynamodb_starter_manifest}") String controlTableName) {
+        this(mode, switch (mode) {
+            case FILE -> new FileSchemaManifestStore(Path.of(file));
+            case TABLE -> new DynamoDbSchemaManifestStore(dynamoDbClient, controlTableName);
+            case NONE -> null;
+        });
+    }
+
+    /**
+     * Constructs a SchemaManifest with an explicit store.
+     *
+     * @param mode  The manifest mode.
+     * @param store The store, ignored in {@link ManifestMode#NONE} mode.
+     */
+    public SchemaManifest(ManifestMode mode, SchemaManifestStore store) {
+        this.mode = mode;
+        this.store = store;
+    }
+
+    /**
+     * @return A manifest which never matches, so every startup verifies the tables.
+     */
+    public static SchemaManifest disabled() {
+        return new SchemaManifest(ManifestMode.NONE, null);
+    }
+
+    /**
+     * @return {@code true} if fingerprints are compared and recorded.
+     */
+    public boolean isEnabled() {
+        return mode != ManifestMode.NONE;
+    }
+
+    /**
+     * Computes the fingerprints of the given requests.
+     *
+     * @param requests The resolved create table requests.
+     * @return The fingerprints keyed by table name.
+     */
+    public Map<String, String> fingerprints(Collection<CreateTableRequest> requests) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        requests.forEach(request -> fingerprints.put(request.tableName(), SchemaFingerprint.of(request)));
+        return fingerprints;
+    }
+
+    /**
+     * Checks whether the recorded manifest holds exactly the given fingerprints.
+     *
+     * @param fingerprints The current fingerprints keyed by table name.
+     * @return {@code true} if the manifest is enabled and no table changed since it was recorded.
+     */
+    public boolean matches(Map<String, String> fingerprints) {
+        if (!isEnabled() || fingerprints.isEmpty()) {
+            return false;
+        }
+        Map<String, String> recorded = store.load(fingerprints.keySet());
+        boolean matches = recorded.equals(fingerprints);
+        if (!matches) {
+            Set<String> changed = new TreeSet<>(fingerprints.keySet());
+            changed.removeIf(tableName -> fingerprints.get(tableName).equals(recorded.get(tableName)));
+            log.debug("Schema manifest differs for table(s) {}.", changed);
+        }
+        return matches;
+    }
+
+    /**
+     * Records the given fingerprints after the tables have been verified.
+     *
+     * @param fingerprints The current fingerprints keyed by table name.
+     */
+    public void record(Map<String, String> fingerprints) {
+        if (isEnabled() && !fingerprints.isEmpty()) {
+            store.save(fingerprints);
+        }
+    }
+}
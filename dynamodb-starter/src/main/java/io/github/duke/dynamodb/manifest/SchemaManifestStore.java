@@ -0,0 +1,25 @@
+package io.github.duke.dynamodb.manifest;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Persists the schema fingerprints of the provisioned tables, keyed by table name.
+ */
+public interface SchemaManifestStore {
+
+    /**
+     * Loads the stored fingerprints of the given tables.
+     *
+     * @param tableNames The table names.
+     * @return The stored fingerprints, tables without a fingerprint are absent.
+     */
+    Map<String, String> load(Collection<String> tableNames);
+
+    /**
+     * Stores the given fingerprints, replacing the previous ones of the same tables.
+     *
+     * @param fingerprints The fingerprints keyed by table name.
+     */
+    void save(Map<String, String> fingerprints);
+}
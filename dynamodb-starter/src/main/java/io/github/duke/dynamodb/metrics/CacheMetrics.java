@@ -0,0 +1,68 @@
+package io.github.duke.dynamodb.metrics;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Publishes the statistics of the entity near caches.
+ * <p>
+ * When Micrometer and a {@code MeterRegistry} bean are available, the following meters are registered per table:
+ * <ul>
+ *     <li>{@code dynamodb.starter.cache.gets}: function counter of the lookups tagged by {@code result}
+ *     ({@code hit} or {@code miss}) and {@code table}</li>
+ *     <li>{@code dynamodb.starter.cache.evictions}: function counter of the dropped entries tagged by
+ *     {@code cause} ({@code size} or {@code expired}) and {@code table}</li>
+ *     <li>{@code dynamodb.starter.cache.size}: gauge of the entries tagged by {@code table}</li>
+ * </ul>
+ * The meters read the {@link CacheStats} of the cache when they are published, so lookups only update the
+ * counters of the cache itself.
+ */
+@Component
+public class CacheMetrics {
+
+    static final String GETS_COUNTER = "dynamodb.starter.cache.gets";
+    static final String EVICTIONS_COUNTER = "dynamodb.starter.cache.evictions";
+    static final String SIZE_GAUGE = "dynamodb.starter.cache.size";
+
+    private final MeterRecorder recorder;
+
+    /**
+     * @param beanFactory The bean factory holding the optional Micrometer {@code MeterRegistry}.
+     */
+    @Autowired
+    public CacheMetrics(BeanFactory beanFactory) {
+        this.recorder = MeterRecorder.of(beanFactory);
+    }
+
+    private CacheMetrics(MeterRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return Metrics which are not published.
+     */
+    public static CacheMetrics disabled() {
+        return new CacheMetrics(MeterRecorder.NOOP);
+    }
+
+    /**
+     * Registers the meters of the near cache of a table.
+     *
+     * @param tableName The table name.
+     * @param cache     The cache, strongly referenced by its owner for as long as it is used.
+     * @param stats     The function reading the statistics of the cache.
+     * @param <T>       The type of the cache.
+     */
+    public <T> void bind(String tableName, T cache, Function<T, CacheStats> stats) {
+        recorder.functionCounter(GETS_COUNTER, cache, c -> stats.apply(c).hits(), "result", "hit", "table", tableName);
+        recorder.functionCounter(GETS_COUNTER, cache, c -> stats.apply(c).misses(), "result", "miss", "table", tableName);
+        recorder.functionCounter(EVICTIONS_COUNTER, cache, c -> stats.apply(c).evictions(),
+                "cause", "size", "table", tableName);
+        recorder.functionCounter(EVICTIONS_COUNTER, cache, c -> stats.apply(c).expirations(),
+                "cause", "expired", "table", tableName);
+        recorder.gauge(SIZE_GAUGE, cache, c -> stats.apply(c).size(), "table", tableName);
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.duke.dynamodb.metrics;
+
+/**
+ * Statistics of the near cache of an entity table, cumulated since the cache was created.
+ *
+ * @param hits        The lookups answered from the cache.
+ * @param misses      The lookups sent to DynamoDB, expired entries included.
+ * @param evictions   The entries evicted to stay within the maximum size.
+ * @param expirations The entries dropped after their time to live.
+ * @param size        The current number of entries.
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, long size) {
+
+    /**
+     * @return The share of the lookups answered from the cache, 0 before the first lookup.
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,308 @@
+package io.github.duke.dynamodb.metrics;
+
+import io.github.duke.dynamodb.capacity.ConsumedCapacities;
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An {@link ExecutionInterceptor} publishing the capacity consumed by the data plane requests of a DynamoDB client,
+ * and tracking the partition key values consuming the most of it.
+ * <p>
+ * Requests without {@code ReturnConsumedCapacity} are sent with {@code INDEXES}. When Micrometer and a
+ * {@code MeterRegistry} bean are available, the consumed units are published as the
+ * {@code dynamodb.starter.capacity.consumed} function counter tagged by {@code table}, {@code index} (the global or
+ * local secondary index name, {@code none} for the table itself) and {@code type} ({@code read} or {@code write}).
+ * <p>
+ * The units of each request also go to a {@link HotKeySketch} of its table, keyed by the partition key value of the
+ * request: the key of single item requests, every key of batch requests, which share the units evenly, and the
+ * partition of the first returned item of a query on the table. The partition key attribute of each table is taken
+ * from the resolved entity tables, other tables are not tracked. {@link #hotKeys(String)} returns the
+ * {@code dynamodb.starter.telemetry.topK} hottest values of a table, to spot the keys concentrating the traffic on a
+ * single partition.
+ * <p>
+ * Enabled with {@code dynamodb.starter.telemetry.enabled}. The starter does not build the DynamoDB clients: the
+ * {@link io.github.duke.dynamodb.config.DynamoDbClientPostProcessor} wraps the {@code DynamoDbClient} and
+ * {@code DynamoDbAsyncClient} beans, including the ones of Spring Cloud AWS, to send their requests through
+ * {@link #observe} and {@link #observeAsync}. Clients built outside of the context register the interceptor on their
+ * builder instead, and their beans are then left as they are:
+ * <pre>
+ * {@code
+ * DynamoDbClient.builder()
+ *         .overrideConfiguration(o -> o.addExecutionInterceptor(capacityTelemetry))
+ *         .build();
+ * }
+ * </pre>
+ */
+@Component
+public class CapacityTelemetry implements ExecutionInterceptor {
+
+    static final String CONSUMED_COUNTER = "dynamodb.starter.capacity.consumed";
+
+    private static final String NO_INDEX = "none";
+
+    private final MeterRecorder recorder;
+    private final Supplier<List<CreateTableRequest>> entityTables;
+    private final boolean enabled;
+    private final int topK;
+    private final Map<List<String>, DoubleAdder> consumed = new ConcurrentHashMap<>();
+    private final Map<String, HotKeySketch> sketches = new ConcurrentHashMap<>();
+    private volatile Map<String, String> partitionKeys;
+
+    /**
+     * Constructs a CapacityTelemetry with the necessary dependencies.
+     *
+     * @param beanFactory          The bean factory holding the optional Micrometer {@code MeterRegistry}.
+     * @param dynamoDbBeanListener Provider of the listener resolving the entity tables.
+     * @param enabled              Whether the consumed capacity is recorded.
+     * @param topK                 The number of hot partition key values kept per table.
+     */
+    @Autowired
+    public CapacityTelemetry(BeanFactory beanFactory, ObjectProvider<DynamoDbBeanListener> dynamoDbBeanListener,
+                             @Value("${dynamodb.starter.telemetry.enabled:false}") boolean enabled,
+                             @Value("${dynamodb.starter.telemetry.topK:20}") int topK) {
+        this(beanFactory, () -> {
+            DynamoDbBeanListener listener = dynamoDbBeanListener.getIfAvailable();
+            return listener == null ? List.of() : listener.resolveEntityTables();
+        }, enabled, topK);
+    }
+
+    /**
+     * Constructs a CapacityTelemetry with an explicit source of the table keys.
+     *
+     * @param beanFactory  The bean factory holding the optional Micrometer {@code MeterRegistry}.
+     * @param entityTables Supplier of the resolved entity tables.
+     * @param enabled      Whether the consumed capacity is recorded.
+     * @param topK         The number of hot partition key values kept per table.
+     */
+    public CapacityTelemetry(BeanFactory beanFactory, Supplier<List<CreateTableRequest>> entityTables,
+                             boolean enabled, int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.telemetry.topK must be positive");
+        }
+        this.recorder = MeterRecorder.of(beanFactory);
+        this.entityTables = entityTables;
+        this.enabled = enabled;
+        this.topK = topK;
+    }
+
+    /**
+     * Requests the consumed capacity per index.
+     */
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        return enabled ? ConsumedCapacities.withConsumedCapacity(context.request()) : context.request();
+    }
+
+    /**
+     * Records the consumed capacity of the response.
+     */
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        if (enabled) {
+            record(context.request(), context.response());
+        }
+    }
+
+    /**
+     * @return Whether the consumed capacity is recorded.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends a request of a client this interceptor is not registered on, and records its consumed capacity.
+     *
+     * @param request The request.
+     * @param send    Sends the request, as modified to return its consumed capacity, and returns the response.
+     * @return The response.
+     */
+    public SdkResponse observe(SdkRequest request, Function<SdkRequest, SdkResponse> send) {
+        if (!enabled) {
+            return send.apply(request);
+        }
+        SdkRequest sent = ConsumedCapacities.withConsumedCapacity(request);
+        SdkResponse response = send.apply(sent);
+        record(sent, response);
+        return response;
+    }
+
+    /**
+     * Sends a request of an async client this interceptor is not registered on, and records its consumed capacity
+     * once it completes.
+     *
+     * @param request The request.
+     * @param send    Sends the request, as modified to return its consumed capacity, and returns the response.
+     * @return The future of the response, as returned by {@code send}.
+     */
+    public CompletableFuture<SdkResponse> observeAsync(SdkRequest request,
+                                                       Function<SdkRequest, CompletableFuture<SdkResponse>> send) {
+        if (!enabled) {
+            return send.apply(request);
+        }
+        SdkRequest sent = ConsumedCapacities.withConsumedCapacity(request);
+        CompletableFuture<SdkResponse> response = send.apply(sent);
+        response.thenAccept(completed -> record(sent, completed));
+        return response;
+    }
+
+    /**
+     * Returns the partition key values of a table consuming the most capacity since the application started.
+     *
+     * @param tableName The table name.
+     * @return The hot key values, the hottest first, empty when the table is not tracked.
+     */
+    public List<HotKey> hotKeys(String tableName) {
+        HotKeySketch sketch = sketches.get(tableName);
+        return sketch == null ? List.of() : sketch.top();
+    }
+
+    /**
+     * Returns the units consumed on a table or index since the application started.
+     *
+     * @param tableName The table name.
+     * @param indexName The index name, {@code null} for the table itself.
+     * @param read      Whether the read or the write units are returned.
+     * @return The consumed units.
+     */
+    public double consumedUnits(String tableName, String indexName, boolean read) {
+        DoubleAdder units = consumed.get(key(tableName, indexName, read));
+        return units == null ? 0 : units.sum();
+    }
+
+    /**
+     * Records the consumed capacity of a response and the partition key values it was consumed by.
+     *
+     * @param request  The request, as sent.
+     * @param response The response.
+     */
+    void record(SdkRequest request, SdkResponse response) {
+        boolean read = request instanceof GetItemRequest || request instanceof QueryRequest
+                || request instanceof ScanRequest || request instanceof BatchGetItemRequest;
+        for (ConsumedCapacity capacity : ConsumedCapacities.of(response)) {
+            String tableName = capacity.tableName();
+            if (capacity.table() == null) {
+                add(tableName, null, read, capacity.readCapacityUnits(), capacity.writeCapacityUnits(),
+                        capacity.capacityUnits());
+            } else {
+                Capacity table = capacity.table();
+                add(tableName, null, read, table.readCapacityUnits(), table.writeCapacityUnits(), table.capacityUnits());
+                capacity.localSecondaryIndexes().forEach((indexName, index) -> add(tableName, indexName, read,
+                        index.readCapacityUnits(), index.writeCapacityUnits(), index.capacityUnits()));
+                capacity.globalSecondaryIndexes().forEach((indexName, index) -> add(tableName, indexName, read,
+                        index.readCapacityUnits(), index.writeCapacityUnits(), index.capacityUnits()));
+            }
+            if (capacity.capacityUnits() != null) {
+                hotKeys(tableName, partitionKeys(request, response, tableName), capacity.capacityUnits());
+            }
+        }
+    }
+
+    private void add(String tableName, String indexName, boolean read, Double readUnits, Double writeUnits,
+                     Double units) {
+        if (readUnits == null && writeUnits == null) {
+            // only the total is returned, consumed by the kind of the request
+            readUnits = read ? units : null;
+            writeUnits = read ? null : units;
+        }
+        if (readUnits != null && readUnits > 0) {
+            counter(tableName, indexName, true).add(readUnits);
+        }
+        if (writeUnits != null && writeUnits > 0) {
+            counter(tableName, indexName, false).add(writeUnits);
+        }
+    }
+
+    private DoubleAdder counter(String tableName, String indexName, boolean read) {
+        return consumed.computeIfAbsent(key(tableName, indexName, read), key -> {
+            DoubleAdder units = new DoubleAdder();
+            recorder.functionCounter(CONSUMED_COUNTER, units, DoubleAdder::sum,
+                    "table", key.get(0), "index", key.get(1), "type", key.get(2));
+            return units;
+        });
+    }
+
+    private void hotKeys(String tableName, List<AttributeValue> values, double units) {
+        if (values.isEmpty()) {
+            return;
+        }
+        HotKeySketch sketch = sketches.computeIfAbsent(tableName, name -> new HotKeySketch(topK));
+        double share = units / values.size();
+        for (AttributeValue value : values) {
+            String key = value.s() != null ? value.s() : value.n() != null ? value.n()
+                    : value.b() != null ? Base64.getEncoder().encodeToString(value.b().asByteArray()) : null;
+            if (key != null) {
+                sketch.add(key, share);
+            }
+        }
+    }
+
+    /**
+     * Returns the partition key values a request consumed the capacity of a table for.
+     */
+    private List<AttributeValue> partitionKeys(SdkRequest request, SdkResponse response, String tableName) {
+        String attribute = partitionKeys().get(tableName);
+        if (attribute == null) {
+            return List.of();
+        }
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        if (request instanceof GetItemRequest get) {
+            items.add(get.key());
+        } else if (request instanceof PutItemRequest put) {
+            items.add(put.item());
+        } else if (request instanceof UpdateItemRequest update) {
+            items.add(update.key());
+        } else if (request instanceof DeleteItemRequest delete) {
+            items.add(delete.key());
+        } else if (request instanceof QueryRequest query && query.indexName() == null
+                && response instanceof QueryResponse queryResponse && queryResponse.hasItems()
+                && !queryResponse.items().isEmpty()) {
+            items.add(queryResponse.items().get(0));
+        } else if (request instanceof BatchGetItemRequest batchGet && batchGet.requestItems().containsKey(tableName)) {
+            items.addAll(batchGet.requestItems().get(tableName).keys());
+        } else if (request instanceof BatchWriteItemRequest batchWrite
+                && batchWrite.requestItems().containsKey(tableName)) {
+            batchWrite.requestItems().get(tableName).forEach(write ->
+                    items.add(write.putRequest() != null ? write.putRequest().item() : write.deleteRequest().key()));
+        }
+        return items.stream().map(item -> item.get(attribute)).filter(Objects::nonNull).toList();
+    }
+
+    private Map<String, String> partitionKeys() {
+        Map<String, String> current = partitionKeys;
+        if (current == null) {
+            // resolved lazily, the entity tables are resolved once the context is refreshed
+            Map<String, String> resolved = new HashMap<>();
+            for (CreateTableRequest request : entityTables.get()) {
+                request.keySchema().stream()
+                        .filter(element -> element.keyType() == KeyType.HASH)
+                        .findFirst()
+                        .ifPresent(element -> resolved.put(request.tableName(), element.attributeName()));
+            }
+            current = Map.copyOf(resolved);
+            partitionKeys = current;
+        }
+        return current;
+    }
+
+    private static List<String> key(String tableName, String indexName, boolean read) {
+        return List.of(tableName, indexName == null ? NO_INDEX : indexName, read ? "read" : "write");
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.duke.dynamodb.metrics;
+
+/**
+ * A partition key value among the most consuming ones of a table, cumulated since the application started.
+ *
+ * @param value         The partition key value, base64 encoded for binary keys.
+ * @param consumedUnits The estimated read and write units consumed by the value, never underestimated.
+ */
+public record HotKey(String value, double consumedUnits) {
+}
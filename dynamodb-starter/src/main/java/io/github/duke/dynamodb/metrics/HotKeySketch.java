@@ -0,0 +1,141 @@
+package io.github.duke.dynamodb.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free estimate of the partition key values consuming the most capacity of a table.
+ * <p>
+ * The units of every key value go to a count-min sketch of fixed size, which overestimates a value by at most the
+ * units of the values colliding with it in its least loaded row. The {@code capacity} values with the highest
+ * estimates are kept as candidates: a value not yet tracked replaces the lowest candidate once its estimate exceeds
+ * it. Memory is bounded by the sketch and the candidates whatever the number of distinct values.
+ * <p>
+ * Each row hashes the UTF-8 bytes of the value with its own seed into 64 bits, so values colliding in one row, or
+ * sharing a 32-bit {@link String#hashCode()}, are told apart by the others.
+ */
+class HotKeySketch {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4096;
+    private static final long MULTIPLIER = 0xC6A4A7935BD1E995L;
+    private static final int SHIFT = 47;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+            0xD6E8FEB86659FD93L};
+
+    /**
+     * The sketch counts, in thousandths of a unit.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(DEPTH * WIDTH);
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    /**
+     * @param capacity The number of hot key values kept.
+     */
+    HotKeySketch(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the units consumed by a key value.
+     *
+     * @param value The partition key value.
+     * @param units The consumed capacity units.
+     */
+    void add(String value, double units) {
+        long milliUnits = Math.round(units * 1000);
+        if (milliUnits <= 0) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counts.addAndGet(row * WIDTH + index(bytes, row), milliUnits));
+        }
+        if (candidates.replace(value, estimate) != null || candidates.size() < capacity
+                && candidates.putIfAbsent(value, estimate) == null) {
+            trim();
+            return;
+        }
+        Map.Entry<String, Long> lowest = lowest();
+        if (lowest != null && lowest.getValue() < estimate && candidates.remove(lowest.getKey(), lowest.getValue())) {
+            candidates.put(value, estimate);
+            trim();
+        }
+    }
+
+    /**
+     * @return The hot key values, the hottest first.
+     */
+    List<HotKey> top() {
+        List<HotKey> top = new ArrayList<>();
+        candidates.forEach((value, milliUnits) -> top.add(new HotKey(value, milliUnits / 1000d)));
+        top.sort(Comparator.comparingDouble(HotKey::consumedUnits).reversed());
+        return top.size() > capacity ? top.subList(0, capacity) : top;
+    }
+
+    /**
+     * Drops the lowest candidates added concurrently past the capacity.
+     */
+    private void trim() {
+        while (candidates.size() > capacity) {
+            Map.Entry<String, Long> lowest = lowest();
+            if (lowest == null) {
+                return;
+            }
+            candidates.remove(lowest.getKey(), lowest.getValue());
+        }
+    }
+
+    private Map.Entry<String, Long> lowest() {
+        Map.Entry<String, Long> lowest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (lowest == null || entry.getValue() < lowest.getValue()) {
+                lowest = Map.entry(entry.getKey(), entry.getValue());
+            }
+        }
+        return lowest;
+    }
+
+    private static int index(byte[] bytes, int row) {
+        return (int) (hash(bytes, SEEDS[row]) & (WIDTH - 1));
+    }
+
+    /**
+     * MurmurHash64A of the bytes.
+     */
+    static long hash(byte[] bytes, long seed) {
+        long h = seed ^ (bytes.length * MULTIPLIER);
+        int tail = bytes.length & ~7;
+        for (int i = 0; i < tail; i += 8) {
+            long k = (long) LONGS.get(bytes, i);
+            k *= MULTIPLIER;
+            k ^= k >>> SHIFT;
+            k *= MULTIPLIER;
+            h ^= k;
+            h *= MULTIPLIER;
+        }
+        if (tail < bytes.length) {
+            long k = 0;
+            for (int i = bytes.length - 1; i >= tail; i--) {
+                k = k << 8 | bytes[i] & 0xFF;
+            }
+            h ^= k;
+            h *= MULTIPLIER;
+        }
+        h ^= h >>> SHIFT;
+        h *= MULTIPLIER;
+        h ^= h >>> SHIFT;
+        return h;
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.duke.dynamodb.metrics;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records into the Micrometer {@code MeterRegistry} of the application, resolved on first use as the meter
+ * registry may be created after the beans recording into it. Records nothing when Micrometer is not on the
+ * classpath or the context has no meter registry.
+ */
+final class LazyMeterRecorder implements MeterRecorder {
+
+    private static final boolean MICROMETER_PRESENT =
+            ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", LazyMeterRecorder.class.getClassLoader());
+
+    private final BeanFactory beanFactory;
+    private volatile MeterRecorder delegate;
+
+    /**
+     * @param beanFactory The bean factory holding the optional meter registry, {@code null} for none.
+     */
+    LazyMeterRecorder(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void time(String name, long nanos, String... tags) {
+        delegate().time(name, nanos, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void count(String name, long amount, String... tags) {
+        delegate().count(name, amount, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void functionCounter(String name, T state, ToDoubleFunction<T> count, String... tags) {
+        delegate().functionCounter(name, state, count, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void gauge(String name, T state, ToDoubleFunction<T> value, String... tags) {
+        delegate().gauge(name, state, value, tags);
+    }
+
+    private MeterRecorder delegate() {
+        MeterRecorder current = delegate;
+        if (current == null) {
+            current = MICROMETER_PRESENT && beanFactory != null ? MicrometerRecorder.of(beanFactory) : NOOP;
+            delegate = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.duke.dynamodb.metrics;
+
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records the starter metrics into a metrics library. Tags are given as alternating names and values.
+ */
+interface MeterRecorder {
+
+    MeterRecorder NOOP = new MeterRecorder() {
+        @Override
+        public void time(String name, long nanos, String... tags) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public void count(String name, long amount, String... tags) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public <T> void functionCounter(String name, T state, ToDoubleFunction<T> count, String... tags) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public <T> void gauge(String name, T state, ToDoubleFunction<T> value, String... tags) {
+            // metrics are not recorded
+        }
+    };
+
+    /**
+     * @param beanFactory The bean factory holding the optional Micrometer {@code MeterRegistry}.
+     * @return A recorder into the meter registry, resolved on first use, recording nothing without Micrometer.
+     */
+    static MeterRecorder of(BeanFactory beanFactory) {
+        return new LazyMeterRecorder(beanFactory);
+    }
+
+    /**
+     * @param name  The timer name.
+     * @param nanos The duration in nanoseconds.
+     * @param tags  The tags.
+     */
+    void time(String name, long nanos, String... tags);
+
+    /**
+     * @param name   The counter name.
+     * @param amount The increment.
+     * @param tags   The tags.
+     */
+    void count(String name, long amount, String... tags);
+
+    /**
+     * Registers a counter read from a monotonic count of a long lived object. The object is strongly
+     * referenced by its owner, the meter only reads it.
+     *
+     * @param name  The counter name.
+     * @param state The object holding the count.
+     * @param count The function reading the count.
+     * @param tags  The tags.
+     * @param <T>   The type of the object.
+     */
+    <T> void functionCounter(String name, T state, ToDoubleFunction<T> count, String... tags);
+
+    /**
+     * Registers a gauge read from a long lived object.
+     *
+     * @param name  The gauge name.
+     * @param state The object holding the value.
+     * @param value The function reading the value.
+     * @param tags  The tags.
+     * @param <T>   The type of the object.
+     */
+    <T> void gauge(String name, T state, ToDoubleFunction<T> value, String... tags);
+}
@@ -0,0 +1,66 @@
+package io.github.duke.dynamodb.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records the starter metrics into the Micrometer {@link MeterRegistry} of the application.
+ * <p>
+ * Only loaded when Micrometer is on the classpath.
+ */
+class MicrometerRecorder implements MeterRecorder {
+
+    private final MeterRegistry meterRegistry;
+
+    private MicrometerRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param beanFactory The bean factory holding the meter registry.
+     * @return A recorder into the meter registry, or {@link MeterRecorder#NOOP} if the context has none.
+     */
+    static MeterRecorder of(BeanFactory beanFactory) {
+        MeterRegistry meterRegistry = beanFactory.getBeanProvider(MeterRegistry.class).getIfAvailable();
+        return meterRegistry == null ? NOOP : new MicrometerRecorder(meterRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void time(String name, long nanos, String... tags) {
+        Timer.builder(name).tags(tags).register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void count(String name, long amount, String... tags) {
+        Counter.builder(name).tags(tags).register(meterRegistry).increment(amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void functionCounter(String name, T state, ToDoubleFunction<T> count, String... tags) {
+        FunctionCounter.builder(name, state, count).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void gauge(String name, T state, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, state, value).tags(tags).register(meterRegistry);
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.duke.dynamodb.metrics;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures every phase of the table provisioning.
+ * <p>
+ * When Micrometer and a {@code MeterRegistry} bean are available, the following meters are recorded:
+ * <ul>
+ *     <li>{@code dynamodb.starter.phase}: timer tagged by {@code phase} and {@code table}</li>
+ *     <li>{@code dynamodb.starter.retries} and {@code dynamodb.starter.throttles}: counters of the retried and
+ *     throttled DynamoDB calls, tagged by {@code operation} and {@code table}</li>
+ *     <li>{@code dynamodb.starter.tables}: counter of the provisioned tables tagged by {@code outcome}</li>
+ * </ul>
+ * The same measures are always aggregated into the {@link StartupReport} of the current run, logged once the
+ * provisioning completes. Retries and throttles are collected with the SDK metrics of the requests sent by
+ * the starter, see {@link #publisher(String)}.
+ */
+@Component
+public class ProvisioningMetrics {
+
+    static final String PHASE_TIMER = "dynamodb.starter.phase";
+    static final String RETRY_COUNTER = "dynamodb.starter.retries";
+    static final String THROTTLE_COUNTER = "dynamodb.starter.throttles";
+    static final String TABLE_COUNTER = "dynamodb.starter.tables";
+
+    private static final String NO_TABLE = "none";
+    private static final String THROTTLING = "Throttling";
+
+    /**
+     * The measured provisioning phases.
+     */
+    public enum Phase {
+        SCAN("scan"),
+        COORDINATE("coordinate"),
+        LIST_TABLES("list_tables"),
+        RESOLVE_SCHEMA("resolve_schema"),
+        CREATE_TABLE("create_table"),
+        WAIT_ACTIVE("wait_active"),
+        UPDATE_TABLE("update_table"),
+        SEED("seed"),
+        WARM_UP("warm_up");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * @return The value of the {@code phase} tag.
+         */
+        public String tag() {
+            return tag;
+        }
+    }
+
+    /**
+     * The outcome of the provisioning of a table.
+     */
+    public enum Outcome {
+        CREATED, SKIPPED, FAILED, UNSETTLED
+    }
+
+    private final MeterRecorder recorder;
+    private volatile Run run = new Run();
+
+    /**
+     * @param beanFactory The bean factory holding the optional Micrometer {@code MeterRegistry}.
+     */
+    @Autowired
+    public ProvisioningMetrics(BeanFactory beanFactory) {
+        this.recorder = MeterRecorder.of(beanFactory);
+    }
+
+    private ProvisioningMetrics(MeterRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return Metrics which are only aggregated into the startup report.
+     */
+    public static ProvisioningMetrics disabled() {
+        return new ProvisioningMetrics(MeterRecorder.NOOP);
+    }
+
+    /**
+     * Starts a new provisioning run, resetting the startup report.
+     */
+    public void start() {
+        run = new Run();
+    }
+
+    /**
+     * Times an action.
+     *
+     * @param phase     The phase.
+     * @param tableName The table name, or {@code null} for phases covering every table.
+     * @param action    The action.
+     * @param <T>       The result type.
+     * @return The result of the action.
+     */
+    public <T> T time(Phase phase, String tableName, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, tableName, start);
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, typically when an asynchronous action completes.
+     *
+     * @param phase      The phase.
+     * @param tableName  The table name, or {@code null} for phases covering every table.
+     * @param startNanos The {@link System#nanoTime()} at the start of the action.
+     */
+    public void record(Phase phase, String tableName, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        run.phases.get(phase).add(nanos);
+        recorder.time(PHASE_TIMER, nanos, "phase", phase.tag(), "table", tableName == null ? NO_TABLE : tableName);
+    }
+
+    /**
+     * Records the outcome of the provisioning of a table.
+     *
+     * @param tableName The table name.
+     * @param outcome   The outcome.
+     */
+    public void outcome(String tableName, Outcome outcome) {
+        run.outcomes.get(outcome).add(tableName);
+        recorder.count(TABLE_COUNTER, 1, "outcome", outcome.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns an SDK metric publisher counting the retries and throttles of the calls about a table. It is
+     * meant to be added to the override configuration of the requests sent by the starter.
+     *
+     * @param tableName The table name, or {@code null} for calls covering every table.
+     * @return The publisher.
+     */
+    public MetricPublisher publisher(String tableName) {
+        return new CallPublisher(tableName == null ? NO_TABLE : tableName);
+    }
+
+    /**
+     * Completes the current run.
+     *
+     * @return The report of the run.
+     */
+    public StartupReport report() {
+        Run current = run;
+        Map<Phase, Duration> phases = new EnumMap<>(Phase.class);
+        current.phases.forEach((phase, nanos) -> {
+            if (nanos.sum() > 0) {
+                phases.put(phase, Duration.ofNanos(nanos.sum()));
+            }
+        });
+        return new StartupReport(
+                sorted(current.outcomes.get(Outcome.CREATED)),
+                sorted(current.outcomes.get(Outcome.SKIPPED)),
+                sorted(current.outcomes.get(Outcome.FAILED)),
+                sorted(current.outcomes.get(Outcome.UNSETTLED)),
+                phases, current.retries.sum(), current.throttles.sum(),
+                Duration.ofNanos(System.nanoTime() - current.start));
+    }
+
+    private static List<String> sorted(Collection<String> tableNames) {
+        List<String> sorted = new ArrayList<>(tableNames);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * The measures of a single provisioning run.
+     */
+    private static final class Run {
+        private final long start = System.nanoTime();
+        private final Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+        private final Map<Outcome, Queue<String>> outcomes = new EnumMap<>(Outcome.class);
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder throttles = new LongAdder();
+
+        private Run() {
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new LongAdder());
+            }
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, new ConcurrentLinkedQueue<>());
+            }
+        }
+    }
+
+    /**
+     * Counts the retries and throttled attempts reported by the SDK for a single API call.
+     */
+    private final class CallPublisher implements MetricPublisher {
+        private final String tableName;
+
+        private CallPublisher(String tableName) {
+            this.tableName = tableName;
+        }
+
+        @Override
+        public void publish(MetricCollection metrics) {
+            String operation = metrics.metricValues(CoreMetric.OPERATION_NAME).stream().findFirst().orElse("unknown");
+            long retries = metrics.metricValues(CoreMetric.RETRY_COUNT).stream().mapToLong(Integer::longValue).sum();
+            long throttles = metrics.children().stream()
+                    .filter(attempt -> attempt.metricValues(CoreMetric.ERROR_TYPE).contains(THROTTLING))
+                    .count();
+            Run current = run;
+            if (retries > 0) {
+                current.retries.add(retries);
+                recorder.count(RETRY_COUNTER, retries, "operation", operation, "table", tableName);
+            }
+            if (throttles > 0) {
+                current.throttles.add(throttles);
+                recorder.count(THROTTLE_COUNTER, throttles, "operation", operation, "table", tableName);
+            }
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
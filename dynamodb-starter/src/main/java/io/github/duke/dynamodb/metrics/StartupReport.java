@@ -0,0 +1,35 @@
+package io.github.duke.dynamodb.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of a provisioning run of the starter.
+ *
+ * @param created   The tables created by the run.
+ * @param skipped   The tables which already existed.
+ * @param failed    The tables which could not be provisioned.
+ * @param unsettled The tables created at the warm throughput which could not be switched to their resolved one.
+ * @param phases    The cumulated time of each phase, over every table.
+ * @param retries   The retries of the DynamoDB calls.
+ * @param throttles The throttled attempts of the DynamoDB calls.
+ * @param total     The wall-clock time of the run.
+ */
+public record StartupReport(List<String> created, List<String> skipped, List<String> failed,
+                            List<String> unsettled, Map<ProvisioningMetrics.Phase, Duration> phases, long retries, long throttles,
+                            Duration total) {
+
+    /**
+     * @return The report as a single line of {@code key=value} pairs.
+     */
+    public String format() {
+        String phaseTimes = phases.entrySet().stream()
+                .map(phase -> phase.getKey().tag() + "=" + phase.getValue().toMillis() + "ms")
+                .collect(Collectors.joining(",", "{", "}"));
+        return String.format("total=%dms created=%s skipped=%s failed=%s unsettled=%s phases=%s "
+                        + "retries=%d throttles=%d",
+                total.toMillis(), created, skipped, failed, unsettled, phaseTimes, retries, throttles);
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.duke.dynamodb.provisioning;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A token bucket limiting the rate of DynamoDB control plane calls ({@code CreateTable}) issued by the starter.
+ * <p>
+ * The bucket holds up to {@code burst} permits and refills at {@code permitsPerSecond}. When DynamoDB answers
+ * with a {@code LimitExceededException} anyway, {@link #backoff(int)} pauses every caller, not only the rejected
+ * one, for an exponentially growing and jittered delay, so a fan-out of thousands of tables slows down as a whole
+ * instead of hammering the quota. A non positive {@code permitsPerSecond} disables the limit.
+ */
+@Component
+public class ControlPlaneRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+
+    /**
+     * The theoretical arrival time of the next permit, in {@link System#nanoTime()}.
+     */
+    private long nextPermitNanos = System.nanoTime();
+
+    /**
+     * Constructs a ControlPlaneRateLimiter.
+     *
+     * @param permitsPerSecond The sustained rate of control plane calls, non positive for no limit.
+     * @param burst            The number of calls allowed at once after an idle period.
+     * @param maxAttempts      The maximum number of attempts of a call rejected with {@code LimitExceededException}.
+     * @param baseDelayMillis  The pause after the first rejection, doubled after each further one.
+     * @param maxDelayMillis   The maximum pause after a rejection.
+     */
+    @Autowired
+    public ControlPlaneRateLimiter(@Value("${dynamodb.starter.provisioning.controlPlane.permitsPerSecond:10}") double permitsPerSecond,
+                                   @Value("${dynamodb.starter.provisioning.controlPlane.burst:10}") int burst,
+                                   @Value("${dynamodb.starter.provisioning.controlPlane.maxAttempts:8}") int maxAttempts,
+                                   @Value("${dynamodb.starter.provisioning.controlPlane.baseDelayMillis:1000}") long baseDelayMillis,
+                                   @Value("${dynamodb.starter.provisioning.controlPlane.maxDelayMillis:30000}") long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.provisioning.controlPlane.maxAttempts must be positive");
+        }
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (NANOS_PER_SECOND / permitsPerSecond) : 0;
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, baseDelayMillis));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(baseDelayMillis, maxDelayMillis));
+    }
+
+    /**
+     * @return A limiter without rate limit, still retrying rejected calls.
+     */
+    public static ControlPlaneRateLimiter unlimited() {
+        return new ControlPlaneRateLimiter(0, 1, 8, 1000, 30000);
+    }
+
+    /**
+     * @return The maximum number of attempts of a call rejected with {@code LimitExceededException}.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Blocks until a permit is available and takes it.
+     *
+     * @throws TableProvisioningException If the thread is interrupted while waiting.
+     */
+    public void acquire() {
+        long deadline = System.nanoTime() + reserve();
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new TableProvisioningException("Interrupted while waiting for a control plane permit");
+            }
+        }
+    }
+
+    /**
+     * Takes the next permit without waiting for it.
+     *
+     * @return The time to wait before using the permit, in nanoseconds.
+     */
+    public synchronized long reserve() {
+        return reserve(System.nanoTime());
+    }
+
+    /**
+     * Pauses every caller after a call was rejected with {@code LimitExceededException} and reserves a permit
+     * for its retry.
+     *
+     * @param attempt The number of attempts of the rejected call so far, starting at 1.
+     * @return The time to wait before retrying the call, in nanoseconds.
+     */
+    public synchronized long backoff(int attempt) {
+        long now = System.nanoTime();
+        long backoff = Math.min(maxDelayNanos, baseDelayNanos << Math.min(attempt - 1, 20));
+        // equal jitter: half of the backoff is fixed, so the pause always grows with the attempts
+        long pause = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        nextPermitNanos = Math.max(nextPermitNanos, now + pause + toleranceNanos);
+        return reserve(now);
+    }
+
+    private long reserve(long now) {
+        long permit = Math.max(nextPermitNanos, now);
+        nextPermitNanos = permit + intervalNanos;
+        return Math.max(0, permit - toleranceNanos - now);
+    }
+}
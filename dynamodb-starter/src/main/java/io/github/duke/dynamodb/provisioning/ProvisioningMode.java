@@ -0,0 +1,16 @@
+package io.github.duke.dynamodb.provisioning;
+
+/**
+ * When the tables are provisioned relative to the application startup.
+ */
+public enum ProvisioningMode {
+    /**
+     * The tables are provisioned while the context refreshes, the startup waits for every table.
+     */
+    BLOCKING,
+    /**
+     * The tables are provisioned on a background thread, callers wait on the {@code TableReadiness}
+     * of the tables they need.
+     */
+    BACKGROUND
+}
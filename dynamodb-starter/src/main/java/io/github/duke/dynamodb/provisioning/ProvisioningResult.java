@@ -0,0 +1,33 @@
+package io.github.duke.dynamodb.provisioning;
+
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a {@link TableProvisioner#provision(List)} call.
+ *
+ * @param created  The ACTIVE descriptions of the tables created by the call.
+ * @param existing The ACTIVE descriptions of the tables which already existed when the call tried to create them.
+ */
+public record ProvisioningResult(List<TableDescription> created, List<TableDescription> existing) {
+
+    public static final ProvisioningResult EMPTY = new ProvisioningResult(List.of(), List.of());
+
+    /**
+     * @return The names of the tables created by the call.
+     */
+    public List<String> createdTableNames() {
+        return created.stream().map(TableDescription::tableName).toList();
+    }
+
+    /**
+     * @return The descriptions of every table handled by the call.
+     */
+    public List<TableDescription> all() {
+        List<TableDescription> all = new ArrayList<>(created);
+        all.addAll(existing);
+        return all;
+    }
+}
@@ -0,0 +1,311 @@
+package io.github.duke.dynamodb.provisioning;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Outcome;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Phase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.waiters.WaiterOverrideConfiguration;
+import software.amazon.awssdk.core.waiters.WaiterResponse;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbAsyncWaiter;
+import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbWaiter;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Issues {@link CreateTableRequest}s concurrently and waits until every table is ACTIVE.
+ * <p>
+ * Requests are sent through the {@link DynamoDbAsyncClient} when one is available in the context,
+ * otherwise the blocking {@link DynamoDbClient} is driven from a bounded worker pool. At most
+ * {@code maxConcurrency} tables are in flight (CREATING) at any time, so the account-level limit on
+ * tables in CREATING state is respected. A table counts as in flight until its waiter completes,
+ * therefore the total provisioning time is bounded by the slowest tables rather than their sum.
+ * <p>
+ * Every {@code CreateTable} call takes a permit of the {@link ControlPlaneRateLimiter} first, and calls rejected
+ * with a {@link LimitExceededException} are retried after the backoff of the limiter.
+ */
+@Slf4j
+@Component
+public class TableProvisioner {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final int maxConcurrency;
+    private final Duration waitTimeout;
+    private final ProvisioningMetrics metrics;
+    private final ControlPlaneRateLimiter rateLimiter;
+
+    /**
+     * Constructs a TableProvisioner with the necessary dependencies.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client, used when no async client is available.
+     * @param dynamoDbAsyncClient Provider of the optional async DynamoDB client.
+     * @param maxConcurrency      The maximum number of tables being created at the same time.
+     * @param waitTimeoutSeconds  The maximum time to wait for a single table to become ACTIVE.
+     * @param metrics             The provisioning metrics.
+     * @param rateLimiter         The limiter of the control plane calls.
+     */
+    @Autowired
+    public TableProvisioner(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                            @Value("${dynamodb.starter.provisioning.maxConcurrency:25}") int maxConcurrency,
+                            @Value("${dynamodb.starter.provisioning.waitTimeoutSeconds:300}") long waitTimeoutSeconds,
+                            ProvisioningMetrics metrics, ControlPlaneRateLimiter rateLimiter) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), maxConcurrency, waitTimeoutSeconds, metrics,
+                rateLimiter);
+    }
+
+    /**
+     * Constructs a TableProvisioner with an explicit (possibly {@code null}) async client and no control plane
+     * rate limit.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient The async DynamoDB client, or {@code null} to use the blocking client.
+     * @param maxConcurrency      The maximum number of tables being created at the same time.
+     * @param waitTimeoutSeconds  The maximum time to wait for a single table to become ACTIVE.
+     * @param metrics             The provisioning metrics.
+     */
+    public TableProvisioner(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                            int maxConcurrency, long waitTimeoutSeconds, ProvisioningMetrics metrics) {
+        this(dynamoDbClient, dynamoDbAsyncClient, maxConcurrency, waitTimeoutSeconds, metrics,
+                ControlPlaneRateLimiter.unlimited());
+    }
+
+    /**
+     * Constructs a TableProvisioner with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient The async DynamoDB client, or {@code null} to use the blocking client.
+     * @param maxConcurrency      The maximum number of tables being created at the same time.
+     * @param waitTimeoutSeconds  The maximum time to wait for a single table to become ACTIVE.
+     * @param metrics             The provisioning metrics.
+     * @param rateLimiter         The limiter of the control plane calls.
+     */
+    public TableProvisioner(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                            int maxConcurrency, long waitTimeoutSeconds, ProvisioningMetrics metrics,
+                            ControlPlaneRateLimiter rateLimiter) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.provisioning.maxConcurrency must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.maxConcurrency = maxConcurrency;
+        this.waitTimeout = Duration.ofSeconds(waitTimeoutSeconds);
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Creates all the given tables concurrently and blocks until each of them is ACTIVE.
+     * <p>
+     * Tables which already exist ({@link ResourceInUseException}) are still waited for, since another
+     * instance may have just created them.
+     *
+     * @param requests The create table requests.
+     * @return The created and already existing tables, all ACTIVE.
+     * @throws TableProvisioningException If at least one table could not be created or did not become ACTIVE.
+     */
+    public ProvisioningResult provision(List<CreateTableRequest> requests) {
+        return provision(requests, table -> {
+        });
+    }
+
+    /**
+     * Creates all the given tables concurrently and blocks until each of them is ACTIVE, reporting every
+     * table as soon as it is ACTIVE rather than once all of them are.
+     *
+     * @param requests The create table requests.
+     * @param onActive Called with the description of each table once it is ACTIVE, from a provisioning thread.
+     * @return The created and already existing tables, all ACTIVE.
+     * @throws TableProvisioningException If at least one table could not be created or did not become ACTIVE.
+     */
+    public ProvisioningResult provision(List<CreateTableRequest> requests, Consumer<TableDescription> onActive) {
+        if (requests.isEmpty()) {
+            return ProvisioningResult.EMPTY;
+        }
+        ExecutorService executor = dynamoDbAsyncClient == null
+                ? Executors.newFixedThreadPool(Math.min(maxConcurrency, requests.size()))
+                : null;
+        try {
+            return provision(requests, onActive, executor);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private ProvisioningResult provision(List<CreateTableRequest> requests, Consumer<TableDescription> onActive,
+                                         ExecutorService executor) {
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        Map<String, CompletableFuture<ProvisionedTable>> tables = new LinkedHashMap<>();
+        for (CreateTableRequest request : requests) {
+            acquire(inFlight);
+            // joined through the callback, so every ACTIVE table has been handed over once provisioning returns
+            CompletableFuture<ProvisionedTable> table = createAndAwait(request, executor)
+                    .whenComplete((provisioned, error) -> {
+                        inFlight.release();
+                        if (provisioned != null) {
+                            onActive.accept(provisioned.description());
+                        }
+                    });
+            tables.put(request.tableName(), table);
+        }
+
+        List<TableDescription> created = new ArrayList<>();
+        List<TableDescription> existing = new ArrayList<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        tables.forEach((tableName, table) -> {
+            try {
+                ProvisionedTable provisioned = table.join();
+                (provisioned.created() ? created : existing).add(provisioned.description());
+                metrics.outcome(tableName, provisioned.created() ? Outcome.CREATED : Outcome.SKIPPED);
+            } catch (CompletionException e) {
+                failures.put(tableName, e.getCause());
+                metrics.outcome(tableName, Outcome.FAILED);
+            }
+        });
+        if (!failures.isEmpty()) {
+            failures.forEach((tableName, e) -> log.error("Table {} provisioning failed.", tableName, e));
+            TableProvisioningException exception = new TableProvisioningException(
+                    "Failed to provision tables " + failures.keySet());
+            failures.values().forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return new ProvisioningResult(created, existing);
+    }
+
+    /**
+     * Creates a single table and waits for it to become ACTIVE.
+     *
+     * @param request  The create table request.
+     * @param executor The worker pool for the blocking client, {@code null} when the async client is used.
+     * @return A future completing with the ACTIVE table and whether it was created by this call.
+     */
+    private CompletableFuture<ProvisionedTable> createAndAwait(CreateTableRequest request, ExecutorService executor) {
+        String tableName = request.tableName();
+        CreateTableRequest measuredRequest = request.toBuilder()
+                .overrideConfiguration(o -> o.addMetricPublisher(metrics.publisher(tableName)))
+                .build();
+        long start = System.nanoTime();
+        rateLimiter.acquire();
+        return create(measuredRequest, executor, 1)
+                .whenComplete((created, e) -> metrics.record(Phase.CREATE_TABLE, tableName, start))
+                .exceptionally(e -> {
+                    if (unwrap(e) instanceof ResourceInUseException) {
+                        log.debug("Table {} already exists. Waiting for it to become active.", tableName);
+                        return false;
+                    }
+                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                })
+                .thenCompose(created -> awaitActive(tableName, executor, System.nanoTime()).thenApply(description -> {
+                    log.debug("Table {} is active.", tableName);
+                    return new ProvisionedTable(description, created);
+                }));
+    }
+
+    /**
+     * Sends a create table request, retrying it after the backoff of the {@link ControlPlaneRateLimiter} as long as
+     * it is rejected with a {@link LimitExceededException}.
+     *
+     * @param request  The create table request.
+     * @param executor The worker pool for the blocking client, {@code null} when the async client is used.
+     * @param attempt  The number of the attempt, starting at 1.
+     * @return A future completing with {@code true} once the table is being created.
+     */
+    private CompletableFuture<Boolean> create(CreateTableRequest request, ExecutorService executor, int attempt) {
+        CompletableFuture<Boolean> creation = executor == null
+                ? dynamoDbAsyncClient.createTable(request).thenApply(response -> true)
+                : CompletableFuture.supplyAsync(() -> dynamoDbClient.createTable(request) != null, executor);
+        return creation.handle((created, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(created);
+            }
+            if (unwrap(e) instanceof LimitExceededException && attempt < rateLimiter.getMaxAttempts()) {
+                long delay = rateLimiter.backoff(attempt);
+                log.debug("Table {} creation rejected by the control plane limit, retrying in {} ms.",
+                        request.tableName(), TimeUnit.NANOSECONDS.toMillis(delay));
+                Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS);
+                return CompletableFuture.runAsync(() -> {
+                }, delayed).thenCompose(ignored -> create(request, executor, attempt + 1));
+            }
+            return CompletableFuture.<Boolean>failedFuture(unwrap(e));
+        }).thenCompose(creationAttempt -> creationAttempt);
+    }
+
+    /**
+     * Waits for a table to reach the ACTIVE status using the SDK waiters.
+     *
+     * @param tableName The table name.
+     * @param executor  The worker pool for the blocking client, {@code null} when the async client is used.
+     * @param start     The {@link System#nanoTime()} at the start of the wait.
+     * @return A future completing with the table description once the table is ACTIVE.
+     */
+    private CompletableFuture<TableDescription> awaitActive(String tableName, ExecutorService executor, long start) {
+        DescribeTableRequest describeTableRequest = DescribeTableRequest.builder()
+                .tableName(tableName)
+                .overrideConfiguration(o -> o.addMetricPublisher(metrics.publisher(tableName)))
+                .build();
+        WaiterOverrideConfiguration waiterConfiguration = WaiterOverrideConfiguration.builder()
+                .waitTimeout(waitTimeout)
+                .build();
+        if (executor == null) {
+            DynamoDbAsyncWaiter waiter = DynamoDbAsyncWaiter.builder()
+                    .client(dynamoDbAsyncClient)
+                    .overrideConfiguration(waiterConfiguration)
+                    .build();
+            return waiter.waitUntilTableExists(describeTableRequest)
+                    .whenComplete((response, error) -> {
+                        waiter.close();
+                        metrics.record(Phase.WAIT_ACTIVE, tableName, start);
+                    })
+                    .thenApply(response -> tableDescription(tableName, response));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try (DynamoDbWaiter waiter = DynamoDbWaiter.builder()
+                    .client(dynamoDbClient)
+                    .overrideConfiguration(waiterConfiguration)
+                    .build()) {
+                return tableDescription(tableName, waiter.waitUntilTableExists(describeTableRequest));
+            } finally {
+                metrics.record(Phase.WAIT_ACTIVE, tableName, start);
+            }
+        }, executor);
+    }
+
+    private static TableDescription tableDescription(String tableName, WaiterResponse<DescribeTableResponse> response) {
+        return response.matched().response()
+                .map(DescribeTableResponse::table)
+                .orElseThrow(() -> new TableProvisioningException("Table " + tableName + " did not become active"));
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting for a provisioning slot", e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private record ProvisionedTable(TableDescription description, boolean created) {
+    }
+}
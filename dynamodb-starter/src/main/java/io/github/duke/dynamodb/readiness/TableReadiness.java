@@ -0,0 +1,189 @@
+package io.github.duke.dynamodb.readiness;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Tracks which tables are ready to be used while the starter provisions them.
+ * <p>
+ * Every table resolved from an entity gets its own future, completed once the table exists and is ACTIVE,
+ * so callers only wait for the tables they need. The aggregate {@link State} is meant for health checks:
+ * it is {@link State#STARTING} until every table is ready, then {@link State#READY}, or {@link State#FAILED}
+ * if provisioning failed. Futures of tables not managed by the starter fail once provisioning completed, while
+ * the tables expected by a later provisioning, such as the tenant tables, keep waiting for it.
+ */
+@Component
+public class TableReadiness {
+
+    /**
+     * The aggregate readiness of the tables.
+     */
+    public enum State {
+        /**
+         * The tables are still being provisioned.
+         */
+        STARTING,
+        /**
+         * Every table is ready.
+         */
+        READY,
+        /**
+         * Provisioning failed, at least one table is not usable.
+         */
+        FAILED
+    }
+
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final Map<String, CompletableFuture<Void>> tables = new ConcurrentHashMap<>();
+    private final Set<String> expected = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> all = new CompletableFuture<>();
+
+    /**
+     * @param tableNameResolver The table name resolver, used to look entities up by class.
+     */
+    @Autowired
+    public TableReadiness(DefaultDynamoDbTableNameResolver tableNameResolver) {
+        this.tableNameResolver = tableNameResolver;
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return A future completing once the table is ready, or failing if it could not be provisioned.
+     */
+    public CompletableFuture<Void> whenReady(String tableName) {
+        synchronized (all) {
+            CompletableFuture<Void> table = tables.get(tableName);
+            if (table == null && all.isDone()) {
+                return CompletableFuture.failedFuture(notManaged(tableName));
+            }
+            return tables.computeIfAbsent(tableName, name -> new CompletableFuture<>()).copy();
+        }
+    }
+
+    /**
+     * @param entity The entity class.
+     * @return A future completing once the table of the entity is ready.
+     */
+    public CompletableFuture<Void> whenReady(Class<?> entity) {
+        return whenReady(tableNameResolver.resolve(entity));
+    }
+
+    /**
+     * @return A future completing once every table is ready.
+     */
+    public CompletableFuture<Void> whenAllReady() {
+        return all.copy();
+    }
+
+    /**
+     * Blocks until the given tables are ready.
+     *
+     * @param timeout    The maximum time to wait.
+     * @param tableNames The table names.
+     * @throws TableProvisioningException If a table failed or is still not ready after the timeout.
+     */
+    public void awaitReady(Duration timeout, String... tableNames) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tableNames.length];
+        for (int i = 0; i < tableNames.length; i++) {
+            futures[i] = whenReady(tableNames[i]);
+        }
+        try {
+            CompletableFuture.allOf(futures).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting for tables to be ready", e);
+        } catch (ExecutionException e) {
+            throw new TableProvisioningException("Table provisioning failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new TableProvisioningException("Tables are still not ready after " + timeout, e);
+        }
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return {@code true} if the table is ready.
+     */
+    public boolean isReady(String tableName) {
+        CompletableFuture<Void> table = tables.get(tableName);
+        return table != null && table.isDone() && !table.isCompletedExceptionally();
+    }
+
+    /**
+     * @return The aggregate readiness of the tables.
+     */
+    public State getState() {
+        if (!all.isDone()) {
+            return State.STARTING;
+        }
+        return all.isCompletedExceptionally() ? State.FAILED : State.READY;
+    }
+
+    /**
+     * Registers the tables about to be provisioned. Called by the starter.
+     *
+     * @param tableNames The table names.
+     */
+    public void expect(Collection<String> tableNames) {
+        synchronized (all) {
+            expected.addAll(tableNames);
+            tableNames.forEach(tableName -> tables.computeIfAbsent(tableName, name -> new CompletableFuture<>()));
+        }
+    }
+
+    /**
+     * Marks a table as ready. Called by the starter.
+     *
+     * @param tableName The table name.
+     */
+    public void markReady(String tableName) {
+        tables.computeIfAbsent(tableName, name -> new CompletableFuture<>()).complete(null);
+    }
+
+    /**
+     * Marks a table as failed. Called by the starter.
+     *
+     * @param tableName The table name.
+     * @param cause     The provisioning failure.
+     */
+    public void markFailed(String tableName, Throwable cause) {
+        tables.computeIfAbsent(tableName, name -> new CompletableFuture<>()).completeExceptionally(cause);
+    }
+
+    /**
+     * Marks the provisioning as complete. Tables requested but not managed by the starter fail.
+     */
+    public void markAllReady() {
+        synchronized (all) {
+            tables.forEach((tableName, table) -> {
+                if (!expected.contains(tableName)) {
+                    table.completeExceptionally(notManaged(tableName));
+                }
+            });
+            all.complete(null);
+        }
+    }
+
+    /**
+     * Marks the provisioning as failed. Every table which is not ready yet fails with the given cause.
+     *
+     * @param cause The provisioning failure.
+     */
+    public void markFailed(Throwable cause) {
+        synchronized (all) {
+            tables.values().forEach(table -> table.completeExceptionally(cause));
+            all.completeExceptionally(cause);
+        }
+    }
+
+    private static TableProvisioningException notManaged(String tableName) {
+        return new TableProvisioningException("Table " + tableName + " is not managed by the starter");
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.duke.dynamodb.reconcile;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Phase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Brings the global secondary indexes of existing tables in line with their entities.
+ * <p>
+ * For every existing table, the GSIs resolved from the entity are compared with the {@code DescribeTable}
+ * result. Missing GSIs are created with {@code UpdateTable}, one index at a time since DynamoDB only allows
+ * a single GSI creation per call, and the backfill of each index is followed until it is ACTIVE before the
+ * next update is issued. Orphan GSIs (present on the table but not on the entity) are only deleted when
+ * {@code dynamodb.starter.reconcile.deleteOrphanIndexes} is enabled.
+ * <p>
+ * All the updates run sequentially on a single background thread so a long backfill never blocks startup.
+ * A failed update does not stop the next ones: the failures are collected and the returned future completes
+ * exceptionally with all of them once every update ran. Each wait for a table to become idle gives up after
+ * {@code dynamodb.starter.reconcile.timeoutSeconds}.
+ * Local secondary indexes cannot be added to existing tables, a difference is only reported.
+ */
+@Slf4j
+@Component
+public class IndexReconciler implements DisposableBean {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final boolean enabled;
+    private final boolean deleteOrphanIndexes;
+    private final Duration pollInterval;
+    private final Duration timeout;
+    private final ProvisioningMetrics metrics;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-index-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs an IndexReconciler with the necessary dependencies.
+     *
+     * @param dynamoDbClient      The DynamoDB client.
+     * @param enabled             Whether missing GSIs are created on existing tables.
+     * @param deleteOrphanIndexes Whether GSIs no longer declared by the entity are deleted.
+     * @param pollIntervalSeconds The interval between two backfill progress checks.
+     * @param timeoutSeconds      The maximum time to wait for a table and its indexes to become ACTIVE.
+     * @param metrics             The provisioning metrics.
+     */
+    @Autowired
+    public IndexReconciler(DynamoDbClient dynamoDbClient,
+                           @Value("${dynamodb.starter.reconcile.enabled:false}") boolean enabled,
+                           @Value("${dynamodb.starter.reconcile.deleteOrphanIndexes:false}") boolean deleteOrphanIndexes,
+                           @Value("${dynamodb.starter.reconcile.pollIntervalSeconds:10}") long pollIntervalSeconds,
+                           @Value("${dynamodb.starter.reconcile.timeoutSeconds:3600}") long timeoutSeconds,
+                           ProvisioningMetrics metrics) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enabled = enabled;
+        this.deleteOrphanIndexes = deleteOrphanIndexes;
+        this.pollInterval = Duration.ofSeconds(pollIntervalSeconds);
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return A reconciler which never updates tables.
+     */
+    public static IndexReconciler disabled() {
+        return new IndexReconciler(null, false, false, 0, 0, ProvisioningMetrics.disabled());
+    }
+
+    /**
+     * @return {@code true} if existing tables are reconciled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Schedules the reconciliation of the given existing tables.
+     *
+     * @param requests The resolved create table requests of existing tables.
+     * @param tables   The current descriptions of the same tables, keyed by table name.
+     * @return A future completing once every missing index is ACTIVE (and orphans deleted), or exceptionally with
+     * a {@link TableProvisioningException} holding the failures of the updates as suppressed exceptions.
+     */
+    public CompletableFuture<Void> reconcile(List<CreateTableRequest> requests, Map<String, TableDescription> tables) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Runnable> updates = new ArrayList<>();
+        for (CreateTableRequest request : requests) {
+            TableDescription table = tables.get(request.tableName());
+            if (table != null) {
+                updates.addAll(plan(request, table));
+            }
+        }
+        if (updates.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> run(updates), executor)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Index reconciliation failed.", e);
+                    }
+                });
+    }
+
+    /**
+     * Runs every update, even after a failed one, and throws once all of them ran if any failed.
+     *
+     * @param updates The updates to run, in order.
+     */
+    private void run(List<Runnable> updates) {
+        List<RuntimeException> failures = new ArrayList<>();
+        for (Runnable update : updates) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.warn("Index update failed, continuing with the next one.", e);
+                failures.add(e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            TableProvisioningException exception = new TableProvisioningException(
+                    failures.size() + " of " + updates.size() + " index update(s) failed");
+            failures.forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    /**
+     * Plans the index updates of a single table.
+     *
+     * @param request The resolved create table request.
+     * @param table   The current table description.
+     * @return The updates to run, in order.
+     */
+    List<Runnable> plan(CreateTableRequest request, TableDescription table) {
+        String tableName = request.tableName();
+        Set<String> existing = new HashSet<>();
+        table.globalSecondaryIndexes().forEach(index -> existing.add(index.indexName()));
+        Set<String> declared = new HashSet<>();
+        request.globalSecondaryIndexes().forEach(index -> declared.add(index.indexName()));
+
+        List<Runnable> updates = new ArrayList<>();
+        for (GlobalSecondaryIndex index : request.globalSecondaryIndexes()) {
+            if (!existing.contains(index.indexName())) {
+                log.info("Index {} of table {} is missing and will be created.", index.indexName(), tableName);
+                updates.add(() -> createIndex(request, index));
+            }
+        }
+        for (String indexName : existing) {
+            if (declared.contains(indexName)) {
+                continue;
+            }
+            if (deleteOrphanIndexes) {
+                log.info("Index {} of table {} is not declared anymore and will be deleted.", indexName, tableName);
+                updates.add(() -> deleteIndex(tableName, indexName));
+            } else {
+                log.warn("Index {} of table {} is not declared by the entity.", indexName, tableName);
+            }
+        }
+
+        Set<String> localIndexes = new HashSet<>();
+        table.localSecondaryIndexes().forEach(index -> localIndexes.add(index.indexName()));
+        request.localSecondaryIndexes().stream()
+                .filter(index -> !localIndexes.contains(index.indexName()))
+                .forEach(index -> log.warn("Local index {} of table {} can only be created with the table.",
+                        index.indexName(), tableName));
+        return updates;
+    }
+
+    private void createIndex(CreateTableRequest request, GlobalSecondaryIndex index) {
+        String tableName = request.tableName();
+        long start = System.nanoTime();
+        awaitIdle(tableName, null);
+        Set<String> keyAttributes = new HashSet<>();
+        index.keySchema().forEach(key -> keyAttributes.add(key.attributeName()));
+        List<AttributeDefinition> attributeDefinitions = request.attributeDefinitions().stream()
+                .filter(attribute -> keyAttributes.contains(attribute.attributeName()))
+                .toList();
+
+        CreateGlobalSecondaryIndexAction.Builder action = CreateGlobalSecondaryIndexAction.builder()
+                .indexName(index.indexName())
+                .keySchema(index.keySchema())
+                .projection(index.projection());
+        ProvisionedThroughput throughput = index.provisionedThroughput() != null
+                ? index.provisionedThroughput() : request.provisionedThroughput();
+        if (throughput != null) {
+            action.provisionedThroughput(throughput);
+        }
+        OnDemandThroughput onDemandThroughput = index.onDemandThroughput() != null
+                ? index.onDemandThroughput() : request.onDemandThroughput();
+        if (onDemandThroughput != null) {
+            action.onDemandThroughput(onDemandThroughput);
+        }
+        dynamoDbClient.updateTable(UpdateTableRequest.builder()
+                .tableName(tableName)
+                .attributeDefinitions(attributeDefinitions)
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder().create(action.build()).build())
+                .overrideConfiguration(o -> o.addMetricPublisher(metrics.publisher(tableName)))
+                .build());
+        log.info("Index {} of table {} creation started.", index.indexName(), tableName);
+        awaitIdle(tableName, index.indexName());
+        metrics.record(Phase.UPDATE_TABLE, tableName, start);
+        log.info("Index {} of table {} is active.", index.indexName(), tableName);
+    }
+
+    private void deleteIndex(String tableName, String indexName) {
+        long start = System.nanoTime();
+        awaitIdle(tableName, null);
+        dynamoDbClient.updateTable(UpdateTableRequest.builder()
+                .tableName(tableName)
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                        .delete(DeleteGlobalSecondaryIndexAction.builder().indexName(indexName).build())
+                        .build())
+                .overrideConfiguration(o -> o.addMetricPublisher(metrics.publisher(tableName)))
+                .build());
+        awaitIdle(tableName, null);
+        metrics.record(Phase.UPDATE_TABLE, tableName, start);
+        log.info("Index {} of table {} deleted.", indexName, tableName);
+    }
+
+    /**
+     * Polls the table until it and all its indexes are ACTIVE, reporting the backfill of the given index.
+     *
+     * @param tableName The table name.
+     * @param indexName The index being created, or {@code null}.
+     * @throws TableProvisioningException If the table is still busy after the timeout.
+     */
+    private void awaitIdle(String tableName, String indexName) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            TableDescription table = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                    .tableName(tableName).build()).table();
+            boolean busy = table.tableStatus() != TableStatus.ACTIVE;
+            for (GlobalSecondaryIndexDescription index : table.globalSecondaryIndexes()) {
+                if (index.indexStatus() != IndexStatus.ACTIVE) {
+                    busy = true;
+                }
+                if (index.indexName().equals(indexName) && index.indexStatus() == IndexStatus.CREATING) {
+                    log.info("Index {} of table {} is {} (backfilling: {}, items indexed: {}).", indexName, tableName,
+                            index.indexStatus(), Boolean.TRUE.equals(index.backfilling()), index.itemCount());
+                }
+            }
+            if (!busy) {
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TableProvisioningException("Table " + tableName + " and its indexes are not ACTIVE after "
+                        + timeout.toSeconds() + " seconds");
+            }
+            sleep();
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while reconciling indexes", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.duke.dynamodb.schema;
+
+import io.github.duke.dynamodb.annotation.DynamoDbDocument;
+import io.github.duke.dynamodb.exception.EntityNotFoundException;
+import io.github.duke.dynamodb.index.EntityIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Registers a {@code DynamoDbTable<Entity>} bean, named after the entity ({@code userEntityTable}), for every
+ * entity of {@code dynamodb.starter.package.scan}, and a {@code DynamoDbAsyncTable<Entity>} bean
+ * ({@code userEntityAsyncTable}) when there is a {@link DynamoDbAsyncClient} bean. Beans of the same name defined
+ * by the application are kept. Entities with write shards get no table bean, they are read and written with the
+ * {@link io.github.duke.dynamodb.sharding.ShardingEngine}.
+ * <p>
+ * The entities are read from the compile time {@link EntityIndex} when present and found by classpath scanning
+ * otherwise. The beans are built by the {@link DynamoDbTableRegistry}: injecting the first one builds the tables of
+ * every entity in parallel.
+ */
+@Slf4j
+@Component
+public class DynamoDbTableBeanRegistrar implements BeanDefinitionRegistryPostProcessor, BeanFactoryAware,
+        BeanClassLoaderAware, EnvironmentAware {
+
+    private static final String TABLE_BEAN_SUFFIX = "Table";
+    private static final String ASYNC_TABLE_BEAN_SUFFIX = "AsyncTable";
+
+    private final EntityKeyModelRegistry entityKeyModelRegistry = new EntityKeyModelRegistry();
+
+    private BeanFactory beanFactory;
+    private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+    private Environment environment;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Registers the table beans of the entities.
+     *
+     * @param registry The bean definition registry.
+     */
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+        List<Class<?>> entities = findEntities(environment.resolvePlaceholders("${dynamodb.starter.package.scan:''}"));
+        boolean async = beanFactory instanceof ListableBeanFactory listableBeanFactory
+                && listableBeanFactory.getBeanNamesForType(DynamoDbAsyncClient.class, true, false).length > 0;
+        for (Class<?> entity : entities) {
+            if (entityKeyModelRegistry.get(entity).isWriteSharded()) {
+                log.debug("Entity {} has write shards, not registering its table.", entity.getName());
+                continue;
+            }
+            String beanName = StringUtils.uncapitalize(entity.getSimpleName());
+            register(registry, beanName + TABLE_BEAN_SUFFIX, DynamoDbTable.class, entity,
+                    () -> registry().prebuild(entities).table(entity));
+            if (async) {
+                register(registry, beanName + ASYNC_TABLE_BEAN_SUFFIX, DynamoDbAsyncTable.class, entity,
+                        () -> registry().prebuild(entities).asyncTable(entity));
+            }
+        }
+        log.debug("Registered the table beans of {} entities.", entities.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void register(BeanDefinitionRegistry registry, String beanName, Class beanType, Class<?> entity,
+                                 Supplier supplier) {
+        if (registry.containsBeanDefinition(beanName)) {
+            log.debug("Bean {} already defined, not registering the table of {}.", beanName, entity.getName());
+            return;
+        }
+        RootBeanDefinition definition = new RootBeanDefinition(beanType, supplier);
+        definition.setTargetType(ResolvableType.forClassWithGenerics(beanType, entity));
+        registry.registerBeanDefinition(beanName, definition);
+    }
+
+    private DynamoDbTableRegistry registry() {
+        return beanFactory.getBean(DynamoDbTableRegistry.class);
+    }
+
+    /**
+     * Finds the entities with a table of their own, skipping the {@link DynamoDbDocument}s.
+     */
+    private List<Class<?>> findEntities(String packageName) {
+        List<Class<?>> entities = new ArrayList<>();
+        EntityIndex entityIndex = EntityIndex.load(classLoader);
+        if (entityIndex.isPresent()) {
+            for (EntityIndex.Entry entry : entityIndex.getEntries(packageName)) {
+                if (!entry.document()) {
+                    entities.add(resolveEntityClass(entry.className()));
+                }
+            }
+            return entities;
+        }
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(DynamoDbBean.class));
+        for (BeanDefinition candidate : scanner.findCandidateComponents(packageName)) {
+            Class<?> entity = resolveEntityClass(candidate.getBeanClassName());
+            if (!entity.isAnnotationPresent(DynamoDbDocument.class)) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private Class<?> resolveEntityClass(String className) {
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new EntityNotFoundException("Invalid class name " + className);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.duke.dynamodb.schema;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.exception.EntityDefinitionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Shared registry of the enhanced client {@link DynamoDbTable}s and {@link DynamoDbAsyncTable}s of the entities,
+ * named with the {@link DefaultDynamoDbTableNameResolver}.
+ * <p>
+ * {@link #prebuild(Collection)} builds the {@link TableSchema}s and tables of every entity in parallel at startup,
+ * so request-path code never pays the introspection of the entity classes. The tables are also exposed as
+ * {@code DynamoDbTable<Entity>} and {@code DynamoDbAsyncTable<Entity>} beans by the
+ * {@link DynamoDbTableBeanRegistrar}.
+ * <p>
+ * Entities with write shards have no table: the enhanced client would store them with their raw partition key,
+ * out of reach of the {@link io.github.duke.dynamodb.sharding.ShardingEngine}.
+ */
+@Slf4j
+@Component
+public class DynamoDbTableRegistry {
+
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbEnhancedAsyncClient enhancedAsyncClient;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final EntityKeyModelRegistry entityKeyModelRegistry = new EntityKeyModelRegistry();
+    private final Map<Class<?>, DynamoDbTable<?>> tables = new ConcurrentHashMap<>();
+    private final Map<Class<?>, DynamoDbAsyncTable<?>> asyncTables = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a DynamoDbTableRegistry with the necessary dependencies.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient Provider of the optional async DynamoDB client, for the async tables.
+     * @param tableSchemaRegistry The registry of the entity table schemas.
+     * @param tableNameResolver   The table name resolver.
+     */
+    @Autowired
+    public DynamoDbTableRegistry(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                                 TableSchemaRegistry tableSchemaRegistry,
+                                 DefaultDynamoDbTableNameResolver tableNameResolver) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), tableSchemaRegistry, tableNameResolver);
+    }
+
+    /**
+     * Constructs a DynamoDbTableRegistry with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient The async DynamoDB client, or {@code null} for no async tables.
+     * @param tableSchemaRegistry The registry of the entity table schemas.
+     * @param tableNameResolver   The table name resolver.
+     */
+    public DynamoDbTableRegistry(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                                 TableSchemaRegistry tableSchemaRegistry,
+                                 DefaultDynamoDbTableNameResolver tableNameResolver) {
+        this.enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        this.enhancedAsyncClient = dynamoDbAsyncClient == null
+                ? null
+                : DynamoDbEnhancedAsyncClient.builder().dynamoDbClient(dynamoDbAsyncClient).build();
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.tableNameResolver = tableNameResolver;
+    }
+
+    /**
+     * Returns the table of an entity, building it on first use.
+     *
+     * @param entity The entity class.
+     * @param <T>    The entity type.
+     * @return The table.
+     * @throws IllegalArgumentException If the entity has write shards.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DynamoDbTable<T> table(Class<T> entity) {
+        DynamoDbTable<?> table = tables.get(entity);
+        if (table == null) {
+            checkUnsharded(entity);
+            // the schema is built outside of the map, it may take a while
+            TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+            table = tables.computeIfAbsent(entity,
+                    type -> enhancedClient.table(tableNameResolver.resolve(entity), tableSchema));
+        }
+        return (DynamoDbTable<T>) table;
+    }
+
+    /**
+     * Returns the async table of an entity, building it on first use.
+     *
+     * @param entity The entity class.
+     * @param <T>    The entity type.
+     * @return The async table.
+     * @throws IllegalStateException    If there is no {@link DynamoDbAsyncClient}.
+     * @throws IllegalArgumentException If the entity has write shards.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DynamoDbAsyncTable<T> asyncTable(Class<T> entity) {
+        if (enhancedAsyncClient == null) {
+            throw new IllegalStateException("No DynamoDbAsyncClient bean, no async table for " + entity.getName());
+        }
+        DynamoDbAsyncTable<?> table = asyncTables.get(entity);
+        if (table == null) {
+            checkUnsharded(entity);
+            TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+            table = asyncTables.computeIfAbsent(entity,
+                    type -> enhancedAsyncClient.table(tableNameResolver.resolve(entity), tableSchema));
+        }
+        return (DynamoDbAsyncTable<T>) table;
+    }
+
+    /**
+     * Builds the tables of the given entities, and their async tables when there is an async client, in parallel.
+     * Entities already built and entities with write shards are skipped, so calling it again is cheap.
+     *
+     * @param entities The entity classes.
+     * @return This registry.
+     * @throws EntityDefinitionException If the table schema of an entity cannot be built.
+     */
+    public DynamoDbTableRegistry prebuild(Collection<? extends Class<?>> entities) {
+        List<Class<?>> missing = new ArrayList<>();
+        for (Class<?> entity : new LinkedHashSet<>(entities)) {
+            if (!hasTable(entity)) {
+                continue;
+            }
+            if (!tables.containsKey(entity) || (enhancedAsyncClient != null && !asyncTables.containsKey(entity))) {
+                missing.add(entity);
+            }
+        }
+        if (missing.isEmpty()) {
+            return this;
+        }
+        long start = System.nanoTime();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(missing.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "dynamodb-table-schema");
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(classLoader);
+                    return thread;
+                });
+        try {
+            List<Future<?>> builds = new ArrayList<>();
+            for (Class<?> entity : missing) {
+                builds.add(executor.submit(() -> build(entity)));
+            }
+            for (int i = 0; i < builds.size(); i++) {
+                await(builds.get(i), missing.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.debug("Built the table schemas of {} entities in {} ms.", missing.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return this;
+    }
+
+    private boolean hasTable(Class<?> entity) {
+        return !entityKeyModelRegistry.get(entity).isWriteSharded();
+    }
+
+    private void checkUnsharded(Class<?> entity) {
+        if (!hasTable(entity)) {
+            throw new IllegalArgumentException(entity.getName() + " has write shards, read it with the ShardingEngine");
+        }
+    }
+
+    private void build(Class<?> entity) {
+        table(entity);
+        if (enhancedAsyncClient != null) {
+            asyncTable(entity);
+        }
+    }
+
+    private static void await(Future<?> build, Class<?> entity) {
+        try {
+            build.get();
+        } catch (ExecutionException e) {
+            throw new EntityDefinitionException("Unable to build the table schema of " + entity.getName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EntityDefinitionException("Interrupted while building the table schema of " + entity.getName());
+        }
+    }
+}
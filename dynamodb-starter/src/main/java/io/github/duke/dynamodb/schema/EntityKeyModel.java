@@ -0,0 +1,233 @@
+package io.github.duke.dynamodb.schema;
+
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards;
+import io.github.duke.dynamodb.exception.EntityDefinitionException;
+import io.github.duke.dynamodb.utils.DynamoDbStarterUtils;
+import org.springframework.beans.BeanUtils;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * The resolved key metadata of a DynamoDB entity: its table keys, the keys of every secondary index
+ * and the write shards of its partition key.
+ * <p>
+ * Instances are immutable and resolved once per class by {@link EntityKeyModelRegistry}.
+ */
+public final class EntityKeyModel {
+
+    static final int MAX_WRITE_SHARDS = 1000;
+
+    private final Class<?> entityClass;
+    private final List<KeyAttribute> keyAttributes;
+    private final Set<String> localIndexNames;
+    private final Set<String> attributeNames;
+    private final int writeShards;
+
+    private EntityKeyModel(Class<?> entityClass, List<KeyAttribute> keyAttributes, Set<String> localIndexNames,
+                           Set<String> attributeNames, int writeShards) {
+        this.entityClass = entityClass;
+        this.keyAttributes = List.copyOf(keyAttributes);
+        this.localIndexNames = Set.copyOf(localIndexNames);
+        this.attributeNames = Set.copyOf(attributeNames);
+        this.writeShards = writeShards;
+    }
+
+    /**
+     * Resolves the key model of an entity with a single reflection pass over its public getters.
+     * Key annotations and {@link DynamoDbAttribute} are honored on getters as well as on setters.
+     *
+     * @param entity The entity class.
+     * @return The key model.
+     * @throws EntityDefinitionException If a key attribute has no valid scalar type, or the write shards are invalid.
+     */
+    static EntityKeyModel resolve(Class<?> entity) {
+        List<KeyAttribute> keyAttributes = new ArrayList<>();
+        Set<String> attributeNames = new HashSet<>();
+        for (Method method : entity.getMethods()) {
+            if (!DynamoDbStarterUtils.isGetter(method) || DynamoDbStarterUtils.findAnnotation(method, DynamoDbIgnore.class) != null) {
+                continue;
+            }
+            attributeNames.add(DynamoDbStarterUtils.getAttributeName(method));
+            KeyType tableKeyType = null;
+            if (DynamoDbStarterUtils.findAnnotation(method, DynamoDbPartitionKey.class) != null) {
+                tableKeyType = KeyType.HASH;
+            } else if (DynamoDbStarterUtils.findAnnotation(method, DynamoDbSortKey.class) != null) {
+                tableKeyType = KeyType.RANGE;
+            }
+            if (tableKeyType != KeyType.HASH && DynamoDbStarterUtils.findAnnotation(method, DynamoDbWriteShards.class) != null) {
+                throw new EntityDefinitionException(String.format(
+                        "@DynamoDbWriteShards of %s must be on the partition key, not on %s",
+                        entity.getName(), method.getName()));
+            }
+            DynamoDbSecondaryPartitionKey secondaryPartitionKey =
+                    DynamoDbStarterUtils.findAnnotation(method, DynamoDbSecondaryPartitionKey.class);
+            DynamoDbSecondarySortKey secondarySortKey =
+                    DynamoDbStarterUtils.findAnnotation(method, DynamoDbSecondarySortKey.class);
+            if (tableKeyType == null && secondaryPartitionKey == null && secondarySortKey == null) {
+                continue;
+            }
+            keyAttributes.add(new KeyAttribute(
+                    DynamoDbStarterUtils.getAttributeName(method),
+                    resolveAttributeType(entity, method),
+                    method,
+                    tableKeyType,
+                    secondaryPartitionKey == null ? Set.of() : Set.copyOf(Arrays.asList(secondaryPartitionKey.indexNames())),
+                    secondarySortKey == null ? Set.of() : Set.copyOf(Arrays.asList(secondarySortKey.indexNames()))));
+        }
+        keyAttributes.sort(Comparator.comparing(KeyAttribute::attributeName));
+        return new EntityKeyModel(entity, keyAttributes,
+                new LinkedHashSet<>(Arrays.asList(DynamoDbStarterUtils.getLocalIndexName(entity))), attributeNames,
+                resolveWriteShards(entity, keyAttributes));
+    }
+
+    /**
+     * Resolves the write shards of the partition key, which are only valid on a string partition key
+     * of a table with a sort key, as the shard suffix is appended to the partition key and derived from the sort key.
+     */
+    private static int resolveWriteShards(Class<?> entity, List<KeyAttribute> keyAttributes) {
+        KeyAttribute partitionKey = keyAttributes.stream()
+                .filter(k -> k.tableKeyType() == KeyType.HASH).findFirst().orElse(null);
+        if (partitionKey == null
+                || DynamoDbStarterUtils.findAnnotation(partitionKey.getter(), DynamoDbWriteShards.class) == null) {
+            return 1;
+        }
+        int writeShards = DynamoDbStarterUtils.getWriteShards(partitionKey.getter());
+        if (writeShards < 1 || writeShards > MAX_WRITE_SHARDS) {
+            throw new EntityDefinitionException(String.format(
+                    "@DynamoDbWriteShards of %s must be between 1 and %d, but is %d",
+                    entity.getName(), MAX_WRITE_SHARDS, writeShards));
+        }
+        if (partitionKey.attributeType() != ScalarAttributeType.S) {
+            throw new EntityDefinitionException(String.format(
+                    "Write sharded partition key %s of %s must be a string", partitionKey.attributeName(),
+                    entity.getName()));
+        }
+        if (keyAttributes.stream().noneMatch(k -> k.tableKeyType() == KeyType.RANGE)) {
+            throw new EntityDefinitionException(entity.getName() + " has write shards but no @DynamoDbSortKey");
+        }
+        return writeShards;
+    }
+
+    /**
+     * Resolves the scalar type of a key attribute, using the {@link DynamoDbConvertedBy} converter when present.
+     */
+    private static ScalarAttributeType resolveAttributeType(Class<?> entity, Method getter) {
+        DynamoDbConvertedBy convertedBy = DynamoDbStarterUtils.findAnnotation(getter, DynamoDbConvertedBy.class);
+        ScalarAttributeType type;
+        if (convertedBy != null) {
+            AttributeConverter<?> converter = BeanUtils.instantiateClass(convertedBy.value());
+            type = ScalarAttributeType.fromValue(converter.attributeValueType().name());
+        } else {
+            type = DynamoDbStarterUtils.getScalarAttributeType(getter.getReturnType());
+        }
+        if (type == null || type == ScalarAttributeType.UNKNOWN_TO_SDK_VERSION) {
+            throw new EntityDefinitionException(String.format(
+                    "Key attribute %s of %s must be a string, number or binary, but is %s",
+                    getter.getName(), entity.getName(), getter.getReturnType().getName()));
+        }
+        return type;
+    }
+
+    /**
+     * @return The entity class.
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return Every key attribute of the table and its indexes, sorted by attribute name.
+     */
+    public List<KeyAttribute> getKeyAttributes() {
+        return keyAttributes;
+    }
+
+    /**
+     * @return The names of every attribute of the entity, keys included.
+     */
+    public Set<String> getAttributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * @return The number of write shards of each partition key value, 1 if the partition key is not sharded.
+     */
+    public int getWriteShards() {
+        return writeShards;
+    }
+
+    /**
+     * @return {@code true} if the partition key declares more than one write shard.
+     */
+    public boolean isWriteSharded() {
+        return writeShards > 1;
+    }
+
+    /**
+     * @return The partition key of the table.
+     * @throws EntityDefinitionException If the entity has no partition key.
+     */
+    public KeyAttribute getPartitionKey() {
+        return findTableKey(KeyType.HASH).orElseThrow(() -> new EntityDefinitionException(
+                entityClass.getName() + " has no @DynamoDbPartitionKey"));
+    }
+
+    /**
+     * @return The sort key of the table, if any.
+     */
+    public Optional<KeyAttribute> getSortKey() {
+        return findTableKey(KeyType.RANGE);
+    }
+
+    /**
+     * @param indexName The index name.
+     * @return The partition key of the index. Local indexes may omit it and share the table partition key.
+     */
+    public Optional<KeyAttribute> getPartitionKey(String indexName) {
+        return keyAttributes.stream().filter(k -> k.partitionKeyIndexNames().contains(indexName)).findFirst();
+    }
+
+    /**
+     * @param indexName The index name.
+     * @return The sort key of the index, if any.
+     */
+    public Optional<KeyAttribute> getSortKey(String indexName) {
+        return keyAttributes.stream().filter(k -> k.sortKeyIndexNames().contains(indexName)).findFirst();
+    }
+
+    /**
+     * @return The names of every secondary index declared by the entity.
+     */
+    public Set<String> getIndexNames() {
+        Set<String> indexNames = new TreeSet<>();
+        keyAttributes.forEach(k -> {
+            indexNames.addAll(k.partitionKeyIndexNames());
+            indexNames.addAll(k.sortKeyIndexNames());
+        });
+        return indexNames;
+    }
+
+    /**
+     * @return The local index names declared with {@code @LocalDynamoSecondaryInfo}.
+     */
+    public Set<String> getLocalIndexNames() {
+        return localIndexNames;
+    }
+
+    /**
+     * @param indexName The index name.
+     * @return {@code true} if the index is a local secondary index.
+     */
+    public boolean isLocalIndex(String indexName) {
+        return localIndexNames.contains(indexName);
+    }
+
+    private Optional<KeyAttribute> findTableKey(KeyType keyType) {
+        return keyAttributes.stream().filter(k -> k.tableKeyType() == keyType).findFirst();
+    }
+}
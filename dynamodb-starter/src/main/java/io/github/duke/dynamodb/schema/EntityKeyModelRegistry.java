@@ -0,0 +1,30 @@
+package io.github.duke.dynamodb.schema;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared registry of {@link EntityKeyModel}s.
+ * <p>
+ * Models are cached in a {@link ClassValue}, so every entity class is reflected at most once per class loader
+ * for the starter and the application code alike, and the cache does not prevent classes from being unloaded.
+ */
+@Component
+public class EntityKeyModelRegistry {
+
+    private static final ClassValue<EntityKeyModel> MODELS = new ClassValue<>() {
+        @Override
+        protected EntityKeyModel computeValue(Class<?> type) {
+            return EntityKeyModel.resolve(type);
+        }
+    };
+
+    /**
+     * Returns the key model of an entity, resolving it on first use.
+     *
+     * @param entity The entity class.
+     * @return The key model.
+     */
+    public EntityKeyModel get(Class<?> entity) {
+        return MODELS.get(entity);
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.duke.dynamodb.schema;
+
+import org.springframework.util.ReflectionUtils;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * A key attribute of a DynamoDB entity, with every role it plays in the table and its indexes.
+ *
+ * @param attributeName          The attribute name, honoring {@code @DynamoDbAttribute}.
+ * @param attributeType          The scalar attribute type.
+ * @param getter                 The getter of the attribute.
+ * @param tableKeyType           The key type in the table key schema, or {@code null} if not a table key.
+ * @param partitionKeyIndexNames The names of the indexes this attribute is the partition key of.
+ * @param sortKeyIndexNames      The names of the indexes this attribute is the sort key of.
+ */
+public record KeyAttribute(String attributeName, ScalarAttributeType attributeType, Method getter,
+                           KeyType tableKeyType, Set<String> partitionKeyIndexNames, Set<String> sortKeyIndexNames) {
+
+    /**
+     * Reads the attribute value of an item through its getter.
+     *
+     * @param item The entity instance.
+     * @return The attribute value, possibly {@code null}.
+     */
+    public Object read(Object item) {
+        return ReflectionUtils.invokeMethod(getter, item);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.duke.dynamodb.schema;
+
+import io.github.duke.dynamodb.annotation.DynamoDbIndexProjection;
+import io.github.duke.dynamodb.exception.EntityDefinitionException;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+import java.util.*;
+
+/**
+ * Resolves and validates the projections of the secondary indexes of an entity.
+ * <p>
+ * Projections are declared with {@link DynamoDbIndexProjection}, indexes without one project all attributes.
+ */
+@Component
+public class ProjectionResolver {
+
+    /**
+     * Maximum number of distinct non-key attributes projected over all the secondary indexes of a table.
+     */
+    static final int MAX_PROJECTED_ATTRIBUTES = 100;
+
+    private static final Projection ALL = Projection.builder().projectionType(ProjectionType.ALL).build();
+
+    /**
+     * Resolves the projection of every secondary index of an entity.
+     *
+     * @param keyModel The key model of the entity.
+     * @return The projections keyed by index name.
+     * @throws EntityDefinitionException If a declared projection is invalid.
+     */
+    public Map<String, Projection> resolve(EntityKeyModel keyModel) {
+        Class<?> entity = keyModel.getEntityClass();
+        Set<String> indexNames = keyModel.getIndexNames();
+        Set<String> keyAttributeNames = new HashSet<>();
+        keyModel.getKeyAttributes().forEach(key -> keyAttributeNames.add(key.attributeName()));
+
+        Map<String, Projection> projections = new HashMap<>();
+        indexNames.forEach(indexName -> projections.put(indexName, ALL));
+        Set<String> projectedAttributes = new TreeSet<>();
+        Set<String> declared = new HashSet<>();
+        for (DynamoDbIndexProjection projection : entity.getAnnotationsByType(DynamoDbIndexProjection.class)) {
+            String indexName = projection.indexName();
+            if (!indexNames.contains(indexName)) {
+                throw invalid(entity, indexName, "the index is not declared by any key attribute");
+            }
+            if (!declared.add(indexName)) {
+                throw invalid(entity, indexName, "the projection is declared more than once");
+            }
+            List<String> nonKeyAttributes = Arrays.asList(projection.nonKeyAttributes());
+            if (projection.type() == ProjectionType.INCLUDE && nonKeyAttributes.isEmpty()) {
+                throw invalid(entity, indexName, "INCLUDE requires at least one non-key attribute");
+            }
+            if (projection.type() != ProjectionType.INCLUDE && !nonKeyAttributes.isEmpty()) {
+                throw invalid(entity, indexName, "non-key attributes are only allowed with INCLUDE");
+            }
+            for (String attributeName : nonKeyAttributes) {
+                if (keyAttributeNames.contains(attributeName)) {
+                    throw invalid(entity, indexName, attributeName + " is a key attribute and is always projected");
+                }
+                if (!keyModel.getAttributeNames().contains(attributeName)) {
+                    throw invalid(entity, indexName, attributeName + " is not an attribute of the entity");
+                }
+            }
+            projectedAttributes.addAll(nonKeyAttributes);
+            Projection.Builder builder = Projection.builder().projectionType(projection.type());
+            if (!nonKeyAttributes.isEmpty()) {
+                builder.nonKeyAttributes(nonKeyAttributes);
+            }
+            projections.put(indexName, builder.build());
+        }
+        if (projectedAttributes.size() > MAX_PROJECTED_ATTRIBUTES) {
+            throw new EntityDefinitionException(String.format(
+                    "%s projects %d non-key attributes into its indexes, at most %d are allowed",
+                    entity.getName(), projectedAttributes.size(), MAX_PROJECTED_ATTRIBUTES));
+        }
+        return projections;
+    }
+
+    private static EntityDefinitionException invalid(Class<?> entity, String indexName, String reason) {
+        return new EntityDefinitionException(String.format(
+                "Invalid projection of index %s of %s: %s", indexName, entity.getName(), reason));
+    }
+}
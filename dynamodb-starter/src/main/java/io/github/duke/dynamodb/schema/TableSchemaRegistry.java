@@ -0,0 +1,33 @@
+package io.github.duke.dynamodb.schema;
+
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+
+/**
+ * Shared registry of the enhanced client {@link TableSchema}s of the entities.
+ * <p>
+ * Building a bean table schema introspects the whole class, so each schema is built once and cached
+ * in a {@link ClassValue}, like the {@link EntityKeyModel}s of the {@link EntityKeyModelRegistry}.
+ */
+@Component
+public class TableSchemaRegistry {
+
+    private static final ClassValue<TableSchema<?>> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected TableSchema<?> computeValue(Class<?> type) {
+            return TableSchema.fromBean(type);
+        }
+    };
+
+    /**
+     * Returns the table schema of an entity, building it on first use.
+     *
+     * @param entity The entity class.
+     * @param <T>    The entity type.
+     * @return The table schema.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TableSchema<T> get(Class<T> entity) {
+        return (TableSchema<T>) SCHEMAS.get(entity);
+    }
+}
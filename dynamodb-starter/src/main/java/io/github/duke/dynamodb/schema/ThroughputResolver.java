@@ -0,0 +1,135 @@
+package io.github.duke.dynamodb.schema;
+
+import io.github.duke.dynamodb.annotation.DynamoDbThroughput;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.OnDemandThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+
+import java.util.Optional;
+
+/**
+ * Resolves the provisioned and on demand throughput of tables and global secondary indexes.
+ * <p>
+ * Each value is looked up in this order: the {@code dynamodb.starter.throughput.tables.<table>[.indexes.<index>].<value>}
+ * property, the matching {@link DynamoDbThroughput} annotation of the entity, then the fallback (the global
+ * properties for tables, the table throughput for indexes).
+ */
+@Component
+public class ThroughputResolver {
+
+    private static final String TABLE_PROPERTY_PREFIX = "dynamodb.starter.throughput.tables.";
+    private static final String INDEX_PROPERTY_INFIX = ".indexes.";
+    private static final String READ_CAPACITY = "readCapacity";
+    private static final String WRITE_CAPACITY = "writeCapacity";
+    private static final String MAX_READ_REQUEST_UNITS = "maxReadRequestUnits";
+    private static final String MAX_WRITE_REQUEST_UNITS = "maxWriteRequestUnits";
+    private static final String TABLE = "";
+
+    private final PropertyResolver propertyResolver;
+
+    /**
+     * @param propertyResolver The resolver of the per table override properties, usually the environment.
+     */
+    @Autowired
+    public ThroughputResolver(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    /**
+     * Resolves the provisioned throughput of a table.
+     *
+     * @param entity        The entity class.
+     * @param tableName     The table name.
+     * @param readCapacity  The default read capacity.
+     * @param writeCapacity The default write capacity.
+     * @return The provisioned throughput.
+     */
+    public ProvisionedThroughput provisioned(Class<?> entity, String tableName, long readCapacity, long writeCapacity) {
+        return provisioned(entity, tableName, TABLE, ProvisionedThroughput.builder()
+                .readCapacityUnits(readCapacity).writeCapacityUnits(writeCapacity).build());
+    }
+
+    /**
+     * Resolves the provisioned throughput of a global secondary index.
+     *
+     * @param entity          The entity class.
+     * @param tableName       The table name.
+     * @param indexName       The index name.
+     * @param tableThroughput The throughput of the table, used as default.
+     * @return The provisioned throughput.
+     */
+    public ProvisionedThroughput provisioned(Class<?> entity, String tableName, String indexName,
+                                             ProvisionedThroughput tableThroughput) {
+        DynamoDbThroughput annotation = findAnnotation(entity, indexName);
+        return ProvisionedThroughput.builder()
+                .readCapacityUnits(resolve(tableName, indexName, READ_CAPACITY,
+                        annotation == null ? -1 : annotation.readCapacity()).orElse(tableThroughput.readCapacityUnits()))
+                .writeCapacityUnits(resolve(tableName, indexName, WRITE_CAPACITY,
+                        annotation == null ? -1 : annotation.writeCapacity()).orElse(tableThroughput.writeCapacityUnits()))
+                .build();
+    }
+
+    /**
+     * Resolves the maximum on demand throughput of a table.
+     *
+     * @param entity    The entity class.
+     * @param tableName The table name.
+     * @return The maximum throughput, or {@code null} if unbounded.
+     */
+    public OnDemandThroughput onDemand(Class<?> entity, String tableName) {
+        return onDemand(entity, tableName, TABLE);
+    }
+
+    /**
+     * Resolves the maximum on demand throughput of a global secondary index. Each maximum the index does not declare
+     * is the one of the table.
+     *
+     * @param entity    The entity class.
+     * @param tableName The table name.
+     * @param indexName The index name.
+     * @return The maximum throughput, or {@code null} if unbounded.
+     */
+    public OnDemandThroughput onDemand(Class<?> entity, String tableName, String indexName) {
+        Optional<Long> maxRead = maxRequestUnits(entity, tableName, indexName, MAX_READ_REQUEST_UNITS);
+        Optional<Long> maxWrite = maxRequestUnits(entity, tableName, indexName, MAX_WRITE_REQUEST_UNITS);
+        if (maxRead.isEmpty() && maxWrite.isEmpty()) {
+            return null;
+        }
+        return OnDemandThroughput.builder()
+                .maxReadRequestUnits(maxRead.orElse(null))
+                .maxWriteRequestUnits(maxWrite.orElse(null))
+                .build();
+    }
+
+    private Optional<Long> maxRequestUnits(Class<?> entity, String tableName, String indexName, String value) {
+        DynamoDbThroughput annotation = findAnnotation(entity, indexName);
+        long annotationValue = annotation == null ? -1 : MAX_READ_REQUEST_UNITS.equals(value)
+                ? annotation.maxReadRequestUnits() : annotation.maxWriteRequestUnits();
+        Optional<Long> resolved = resolve(tableName, indexName, value, annotationValue);
+        if (resolved.isPresent() || TABLE.equals(indexName)) {
+            return resolved;
+        }
+        return maxRequestUnits(entity, tableName, TABLE, value);
+    }
+
+    private Optional<Long> resolve(String tableName, String indexName, String value, long annotationValue) {
+        String property = TABLE_PROPERTY_PREFIX + tableName
+                + (TABLE.equals(indexName) ? "" : INDEX_PROPERTY_INFIX + indexName) + "." + value;
+        Long override = propertyResolver.getProperty(property, Long.class);
+        if (override != null) {
+            return Optional.of(override);
+        }
+        return annotationValue >= 0 ? Optional.of(annotationValue) : Optional.empty();
+    }
+
+    private static DynamoDbThroughput findAnnotation(Class<?> entity, String indexName) {
+        for (DynamoDbThroughput throughput : entity.getAnnotationsByType(DynamoDbThroughput.class)) {
+            if (throughput.indexName().equals(indexName)) {
+                return throughput;
+            }
+        }
+        return null;
+    }
+}
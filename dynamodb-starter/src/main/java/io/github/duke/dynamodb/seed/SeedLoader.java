@@ -0,0 +1,214 @@
+package io.github.duke.dynamodb.seed;
+
+import io.github.duke.dynamodb.batch.BatchEngine;
+import io.github.duke.dynamodb.batch.BatchResult;
+import io.github.duke.dynamodb.exception.BatchOperationException;
+import io.github.duke.dynamodb.exception.SeedLoadingException;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.document.EnhancedDocument;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Seeds newly created tables from NDJSON or CSV fixtures.
+ * <p>
+ * When {@code dynamodb.starter.seed.enabled} is set, the fixture of a table is looked up at
+ * {@code <dynamodb.starter.seed.location><table name without prefix>.ndjson}, then {@code .csv}, in any Spring
+ * resource location ({@code classpath:}, {@code file:}). NDJSON fixtures hold one JSON object per line; CSV
+ * fixtures a header row of attribute names, with empty cells skipped. Every row is converted with the table
+ * schema of the entity, so a row which does not fit the entity fails the seeding.
+ * <p>
+ * Fixtures are streamed row by row into the {@link BatchEngine}, which only reads the next rows once a batch
+ * slot is free, so fixtures of any size are loaded in bounded memory. Rows of entities with write shards are
+ * stored under their shard, like the batch engine stores every sharded entity.
+ */
+@Slf4j
+@Component
+public class SeedLoader {
+
+    private static final String NDJSON = ".ndjson";
+    private static final String CSV = ".csv";
+
+    private final BatchEngine batchEngine;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final ResourceLoader resourceLoader;
+    private final boolean enabled;
+    private final String location;
+    private final String tablePrefix;
+
+    /**
+     * Constructs a SeedLoader with the necessary dependencies.
+     *
+     * @param batchEngine         The batch engine writing the rows.
+     * @param tableSchemaRegistry The registry of the entity table schemas.
+     * @param resourceLoader      The loader of the fixtures.
+     * @param enabled             Whether newly created tables are seeded.
+     * @param location            The location of the fixtures, ending with a separator.
+     * @param tablePrefix         The table prefix, not part of the fixture names.
+     */
+    @Autowired
+    public SeedLoader(BatchEngine batchEngine, TableSchemaRegistry tableSchemaRegistry, ResourceLoader resourceLoader,
+                      @Value("${dynamodb.starter.seed.enabled:false}") boolean enabled,
+                      @Value("${dynamodb.starter.seed.location:classpath:dynamodb/seed/}") String location,
+                      @Value("${dynamodb.starter.table.prefix}") String tablePrefix) {
+        this.batchEngine = batchEngine;
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.resourceLoader = resourceLoader;
+        this.enabled = enabled;
+        this.location = location;
+        this.tablePrefix = tablePrefix == null ? "" : tablePrefix;
+    }
+
+    /**
+     * @return A loader which never seeds tables.
+     */
+    public static SeedLoader disabled() {
+        return new SeedLoader(null, null, null, false, "", "");
+    }
+
+    /**
+     * @return {@code true} if newly created tables are seeded.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param tableName The table name.
+     * @return The fixture of the table, if seeding is enabled and one exists.
+     */
+    public Optional<Resource> findFixture(String tableName) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String name = tableName.startsWith(tablePrefix) ? tableName.substring(tablePrefix.length()) : tableName;
+        for (String extension : List.of(NDJSON, CSV)) {
+            Resource resource = resourceLoader.getResource(location + name + extension);
+            if (resource.exists()) {
+                return Optional.of(resource);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Seeds the table of an entity from its fixture, if any.
+     *
+     * @param entity    The entity class.
+     * @param tableName The table name.
+     * @param <T>       The entity type.
+     * @return The throughput of the seeding, empty if the table has no fixture.
+     * @throws SeedLoadingException If the fixture cannot be read or a row does not fit the entity.
+     */
+    public <T> Optional<BatchResult> seed(Class<T> entity, String tableName) {
+        Optional<Resource> fixture = findFixture(tableName);
+        if (fixture.isEmpty()) {
+            return Optional.empty();
+        }
+        Resource resource = fixture.get();
+        TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+        boolean csv = Objects.requireNonNull(resource.getFilename()).endsWith(CSV);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            Iterator<Map<String, AttributeValue>> rows = csv ? csvRows(reader, tableSchema) : ndjsonRows(reader);
+            BatchResult result = batchEngine.putAll(entity, () -> new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return tableSchema.mapToItem(rows.next());
+                }
+            });
+            log.info("Seeded {} row(s) into table {} from {} in {} ms ({} rows/s).", result.items(), tableName,
+                    resource.getDescription(), result.elapsed().toMillis(), Math.round(result.itemsPerSecond()));
+            return Optional.of(result);
+        } catch (BatchOperationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new SeedLoadingException("Failed to seed table " + tableName + " from " + resource.getDescription(), e);
+        }
+    }
+
+    private static Iterator<Map<String, AttributeValue>> ndjsonRows(BufferedReader reader) {
+        return reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(line -> EnhancedDocument.fromJson(line).toMap())
+                .iterator();
+    }
+
+    private static Iterator<Map<String, AttributeValue>> csvRows(BufferedReader reader, TableSchema<?> tableSchema)
+            throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.read();
+        if (header == null) {
+            return Collections.emptyIterator();
+        }
+        List<AttributeValueType> types = header.stream()
+                .map(name -> tableSchema.converterForAttribute(name).attributeValueType())
+                .toList();
+        return new Iterator<>() {
+            private List<String> next = readNext();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, AttributeValue> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map<String, AttributeValue> row = new HashMap<>();
+                for (int i = 0; i < Math.min(header.size(), next.size()); i++) {
+                    String value = next.get(i);
+                    if (!value.isEmpty()) {
+                        row.put(header.get(i), attributeValue(types.get(i), value));
+                    }
+                }
+                next = readNext();
+                return row;
+            }
+
+            private List<String> readNext() {
+                try {
+                    return records.read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Converts a CSV cell into the attribute value type expected by the entity. Cells of document and set
+     * attributes are read as JSON.
+     */
+    private static AttributeValue attributeValue(AttributeValueType type, String value) {
+        return switch (type) {
+            case S -> AttributeValue.fromS(value);
+            case N -> AttributeValue.fromN(value);
+            case B -> AttributeValue.fromB(SdkBytes.fromByteArray(Base64.getDecoder().decode(value)));
+            case BOOL -> AttributeValue.fromBool(Boolean.parseBoolean(value));
+            default -> EnhancedDocument.fromJson("{\"value\":" + value + "}").toMap().get("value");
+        };
+    }
+}
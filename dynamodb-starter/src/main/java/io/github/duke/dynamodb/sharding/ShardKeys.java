@@ -0,0 +1,98 @@
+package io.github.duke.dynamodb.sharding;
+
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates between the items of an entity and the items stored for its {@link DynamoDbWriteShards}, so every
+ * component writing or reading sharded entities agrees on the stored partition key.
+ * <p>
+ * Items of entities without write shards are returned unchanged.
+ */
+public final class ShardKeys {
+
+    static final char SHARD_SEPARATOR = '#';
+
+    private ShardKeys() {
+        // Private constructor to prevent instantiation of the utility class.
+    }
+
+    /**
+     * Resolves the shard of an item from its sort key value.
+     *
+     * @param keyModel     The key model of the entity.
+     * @param sortKeyValue The sort key value of the item.
+     * @return The shard, between 0 and the write shards of the entity excluded.
+     */
+    public static int shardOf(EntityKeyModel keyModel, AttributeValue sortKeyValue) {
+        return Math.floorMod(canonical(sortKeyValue).hashCode(), keyModel.getWriteShards());
+    }
+
+    /**
+     * Suffixes the partition key of an item, or of a key, with its shard.
+     *
+     * @param keyModel The key model of the entity.
+     * @param item     The item or key, as mapped by the table schema of the entity.
+     * @return The item as stored.
+     * @throws IllegalArgumentException If the item of a sharded entity lacks its partition or sort key.
+     */
+    public static Map<String, AttributeValue> toStoredItem(EntityKeyModel keyModel, Map<String, AttributeValue> item) {
+        if (!keyModel.isWriteSharded()) {
+            return item;
+        }
+        String partitionKeyName = keyModel.getPartitionKey().attributeName();
+        String sortKeyName = keyModel.getSortKey().orElseThrow().attributeName();
+        AttributeValue partitionValue = item.get(partitionKeyName);
+        AttributeValue sortKeyValue = item.get(sortKeyName);
+        if (partitionValue == null || partitionValue.s() == null || sortKeyValue == null) {
+            throw new IllegalArgumentException(String.format("Items of %s need both %s and %s to be sharded",
+                    keyModel.getEntityClass().getName(), partitionKeyName, sortKeyName));
+        }
+        Map<String, AttributeValue> sharded = new HashMap<>(item);
+        sharded.put(partitionKeyName, AttributeValue.fromS(
+                shardedValue(partitionValue.s(), shardOf(keyModel, sortKeyValue))));
+        return sharded;
+    }
+
+    /**
+     * Removes the shard suffix of the partition key of a stored item.
+     *
+     * @param keyModel The key model of the entity.
+     * @param item     The item as stored.
+     * @return The item, ready to be mapped by the table schema of the entity.
+     */
+    public static Map<String, AttributeValue> toEntityItem(EntityKeyModel keyModel, Map<String, AttributeValue> item) {
+        if (!keyModel.isWriteSharded()) {
+            return item;
+        }
+        String partitionKeyName = keyModel.getPartitionKey().attributeName();
+        String stored = item.get(partitionKeyName).s();
+        Map<String, AttributeValue> unsharded = new HashMap<>(item);
+        unsharded.put(partitionKeyName, AttributeValue.fromS(stored.substring(0, stored.lastIndexOf(SHARD_SEPARATOR))));
+        return unsharded;
+    }
+
+    static String shardedValue(String partitionValue, int shard) {
+        return partitionValue + SHARD_SEPARATOR + shard;
+    }
+
+    /**
+     * The canonical text of a sort key value, so equal numbers such as {@code 1} and {@code 1.0} land
+     * in the same shard, as DynamoDB considers them the same key.
+     */
+    private static String canonical(AttributeValue value) {
+        if (value.n() != null) {
+            return new BigDecimal(value.n()).stripTrailingZeros().toPlainString();
+        }
+        if (value.b() != null) {
+            return Base64.getEncoder().encodeToString(value.b().asByteArrayUnsafe());
+        }
+        return String.valueOf(value.s());
+    }
+}
@@ -0,0 +1,343 @@
+package io.github.duke.dynamodb.sharding;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the entities whose partition key declares {@link DynamoDbWriteShards}.
+ * <p>
+ * On write, the partition key value is stored with a {@code #<shard>} suffix, the shard being derived from a hash
+ * of the sort key value, so the items of a partition key value spread evenly over the shards while the shard of
+ * a given item is known from its key alone. On read, {@link #query} sends a query to every shard in parallel,
+ * through the {@link DynamoDbAsyncClient} when one is available or a bounded worker pool driving the blocking
+ * client otherwise, and merges the pages of the shards by sort key as DynamoDB would have ordered a single
+ * partition. The suffix is removed before the items are mapped back to entities.
+ * <p>
+ * Entities without write shards go through unchanged, so an entity can be sharded later by adding the annotation
+ * and re-writing its items.
+ */
+@Slf4j
+@Component
+public class ShardingEngine implements DisposableBean {
+
+    static final String SORT_KEY_NAME = "#sk";
+    private static final String PARTITION_KEY_NAME = "#pk";
+    private static final String PARTITION_KEY_VALUE = ":pk";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final EntityKeyModelRegistry entityKeyModelRegistry;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a ShardingEngine with the necessary dependencies.
+     *
+     * @param dynamoDbClient         The blocking DynamoDB client, used when no async client is available.
+     * @param dynamoDbAsyncClient    Provider of the optional async DynamoDB client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param maxConcurrency         The maximum number of shards queried at once with the blocking client.
+     */
+    @Autowired
+    public ShardingEngine(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                          DefaultDynamoDbTableNameResolver tableNameResolver, EntityKeyModelRegistry entityKeyModelRegistry,
+                          TableSchemaRegistry tableSchemaRegistry,
+                          @Value("${dynamodb.starter.sharding.maxConcurrency:8}") int maxConcurrency) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), tableNameResolver, entityKeyModelRegistry,
+                tableSchemaRegistry, maxConcurrency);
+    }
+
+    /**
+     * Constructs a ShardingEngine with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient         The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient    The async DynamoDB client, or {@code null} to use the blocking client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param maxConcurrency         The maximum number of shards queried at once with the blocking client.
+     */
+    public ShardingEngine(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                          DefaultDynamoDbTableNameResolver tableNameResolver, EntityKeyModelRegistry entityKeyModelRegistry,
+                          TableSchemaRegistry tableSchemaRegistry, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.sharding.maxConcurrency must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.tableNameResolver = tableNameResolver;
+        this.entityKeyModelRegistry = entityKeyModelRegistry;
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.executor = dynamoDbAsyncClient == null
+                ? Executors.newFixedThreadPool(maxConcurrency, ShardingEngine::newWorkerThread)
+                : null;
+    }
+
+    private static Thread newWorkerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dynamodb-sharding");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Puts an item into its shard, replacing an existing item with the same key.
+     *
+     * @param entity The entity class.
+     * @param item   The item to put.
+     * @param <T>    The entity type.
+     */
+    public <T> void put(Class<T> entity, T item) {
+        Map<String, AttributeValue> attributes = toShardedItem(entity, tableSchema(entity).itemToMap(item, true));
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableNameResolver.resolve(entity))
+                .item(attributes)
+                .build());
+    }
+
+    /**
+     * Reads an item from its shard.
+     *
+     * @param entity The entity class.
+     * @param key    An entity holding at least the key attributes of the item.
+     * @param <T>    The entity type.
+     * @return The item, or empty if it does not exist.
+     */
+    public <T> Optional<T> get(Class<T> entity, T key) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableNameResolver.resolve(entity))
+                .key(shardedKey(entity, key))
+                .build());
+        return response.hasItem() && !response.item().isEmpty()
+                ? Optional.of(toEntity(entity, response.item()))
+                : Optional.empty();
+    }
+
+    /**
+     * Deletes an item from its shard.
+     *
+     * @param entity The entity class.
+     * @param key    An entity holding at least the key attributes of the item.
+     * @param <T>    The entity type.
+     */
+    public <T> void delete(Class<T> entity, T key) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableNameResolver.resolve(entity))
+                .key(shardedKey(entity, key))
+                .build());
+    }
+
+    /**
+     * Reads every item of a partition key value, across all of its shards.
+     *
+     * @param entity         The entity class.
+     * @param partitionValue The partition key value, without shard suffix.
+     * @param <T>            The entity type.
+     * @return The items, in ascending sort key order.
+     */
+    public <T> List<T> query(Class<T> entity, String partitionValue) {
+        return query(entity, partitionValue, null, Map.of(), true, 0);
+    }
+
+    /**
+     * Queries every shard of a partition key value in parallel and merges the results by sort key.
+     *
+     * @param entity           The entity class.
+     * @param partitionValue   The partition key value, without shard suffix.
+     * @param sortKeyCondition The condition on the sort key, naming it {@code #sk}, e.g. {@code #sk > :from},
+     *                         or {@code null} for every item.
+     * @param values           The values of the condition placeholders.
+     * @param ascending        Whether the items are returned in ascending sort key order.
+     * @param limit            The maximum number of items returned, non positive for no limit.
+     * @param <T>              The entity type.
+     * @return The items, ordered by sort key.
+     * @throws DynamoDbException If the query of a shard failed.
+     */
+    public <T> List<T> query(Class<T> entity, String partitionValue, String sortKeyCondition,
+                             Map<String, AttributeValue> values, boolean ascending, int limit) {
+        long start = System.nanoTime();
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        String sortKeyName = keyModel.getSortKey().orElseThrow(() -> new IllegalArgumentException(
+                entity.getName() + " has no sort key to merge the shards by")).attributeName();
+
+        Map<String, String> names = new HashMap<>();
+        names.put(PARTITION_KEY_NAME, keyModel.getPartitionKey().attributeName());
+        names.put(SORT_KEY_NAME, sortKeyName);
+        String keyCondition = PARTITION_KEY_NAME + " = " + PARTITION_KEY_VALUE
+                + (sortKeyCondition == null ? "" : " AND " + sortKeyCondition);
+        QueryRequest.Builder template = QueryRequest.builder()
+                .tableName(tableNameResolver.resolve(entity))
+                .keyConditionExpression(keyCondition)
+                .expressionAttributeNames(names)
+                .scanIndexForward(ascending);
+        if (limit > 0) {
+            template.limit(limit);
+        }
+
+        int shards = keyModel.getWriteShards();
+        List<CompletableFuture<List<Map<String, AttributeValue>>>> pages = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            Map<String, AttributeValue> shardValues = new HashMap<>(values);
+            shardValues.put(PARTITION_KEY_VALUE, AttributeValue.fromS(keyModel.isWriteSharded()
+                    ? ShardKeys.shardedValue(partitionValue, shard)
+                    : partitionValue));
+            pages.add(queryShard(template.copy().expressionAttributeValues(shardValues).build(),
+                    new ArrayList<>(), limit));
+        }
+        List<List<Map<String, AttributeValue>>> results = new ArrayList<>(shards);
+        try {
+            pages.forEach(page -> results.add(page.join()));
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        List<T> items = new ArrayList<>();
+        merge(results, sortKeyName, ascending, limit, item -> items.add(toEntity(entity, item)));
+        log.debug("Scatter-gather query of {} on {} shard(s) returned {} item(s) in {} ms.", partitionValue, shards,
+                items.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return items;
+    }
+
+    /**
+     * Resolves the shard of an item from its sort key value.
+     *
+     * @param entity       The entity class.
+     * @param sortKeyValue The sort key value of the item.
+     * @return The shard, between 0 and the write shards of the entity excluded. It depends on the write shards,
+     * which is why they cannot change once items exist.
+     */
+    public int shardOf(Class<?> entity, AttributeValue sortKeyValue) {
+        return ShardKeys.shardOf(entityKeyModelRegistry.get(entity), sortKeyValue);
+    }
+
+    /**
+     * Queries a shard page after page, until its last page or {@code limit} items.
+     */
+    private CompletableFuture<List<Map<String, AttributeValue>>> queryShard(QueryRequest request,
+                                                                            List<Map<String, AttributeValue>> items,
+                                                                            int limit) {
+        CompletableFuture<QueryResponse> response = dynamoDbAsyncClient != null
+                ? dynamoDbAsyncClient.query(request)
+                : CompletableFuture.supplyAsync(() -> dynamoDbClient.query(request), executor);
+        return response.thenCompose(page -> {
+            items.addAll(page.items());
+            if (!page.hasLastEvaluatedKey() || page.lastEvaluatedKey().isEmpty()
+                    || (limit > 0 && items.size() >= limit)) {
+                return CompletableFuture.completedFuture(items);
+            }
+            return queryShard(request.toBuilder().exclusiveStartKey(page.lastEvaluatedKey()).build(), items, limit);
+        });
+    }
+
+    /**
+     * Merges the sorted items of every shard into a single sorted sequence, keeping at most {@code limit} items.
+     */
+    private static void merge(List<List<Map<String, AttributeValue>>> shards, String sortKeyName, boolean ascending,
+                              int limit, Consumer<Map<String, AttributeValue>> consumer) {
+        Comparator<Map<String, AttributeValue>> order =
+                Comparator.comparing(item -> item.get(sortKeyName), ShardingEngine::compare);
+        Comparator<Map<String, AttributeValue>> itemOrder = ascending ? order : order.reversed();
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, shards.size()),
+                (a, b) -> itemOrder.compare(a.head, b.head));
+        shards.stream().map(Cursor::new).filter(Cursor::advance).forEach(cursors::add);
+        int count = 0;
+        while (!cursors.isEmpty() && (limit <= 0 || count < limit)) {
+            Cursor cursor = cursors.poll();
+            consumer.accept(cursor.head);
+            count++;
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Compares sort key values the way DynamoDB orders them: numbers by value, strings and binaries
+     * by their unsigned bytes.
+     */
+    static int compare(AttributeValue a, AttributeValue b) {
+        if (a.n() != null && b.n() != null) {
+            return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n()));
+        }
+        if (a.b() != null && b.b() != null) {
+            return Arrays.compareUnsigned(a.b().asByteArrayUnsafe(), b.b().asByteArrayUnsafe());
+        }
+        return Arrays.compareUnsigned(String.valueOf(a.s()).getBytes(StandardCharsets.UTF_8),
+                String.valueOf(b.s()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> Map<String, AttributeValue> shardedKey(Class<T> entity, T key) {
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        List<String> keyNames = new ArrayList<>();
+        keyNames.add(keyModel.getPartitionKey().attributeName());
+        keyModel.getSortKey().ifPresent(sortKey -> keyNames.add(sortKey.attributeName()));
+        return toShardedItem(entity, tableSchema(entity).itemToMap(key, keyNames));
+    }
+
+    private Map<String, AttributeValue> toShardedItem(Class<?> entity, Map<String, AttributeValue> item) {
+        return ShardKeys.toStoredItem(entityKeyModelRegistry.get(entity), item);
+    }
+
+    private <T> T toEntity(Class<T> entity, Map<String, AttributeValue> item) {
+        return tableSchema(entity).mapToItem(ShardKeys.toEntityItem(entityKeyModelRegistry.get(entity), item));
+    }
+
+    private <T> TableSchema<T> tableSchema(Class<T> entity) {
+        return tableSchemaRegistry.get(entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The position in the sorted items of a shard during a merge.
+     */
+    private static final class Cursor {
+        private final Iterator<Map<String, AttributeValue>> items;
+        private Map<String, AttributeValue> head;
+
+        private Cursor(List<Map<String, AttributeValue>> items) {
+            this.items = items.iterator();
+        }
+
+        /**
+         * @return {@code true} if the cursor moved to a next item, {@code false} if the shard is exhausted.
+         */
+        private boolean advance() {
+            head = items.hasNext() ? items.next() : null;
+            return head != null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.duke.dynamodb.stream;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.schema.EntityKeyModel;
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry;
+import io.github.duke.dynamodb.schema.TableSchemaRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Streams the items of queries and scans through the {@link DynamoDbAsyncClient} as reactive streams
+ * {@link Publisher}s, instead of paging the results synchronously into memory.
+ * <p>
+ * Each publisher is cold: every subscription runs the request from its first page. The next pages are fetched
+ * while the subscriber processes the current one, up to {@code dynamodb.starter.stream.prefetch} pages ahead, and
+ * no further until the subscriber requests more items, so memory stays bounded by the page size (the
+ * {@code Limit} of the request, 1 MB at most) whatever the size of the result. Scans are split into
+ * {@code dynamodb.starter.stream.segments} segments scanned in parallel and merged into a single stream, in no
+ * particular order; a scan request with its own {@code Segment} is sent as is.
+ * <p>
+ * The entity variants resolve the table name, check that the index is one the starter provisioned for the entity,
+ * and map the items with the table schema of the entity. They reject the entities with
+ * {@link io.github.duke.dynamodb.annotation.DynamoDbWriteShards}, whose stored keys differ from their entity keys:
+ * those are read through {@link io.github.duke.dynamodb.sharding.ShardingEngine} instead.
+ */
+@Component
+public class ItemStreamer {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final EntityKeyModelRegistry entityKeyModelRegistry;
+    private final TableSchemaRegistry tableSchemaRegistry;
+    private final int prefetch;
+    private final int segments;
+
+    /**
+     * Constructs an ItemStreamer with the necessary dependencies.
+     *
+     * @param dynamoDbAsyncClient    Provider of the optional async DynamoDB client.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param prefetch               The number of pages fetched ahead per query or scan segment.
+     * @param segments               The number of segments of the scans.
+     */
+    @Autowired
+    public ItemStreamer(ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                        DefaultDynamoDbTableNameResolver tableNameResolver, EntityKeyModelRegistry entityKeyModelRegistry,
+                        TableSchemaRegistry tableSchemaRegistry,
+                        @Value("${dynamodb.starter.stream.prefetch:2}") int prefetch,
+                        @Value("${dynamodb.starter.stream.segments:4}") int segments) {
+        this(dynamoDbAsyncClient.getIfAvailable(), tableNameResolver, entityKeyModelRegistry, tableSchemaRegistry,
+                prefetch, segments);
+    }
+
+    /**
+     * Constructs an ItemStreamer with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbAsyncClient    The async DynamoDB client, or {@code null} if there is none.
+     * @param tableNameResolver      The table name resolver.
+     * @param entityKeyModelRegistry The registry of the resolved entity keys.
+     * @param tableSchemaRegistry    The registry of the entity table schemas.
+     * @param prefetch               The number of pages fetched ahead per query or scan segment.
+     * @param segments               The number of segments of the scans.
+     */
+    public ItemStreamer(DynamoDbAsyncClient dynamoDbAsyncClient, DefaultDynamoDbTableNameResolver tableNameResolver,
+                        EntityKeyModelRegistry entityKeyModelRegistry, TableSchemaRegistry tableSchemaRegistry,
+                        int prefetch, int segments) {
+        if (prefetch < 1 || segments < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.stream.prefetch and segments must be positive");
+        }
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.tableNameResolver = tableNameResolver;
+        this.entityKeyModelRegistry = entityKeyModelRegistry;
+        this.tableSchemaRegistry = tableSchemaRegistry;
+        this.prefetch = prefetch;
+        this.segments = segments;
+    }
+
+    /**
+     * Streams the items of a query, following its pages.
+     *
+     * @param request The query, its {@code ExclusiveStartKey} being the start of the stream if set.
+     * @return A publisher of the items.
+     * @throws IllegalStateException If there is no {@link DynamoDbAsyncClient}.
+     */
+    public Publisher<Map<String, AttributeValue>> query(QueryRequest request) {
+        return query(request, Function.identity());
+    }
+
+    /**
+     * Streams the entities of a query on the table of an entity or one of its indexes.
+     *
+     * @param entity    The entity class.
+     * @param indexName The name of a secondary index of the entity, {@code null} to query the table.
+     * @param request   The query, its table and index names being set by this method.
+     * @param <T>       The entity type.
+     * @return A publisher of the entities.
+     * @throws IllegalArgumentException If the entity declares no such index or has write shards.
+     * @throws IllegalStateException    If there is no {@link DynamoDbAsyncClient}.
+     */
+    public <T> Publisher<T> query(Class<T> entity, String indexName, QueryRequest request) {
+        TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+        return query(request.toBuilder()
+                .tableName(tableNameResolver.resolve(entity))
+                .indexName(checkIndex(entity, indexName))
+                .build(), tableSchema::mapToItem);
+    }
+
+    /**
+     * Streams the items of a scan, split into the configured number of parallel segments.
+     *
+     * @param request The scan.
+     * @return A publisher of the items.
+     * @throws IllegalStateException If there is no {@link DynamoDbAsyncClient}.
+     */
+    public Publisher<Map<String, AttributeValue>> scan(ScanRequest request) {
+        return scan(request, segments, Function.identity());
+    }
+
+    /**
+     * Streams the items of a scan, split into the given number of parallel segments.
+     *
+     * @param request       The scan.
+     * @param totalSegments The number of segments scanned in parallel, ignored if the request has its own segment.
+     * @return A publisher of the items.
+     * @throws IllegalStateException If there is no {@link DynamoDbAsyncClient}.
+     */
+    public Publisher<Map<String, AttributeValue>> scan(ScanRequest request, int totalSegments) {
+        return scan(request, totalSegments, Function.identity());
+    }
+
+    /**
+     * Streams the entities of a scan of the table of an entity or one of its indexes, split into the configured
+     * number of parallel segments.
+     *
+     * @param entity    The entity class.
+     * @param indexName The name of a secondary index of the entity, {@code null} to scan the table.
+     * @param request   The scan, its table and index names being set by this method.
+     * @param <T>       The entity type.
+     * @return A publisher of the entities.
+     * @throws IllegalArgumentException If the entity declares no such index or has write shards.
+     * @throws IllegalStateException    If there is no {@link DynamoDbAsyncClient}.
+     */
+    public <T> Publisher<T> scan(Class<T> entity, String indexName, ScanRequest request) {
+        TableSchema<T> tableSchema = tableSchemaRegistry.get(entity);
+        return scan(request.toBuilder()
+                .tableName(tableNameResolver.resolve(entity))
+                .indexName(checkIndex(entity, indexName))
+                .build(), segments, tableSchema::mapToItem);
+    }
+
+    private <T> Publisher<T> query(QueryRequest request, Function<Map<String, AttributeValue>, T> mapper) {
+        DynamoDbAsyncClient client = client();
+        Map<String, AttributeValue> firstKey = request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null;
+        return new PagePublisher<>(1, prefetch, (chain, startKey) -> client
+                .query(request.toBuilder().exclusiveStartKey(startKey == null ? firstKey : startKey).build())
+                .thenApply(response -> new PagePublisher.Page(response.items(), response.lastEvaluatedKey())),
+                mapper);
+    }
+
+    private <T> Publisher<T> scan(ScanRequest request, int totalSegments,
+                                  Function<Map<String, AttributeValue>, T> mapper) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("The number of segments must be positive");
+        }
+        DynamoDbAsyncClient client = client();
+        boolean segmented = request.segment() == null && totalSegments > 1;
+        Map<String, AttributeValue> firstKey = !segmented && request.hasExclusiveStartKey()
+                ? request.exclusiveStartKey()
+                : null;
+        return new PagePublisher<>(segmented ? totalSegments : 1, prefetch, (chain, startKey) -> {
+            ScanRequest.Builder page = request.toBuilder().exclusiveStartKey(startKey == null ? firstKey : startKey);
+            if (segmented) {
+                page.segment(chain).totalSegments(totalSegments);
+            }
+            return client.scan(page.build())
+                    .thenApply(response -> new PagePublisher.Page(response.items(), response.lastEvaluatedKey()));
+        }, mapper);
+    }
+
+    private String checkIndex(Class<?> entity, String indexName) {
+        EntityKeyModel keyModel = entityKeyModelRegistry.get(entity);
+        if (keyModel.isWriteSharded()) {
+            throw new IllegalArgumentException(entity.getName() + " has write shards, read it with the ShardingEngine");
+        }
+        if (indexName != null && !keyModel.getIndexNames().contains(indexName)) {
+            throw new IllegalArgumentException("Entity " + entity.getName() + " has no index '" + indexName + "'");
+        }
+        return indexName;
+    }
+
+    private DynamoDbAsyncClient client() {
+        if (dynamoDbAsyncClient == null) {
+            throw new IllegalStateException("No DynamoDbAsyncClient bean, items cannot be streamed");
+        }
+        return dynamoDbAsyncClient;
+    }
+}
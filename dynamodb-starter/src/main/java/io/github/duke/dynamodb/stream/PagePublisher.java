@@ -0,0 +1,262 @@
+package io.github.duke.dynamodb.stream;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A cold {@link Publisher} of the items of one or more chains of DynamoDB pages, each chain following its
+ * {@code LastEvaluatedKey}: a query, or the segments of a parallel scan.
+ * <p>
+ * Every chain fetches its next page as soon as it has fewer than {@code prefetch} pages buffered, so the network
+ * is busy while the subscriber processes the previous pages, and stops there until the subscriber requests more.
+ * The chains run concurrently and their items are emitted in the order the pages arrive, the items of a page in
+ * order. At most {@code chains * prefetch} pages are held in memory whatever the size of the result.
+ *
+ * @param <T> The type of the emitted items.
+ */
+class PagePublisher<T> implements Publisher<T> {
+
+    private final int chains;
+    private final int prefetch;
+    private final BiFunction<Integer, Map<String, AttributeValue>, CompletableFuture<Page>> fetcher;
+    private final Function<Map<String, AttributeValue>, T> mapper;
+
+    /**
+     * @param chains   The number of page chains, e.g. the scan segments.
+     * @param prefetch The number of pages buffered ahead per chain.
+     * @param fetcher  Fetches the page of a chain following an exclusive start key, {@code null} for the first one.
+     * @param mapper   Maps an item before it is emitted.
+     */
+    PagePublisher(int chains, int prefetch,
+                  BiFunction<Integer, Map<String, AttributeValue>, CompletableFuture<Page>> fetcher,
+                  Function<Map<String, AttributeValue>, T> mapper) {
+        this.chains = chains;
+        this.prefetch = prefetch;
+        this.fetcher = fetcher;
+        this.mapper = mapper;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    /**
+     * A page of items.
+     *
+     * @param items            The items of the page.
+     * @param lastEvaluatedKey The key following the page, empty or {@code null} after the last page.
+     */
+    record Page(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+    }
+
+    /**
+     * A page chain, fetching one page at a time.
+     */
+    private static final class Chain {
+        private final int index;
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicBoolean fetching = new AtomicBoolean();
+        private volatile Map<String, AttributeValue> startKey;
+        private volatile boolean done;
+
+        private Chain(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * A buffered page, and the chain it counts against.
+     */
+    private record BufferedPage(Chain chain, Iterator<Map<String, AttributeValue>> items) {
+    }
+
+    private final class PageSubscription implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final Chain[] chainStates = new Chain[chains];
+        private final Queue<BufferedPage> pages = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        /**
+         * Accessed by the draining thread only.
+         */
+        private BufferedPage current;
+        private boolean terminated;
+
+        private PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            for (int i = 0; i < chains; i++) {
+                chainStates[i] = new Chain(i);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non positive request " + n + " (rule 3.9)");
+            } else {
+                requested.getAndAccumulate(n, (r, m) -> r + m < 0 ? Long.MAX_VALUE : r + m);
+                if (started.compareAndSet(false, true)) {
+                    for (Chain chain : chainStates) {
+                        fetch(chain);
+                    }
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Fetches the next page of a chain unless it is done, already fetching, or has its pages buffered.
+         */
+        private void fetch(Chain chain) {
+            while (!cancelled && !chain.done && chain.buffered.get() < prefetch
+                    && chain.fetching.compareAndSet(false, true)) {
+                if (chain.buffered.get() >= prefetch) {
+                    // a page was buffered meanwhile, the consumer of the next page fetches again
+                    chain.fetching.set(false);
+                    continue;
+                }
+                CompletableFuture<Page> page;
+                try {
+                    page = fetcher.apply(chain.index, chain.startKey);
+                } catch (RuntimeException e) {
+                    page = CompletableFuture.failedFuture(e);
+                }
+                page.whenComplete((result, failure) -> received(chain, result, failure));
+                return;
+            }
+        }
+
+        private void received(Chain chain, Page page, Throwable failure) {
+            if (failure != null) {
+                error = failure;
+                chain.done = true;
+            } else {
+                Map<String, AttributeValue> next = page.lastEvaluatedKey();
+                chain.startKey = next;
+                chain.done = next == null || next.isEmpty();
+                chain.buffered.incrementAndGet();
+                pages.add(new BufferedPage(chain, page.items().iterator()));
+            }
+            chain.fetching.set(false);
+            fetch(chain);
+            drain();
+        }
+
+        /**
+         * Emits the buffered items within the requested count. Runs on a single thread at a time, the callers
+         * arriving meanwhile make the running drain loop again.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    emit();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            long emitted = 0;
+            long limit = requested.get();
+            while (true) {
+                if (cancelled) {
+                    terminate();
+                    return;
+                }
+                Throwable failure = error;
+                if (failure != null) {
+                    terminate();
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (current == null || !current.items().hasNext()) {
+                    if (current != null) {
+                        // the page is consumed, its chain may fetch the next one
+                        current.chain().buffered.decrementAndGet();
+                        fetch(current.chain());
+                    }
+                    current = pages.poll();
+                    if (current == null) {
+                        if (completed()) {
+                            terminate();
+                            subscriber.onComplete();
+                        }
+                        break;
+                    }
+                    continue;
+                }
+                if (emitted == limit) {
+                    limit = requested.addAndGet(-emitted);
+                    emitted = 0;
+                    if (limit == 0) {
+                        break;
+                    }
+                }
+                T item;
+                try {
+                    item = mapper.apply(current.items().next());
+                } catch (RuntimeException e) {
+                    error = e;
+                    continue;
+                }
+                subscriber.onNext(item);
+                emitted++;
+            }
+            if (emitted != 0) {
+                requested.addAndGet(-emitted);
+            }
+        }
+
+        private boolean completed() {
+            for (Chain chain : chainStates) {
+                if (!chain.done || chain.fetching.get()) {
+                    return false;
+                }
+            }
+            return pages.isEmpty();
+        }
+
+        private void terminate() {
+            terminated = true;
+            cancelled = true;
+            current = null;
+            pages.clear();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.duke.dynamodb.tenant;
+
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import io.github.duke.dynamodb.provisioning.ControlPlaneRateLimiter;
+import io.github.duke.dynamodb.provisioning.ProvisioningMode;
+import io.github.duke.dynamodb.provisioning.ProvisioningResult;
+import io.github.duke.dynamodb.provisioning.TableProvisioner;
+import io.github.duke.dynamodb.readiness.TableReadiness;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ListTablesRequest;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provisions the full entity set once per tenant, for applications running a table per tenant.
+ * <p>
+ * The tables of a tenant are the entity tables with the configured {@code dynamodb.starter.table.prefix} replaced
+ * by the tenant prefix, e.g. {@code tenant42_user_entity} instead of {@code app_user_entity}. The tenants listed in
+ * {@code dynamodb.starter.tenants.prefixes} are provisioned at startup, honouring
+ * {@code dynamodb.starter.provisioning.mode}; more tenants can be onboarded at runtime with
+ * {@link #provision(Collection)} or {@link #provisionAsync(Collection)} without a restart.
+ * <p>
+ * The tables of all the requested tenants go through a single {@link TableProvisioner} call, so they are created
+ * concurrently, within {@code dynamodb.starter.provisioning.maxConcurrency} and the {@link ControlPlaneRateLimiter}.
+ * Tables which already exist are left out after a single {@code ListTables} pass, so re-provisioning hundreds of
+ * onboarded tenants on restart costs no {@code CreateTable} call. Tenant tables are neither seeded nor reconciled,
+ * and stay out of the {@link io.github.duke.dynamodb.inventory.TableInventory} of the entity tables. Their
+ * {@link TableReadiness} futures fail when their provisioning fails, also in the background.
+ */
+@Slf4j
+@Component
+public class TenantProvisioner implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbBeanListener dynamoDbBeanListener;
+    private final TableProvisioner tableProvisioner;
+    private final TableReadiness tableReadiness;
+    private final String tablePrefix;
+    private final Set<String> tenantPrefixes;
+    private final ProvisioningMode provisioningMode;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-tenant-provisioning");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a TenantProvisioner with the necessary dependencies.
+     *
+     * @param dynamoDbClient       The DynamoDB client.
+     * @param dynamoDbBeanListener The listener resolving the entity tables.
+     * @param tableProvisioner     The provisioner creating the tenant tables.
+     * @param tableReadiness       The readiness of the provisioned tables.
+     * @param tablePrefix          The table prefix of the entity tables.
+     * @param tenantPrefixes       The comma separated table prefixes of the tenants provisioned at startup.
+     * @param provisioningMode     Whether the startup waits for the tenant tables.
+     */
+    @Autowired
+    public TenantProvisioner(DynamoDbClient dynamoDbClient, DynamoDbBeanListener dynamoDbBeanListener,
+                             TableProvisioner tableProvisioner, TableReadiness tableReadiness,
+                             @Value("${dynamodb.starter.table.prefix}") String tablePrefix,
+                             @Value("${dynamodb.starter.tenants.prefixes:}") String tenantPrefixes,
+                             @Value("${dynamodb.starter.provisioning.mode:BLOCKING}") ProvisioningMode provisioningMode) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbBeanListener = dynamoDbBeanListener;
+        this.tableProvisioner = tableProvisioner;
+        this.tableReadiness = tableReadiness;
+        this.tablePrefix = tablePrefix == null ? "" : tablePrefix;
+        this.tenantPrefixes = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(tenantPrefixes));
+        this.tenantPrefixes.remove("");
+        this.provisioningMode = provisioningMode;
+    }
+
+    /**
+     * Provisions the tenants of {@code dynamodb.starter.tenants.prefixes}, if any.
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (tenantPrefixes.isEmpty()) {
+            return;
+        }
+        if (provisioningMode == ProvisioningMode.BACKGROUND) {
+            provisionAsync(tenantPrefixes).exceptionally(e -> {
+                log.error("Background tenant provisioning failed.", e);
+                return null;
+            });
+        } else {
+            provision(tenantPrefixes);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the missing tables of the given tenants and blocks until all of them are ACTIVE.
+     *
+     * @param tenantPrefixes The table prefixes of the tenants.
+     * @return The created tables, and the tables created concurrently by another instance.
+     * @throws io.github.duke.dynamodb.exception.TableProvisioningException If at least one table could not be
+     *                                                                      created or did not become ACTIVE.
+     */
+    public ProvisioningResult provision(Collection<String> tenantPrefixes) {
+        long start = System.nanoTime();
+        List<CreateTableRequest> requests = new ArrayList<>();
+        for (String tenantPrefix : new LinkedHashSet<>(tenantPrefixes)) {
+            requests.addAll(tenantTables(tenantPrefix));
+        }
+        tableReadiness.expect(requests.stream().map(CreateTableRequest::tableName).toList());
+        ProvisioningResult result;
+        try {
+            Set<String> existingTables = listTableNames();
+            List<CreateTableRequest> missingTables = new ArrayList<>();
+            for (CreateTableRequest request : requests) {
+                if (existingTables.contains(request.tableName())) {
+                    tableReadiness.markReady(request.tableName());
+                } else {
+                    missingTables.add(request);
+                }
+            }
+            result = tableProvisioner.provision(missingTables, table -> tableReadiness.markReady(table.tableName()));
+        } catch (RuntimeException e) {
+            // the tables already ready are left as they are
+            requests.forEach(request -> tableReadiness.markFailed(request.tableName(), e));
+            throw e;
+        }
+        log.info("Provisioned {} tenant(s): {} table(s) created, {} already existing, in {} ms.",
+                tenantPrefixes.size(), result.created().size(), requests.size() - result.created().size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Provisions the given tenants on a background thread, one call after the other.
+     *
+     * @param tenantPrefixes The table prefixes of the tenants.
+     * @return A future completing once every table of the tenants is ACTIVE.
+     */
+    public CompletableFuture<ProvisioningResult> provisionAsync(Collection<String> tenantPrefixes) {
+        List<String> prefixes = List.copyOf(tenantPrefixes);
+        return CompletableFuture.supplyAsync(() -> provision(prefixes), executor);
+    }
+
+    /**
+     * Resolves the requests creating the tables of a tenant.
+     *
+     * @param tenantPrefix The table prefix of the tenant.
+     * @return The create table requests of all the entity tables, named with the tenant prefix.
+     * @throws IllegalArgumentException If the prefix is empty or the prefix of the entity tables.
+     */
+    public List<CreateTableRequest> tenantTables(String tenantPrefix) {
+        if (!StringUtils.hasText(tenantPrefix) || tenantPrefix.equals(tablePrefix)) {
+            throw new IllegalArgumentException("Invalid tenant table prefix '" + tenantPrefix + "'");
+        }
+        return dynamoDbBeanListener.resolveEntityTables().stream()
+                .map(request -> request.toBuilder()
+                        .tableName(tenantPrefix + request.tableName().substring(tablePrefix.length()))
+                        .build())
+                .toList();
+    }
+
+    private Set<String> listTableNames() {
+        Set<String> tableNames = new HashSet<>();
+        dynamoDbClient.listTablesPaginator(ListTablesRequest.builder().build()).tableNames().forEach(tableNames::add);
+        return tableNames;
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.duke.dynamodb.truncate;
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver;
+import io.github.duke.dynamodb.batch.BatchEngine;
+import io.github.duke.dynamodb.config.DynamoDbBeanListener;
+import io.github.duke.dynamodb.exception.BatchOperationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes every item of the entity tables while keeping the tables, typically between integration tests.
+ * <p>
+ * Dropping and recreating a table costs its {@code CREATING} to {@code ACTIVE} wait; truncating a table only costs
+ * reading and deleting its items. Each table is read with a parallel {@code Scan} of {@code segments} segments
+ * projecting the key attributes only, and each page of keys is deleted by the {@link BatchEngine} with
+ * {@code BatchWriteItem} calls, while the next page is read. Up to {@code maxConcurrency} segments of all the
+ * tables are scanned at the same time. Tables which do not exist are skipped.
+ * <p>
+ * Truncation is refused unless {@code dynamodb.starter.truncate.enabled} is set, which is meant for the test
+ * configuration only, so a production context cannot wipe its tables. In Spring tests, annotate the test class with
+ * {@link TruncateTables} to truncate every table before each test.
+ */
+@Slf4j
+@Component
+public class TableTruncator implements DisposableBean {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbBeanListener dynamoDbBeanListener;
+    private final BatchEngine batchEngine;
+    private final DefaultDynamoDbTableNameResolver tableNameResolver;
+    private final boolean enabled;
+    private final int segments;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a TableTruncator with the necessary dependencies.
+     *
+     * @param dynamoDbClient       The DynamoDB client.
+     * @param dynamoDbBeanListener The listener resolving the entity tables.
+     * @param batchEngine          The engine deleting the items.
+     * @param tableNameResolver    The table name resolver.
+     * @param enabled              Whether the tables may be truncated.
+     * @param segments             The number of segments each table is scanned in.
+     * @param maxConcurrency       The maximum number of segments scanned at the same time.
+     */
+    @Autowired
+    public TableTruncator(DynamoDbClient dynamoDbClient, DynamoDbBeanListener dynamoDbBeanListener,
+                          BatchEngine batchEngine, DefaultDynamoDbTableNameResolver tableNameResolver,
+                          @Value("${dynamodb.starter.truncate.enabled:false}") boolean enabled,
+                          @Value("${dynamodb.starter.truncate.segments:4}") int segments,
+                          @Value("${dynamodb.starter.truncate.maxConcurrency:16}") int maxConcurrency) {
+        if (enabled && (segments < 1 || maxConcurrency < 1)) {
+            throw new IllegalArgumentException("dynamodb.starter.truncate.segments and maxConcurrency must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbBeanListener = dynamoDbBeanListener;
+        this.batchEngine = batchEngine;
+        this.tableNameResolver = tableNameResolver;
+        this.enabled = enabled;
+        this.segments = segments;
+        this.executor = enabled ? Executors.newFixedThreadPool(maxConcurrency, TableTruncator::newWorkerThread) : null;
+    }
+
+    private static Thread newWorkerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dynamodb-truncate");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Deletes every item of every entity table.
+     *
+     * @return The number of items deleted.
+     * @throws BatchOperationException If a table could not be scanned or its items deleted.
+     * @throws IllegalStateException   If truncation is not enabled.
+     */
+    public long truncateAll() {
+        return truncate(dynamoDbBeanListener.resolveEntityTables());
+    }
+
+    /**
+     * Deletes every item of the tables of the given entities.
+     *
+     * @param entities The entity classes.
+     * @return The number of items deleted.
+     * @throws BatchOperationException If a table could not be scanned or its items deleted.
+     * @throws IllegalStateException   If truncation is not enabled.
+     */
+    public long truncate(Class<?>... entities) {
+        Set<String> tableNames = Arrays.stream(entities).map(tableNameResolver::resolve).collect(Collectors.toSet());
+        return truncate(dynamoDbBeanListener.resolveEntityTables().stream()
+                .filter(table -> tableNames.contains(table.tableName()))
+                .toList());
+    }
+
+    private long truncate(List<CreateTableRequest> tables) {
+        if (!enabled) {
+            throw new IllegalStateException("Table truncation is disabled, set dynamodb.starter.truncate.enabled");
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> scans = new ArrayList<>();
+        for (CreateTableRequest table : tables) {
+            for (int segment = 0; segment < segments; segment++) {
+                int current = segment;
+                scans.add(CompletableFuture.supplyAsync(() -> truncateSegment(table, current), executor));
+            }
+        }
+        long deleted = 0;
+        try {
+            for (CompletableFuture<Long> scan : scans) {
+                deleted += scan.join();
+            }
+        } catch (CompletionException e) {
+            scans.forEach(scan -> scan.cancel(true));
+            throw e.getCause() instanceof BatchOperationException batchFailure
+                    ? batchFailure
+                    : new BatchOperationException("Table truncation failed", e.getCause());
+        }
+        log.debug("Truncated {} table(s), {} item(s) deleted, in {} ms.", tables.size(), deleted,
+                (System.nanoTime() - start) / 1_000_000);
+        return deleted;
+    }
+
+    /**
+     * Scans a segment of a table for its keys and deletes them, page after page.
+     *
+     * @return The number of items deleted.
+     */
+    private long truncateSegment(CreateTableRequest table, int segment) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (KeySchemaElement key : table.keySchema()) {
+            names.put("#k" + names.size(), key.attributeName());
+        }
+        ScanRequest request = ScanRequest.builder()
+                .tableName(table.tableName())
+                .segment(segment)
+                .totalSegments(segments)
+                .projectionExpression(String.join(", ", names.keySet()))
+                .expressionAttributeNames(names)
+                .consistentRead(true)
+                .build();
+        long deleted = 0;
+        try {
+            for (ScanResponse page : dynamoDbClient.scanPaginator(request)) {
+                if (page.hasItems() && !page.items().isEmpty()) {
+                    deleted += batchEngine.deleteKeys(table.tableName(), page.items()).items();
+                }
+            }
+        } catch (ResourceNotFoundException e) {
+            log.debug("Table {} does not exist. Skipping.", table.tableName());
+        }
+        return deleted;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.duke.dynamodb.truncate;
+
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.lang.annotation.*;
+
+/**
+ * Truncates every entity table with the {@link TableTruncator} of the test application context before each test
+ * method, so each test starts from empty tables without recreating them.
+ * <p>
+ * The truncation is a Spring {@code TestExecutionListener}, so it runs for JUnit Jupiter tests driven by the
+ * {@code SpringExtension} as well as for Spock specifications driven by {@code spock-spring}. The default listeners
+ * are kept. Requires {@code spring-test} on the test classpath and {@code dynamodb.starter.truncate.enabled} in the
+ * test configuration.
+ * Example usage:
+ * <pre>
+ * {@code
+ * @SpringBootTest
+ * @TruncateTables
+ * class OrderServiceSpec extends Specification {
+ * }
+ * }
+ * </pre>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@TestExecutionListeners(listeners = TruncateTablesTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+public @interface TruncateTables {
+}
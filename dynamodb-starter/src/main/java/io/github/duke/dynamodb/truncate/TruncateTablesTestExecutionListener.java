@@ -0,0 +1,32 @@
+package io.github.duke.dynamodb.truncate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * The {@code TestExecutionListener} behind {@link TruncateTables}: truncates every entity table before each test
+ * method.
+ */
+@Slf4j
+public class TruncateTablesTestExecutionListener extends AbstractTestExecutionListener {
+
+    /**
+     * Runs after the dependency injection of the test instance, so the truncated tables are the provisioned ones.
+     */
+    @Override
+    public int getOrder() {
+        return 2500;
+    }
+
+    /**
+     * Truncates every entity table of the test application context.
+     *
+     * @param testContext The test context.
+     */
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        long deleted = testContext.getApplicationContext().getBean(TableTruncator.class).truncateAll();
+        log.debug("Deleted {} item(s) before {}.", deleted, testContext.getTestMethod().getName());
+    }
+}
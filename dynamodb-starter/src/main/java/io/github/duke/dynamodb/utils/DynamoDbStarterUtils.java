@@ -1,16 +1,25 @@
 package io.github.duke.dynamodb.utils;
 
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards;
 import io.github.duke.dynamodb.annotation.LocalDynamoSecondaryInfo;
 import org.springframework.util.StringUtils;
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.time.temporal.TemporalAccessor;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Predicate;
 
 /**
@@ -25,6 +34,7 @@ import java.util.function.Predicate;
  * @see DynamoDbSortKey
  * @see DynamoDbSecondaryPartitionKey
  * @see DynamoDbSecondarySortKey
+ * @see DynamoDbWriteShards
  * @see LocalDynamoSecondaryInfo
  */
 public class DynamoDbStarterUtils {
@@ -43,17 +53,17 @@ public class DynamoDbStarterUtils {
      *        <ul>
      *        <li>
      *        <p>
-     *        <code>S</code> - the attribute is of type String
+     *        <code>S</code> - the attribute is of type String (including characters, UUIDs, enums and dates)
      *        </p>
      *        </li>
      *        <li>
      *        <p>
-     *        <code>N</code> - the attribute is of type Number
+     *        <code>N</code> - the attribute is of type Number (boxed or primitive)
      *        </p>
      *        </li>
      *        <li>
      *        <p>
-     *        <code>B</code> - the attribute is of type Binary
+     *        <code>B</code> - the attribute is of type Binary ({@code byte[]}, {@link SdkBytes} or {@link ByteBuffer})
      *        </p>
      *        </li>
      *        </ul>
@@ -61,13 +71,17 @@ public class DynamoDbStarterUtils {
     public static ScalarAttributeType getScalarAttributeType(Class<?> clazz) {
         if (clazz == null) {
             return ScalarAttributeType.UNKNOWN_TO_SDK_VERSION;
-        } else if (String.class.isAssignableFrom(clazz)) {
+        }
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(clazz);
+        if (CharSequence.class.isAssignableFrom(type) || Character.class.equals(type)
+                || UUID.class.equals(type) || type.isEnum() || TemporalAccessor.class.isAssignableFrom(type)) {
             return ScalarAttributeType.S;
-        } else if (Number.class.isAssignableFrom(clazz)) {
+        } else if (Number.class.isAssignableFrom(type)) {
             return ScalarAttributeType.N;
-        } else if (Boolean.class.isAssignableFrom(clazz)) {
+        } else if (byte[].class.equals(type) || SdkBytes.class.isAssignableFrom(type) || ByteBuffer.class.isAssignableFrom(type)) {
             return ScalarAttributeType.B;
         } else {
+            // booleans are stored as BOOL, which is not a valid key type
             return ScalarAttributeType.UNKNOWN_TO_SDK_VERSION;
         }
     }
@@ -94,7 +108,78 @@ public class DynamoDbStarterUtils {
     }
 
     /**
-     * Retrieves a list of annotated methods within a class.
+     * Checks whether a method is a bean getter, as the enhanced client maps them: a public instance method without
+     * parameters named {@code getX} returning a value, or {@code isX} returning a boolean. Methods declared by
+     * {@link Object}, such as {@code getClass}, are not getters.
+     *
+     * @param method The method.
+     * @return {@code true} if the method is a getter.
+     */
+    public static boolean isGetter(Method method) {
+        if (method.getParameterCount() != 0 || method.isBridge() || Modifier.isStatic(method.getModifiers())
+                || method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        String name = method.getName();
+        Class<?> returnType = method.getReturnType();
+        if (hasPropertyName(name, GET_PREFIX)) {
+            return returnType != void.class;
+        }
+        return hasPropertyName(name, IS_PREFIX) && (returnType == boolean.class || returnType == Boolean.class);
+    }
+
+    private static boolean hasPropertyName(String methodName, String prefix) {
+        return methodName.length() > prefix.length() && methodName.startsWith(prefix)
+                && Character.isUpperCase(methodName.charAt(prefix.length()));
+    }
+
+    /**
+     * Gets the attribute name of a getter, honoring {@link DynamoDbAttribute} on the getter or its setter.
+     *
+     * @param getter The getter.
+     * @return The attribute name.
+     */
+    public static String getAttributeName(Method getter) {
+        DynamoDbAttribute attribute = findAnnotation(getter, DynamoDbAttribute.class);
+        if (attribute != null && StringUtils.hasText(attribute.value())) {
+            return attribute.value();
+        }
+        return getFieldName(getter.getName());
+    }
+
+    /**
+     * Finds an annotation on a getter or, as the enhanced client allows, on the matching setter.
+     *
+     * @param getter         The getter.
+     * @param annotationType The annotation type.
+     * @param <A>            The annotation type.
+     * @return The annotation, or {@code null} if neither the getter nor the setter is annotated.
+     */
+    public static <A extends Annotation> A findAnnotation(Method getter, Class<A> annotationType) {
+        A annotation = getter.getAnnotation(annotationType);
+        if (annotation != null) {
+            return annotation;
+        }
+        String setterName = "set" + StringUtils.capitalize(getFieldName(getter.getName()));
+        Method setter = ClassUtils.getMethodIfAvailable(getter.getDeclaringClass(), setterName, getter.getReturnType());
+        return setter == null ? null : setter.getAnnotation(annotationType);
+    }
+
+    /**
+     * Gets the number of write shards declared with {@link DynamoDbWriteShards} on a partition key getter
+     * or its setter.
+     *
+     * @param getter The partition key getter.
+     * @return The number of write shards, 1 if the partition key is not sharded.
+     */
+    public static int getWriteShards(Method getter) {
+        DynamoDbWriteShards writeShards = findAnnotation(getter, DynamoDbWriteShards.class);
+        return writeShards == null ? 1 : writeShards.value();
+    }
+
+    /**
+     * Retrieves a list of annotated methods within a class, including the getters declaring
+     * {@link DynamoDbWriteShards}.
      *
      * @param entity The class to inspect.
      * @return A list of annotated methods.
@@ -111,7 +196,8 @@ public class DynamoDbStarterUtils {
         return x -> x.isAnnotationPresent(DynamoDbPartitionKey.class)
                 || x.isAnnotationPresent(DynamoDbSortKey.class)
                 || x.isAnnotationPresent(DynamoDbSecondaryPartitionKey.class)
-                || x.isAnnotationPresent(DynamoDbSecondarySortKey.class);
+                || x.isAnnotationPresent(DynamoDbSecondarySortKey.class)
+                || x.isAnnotationPresent(DynamoDbWriteShards.class);
     }
 
     /**
@@ -0,0 +1,348 @@
+package io.github.duke.dynamodb.warmup;
+
+import io.github.duke.dynamodb.exception.TableProvisioningException;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Outcome;
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics.Phase;
+import io.github.duke.dynamodb.provisioning.ControlPlaneRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Warms the DynamoDB clients and the managed tables up, so the first requests after a deploy do not pay for
+ * TLS handshakes, connection pool growth and cold partitions.
+ * <p>
+ * With {@code dynamodb.starter.warmup.enabled}, {@link #warm(Collection)} sends {@code connections} concurrent
+ * {@code DescribeTable} calls through the blocking client, and through the async client when there is one, which
+ * opens as many pooled connections, and probes every table with a {@code GetItem} of a key that does not exist,
+ * costing half a read unit. Probes run in parallel, are bounded by {@code timeoutSeconds} and never fail the startup.
+ * <p>
+ * With a {@code dynamodb.starter.warmup.readCapacity} or {@code writeCapacity}, new tables are created with this
+ * provisioned throughput, for the table and its global secondary indexes, by {@link #prewarm(CreateTableRequest)}, so
+ * DynamoDB allocates the partitions sustaining it from the start. Once ACTIVE, {@link #settle(Collection, Collection)}
+ * switches them to their resolved billing mode and throughput; partitions are never merged, so the tables stay warm.
+ * A table still busy or rejected by the control plane quota is retried after the backoff of the
+ * {@link ControlPlaneRateLimiter}; a table which cannot be switched keeps the warm throughput, and is reported as
+ * {@code unsettled} in the {@link io.github.duke.dynamodb.metrics.StartupReport}.
+ */
+@Slf4j
+@Component
+public class TableWarmer implements DisposableBean {
+
+    private static final String PROBE_KEY = "dynamodb-starter-warmup";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final ProvisioningMetrics metrics;
+    private final ControlPlaneRateLimiter rateLimiter;
+    private final boolean enabled;
+    private final int connections;
+    private final Duration timeout;
+    private final long warmReadCapacity;
+    private final long warmWriteCapacity;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a TableWarmer with the necessary dependencies.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient Provider of the optional async DynamoDB client, warmed up as well.
+     * @param metrics             The provisioning metrics.
+     * @param rateLimiter         The limiter of the {@code UpdateTable} calls settling the warm tables.
+     * @param enabled             Whether the connections and tables are warmed up after provisioning.
+     * @param connections         The number of connections opened in each client.
+     * @param timeoutSeconds      The maximum time spent warming up.
+     * @param warmReadCapacity    The read capacity new tables are created with, 0 to create them as resolved.
+     * @param warmWriteCapacity   The write capacity new tables are created with, 0 to create them as resolved.
+     */
+    @Autowired
+    public TableWarmer(DynamoDbClient dynamoDbClient, ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                       ProvisioningMetrics metrics, ControlPlaneRateLimiter rateLimiter,
+                       @Value("${dynamodb.starter.warmup.enabled:false}") boolean enabled,
+                       @Value("${dynamodb.starter.warmup.connections:8}") int connections,
+                       @Value("${dynamodb.starter.warmup.timeoutSeconds:30}") long timeoutSeconds,
+                       @Value("${dynamodb.starter.warmup.readCapacity:0}") long warmReadCapacity,
+                       @Value("${dynamodb.starter.warmup.writeCapacity:0}") long warmWriteCapacity) {
+        this(dynamoDbClient, dynamoDbAsyncClient.getIfAvailable(), metrics, rateLimiter, enabled, connections,
+                timeoutSeconds, warmReadCapacity, warmWriteCapacity);
+    }
+
+    /**
+     * Constructs a TableWarmer with an explicit (possibly {@code null}) async client.
+     *
+     * @param dynamoDbClient      The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient The async DynamoDB client, or {@code null} to only warm the blocking client up.
+     * @param metrics             The provisioning metrics.
+     * @param rateLimiter         The limiter of the {@code UpdateTable} calls settling the warm tables.
+     * @param enabled             Whether the connections and tables are warmed up after provisioning.
+     * @param connections         The number of connections opened in each client.
+     * @param timeoutSeconds      The maximum time spent warming up.
+     * @param warmReadCapacity    The read capacity new tables are created with, 0 to create them as resolved.
+     * @param warmWriteCapacity   The write capacity new tables are created with, 0 to create them as resolved.
+     */
+    public TableWarmer(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                       ProvisioningMetrics metrics, ControlPlaneRateLimiter rateLimiter, boolean enabled,
+                       int connections, long timeoutSeconds, long warmReadCapacity, long warmWriteCapacity) {
+        if (enabled && connections < 1) {
+            throw new IllegalArgumentException("dynamodb.starter.warmup.connections must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.connections = connections;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.warmReadCapacity = Math.max(0, warmReadCapacity);
+        this.warmWriteCapacity = Math.max(0, warmWriteCapacity);
+        this.executor = enabled ? Executors.newFixedThreadPool(connections, TableWarmer::newWorkerThread) : null;
+    }
+
+    private static Thread newWorkerThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dynamodb-warmup");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * @return A warmer which neither warms tables up nor changes how they are created.
+     */
+    public static TableWarmer disabled() {
+        return new TableWarmer(null, (DynamoDbAsyncClient) null, ProvisioningMetrics.disabled(), ControlPlaneRateLimiter.unlimited(),
+                false, 0, 0, 0, 0);
+    }
+
+    /**
+     * Raises the throughput a table is created with to the warm throughput.
+     *
+     * @param request The request creating the table as resolved.
+     * @return The request creating the table with at least the warm throughput, or the same request if no warm
+     * throughput is configured.
+     */
+    public CreateTableRequest prewarm(CreateTableRequest request) {
+        if (!isPrewarming()) {
+            return request;
+        }
+        List<GlobalSecondaryIndex> indexes = request.globalSecondaryIndexes().stream()
+                .map(index -> index.toBuilder()
+                        .provisionedThroughput(warm(index.provisionedThroughput()))
+                        .onDemandThroughput((OnDemandThroughput) null)
+                        .build())
+                .toList();
+        CreateTableRequest.Builder warmRequest = request.toBuilder()
+                .billingMode(BillingMode.PROVISIONED)
+                .provisionedThroughput(warm(request.provisionedThroughput()))
+                .onDemandThroughput((OnDemandThroughput) null);
+        if (!indexes.isEmpty()) {
+            warmRequest.globalSecondaryIndexes(indexes);
+        }
+        return warmRequest.build();
+    }
+
+    /**
+     * Switches the tables created with the warm throughput to their resolved billing mode and throughput.
+     * A table which cannot be switched is reported as unsettled and left warm, it still serves requests.
+     *
+     * @param requests          The requests creating the tables as resolved.
+     * @param createdTableNames The names of the tables created by this startup.
+     */
+    public void settle(Collection<CreateTableRequest> requests, Collection<String> createdTableNames) {
+        if (!isPrewarming()) {
+            return;
+        }
+        Set<String> created = new HashSet<>(createdTableNames);
+        for (CreateTableRequest request : requests) {
+            if (!created.contains(request.tableName())) {
+                continue;
+            }
+            Optional<UpdateTableRequest> update = settleRequest(request);
+            if (update.isEmpty()) {
+                log.debug("Table {} created at its resolved throughput, nothing to switch.", request.tableName());
+                continue;
+            }
+            try {
+                settle(update.get());
+                log.debug("Table {} created warm, switched to its resolved throughput.", request.tableName());
+            } catch (RuntimeException e) {
+                metrics.outcome(request.tableName(), Outcome.UNSETTLED);
+                log.warn("Unable to switch warm table {} to its resolved throughput, it keeps the warm throughput.",
+                        request.tableName(), e);
+            }
+        }
+    }
+
+    /**
+     * Sends the update, retrying it while the table is busy or the control plane quota is exceeded.
+     */
+    private void settle(UpdateTableRequest update) {
+        rateLimiter.acquire();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                dynamoDbClient.updateTable(update);
+                return;
+            } catch (LimitExceededException | ResourceInUseException e) {
+                if (attempt >= rateLimiter.getMaxAttempts()) {
+                    throw e;
+                }
+                // the backoff reserves the permit of the retry
+                pause(rateLimiter.backoff(attempt));
+            }
+        }
+    }
+
+    private static void pause(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while settling the warm tables", e);
+        }
+    }
+
+    /**
+     * Opens the client connections and probes every table, waiting at most {@code timeoutSeconds}.
+     *
+     * @param tables The requests creating the managed tables, for their names and key schemas.
+     */
+    public void warm(Collection<CreateTableRequest> tables) {
+        if (!enabled || tables.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<CreateTableRequest> targets = List.copyOf(tables);
+        List<CompletableFuture<?>> probes = new ArrayList<>();
+        // one probe per table, and at least as many concurrent calls as connections to open
+        for (int i = 0; i < Math.max(connections, targets.size()); i++) {
+            CreateTableRequest table = targets.get(i % targets.size());
+            boolean getItem = i < targets.size();
+            probes.add(CompletableFuture.runAsync(() -> probe(table, getItem), executor));
+            if (dynamoDbAsyncClient != null) {
+                probes.add(probeAsync(table, getItem));
+            }
+        }
+        long failures = 0;
+        try {
+            CompletableFuture.allOf(probes.stream().map(p -> p.exceptionally(e -> null)).toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            failures = probes.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        } catch (TimeoutException e) {
+            log.warn("DynamoDB warm-up did not complete within {} s.", timeout.toSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            failures = probes.size();
+        }
+        metrics.record(Phase.WARM_UP, null, start);
+        if (failures > 0) {
+            log.warn("{} of {} DynamoDB warm-up probe(s) failed.", failures, probes.size());
+        }
+        log.info("Warmed up {} table(s) and {} connection(s) in {} ms.", targets.size(), connections,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void probe(CreateTableRequest table, boolean getItem) {
+        dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(table.tableName()).build());
+        if (getItem) {
+            dynamoDbClient.getItem(probeRequest(table));
+        }
+    }
+
+    private CompletableFuture<?> probeAsync(CreateTableRequest table, boolean getItem) {
+        CompletableFuture<?> describe = dynamoDbAsyncClient.describeTable(
+                DescribeTableRequest.builder().tableName(table.tableName()).build());
+        return getItem ? describe.thenCompose(ignored -> dynamoDbAsyncClient.getItem(probeRequest(table))) : describe;
+    }
+
+    /**
+     * Builds a {@code GetItem} of a key no entity uses, matching the types of the table key schema.
+     */
+    static GetItemRequest probeRequest(CreateTableRequest table) {
+        Map<String, ScalarAttributeType> types = new HashMap<>();
+        table.attributeDefinitions().forEach(a -> types.put(a.attributeName(), a.attributeType()));
+        Map<String, AttributeValue> key = new HashMap<>();
+        for (KeySchemaElement element : table.keySchema()) {
+            ScalarAttributeType type = types.get(element.attributeName());
+            key.put(element.attributeName(), switch (type) {
+                case N -> AttributeValue.fromN("0");
+                case B -> AttributeValue.fromB(SdkBytes.fromUtf8String(PROBE_KEY));
+                default -> AttributeValue.fromS(PROBE_KEY);
+            });
+        }
+        return GetItemRequest.builder().tableName(table.tableName()).key(key).build();
+    }
+
+    /**
+     * Builds the request switching a warm table to the billing mode and throughput it was resolved with. A table or
+     * index already created at its resolved throughput is left out, DynamoDB rejects an update keeping it unchanged.
+     *
+     * @return The update, empty when the table and all its indexes were created at their resolved throughput.
+     */
+    private Optional<UpdateTableRequest> settleRequest(CreateTableRequest request) {
+        UpdateTableRequest.Builder update = UpdateTableRequest.builder().tableName(request.tableName());
+        boolean onDemand = request.billingMode() == BillingMode.PAY_PER_REQUEST;
+        boolean tableUpdated = onDemand || isRaised(request.provisionedThroughput());
+        if (onDemand) {
+            update.billingMode(BillingMode.PAY_PER_REQUEST).onDemandThroughput(request.onDemandThroughput());
+        } else if (tableUpdated) {
+            update.provisionedThroughput(request.provisionedThroughput());
+        }
+        List<GlobalSecondaryIndexUpdate> indexUpdates = request.globalSecondaryIndexes().stream()
+                .filter(index -> onDemand ? index.onDemandThroughput() != null : isRaised(index.provisionedThroughput()))
+                .map(index -> GlobalSecondaryIndexUpdate.builder()
+                        .update(UpdateGlobalSecondaryIndexAction.builder()
+                                .indexName(index.indexName())
+                                .provisionedThroughput(onDemand ? null : index.provisionedThroughput())
+                                .onDemandThroughput(onDemand ? index.onDemandThroughput() : null)
+                                .build())
+                        .build())
+                .toList();
+        if (!indexUpdates.isEmpty()) {
+            update.globalSecondaryIndexUpdates(indexUpdates);
+        } else if (!tableUpdated) {
+            return Optional.empty();
+        }
+        return Optional.of(update.build());
+    }
+
+    /**
+     * @return Whether a resolved throughput was raised to create its table or index warm.
+     */
+    private boolean isRaised(ProvisionedThroughput resolved) {
+        return resolved != null && !warm(resolved).equals(resolved);
+    }
+
+    private boolean isPrewarming() {
+        return warmReadCapacity > 0 || warmWriteCapacity > 0;
+    }
+
+    private ProvisionedThroughput warm(ProvisionedThroughput resolved) {
+        long read = resolved == null ? 1 : resolved.readCapacityUnits();
+        long write = resolved == null ? 1 : resolved.writeCapacityUnits();
+        return ProvisionedThroughput.builder()
+                .readCapacityUnits(Math.max(read, warmReadCapacity))
+                .writeCapacityUnits(Math.max(write, warmWriteCapacity))
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
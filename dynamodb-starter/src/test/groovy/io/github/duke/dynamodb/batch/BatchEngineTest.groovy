@@ -0,0 +1,108 @@
+package io.github.duke.dynamodb.batch
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.exception.BatchOperationException
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse
+import spock.lang.Specification
+
+class BatchEngineTest extends Specification {
+
+    def dynamoDbClient = Mock(DynamoDbClient)
+    def tableNameResolver = new DefaultDynamoDbTableNameResolver()
+    def tableName = tableNameResolver.resolve(AccountEntity)
+    def engine = new BatchEngine(dynamoDbClient, (DynamoDbAsyncClient) null, tableNameResolver,
+            new EntityKeyModelRegistry(), new TableSchemaRegistry(), 1, 3, 1, 5)
+
+    def cleanup() {
+        engine.destroy()
+    }
+
+    def 'should chunk writes into requests of at most 25 items'() {
+        given:
+        def sizes = []
+
+        when:
+        def result = engine.putAll(AccountEntity, accounts(60))
+
+        then:
+        3 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { BatchWriteItemRequest request ->
+            sizes << request.requestItems()[tableName].size()
+            BatchWriteItemResponse.builder().build()
+        }
+        sizes == [25, 25, 10]
+        result.items() == 60
+        result.batches() == 3
+    }
+
+    def 'should retry unprocessed items'() {
+        when:
+        def result = engine.putAll(AccountEntity, accounts(10))
+
+        then:
+        1 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { BatchWriteItemRequest request ->
+            BatchWriteItemResponse.builder()
+                    .unprocessedItems([(tableName): request.requestItems()[tableName].take(2)])
+                    .build()
+        }
+        1 * dynamoDbClient.batchWriteItem({ it.requestItems()[tableName].size() == 2 }) >> BatchWriteItemResponse.builder().build()
+        result.retriedItems() == 2
+    }
+
+    def 'should fail when items are still unprocessed after the last attempt'() {
+        when:
+        engine.putAll(AccountEntity, accounts(1))
+
+        then:
+        3 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { BatchWriteItemRequest request ->
+            BatchWriteItemResponse.builder().unprocessedItems(request.requestItems()).build()
+        }
+        thrown(BatchOperationException)
+    }
+
+    def 'should chunk reads into requests of at most 100 keys and map the items'() {
+        when:
+        def items = engine.getAll(AccountEntity, accounts(150))
+
+        then:
+        2 * dynamoDbClient.batchGetItem(_ as BatchGetItemRequest) >> { BatchGetItemRequest request ->
+            def keys = request.requestItems()[tableName].keys()
+            assert keys.size() <= 100
+            BatchGetItemResponse.builder().responses([(tableName): keys]).build()
+        }
+        items.size() == 150
+        items*.accountId.toSet().size() == 150
+    }
+
+    def 'should stop reading the items once a batch failed'() {
+        given:
+        def read = 0
+        def accounts = accounts(1000)
+        def items = { accounts.stream().peek { read++ }.iterator() } as Iterable<AccountEntity>
+
+        when:
+        engine.putAll(AccountEntity, items)
+
+        then:
+        1 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { throw new IllegalStateException("boom") }
+        thrown(BatchOperationException)
+        read < 100
+    }
+
+    def 'should estimate item sizes from attribute names and values'() {
+        expect:
+        ItemSize.of([id: AttributeValue.fromS("abc"), n: AttributeValue.fromN("1234")]) == 2 + 3 + 1 + 3
+    }
+
+    private static List<AccountEntity> accounts(int count) {
+        (1..count).collect { new AccountEntity("account-" + it, it, AccountEntity.Status.ACTIVE) }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.duke.dynamodb.cache
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.UserEntity
+import io.github.duke.dynamodb.metrics.CacheMetrics
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import org.springframework.mock.env.MockEnvironment
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+class EntityCacheTest extends Specification {
+
+    def reads = []
+
+    def client = new InMemoryDynamoDbClient() {
+        @Override
+        GetItemResponse getItem(GetItemRequest request) {
+            reads << request
+            return super.getItem(request)
+        }
+    }
+    def tableNameResolver = new DefaultDynamoDbTableNameResolver()
+    def tableName = tableNameResolver.resolve(AccountEntity)
+    def clock = new AtomicLong()
+    def environment = new MockEnvironment()
+            .withProperty("dynamodb.starter.cache.tables.${tableName}.enabled", "true")
+            .withProperty("dynamodb.starter.cache.tables.${tableName}.maxSize", "2")
+            .withProperty("dynamodb.starter.cache.tables.${tableName}.ttlSeconds", "10")
+    def cache = new EntityCache(client, tableNameResolver, new EntityKeyModelRegistry(), new TableSchemaRegistry(),
+            environment, CacheMetrics.disabled(), clock::get)
+
+    def setup() {
+        client.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("account_id").keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName("createdAt").keyType(KeyType.RANGE).build())
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName("account_id").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("createdAt").attributeType(ScalarAttributeType.N).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest)
+    }
+
+    def 'should answer repeated lookups from the cache'() {
+        given:
+        cache.put(AccountEntity, account("a", AccountEntity.Status.ACTIVE))
+
+        when:
+        def first = cache.get(AccountEntity, account("a", null)).get()
+        storeDirectly("a", "CLOSED")
+        def second = cache.get(AccountEntity, account("a", null)).get()
+
+        then:
+        first.status == AccountEntity.Status.ACTIVE
+        second.status == AccountEntity.Status.ACTIVE
+        !second.is(first)
+        cache.stats(AccountEntity).get().hits() == 1
+        cache.stats(AccountEntity).get().misses() == 1
+    }
+
+    def 'should invalidate the cached item on writes'() {
+        given:
+        cache.put(AccountEntity, account("a", AccountEntity.Status.ACTIVE))
+        cache.get(AccountEntity, account("a", null))
+
+        when:
+        cache.put(AccountEntity, account("a", AccountEntity.Status.CLOSED))
+
+        then:
+        cache.get(AccountEntity, account("a", null)).get().status == AccountEntity.Status.CLOSED
+
+        when:
+        cache.delete(AccountEntity, account("a", null))
+
+        then:
+        !cache.get(AccountEntity, account("a", null)).isPresent()
+    }
+
+    def 'should expire and evict items'() {
+        given:
+        ["a", "b", "c"].each { cache.put(AccountEntity, account(it, AccountEntity.Status.ACTIVE)) }
+        ["a", "b"].each { cache.get(AccountEntity, account(it, null)) }
+
+        when:
+        cache.get(AccountEntity, account("a", null))
+        cache.get(AccountEntity, account("c", null))
+
+        then: 'the least recently read item is evicted'
+        cache.stats(AccountEntity).get().evictions() == 1
+        cache.stats(AccountEntity).get().size() == 2
+
+        when:
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10))
+        storeDirectly("a", "CLOSED")
+
+        then:
+        cache.get(AccountEntity, account("a", null)).get().status == AccountEntity.Status.CLOSED
+        cache.stats(AccountEntity).get().expirations() == 1
+    }
+
+    def 'should fill the cache with consistent reads only'() {
+        given:
+        cache.put(AccountEntity, account("a", AccountEntity.Status.ACTIVE))
+
+        when:
+        cache.get(AccountEntity, account("a", null))
+
+        then:
+        reads*.consistentRead() == [true]
+    }
+
+    def 'should not cache entities which did not opt in'() {
+        expect:
+        !cache.stats(UserEntity).isPresent()
+    }
+
+    def 'should evict the oldest item first with FIFO'() {
+        given:
+        def nearCache = new NearCache<String, String>(2, 0, EvictionPolicy.FIFO, clock::get)
+        ["a", "b"].each { nearCache.put(it, it, nearCache.stamp()) }
+
+        when:
+        nearCache.get("a")
+        nearCache.put("c", "c", nearCache.stamp())
+
+        then:
+        nearCache.get("a") == null
+        nearCache.get("b") == "b"
+    }
+
+    def 'should not store an item loaded before an invalidation'() {
+        given:
+        def nearCache = new NearCache<String, String>(10, 0, EvictionPolicy.LRU, clock::get)
+        def stamp = nearCache.stamp()
+
+        when:
+        nearCache.invalidate("a")
+        nearCache.put("a", "stale", stamp)
+
+        then:
+        nearCache.get("a") == null
+    }
+
+    def 'should store an item loaded while another key was invalidated'() {
+        given:
+        def nearCache = new NearCache<String, String>(10, 0, EvictionPolicy.LRU, clock::get)
+        def stamp = nearCache.stamp()
+
+        when:
+        nearCache.invalidate("b")
+        nearCache.put("a", "fresh", stamp)
+
+        then:
+        nearCache.get("a") == "fresh"
+    }
+
+    def 'should not store an item loaded before its dropped tombstone'() {
+        given:
+        def nearCache = new NearCache<String, String>(2, 0, EvictionPolicy.LRU, clock::get)
+        def stamp = nearCache.stamp()
+
+        when: 'the tombstone of a is dropped to make room for the newer ones'
+        ["a", "b", "c"].each { nearCache.invalidate(it) }
+        nearCache.put("a", "stale", stamp)
+        nearCache.put("d", "d", nearCache.stamp())
+
+        then:
+        nearCache.get("a") == null
+        nearCache.get("d") == "d"
+    }
+
+    private void storeDirectly(String accountId, String status) {
+        client.putItem(PutItemRequest.builder().tableName(tableName).item([
+                account_id: AttributeValue.fromS(accountId),
+                createdAt : AttributeValue.fromN("1"),
+                status    : AttributeValue.fromS(status)]).build() as PutItemRequest)
+    }
+
+    private static AccountEntity account(String accountId, AccountEntity.Status status) {
+        return new AccountEntity(accountId, 1, status)
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.duke.dynamodb.capacity
+
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.core.ClientType
+import software.amazon.awssdk.core.interceptor.Context
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.Capacity
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableRequest
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class CapacityRateLimiterTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def 'should space writes at the provisioned write capacity of the table'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PROVISIONED)])
+
+        when:
+        def waits = (1..13).collect { limiter.reserve(put("app_user", [id: "user-$it"]), [:], 0) }
+
+        then:
+        waits[0..10].every { it == 0 }
+        waits[11] == TimeUnit.MILLISECONDS.toNanos(100)
+        waits[12] == TimeUnit.MILLISECONDS.toNanos(200)
+    }
+
+    def 'should charge the global secondary indexes an item is projected into'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PROVISIONED)])
+        def withEmail = [:]
+        def withoutEmail = [:]
+
+        when:
+        limiter.reserve(put("app_user", [id: "user-1", email: "a@b.c"]), withEmail, 0)
+        limiter.reserve(put("app_user", [id: "user-2"]), withoutEmail, 0)
+
+        then:
+        withEmail.size() == 2
+        withoutEmail.size() == 1
+    }
+
+    def 'should not limit on demand tables'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PAY_PER_REQUEST)])
+        def reservation = [:]
+
+        when:
+        def wait = (1..100).collect { limiter.reserve(put("app_user", [id: "user-$it"]), reservation, 0) }.max()
+
+        then:
+        wait == 0
+        reservation.isEmpty()
+    }
+
+    def 'should settle the estimate with the consumed capacity of the response'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PROVISIONED)])
+        def query = QueryRequest.builder().tableName("app_user").build()
+        def reservation = [:]
+        limiter.reserve(query, reservation, 0)
+
+        when:
+        limiter.settle(reservation, [ConsumedCapacity.builder()
+                                             .tableName("app_user")
+                                             .table(Capacity.builder().readCapacityUnits(20).build())
+                                             .build()], 0)
+        def wait = limiter.reserve(query, [:], 0)
+
+        then:
+        wait == TimeUnit.SECONDS.toNanos(1)
+    }
+
+    def 'should request the consumed capacity per index and wait for the reserved units'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PROVISIONED)])
+        def attributes = new ExecutionAttributes()
+        def context = Mock(Context.ModifyRequest) {
+            request() >> put("app_user", [id: "user-1"])
+        }
+
+        when:
+        def request = limiter.modifyRequest(context, attributes) as PutItemRequest
+
+        then:
+        request.returnConsumedCapacity() == ReturnConsumedCapacity.INDEXES
+        !attributes.getAttributes().isEmpty()
+    }
+
+    def 'should reject the requests of async clients'() {
+        given:
+        def limiter = limiter([table("app_user", BillingMode.PROVISIONED)])
+        def attributes = new ExecutionAttributes()
+        attributes.putAttribute(SdkExecutionAttribute.CLIENT_TYPE, ClientType.ASYNC)
+        def context = Mock(Context.ModifyRequest) {
+            request() >> put("app_user", [id: "user-1"])
+        }
+
+        when:
+        limiter.modifyRequest(context, attributes)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def 'should not hold up the other tables while describing a table'() {
+        given:
+        def describing = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def slowClient = new InMemoryDynamoDbClient() {
+            @Override
+            DescribeTableResponse describeTable(DescribeTableRequest request) {
+                describing.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                super.describeTable(request)
+            }
+        }
+        slowClient.createTable(table("app_order", BillingMode.PROVISIONED))
+        def limiter = new CapacityRateLimiter(() -> slowClient, () -> [table("app_user", BillingMode.PROVISIONED)],
+                true, 1, 1, 60)
+
+        when:
+        def order = Thread.start { limiter.reserve(put("app_order", [id: "order-1"]), [:], 0) }
+        describing.await(5, TimeUnit.SECONDS)
+        def reservation = [:]
+        def user = Thread.start { limiter.reserve(put("app_user", [id: "user-1"]), reservation, 0) }
+        user.join(2000)
+
+        then:
+        !user.isAlive()
+        !reservation.isEmpty()
+
+        cleanup:
+        release.countDown()
+        order?.join()
+    }
+
+    def 'should describe the tables which are not entities and follow their throughput updates'() {
+        given:
+        client.createTable(table("app_order", BillingMode.PROVISIONED))
+        def limiter = new CapacityRateLimiter(() -> client, () -> [], true, 1, 1, 0)
+        def reservation = [:]
+
+        when:
+        limiter.reserve(put("app_order", [id: "order-1"]), reservation, 0)
+        def before = reservation.keySet().first().rate()
+        client.updateTable(UpdateTableRequest.builder()
+                .tableName("app_order")
+                .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(50).writeCapacityUnits(50).build())
+                .build())
+        limiter.reserve(put("app_order", [id: "order-2"]), [:], 1)
+
+        then:
+        before == 10
+        reservation.keySet().first().rate() == 50
+    }
+
+    private CapacityRateLimiter limiter(List<CreateTableRequest> tables) {
+        return new CapacityRateLimiter(() -> client, () -> tables, true, 1, 1, 60)
+    }
+
+    private static PutItemRequest put(String tableName, Map<String, String> item) {
+        return PutItemRequest.builder()
+                .tableName(tableName)
+                .item(item.collectEntries { name, value -> [name, AttributeValue.fromS(value)] })
+                .build()
+    }
+
+    private static CreateTableRequest table(String tableName, BillingMode billingMode) {
+        def throughput = billingMode == BillingMode.PROVISIONED
+                ? ProvisionedThroughput.builder().readCapacityUnits(10).writeCapacityUnits(10).build()
+                : null
+        return CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName("id").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("email").attributeType(ScalarAttributeType.S).build())
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("by_email")
+                        .keySchema(KeySchemaElement.builder().attributeName("email").keyType(KeyType.HASH).build())
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .provisionedThroughput(throughput as ProvisionedThroughput)
+                        .build())
+                .billingMode(billingMode)
+                .provisionedThroughput(throughput as ProvisionedThroughput)
+                .build() as CreateTableRequest
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.duke.dynamodb.capacity
+
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity
+import spock.lang.Specification
+
+class ConsumedCapacitiesTest extends Specification {
+
+    def 'should request the consumed capacity per index unless set by the caller'() {
+        given:
+        def request = PutItemRequest.builder().tableName("app_order").build()
+        def createTable = CreateTableRequest.builder().tableName("app_order").build()
+
+        expect:
+        ConsumedCapacities.withConsumedCapacity(request).returnConsumedCapacity() == ReturnConsumedCapacity.INDEXES
+        ConsumedCapacities.withConsumedCapacity(request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build()).returnConsumedCapacity() == ReturnConsumedCapacity.TOTAL
+        ConsumedCapacities.withConsumedCapacity(createTable).is(createTable)
+    }
+
+    def 'should read the consumed capacity of single item and batch responses'() {
+        given:
+        def order = ConsumedCapacity.builder().tableName("app_order").capacityUnits(1).build()
+        def user = ConsumedCapacity.builder().tableName("app_user").capacityUnits(2).build()
+
+        expect:
+        ConsumedCapacities.of(PutItemResponse.builder().consumedCapacity(order).build()) == [order]
+        ConsumedCapacities.of(PutItemResponse.builder().build()).isEmpty()
+        ConsumedCapacities.of(BatchWriteItemResponse.builder().consumedCapacity(order, user).build()) == [order, user]
+    }
+}
@@ -1,53 +1,53 @@
 package io.github.duke.dynamodb.config
 
 import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.EventEntity
 import io.github.duke.dynamodb.UserEntity
-import org.springframework.boot.test.context.SpringBootTest
-import org.springframework.boot.test.mock.mockito.MockBean
+import io.github.duke.dynamodb.coordination.ProvisioningLock
+import io.github.duke.dynamodb.exception.TableProvisioningException
+import io.github.duke.dynamodb.index.EntityIndex
+import io.github.duke.dynamodb.inventory.TableInventory
+import io.github.duke.dynamodb.manifest.SchemaManifest
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.provisioning.ProvisioningMode
+import io.github.duke.dynamodb.provisioning.TableProvisioner
+import io.github.duke.dynamodb.readiness.TableReadiness
+import io.github.duke.dynamodb.reconcile.IndexReconciler
+import io.github.duke.dynamodb.schema.DynamoDbTableRegistry
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.ProjectionResolver
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.schema.ThroughputResolver
+import io.github.duke.dynamodb.seed.SeedLoader
+import io.github.duke.dynamodb.warmup.TableWarmer
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
 import org.springframework.context.event.ContextRefreshedEvent
-import org.springframework.test.context.ActiveProfiles
-import org.testcontainers.containers.localstack.LocalStackContainer
-import org.testcontainers.spock.Testcontainers
-import org.testcontainers.utility.DockerImageName
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider
+import org.springframework.core.env.StandardEnvironment
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey
-import software.amazon.awssdk.regions.Region
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
 import software.amazon.awssdk.services.dynamodb.model.BillingMode
 import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
 import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse
 import software.amazon.awssdk.services.dynamodb.model.KeyType
-import spock.lang.Shared
 import spock.lang.Specification
 
-@SpringBootTest
-@ActiveProfiles("test")
-@Testcontainers
-class DynamoDbBeanListenerTest extends Specification {
+import java.nio.file.Files
+import java.util.concurrent.CompletableFuture
 
-    @MockBean
-    private DynamoDbClient dynamoDbClient
+class DynamoDbBeanListenerTest extends Specification {
 
-    @MockBean
-    private DefaultDynamoDbTableNameResolver prefixedTableNameResolver
+    def dynamoDbClient = new InMemoryDynamoDbClient()
 
     def tablePrefix = "test_"
 
-    @Shared
-    LocalStackContainer localstack = new LocalStackContainer(
-            DockerImageName.parse("localstack/localstack:2.3.2")).withReuse(true);
-
-    def setup() {
-        localstack.start()
-        dynamoDbClient = DynamoDbClient.builder().endpointOverride(localstack.getEndpoint())
-                .region(Region.of(localstack.getRegion()))
-                .credentialsProvider(StaticCredentialsProvider
-                        .create(AwsBasicCredentials.create(localstack.getAccessKey(), localstack.getSecretKey())))
-                .build();
-        prefixedTableNameResolver = new DefaultDynamoDbTableNameResolver(tablePrefix)
-    }
+    def prefixedTableNameResolver = new DefaultDynamoDbTableNameResolver(tablePrefix)
+
+    def metrics = ProvisioningMetrics.disabled()
+
+    def tableInventory = new TableInventory(dynamoDbClient, (DynamoDbAsyncClient) null, tablePrefix, 10)
+
+    def tableReadiness = new TableReadiness(prefixedTableNameResolver)
 
     def 'should create table when context is refreshed'() {
         given:
@@ -59,9 +59,7 @@ class DynamoDbBeanListenerTest extends Specification {
         def indexSize = UserEntity.getDeclaredMethods().findAll(x -> x.isAnnotationPresent(DynamoDbSortKey) || x.isAnnotationPresent(DynamoDbPartitionKey)).size()
         def packageName = "io.github.duke.dynamodb"
         and:
-        DynamoDbBeanListener listener = new DynamoDbBeanListener(dynamoDbClient, prefixedTableNameResolver,
-                tablePrefix, packageName, BillingMode.PAY_PER_REQUEST, 0, 0
-        )
+        DynamoDbBeanListener listener = listener(packageName)
 
         when:
         listener.onApplicationEvent(contextRefreshedEvent)
@@ -74,6 +72,108 @@ class DynamoDbBeanListenerTest extends Specification {
         tableDetail.table().keySchema()[0].attributeName() == primaryKey
         tableDetail.table().keySchema()[0].keyType() == type
         tableDetail.table().globalSecondaryIndexes().size() == indexSize
+        tableInventory.getSnapshot().contains(tableName)
+        tableReadiness.isReady(tableName)
+        tableReadiness.state == TableReadiness.State.READY
+        metrics.report().created().contains(tableName)
+    }
+
+    def 'should record the write shards of existing tables and fail when they changed'() {
+        given:
+        listener("io.github.duke.dynamodb").onApplicationEvent(Mock(ContextRefreshedEvent))
+        def table = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                .tableName(prefixedTableNameResolver.resolve(EventEntity)).build() as DescribeTableRequest).table()
+
+        expect:
+        tableInventory.tags(table) == [(DynamoDbBeanListener.WRITE_SHARDS_TAG): "4"]
+
+        when:
+        tableInventory.tag(table, DynamoDbBeanListener.WRITE_SHARDS_TAG, "8")
+        listener("io.github.duke.dynamodb").onApplicationEvent(Mock(ContextRefreshedEvent))
+
+        then:
+        def e = thrown(TableProvisioningException)
+        e.message.contains("8 write shards")
+    }
+
+    def 'should hold the provisioning lock until the indexes are reconciled'() {
+        given:
+        def lease = Mock(ProvisioningLock.Lease)
+        def lock = Mock(ProvisioningLock) {
+            acquire(_) >> Optional.of(lease)
+        }
+        def reconciled = new CompletableFuture<Void>()
+        def reconciler = Mock(IndexReconciler) {
+            reconcile(_, _) >> reconciled
+        }
+
+        when:
+        listener("io.github.duke.dynamodb", lock, reconciler).onApplicationEvent(Mock(ContextRefreshedEvent))
+
+        then:
+        0 * lease.complete()
+        0 * lease.release()
+
+        when:
+        reconciled.complete(null)
+
+        then:
+        1 * lease.complete()
+        0 * lease.release()
+    }
+
+    def 'should release the provisioning lock when reconciling the indexes failed'() {
+        given:
+        def lease = Mock(ProvisioningLock.Lease)
+        def lock = Mock(ProvisioningLock) {
+            acquire(_) >> Optional.of(lease)
+        }
+        def reconciled = new CompletableFuture<Void>()
+        def reconciler = Mock(IndexReconciler) {
+            reconcile(_, _) >> reconciled
+        }
+        listener("io.github.duke.dynamodb", lock, reconciler).onApplicationEvent(Mock(ContextRefreshedEvent))
+
+        when:
+        reconciled.completeExceptionally(new TableProvisioningException("1 of 1 index update(s) failed"))
+
+        then:
+        0 * lease.complete()
+        1 * lease.release()
+    }
+
+    def 'should only provision the entities of the compile time index when there is one'() {
+        given:
+        def root = Files.createTempDirectory("entity-index")
+        def index = root.resolve(EntityIndex.INDEX_LOCATION)
+        Files.createDirectories(index.parent)
+        Files.writeString(index, UserEntity.name + "\tfalse\n")
+        def contextClassLoader = Thread.currentThread().contextClassLoader
+        Thread.currentThread().contextClassLoader = new URLClassLoader([root.toUri().toURL()] as URL[], contextClassLoader)
+
+        when:
+        def requests = listener("io.github.duke.dynamodb").resolveEntityTables()
+
+        then:
+        requests*.tableName() == [prefixedTableNameResolver.resolve(UserEntity)]
+
+        cleanup:
+        Thread.currentThread().contextClassLoader = contextClassLoader
+        root.toFile().deleteDir()
+    }
+
+    private DynamoDbBeanListener listener(String packageName, ProvisioningLock provisioningLock = ProvisioningLock.disabled(),
+                                          IndexReconciler indexReconciler = IndexReconciler.disabled()) {
+        def tableProvisioner = new TableProvisioner(dynamoDbClient, (DynamoDbAsyncClient) null, 10, 60, metrics)
+        new DynamoDbBeanListener(tableProvisioner, tableInventory,
+                SchemaManifest.disabled(), indexReconciler, new EntityKeyModelRegistry(),
+                new ThroughputResolver(new StandardEnvironment()), new ProjectionResolver(), tableReadiness,
+                SeedLoader.disabled(), TableWarmer.disabled(),
+                new DynamoDbTableRegistry(dynamoDbClient, (DynamoDbAsyncClient) null, new TableSchemaRegistry(),
+                        prefixedTableNameResolver),
+                provisioningLock,
+                metrics, prefixedTableNameResolver, packageName, BillingMode.PAY_PER_REQUEST, 0, 0, ProvisioningMode.BLOCKING
+        )
     }
 }
 
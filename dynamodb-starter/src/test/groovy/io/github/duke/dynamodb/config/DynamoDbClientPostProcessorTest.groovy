@@ -0,0 +1,123 @@
+package io.github.duke.dynamodb.config
+
+import io.github.duke.dynamodb.capacity.CapacityRateLimiter
+import io.github.duke.dynamodb.metrics.CapacityTelemetry
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import spock.lang.Specification
+
+class DynamoDbClientPostProcessorTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def setup() {
+        client.createTable(CreateTableRequest.builder()
+                .tableName("app_order")
+                .keySchema(KeySchemaElement.builder().attributeName("customerId").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("customerId").attributeType(ScalarAttributeType.S).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest)
+    }
+
+    def 'should record the consumed capacity of the client beans'() {
+        given:
+        def telemetry = telemetry(true)
+        def wrapped = postProcessor(telemetry).postProcessAfterInitialization(client, "dynamoDbClient") as DynamoDbClient
+
+        when:
+        wrapped.putItem(PutItemRequest.builder().tableName("app_order").item(item("c-1")).build() as PutItemRequest)
+        wrapped.putItem { it.tableName("app_order").item(item("c-2")) }
+        wrapped.queryPaginator(QueryRequest.builder()
+                .tableName("app_order")
+                .keyConditionExpression("customerId = :id")
+                .expressionAttributeValues([":id": AttributeValue.fromS("c-1")])
+                .consistentRead(true)
+                .build() as QueryRequest).items().toList()
+
+        then:
+        !wrapped.is(client)
+        telemetry.consumedUnits("app_order", null, false) == 2
+        telemetry.consumedUnits("app_order", null, true) == 1
+        telemetry.hotKeys("app_order")*.value() as Set == ["c-1", "c-2"] as Set
+
+        when:
+        wrapped.getItem(GetItemRequest.builder().tableName("missing").key(item("c-1")).build() as GetItemRequest)
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def 'should record the consumed capacity of the async client beans'() {
+        given:
+        def telemetry = telemetry(true)
+        def wrapped = postProcessor(telemetry).postProcessAfterInitialization(new InMemoryDynamoDbAsyncClient(client),
+                "dynamoDbAsyncClient") as DynamoDbAsyncClient
+
+        when:
+        wrapped.putItem(PutItemRequest.builder().tableName("app_order").item(item("c-1")).build() as PutItemRequest).join()
+
+        then:
+        telemetry.consumedUnits("app_order", null, false) == 1
+    }
+
+    def 'should limit the requests of the client beans'() {
+        given:
+        def described = 0
+        def limiter = new CapacityRateLimiter({ described++; client }, { [] }, true, 0.9, 1, 60)
+        def asyncClient = new InMemoryDynamoDbAsyncClient(client)
+        def postProcessor = postProcessor(limiter, telemetry(false))
+        def wrapped = postProcessor.postProcessAfterInitialization(client, "dynamoDbClient") as DynamoDbClient
+
+        when:
+        wrapped.putItem(PutItemRequest.builder().tableName("app_order").item(item("c-1")).build() as PutItemRequest)
+        wrapped.putItem { it.tableName("app_order").item(item("c-2")) }
+
+        then:
+        // the limiter described the table on the first request it limited
+        described == 1
+        // the limiter blocks the calling thread, so it is not applied to async clients
+        postProcessor.postProcessAfterInitialization(asyncClient, "dynamoDbAsyncClient").is(asyncClient)
+    }
+
+    def 'should leave the clients as they are when the interceptors are disabled'() {
+        expect:
+        postProcessor(telemetry(false)).postProcessAfterInitialization(client, "dynamoDbClient").is(client)
+    }
+
+    private DynamoDbClientPostProcessor postProcessor(CapacityTelemetry telemetry) {
+        return postProcessor(new CapacityRateLimiter({ client }, { [] }, false, 0.9, 1, 60), telemetry)
+    }
+
+    private static DynamoDbClientPostProcessor postProcessor(CapacityRateLimiter limiter, CapacityTelemetry telemetry) {
+        def beanFactory = new StaticListableBeanFactory(capacityRateLimiter: limiter, capacityTelemetry: telemetry)
+        return new DynamoDbClientPostProcessor(beanFactory.getBeanProvider(CapacityRateLimiter),
+                beanFactory.getBeanProvider(CapacityTelemetry))
+    }
+
+    private static CapacityTelemetry telemetry(boolean enabled) {
+        return new CapacityTelemetry(new StaticListableBeanFactory(), {
+            [CreateTableRequest.builder().tableName("app_order")
+                     .keySchema(KeySchemaElement.builder().attributeName("customerId").keyType(KeyType.HASH).build())
+                     .build()]
+        }, enabled, 5)
+    }
+
+    private static Map<String, AttributeValue> item(String customerId) {
+        return [customerId: AttributeValue.fromS(customerId)]
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.duke.dynamodb.coordination
+
+import io.github.duke.dynamodb.exception.TableProvisioningException
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse
+import spock.lang.Specification
+
+class ProvisioningLockTest extends Specification {
+
+    def dynamoDbClient = Mock(DynamoDbClient)
+    def fingerprints = [app_user: "abc", app_order: "def"]
+    def digest = ProvisioningLock.digest(fingerprints)
+
+    def 'should provision and record the completion once the lock is taken'() {
+        given:
+        def lock = lock(60)
+        def puts = []
+
+        when:
+        def lease = lock.acquire(fingerprints)
+        lease.get().complete()
+
+        then:
+        2 * dynamoDbClient.putItem(_ as PutItemRequest) >> { PutItemRequest request ->
+            puts << request
+            PutItemResponse.builder().build()
+        }
+        0 * dynamoDbClient.getItem(_)
+        puts[0].item()[ProvisioningLock.STATUS_ATTRIBUTE].s() == ProvisioningLock.IN_PROGRESS
+        puts[0].conditionExpression().startsWith("attribute_not_exists")
+        puts[1].item()[ProvisioningLock.STATUS_ATTRIBUTE].s() == ProvisioningLock.COMPLETE
+        puts[1].item()[ProvisioningLock.DIGEST_ATTRIBUTE].s() == digest
+        puts[1].conditionExpression() == "#owner = :owner"
+
+        cleanup:
+        lock.destroy()
+    }
+
+    def 'should skip the provisioning completed by another instance'() {
+        given:
+        def lock = lock(60)
+
+        when:
+        def lease = lock.acquire(fingerprints)
+
+        then:
+        1 * dynamoDbClient.putItem(_ as PutItemRequest) >> { throw held(ProvisioningLock.IN_PROGRESS, digest, 60_000) }
+        1 * dynamoDbClient.getItem(_ as GetItemRequest) >> GetItemResponse.builder()
+                .item(item(ProvisioningLock.COMPLETE, digest, 60_000)).build()
+        lease.isEmpty()
+
+        cleanup:
+        lock.destroy()
+    }
+
+    def 'should take over the lock of an instance which stopped renewing its lease'() {
+        given:
+        def lock = lock(60)
+
+        when:
+        def lease = lock.acquire(fingerprints)
+
+        then:
+        1 * dynamoDbClient.putItem(_ as PutItemRequest) >> { throw held(ProvisioningLock.IN_PROGRESS, digest, -1_000) }
+        1 * dynamoDbClient.putItem(_ as PutItemRequest) >> PutItemResponse.builder().build()
+        0 * dynamoDbClient.getItem(_)
+        lease.isPresent()
+
+        cleanup:
+        lock.destroy()
+    }
+
+    def 'should stop renewing and refuse to complete once the lock was taken over'() {
+        given:
+        def lock = new ProvisioningLock(dynamoDbClient, true, "dynamodb_starter_lock", "app_", 1, 1, 2, 60)
+        def puts = []
+        dynamoDbClient.putItem(_ as PutItemRequest) >> { PutItemRequest request ->
+            puts << request
+            if (puts.size() > 1) {
+                throw held(ProvisioningLock.IN_PROGRESS, digest, 60_000)
+            }
+            PutItemResponse.builder().build()
+        }
+
+        when:
+        def lease = lock.acquire(fingerprints).get()
+        // the lease is renewed every third of its second
+        Thread.sleep(1_000)
+        lease.checkHeld()
+
+        then:
+        thrown(TableProvisioningException)
+        // the renewal stopped at its first rejection
+        puts.size() == 2
+
+        when:
+        lease.complete()
+
+        then:
+        thrown(TableProvisioningException)
+        puts.size() == 2
+
+        cleanup:
+        lock.destroy()
+    }
+
+    def 'should give up waiting after the configured time'() {
+        given:
+        def lock = lock(0)
+
+        when:
+        lock.acquire(fingerprints)
+
+        then:
+        1 * dynamoDbClient.putItem(_ as PutItemRequest) >> { throw held(ProvisioningLock.IN_PROGRESS, digest, 60_000) }
+        (0.._) * dynamoDbClient.getItem(_ as GetItemRequest) >> GetItemResponse.builder()
+                .item(item(ProvisioningLock.IN_PROGRESS, digest, 60_000)).build()
+        thrown(TableProvisioningException)
+
+        cleanup:
+        lock.destroy()
+    }
+
+    def 'should exclude the other instances through the conditional writes of the lock'() {
+        given:
+        def client = new InMemoryDynamoDbClient()
+        def first = new ProvisioningLock(client, true, "dynamodb_starter_lock", "app_", 60, 1, 2, 0)
+        def second = new ProvisioningLock(client, true, "dynamodb_starter_lock", "app_", 60, 1, 2, 0)
+
+        when:
+        def lease = first.acquire(fingerprints).get()
+        second.acquire(fingerprints)
+
+        then:
+        thrown(TableProvisioningException)
+
+        when:
+        lease.complete()
+
+        then:
+        second.acquire(fingerprints).isEmpty()
+        second.acquire([app_user: "changed"]).isPresent()
+
+        cleanup:
+        first.destroy()
+        second.destroy()
+    }
+
+    def 'should let every instance provision when disabled'() {
+        expect:
+        ProvisioningLock.disabled().acquire(fingerprints).get() == ProvisioningLock.Lease.NONE
+    }
+
+    private ProvisioningLock lock(long waitSeconds) {
+        new ProvisioningLock(dynamoDbClient, true, "dynamodb_starter_lock", "app_", 60, 1, 2, waitSeconds)
+    }
+
+    private static ConditionalCheckFailedException held(String status, String digest, long expiresInMillis) {
+        ConditionalCheckFailedException.builder()
+                .message("The conditional request failed")
+                .item(item(status, digest, expiresInMillis))
+                .build() as ConditionalCheckFailedException
+    }
+
+    private static Map<String, AttributeValue> item(String status, String digest, long expiresInMillis) {
+        [(ProvisioningLock.LOCK_ATTRIBUTE)      : AttributeValue.fromS("provisioning:app_"),
+         (ProvisioningLock.OWNER_ATTRIBUTE)     : AttributeValue.fromS("other-instance"),
+         (ProvisioningLock.STATUS_ATTRIBUTE)    : AttributeValue.fromS(status),
+         (ProvisioningLock.DIGEST_ATTRIBUTE)    : AttributeValue.fromS(digest),
+         (ProvisioningLock.EXPIRES_AT_ATTRIBUTE): AttributeValue.fromN(String.valueOf(System.currentTimeMillis() + expiresInMillis))]
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.duke.dynamodb.index
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class EntityIndexTest extends Specification {
+
+    @TempDir
+    Path directory
+
+    def 'should merge the index resources of every jar'() {
+        given:
+        def classLoader = classLoader(
+                "# Generated\napp.user.User\tfalse\napp.user.Address\ttrue\n",
+                "app.order.Order\tfalse\n")
+
+        when:
+        def index = EntityIndex.load(classLoader)
+
+        then:
+        index.isPresent()
+        index.getEntries("").collect { it.className() }.toSet() == ["app.user.User", "app.user.Address", "app.order.Order"] as Set
+        index.getEntries("app.user").find { it.className() == "app.user.Address" }.document()
+        index.getEntries("'app.order'")*.className() == ["app.order.Order"]
+        index.getEntries("app.use").isEmpty()
+    }
+
+    def 'should read the indexes written by earlier processors'() {
+        when:
+        def index = EntityIndex.load(classLoader("app.User\tfalse\tlocal-index\tgetId,getEmail\n"))
+
+        then:
+        index.getEntries(null) == [new EntityIndex.Entry("app.User", false)]
+    }
+
+    def 'should be absent when no index resource exists'() {
+        when:
+        def index = EntityIndex.load(classLoader())
+
+        then:
+        !index.isPresent()
+        index.getEntries("").isEmpty()
+    }
+
+    private ClassLoader classLoader(String... indexes) {
+        def roots = indexes.toList().withIndex().collect { content, i ->
+            def file = directory.resolve("jar" + i).resolve(EntityIndex.INDEX_LOCATION)
+            Files.createDirectories(file.parent)
+            Files.writeString(file, content)
+            directory.resolve("jar" + i).toUri().toURL()
+        }
+        new URLClassLoader(roots as URL[], (ClassLoader) null)
+    }
+}
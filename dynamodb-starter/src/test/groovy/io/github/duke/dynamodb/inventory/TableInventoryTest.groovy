@@ -0,0 +1,127 @@
+package io.github.duke.dynamodb.inventory
+
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.TableDescription
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class TableInventoryTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def setup() {
+        ["app_user", "app_order", "other_user"].each { client.createTable(request(it)) }
+    }
+
+    def 'should describe the tables matching the prefix'() {
+        given:
+        def inventory = new TableInventory(client, (DynamoDbAsyncClient) (async ? new InMemoryDynamoDbAsyncClient(client) : null),
+                "app_", 2)
+
+        when:
+        def snapshot = inventory.refresh()
+
+        then:
+        snapshot.tableNames() == ["app_user", "app_order"] as Set
+        snapshot.describe("app_user").get().tableName() == "app_user"
+        inventory.getSnapshot().is(snapshot)
+
+        where:
+        async << [false, true]
+    }
+
+    def 'should leave out the tables deleted while taking the inventory'() {
+        given:
+        def deletingClient = new InMemoryDynamoDbClient() {
+            @Override
+            DescribeTableResponse describeTable(DescribeTableRequest request) {
+                if (request.tableName() == "app_order") {
+                    throw ResourceNotFoundException.builder().message("Table not found").build()
+                }
+                super.describeTable(request)
+            }
+        }
+        ["app_user", "app_order"].each { deletingClient.createTable(request(it)) }
+        def inventory = new TableInventory(deletingClient, (DynamoDbAsyncClient) null, "app_", 2)
+
+        expect:
+        inventory.refresh().tableNames() == ["app_user"] as Set
+    }
+
+    def 'should keep at most describeConcurrency async describe calls in flight'() {
+        given:
+        (1..8).each { client.createTable(request("app_table_$it")) }
+        def inFlight = new AtomicInteger()
+        def maxInFlight = new AtomicInteger()
+        def asyncClient = new InMemoryDynamoDbAsyncClient(client) {
+            @Override
+            CompletableFuture<DescribeTableResponse> describeTable(DescribeTableRequest request) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max)
+                CompletableFuture.supplyAsync({
+                    Thread.sleep(20)
+                    inFlight.decrementAndGet()
+                    client.describeTable(request)
+                })
+            }
+        }
+        def inventory = new TableInventory(client, (DynamoDbAsyncClient) asyncClient, "app_", 2)
+
+        expect:
+        inventory.refresh().tableNames().size() == 10
+        maxInFlight.get() == 2
+    }
+
+    def 'should not lose an update made while refreshing'() {
+        given:
+        def describing = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def slowClient = new InMemoryDynamoDbClient() {
+            @Override
+            DescribeTableResponse describeTable(DescribeTableRequest request) {
+                describing.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                super.describeTable(request)
+            }
+        }
+        slowClient.createTable(request("app_user"))
+        def inventory = new TableInventory(slowClient, (DynamoDbAsyncClient) null, "app_", 1)
+        def created = TableDescription.builder().tableName("app_order").build()
+
+        when:
+        def refresh = Thread.start { inventory.refresh() }
+        describing.await(5, TimeUnit.SECONDS)
+        def update = Thread.start { inventory.update([created]) }
+        Thread.sleep(100)
+        release.countDown()
+        refresh.join()
+        update.join()
+
+        then:
+        inventory.getSnapshot().tableNames() == ["app_user", "app_order"] as Set
+    }
+
+    private static CreateTableRequest request(String tableName) {
+        CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("id").attributeType(ScalarAttributeType.S).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest
+    }
+}
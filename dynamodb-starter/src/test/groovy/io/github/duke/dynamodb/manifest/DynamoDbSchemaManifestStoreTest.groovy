@@ -0,0 +1,71 @@
+package io.github.duke.dynamodb.manifest
+
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes
+import spock.lang.Specification
+
+class DynamoDbSchemaManifestStoreTest extends Specification {
+
+    def fingerprints = ["app_user": "1", "app_order": "2", "app_invoice": "3"]
+
+    def 'should retry the unprocessed keys until every fingerprint is loaded'() {
+        given:
+        def client = new ThrottlingClient(1)
+        new DynamoDbSchemaManifestStore(client, "manifest").save(fingerprints)
+        def store = new DynamoDbSchemaManifestStore(client, "manifest", 10, 1, 5)
+
+        when:
+        def loaded = store.load(fingerprints.keySet())
+
+        then:
+        loaded == fingerprints
+        client.calls == 3
+    }
+
+    def 'should stop retrying after the maximum number of attempts'() {
+        given:
+        def client = new ThrottlingClient(1)
+        new DynamoDbSchemaManifestStore(client, "manifest").save(fingerprints)
+        def store = new DynamoDbSchemaManifestStore(client, "manifest", 2, 1, 5)
+
+        when:
+        def loaded = store.load(fingerprints.keySet())
+
+        then:
+        loaded.size() == 2
+        client.calls == 2
+    }
+
+    /**
+     * Processes at most {@code processed} keys per batch get and returns the others as unprocessed.
+     */
+    static class ThrottlingClient extends InMemoryDynamoDbClient {
+
+        final int processed
+        int calls
+
+        ThrottlingClient(int processed) {
+            this.processed = processed
+        }
+
+        @Override
+        BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+            calls++
+            def tableName = request.requestItems().keySet().first()
+            def keysAndAttributes = request.requestItems()[tableName]
+            def keys = keysAndAttributes.keys()
+            def response = super.batchGetItem(request.toBuilder()
+                    .requestItems([(tableName): keysAndAttributes.toBuilder().keys(keys.take(processed)).build()])
+                    .build())
+            if (keys.size() <= processed) {
+                return response
+            }
+            response.toBuilder()
+                    .unprocessedKeys([(tableName): KeysAndAttributes.builder().keys(keys.drop(processed))
+                            .consistentRead(true).build()])
+                    .build() as BatchGetItemResponse
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.duke.dynamodb.manifest
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import spock.lang.Specification
+
+class SchemaFingerprintTest extends Specification {
+
+    def 'should produce the same fingerprint regardless of attribute and index order'() {
+        given:
+        def first = request([attribute("id"), attribute("email"), attribute("company")], [index("index1", "email"), index("index2", "company")])
+        def second = request([attribute("company"), attribute("id"), attribute("email")], [index("index2", "company"), index("index1", "email")])
+
+        expect:
+        SchemaFingerprint.of(first) == SchemaFingerprint.of(second)
+    }
+
+    def 'should produce a different fingerprint when an index is added'() {
+        given:
+        def before = request([attribute("id"), attribute("email")], [index("index1", "email")])
+        def after = request([attribute("id"), attribute("email"), attribute("company")], [index("index1", "email"), index("index2", "company")])
+
+        expect:
+        SchemaFingerprint.of(before) != SchemaFingerprint.of(after)
+    }
+
+    def 'should match the recorded manifest only when every fingerprint is unchanged'() {
+        given:
+        def store = Mock(SchemaManifestStore)
+        def manifest = new SchemaManifest(ManifestMode.FILE, store)
+        def fingerprints = manifest.fingerprints([request([attribute("id")], [])])
+
+        when:
+        def unchanged = manifest.matches(fingerprints)
+
+        then:
+        1 * store.load(fingerprints.keySet()) >> new HashMap<>(fingerprints)
+        unchanged
+
+        when:
+        def changed = manifest.matches(fingerprints)
+
+        then:
+        1 * store.load(fingerprints.keySet()) >> [:]
+        !changed
+    }
+
+    private static CreateTableRequest request(List<AttributeDefinition> attributes, List<GlobalSecondaryIndex> indexes) {
+        def builder = CreateTableRequest.builder()
+                .tableName("test_table")
+                .attributeDefinitions(attributes)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+        if (!indexes.isEmpty()) {
+            builder.globalSecondaryIndexes(indexes)
+        }
+        return builder.build() as CreateTableRequest
+    }
+
+    private static AttributeDefinition attribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build() as AttributeDefinition
+    }
+
+    private static GlobalSecondaryIndex index(String name, String attribute) {
+        return GlobalSecondaryIndex.builder().indexName(name)
+                .keySchema(KeySchemaElement.builder().attributeName(attribute).keyType(KeyType.HASH).build())
+                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                .build() as GlobalSecondaryIndex
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.duke.dynamodb.metrics
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse
+import software.amazon.awssdk.services.dynamodb.model.Capacity
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse
+import software.amazon.awssdk.services.dynamodb.model.PutRequest
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest
+import spock.lang.Specification
+
+class CapacityTelemetryTest extends Specification {
+
+    def meterRegistry = new SimpleMeterRegistry()
+    def telemetry = new CapacityTelemetry(new StaticListableBeanFactory(meterRegistry: meterRegistry),
+            { [CreateTableRequest.builder().tableName("app_order")
+                       .keySchema(KeySchemaElement.builder().attributeName("customerId").keyType(KeyType.HASH).build())
+                       .build()] }, true, 2)
+
+    def 'should publish the consumed units per table and index'() {
+        when:
+        telemetry.record(put("c-1"), PutItemResponse.builder().consumedCapacity(ConsumedCapacity.builder()
+                .tableName("app_order").capacityUnits(3)
+                .table(Capacity.builder().writeCapacityUnits(1).build())
+                .globalSecondaryIndexes([by_status: Capacity.builder().writeCapacityUnits(2).build()])
+                .build()).build())
+        telemetry.record(GetItemRequest.builder().tableName("app_order").key(key("c-1")).build(),
+                GetItemResponse.builder().consumedCapacity(ConsumedCapacity.builder()
+                        .tableName("app_order").capacityUnits(0.5).build()).build())
+
+        then:
+        telemetry.consumedUnits("app_order", null, false) == 1
+        telemetry.consumedUnits("app_order", "by_status", false) == 2
+        telemetry.consumedUnits("app_order", null, true) == 0.5
+        meterRegistry.get(CapacityTelemetry.CONSUMED_COUNTER)
+                .tags("table", "app_order", "index", "by_status", "type", "write").functionCounter().count() == 2
+        meterRegistry.get(CapacityTelemetry.CONSUMED_COUNTER)
+                .tags("table", "app_order", "index", "none", "type", "read").functionCounter().count() == 0.5
+    }
+
+    def 'should keep the hottest partition key values within the bound'() {
+        when:
+        10.times { telemetry.record(put("c-hot"), consumed(2)) }
+        5.times { telemetry.record(put("c-warm"), consumed(1)) }
+        (1..50).each { telemetry.record(put("c-$it"), consumed(1)) }
+
+        then:
+        telemetry.hotKeys("app_order") == [new HotKey("c-hot", 20), new HotKey("c-warm", 5)]
+        telemetry.hotKeys("app_user").isEmpty()
+    }
+
+    def 'should share the units of a batch between its keys'() {
+        given:
+        def writes = ["c-1", "c-2"].collect {
+            WriteRequest.builder().putRequest(PutRequest.builder().item(key(it)).build()).build()
+        }
+
+        when:
+        telemetry.record(BatchWriteItemRequest.builder().requestItems([app_order: writes]).build(),
+                BatchWriteItemResponse.builder().consumedCapacity([ConsumedCapacity.builder()
+                        .tableName("app_order").capacityUnits(4).build()]).build())
+
+        then:
+        telemetry.hotKeys("app_order") as Set == [new HotKey("c-1", 2), new HotKey("c-2", 2)] as Set
+        telemetry.consumedUnits("app_order", null, false) == 4
+    }
+
+    private static PutItemRequest put(String customerId) {
+        PutItemRequest.builder().tableName("app_order").item(key(customerId)).build()
+    }
+
+    private static PutItemResponse consumed(double units) {
+        PutItemResponse.builder().consumedCapacity(ConsumedCapacity.builder()
+                .tableName("app_order").capacityUnits(units).build()).build()
+    }
+
+    private static Map<String, AttributeValue> key(String customerId) {
+        [customerId: AttributeValue.fromS(customerId)]
+    }
+}
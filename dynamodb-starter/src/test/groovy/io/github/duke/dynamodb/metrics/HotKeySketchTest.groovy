@@ -0,0 +1,31 @@
+package io.github.duke.dynamodb.metrics
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class HotKeySketchTest extends Specification {
+
+    def 'should tell apart the values sharing a string hash code'() {
+        given:
+        def sketch = new HotKeySketch(2)
+
+        when:
+        sketch.add("BB", 100)
+        sketch.add("Aa", 1)
+
+        then:
+        "Aa".hashCode() == "BB".hashCode()
+        sketch.top() == [new HotKey("BB", 100), new HotKey("Aa", 1)]
+    }
+
+    def 'should hash the bytes differently for each seed'() {
+        given:
+        def bytes = "customer-42".getBytes(StandardCharsets.UTF_8)
+
+        expect:
+        HotKeySketch.hash(bytes, 1) != HotKeySketch.hash(bytes, 2)
+        HotKeySketch.hash(bytes, 1) == HotKeySketch.hash("customer-42".getBytes(StandardCharsets.UTF_8), 1)
+        HotKeySketch.hash(bytes, 1) != HotKeySketch.hash("customer-43".getBytes(StandardCharsets.UTF_8), 1)
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.duke.dynamodb.metrics
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import software.amazon.awssdk.core.metrics.CoreMetric
+import software.amazon.awssdk.metrics.MetricCollector
+import spock.lang.Specification
+
+class ProvisioningMetricsTest extends Specification {
+
+    def meterRegistry = new SimpleMeterRegistry()
+    def metrics = new ProvisioningMetrics(new StaticListableBeanFactory(meterRegistry: meterRegistry))
+
+    def 'should record phase timers and table outcomes'() {
+        when:
+        metrics.start()
+        metrics.time(ProvisioningMetrics.Phase.LIST_TABLES, null, { "tables" })
+        metrics.record(ProvisioningMetrics.Phase.CREATE_TABLE, "orders", System.nanoTime())
+        metrics.outcome("orders", ProvisioningMetrics.Outcome.CREATED)
+        metrics.outcome("users", ProvisioningMetrics.Outcome.SKIPPED)
+        def report = metrics.report()
+
+        then:
+        meterRegistry.get("dynamodb.starter.phase").tags("phase", "list_tables", "table", "none").timer().count() == 1
+        meterRegistry.get("dynamodb.starter.phase").tags("phase", "create_table", "table", "orders").timer().count() == 1
+        meterRegistry.get("dynamodb.starter.tables").tags("outcome", "created").counter().count() == 1
+        report.created() == ["orders"]
+        report.skipped() == ["users"]
+        report.phases().containsKey(ProvisioningMetrics.Phase.LIST_TABLES)
+        report.format().contains("created=[orders]")
+    }
+
+    def 'should count retries and throttles published by the SDK'() {
+        given:
+        def call = MetricCollector.create("ApiCall")
+        call.reportMetric(CoreMetric.OPERATION_NAME, "CreateTable")
+        call.reportMetric(CoreMetric.RETRY_COUNT, 2)
+        call.createChild("ApiCallAttempt").reportMetric(CoreMetric.ERROR_TYPE, "Throttling")
+        call.createChild("ApiCallAttempt").reportMetric(CoreMetric.ERROR_TYPE, "Throttling")
+        call.createChild("ApiCallAttempt")
+
+        when:
+        metrics.start()
+        metrics.publisher("orders").publish(call.collect())
+        def report = metrics.report()
+
+        then:
+        meterRegistry.get("dynamodb.starter.retries").tags("operation", "CreateTable", "table", "orders").counter().count() == 2
+        meterRegistry.get("dynamodb.starter.throttles").tags("operation", "CreateTable", "table", "orders").counter().count() == 2
+        report.retries() == 2
+        report.throttles() == 2
+    }
+}
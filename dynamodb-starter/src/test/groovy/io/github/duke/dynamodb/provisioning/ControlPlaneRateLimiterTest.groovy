@@ -0,0 +1,44 @@
+package io.github.duke.dynamodb.provisioning
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class ControlPlaneRateLimiterTest extends Specification {
+
+    def 'should let a burst through and then space permits at the sustained rate'() {
+        given:
+        def limiter = new ControlPlaneRateLimiter(10, 3, 8, 1000, 30000)
+
+        when:
+        def waits = (1..5).collect { limiter.reserve() }
+
+        then:
+        waits[0..2].every { it == 0 }
+        waits[3] > TimeUnit.MILLISECONDS.toNanos(90)
+        waits[4] > waits[3]
+    }
+
+    def 'should not limit when the rate is not positive'() {
+        given:
+        def limiter = ControlPlaneRateLimiter.unlimited()
+
+        expect:
+        (1..100).every { limiter.reserve() == 0 }
+    }
+
+    def 'should pause every caller after a rejection, longer with each attempt'() {
+        given:
+        def limiter = new ControlPlaneRateLimiter(0, 1, 8, 100, 30000)
+
+        when:
+        def first = limiter.backoff(1)
+        def next = limiter.reserve()
+        def third = limiter.backoff(3)
+
+        then:
+        first >= TimeUnit.MILLISECONDS.toNanos(50)
+        next > 0
+        third >= TimeUnit.MILLISECONDS.toNanos(200)
+    }
+}
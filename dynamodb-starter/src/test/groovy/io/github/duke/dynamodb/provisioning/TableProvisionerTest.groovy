@@ -0,0 +1,91 @@
+package io.github.duke.dynamodb.provisioning
+
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.TableDescription
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class TableProvisionerTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def 'should create the tables through the async client when there is one'() {
+        given:
+        def blockingClient = Mock(DynamoDbClient)
+        def provisioner = new TableProvisioner(blockingClient, new InMemoryDynamoDbAsyncClient(client), 10, 60,
+                ProvisioningMetrics.disabled())
+
+        when:
+        def result = provisioner.provision(["app_user", "app_order"].collect { request(it) })
+
+        then:
+        0 * blockingClient._
+        result.createdTableNames().toSet() == ["app_user", "app_order"] as Set
+        result.existing().isEmpty()
+        client.listTables().tableNames().toSet() == ["app_user", "app_order"] as Set
+    }
+
+    def 'should report a table created meanwhile as existing and still wait for it'() {
+        given:
+        client.createTable(request("app_user"))
+        def provisioner = new TableProvisioner(client, (DynamoDbAsyncClient) null, 10, 60, ProvisioningMetrics.disabled())
+        def active = []
+
+        when:
+        def result = provisioner.provision([request("app_user"), request("app_order")],
+                { TableDescription table -> synchronized (active) { active << table.tableName() } })
+
+        then:
+        result.createdTableNames() == ["app_order"]
+        result.existing()*.tableName() == ["app_user"]
+        active.toSet() == ["app_user", "app_order"] as Set
+    }
+
+    def 'should not have more tables in flight than the maximum concurrency'() {
+        given:
+        def inFlight = new AtomicInteger()
+        def highest = new AtomicInteger()
+        def slowClient = new InMemoryDynamoDbClient() {
+            @Override
+            CreateTableResponse createTable(CreateTableRequest request) {
+                highest.accumulateAndGet(inFlight.incrementAndGet(), Math::max)
+                try {
+                    Thread.sleep(50)
+                    return super.createTable(request)
+                } finally {
+                    inFlight.decrementAndGet()
+                }
+            }
+        }
+        def provisioner = new TableProvisioner(slowClient, (DynamoDbAsyncClient) null, 2, 60, ProvisioningMetrics.disabled())
+
+        when:
+        def result = provisioner.provision((1..6).collect { request("app_table_" + it) })
+
+        then:
+        result.created().size() == 6
+        highest.get() == 2
+    }
+
+    private static CreateTableRequest request(String tableName) {
+        CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("id").attributeType(ScalarAttributeType.S).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.duke.dynamodb.readiness
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.exception.TableProvisioningException
+import spock.lang.Specification
+
+import java.time.Duration
+
+class TableReadinessTest extends Specification {
+
+    def readiness = new TableReadiness(new DefaultDynamoDbTableNameResolver())
+
+    def 'should complete each table independently of the others'() {
+        given:
+        readiness.expect(["users", "orders"])
+        def users = readiness.whenReady("users")
+
+        when:
+        readiness.markReady("users")
+
+        then:
+        users.isDone()
+        readiness.isReady("users")
+        !readiness.isReady("orders")
+        readiness.state == TableReadiness.State.STARTING
+    }
+
+    def 'should fail tables which are not managed once provisioning completed'() {
+        given:
+        def unknown = readiness.whenReady("unknown")
+
+        when:
+        readiness.markAllReady()
+
+        then:
+        readiness.state == TableReadiness.State.READY
+        unknown.isCompletedExceptionally()
+        readiness.whenReady("other").isCompletedExceptionally()
+    }
+
+    def 'should keep waiting for the tables expected by a later provisioning'() {
+        given:
+        readiness.expect(["tenant1_users"])
+        def tenant = readiness.whenReady("tenant1_users")
+
+        when:
+        readiness.markAllReady()
+
+        then:
+        !tenant.isDone()
+
+        when:
+        readiness.markFailed("tenant1_users", new TableProvisioningException("boom"))
+
+        then:
+        tenant.isCompletedExceptionally()
+        readiness.state == TableReadiness.State.READY
+    }
+
+    def 'should fail pending tables when provisioning fails'() {
+        given:
+        readiness.expect(["users"])
+
+        when:
+        readiness.markFailed(new TableProvisioningException("boom"))
+        readiness.awaitReady(Duration.ofSeconds(1), "users")
+
+        then:
+        thrown(TableProvisioningException)
+        readiness.state == TableReadiness.State.FAILED
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.duke.dynamodb.reconcile
+
+import io.github.duke.dynamodb.exception.TableProvisioningException
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription
+import software.amazon.awssdk.services.dynamodb.model.IndexStatus
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.TableDescription
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableResponse
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+
+class IndexReconcilerTest extends Specification {
+
+    def dynamoDbClient = new RecordingClient()
+
+    def 'should create the missing indexes one per call, each after the backfill of the previous one'() {
+        given:
+        dynamoDbClient.createTable(request(["index1"]))
+        def reconciler = new IndexReconciler(dynamoDbClient, true, false, 0, 60, ProvisioningMetrics.disabled())
+
+        when:
+        reconcile(reconciler, request(["index1", "index2", "index3"]))
+
+        then:
+        indexNames() == ["index1", "index2", "index3"] as Set
+        dynamoDbClient.updates.size() == 2
+        dynamoDbClient.updates.every { it.globalSecondaryIndexUpdates().size() == 1 }
+        dynamoDbClient.updates*.globalSecondaryIndexUpdates()*.first()*.create()*.indexName() == ["index2", "index3"]
+        dynamoDbClient.updates[0].attributeDefinitions()*.attributeName() == ["index2"]
+        dynamoDbClient.updates[1].attributeDefinitions()*.attributeName() == ["index3"]
+        dynamoDbClient.updates[0].globalSecondaryIndexUpdates()[0].create().projection().projectionType() == ProjectionType.ALL
+        // every update waits until the backfill of the index it created is over
+        dynamoDbClient.events == ["update index2", "backfilling index2", "update index3", "backfilling index3"]
+    }
+
+    def 'should only delete orphan indexes when enabled'() {
+        given:
+        dynamoDbClient.createTable(request(["index1", "orphan"]))
+
+        when:
+        reconcile(new IndexReconciler(dynamoDbClient, true, deleteOrphanIndexes, 0, 60, ProvisioningMetrics.disabled()),
+                request(["index1"]))
+
+        then:
+        indexNames() == expected as Set
+        dynamoDbClient.updates*.globalSecondaryIndexUpdates()*.first()*.delete()*.indexName() == deleted
+
+        where:
+        deleteOrphanIndexes | expected              | deleted
+        false               | ["index1", "orphan"] | []
+        true                | ["index1"]           | ["orphan"]
+    }
+
+    def 'should run every update and report all the failures'() {
+        given:
+        dynamoDbClient.createTable(request([]))
+        dynamoDbClient.failing = ["index1", "index3"]
+        def reconciler = new IndexReconciler(dynamoDbClient, true, false, 0, 60, ProvisioningMetrics.disabled())
+
+        when:
+        reconcile(reconciler, request(["index1", "index2", "index3"]))
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof TableProvisioningException
+        e.cause.suppressed.length == 2
+        indexNames() == ["index2"] as Set
+    }
+
+    def 'should give up waiting for an index after the timeout'() {
+        given:
+        dynamoDbClient.createTable(request([]))
+        dynamoDbClient.stuck = true
+        def reconciler = new IndexReconciler(dynamoDbClient, true, false, 0, 0, ProvisioningMetrics.disabled())
+
+        when:
+        reconcile(reconciler, request(["index1"]))
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause.suppressed[0] instanceof TableProvisioningException
+        e.cause.suppressed[0].message.contains("not ACTIVE")
+    }
+
+    def 'should not touch tables when disabled'() {
+        given:
+        dynamoDbClient.createTable(request([]))
+
+        when:
+        reconcile(IndexReconciler.disabled(), request(["index1"]))
+
+        then:
+        indexNames().isEmpty()
+        dynamoDbClient.updates.isEmpty()
+    }
+
+    private void reconcile(IndexReconciler reconciler, CreateTableRequest request) {
+        try {
+            def table = dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(request.tableName()).build()).table()
+            dynamoDbClient.events.clear()
+            reconciler.reconcile([request], [(request.tableName()): table]).join()
+        } finally {
+            reconciler.destroy()
+        }
+    }
+
+    private Set<String> indexNames() {
+        dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName("test_table").build())
+                .table().globalSecondaryIndexes()*.indexName() as Set
+    }
+
+    private static CreateTableRequest request(List<String> indexNames) {
+        return CreateTableRequest.builder()
+                .tableName("test_table")
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions((["id"] + indexNames).collect {
+                    AttributeDefinition.builder().attributeName(it).attributeType(ScalarAttributeType.S).build()
+                })
+                .globalSecondaryIndexes(indexNames.collect {
+                    GlobalSecondaryIndex.builder().indexName(it)
+                            .keySchema(KeySchemaElement.builder().attributeName(it).keyType(KeyType.HASH).build())
+                            .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                            .build()
+                })
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest
+    }
+
+    /**
+     * Records the table updates, and reports a created index as backfilling to the first describe following its
+     * creation, or to every describe when stuck. The creation of the failing indexes is rejected.
+     */
+    static class RecordingClient extends InMemoryDynamoDbClient {
+
+        final List<UpdateTableRequest> updates = []
+        final List<String> events = []
+        List<String> failing = []
+        boolean stuck
+        String backfilling
+
+        @Override
+        UpdateTableResponse updateTable(UpdateTableRequest request) {
+            def create = request.globalSecondaryIndexUpdates().find { it.create() != null }?.create()
+            events << "update " + request.globalSecondaryIndexUpdates()*.create()*.indexName().findAll().join()
+            updates << request
+            if (create?.indexName() in failing) {
+                throw LimitExceededException.builder().message("Too many indexes being created").build()
+            }
+            def response = super.updateTable(request)
+            backfilling = create?.indexName()
+            response
+        }
+
+        @Override
+        DescribeTableResponse describeTable(DescribeTableRequest request) {
+            def response = super.describeTable(request)
+            def indexName = backfilling
+            if (indexName == null) {
+                return response
+            }
+            backfilling = stuck ? indexName : null
+            events << "backfilling " + indexName
+            def table = response.table()
+            response.toBuilder().table(table.toBuilder().globalSecondaryIndexes(table.globalSecondaryIndexes().collect {
+                it.indexName() == indexName ? it.toBuilder().indexStatus(IndexStatus.CREATING).backfilling(true).build() : it
+            } as List<GlobalSecondaryIndexDescription>).build() as TableDescription).build() as DescribeTableResponse
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.duke.dynamodb.schema
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.EventEntity
+import io.github.duke.dynamodb.UserEntity
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.core.ResolvableType
+import org.springframework.mock.env.MockEnvironment
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import spock.lang.Specification
+
+class DynamoDbTableRegistryTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+
+    def tableNameResolver = new DefaultDynamoDbTableNameResolver("test_")
+
+    def 'should build the tables of every entity once, named with the table name resolver'() {
+        given:
+        def registry = new DynamoDbTableRegistry(client, new InMemoryDynamoDbAsyncClient(client),
+                new TableSchemaRegistry(), tableNameResolver)
+
+        when:
+        registry.prebuild([UserEntity, AccountEntity, UserEntity])
+
+        then:
+        registry.table(UserEntity).tableName() == tableNameResolver.resolve(UserEntity)
+        registry.table(UserEntity).is(registry.table(UserEntity))
+        registry.table(UserEntity).tableSchema().is(new TableSchemaRegistry().get(UserEntity))
+        registry.asyncTable(AccountEntity).tableName() == tableNameResolver.resolve(AccountEntity)
+    }
+
+    def 'should reject async tables without async client'() {
+        given:
+        def registry = new DynamoDbTableRegistry(client, (DynamoDbAsyncClient) null, new TableSchemaRegistry(),
+                tableNameResolver)
+
+        when:
+        registry.asyncTable(UserEntity)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def 'should not build a table for an entity with write shards'() {
+        given:
+        def registry = new DynamoDbTableRegistry(client, (DynamoDbAsyncClient) null, new TableSchemaRegistry(),
+                tableNameResolver)
+
+        when:
+        registry.prebuild([UserEntity, EventEntity])
+        registry.table(EventEntity)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("write shards")
+    }
+
+    def 'should register an injectable table bean for every entity'() {
+        given:
+        def context = new AnnotationConfigApplicationContext()
+        context.environment = new MockEnvironment().withProperty("dynamodb.starter.package.scan", "io.github.duke.dynamodb")
+        context.beanFactory.registerSingleton("dynamoDbClient", client)
+        context.beanFactory.registerSingleton("dynamoDbAsyncClient", new InMemoryDynamoDbAsyncClient(client))
+        context.beanFactory.registerSingleton("tableNameResolver", tableNameResolver)
+        context.register(TableSchemaRegistry, DynamoDbTableRegistry, DynamoDbTableBeanRegistrar)
+
+        when:
+        context.refresh()
+        def users = context.getBeanProvider(ResolvableType.forClassWithGenerics(DynamoDbTable, UserEntity))
+                .getObject() as DynamoDbTable<UserEntity>
+        def accounts = context.getBeanProvider(ResolvableType.forClassWithGenerics(DynamoDbAsyncTable, AccountEntity))
+                .getObject() as DynamoDbAsyncTable<AccountEntity>
+
+        then:
+        context.getBean("userEntityTable").is(users)
+        !context.containsBean("eventEntityTable")
+        users.tableName() == tableNameResolver.resolve(UserEntity)
+        accounts.tableName() == tableNameResolver.resolve(AccountEntity)
+
+        cleanup:
+        context.close()
+    }
+}
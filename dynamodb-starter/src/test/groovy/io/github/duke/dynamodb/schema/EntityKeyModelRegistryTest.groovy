@@ -0,0 +1,79 @@
+package io.github.duke.dynamodb.schema
+
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.EventEntity
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards
+import io.github.duke.dynamodb.exception.EntityDefinitionException
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import spock.lang.Specification
+
+class EntityKeyModelRegistryTest extends Specification {
+
+    def registry = new EntityKeyModelRegistry()
+
+    def 'should resolve attribute names and types of every key'() {
+        when:
+        def model = registry.get(AccountEntity)
+
+        then:
+        model.partitionKey.attributeName() == "account_id"
+        model.partitionKey.attributeType() == ScalarAttributeType.S
+        model.sortKey.get().attributeName() == "createdAt"
+        model.sortKey.get().attributeType() == ScalarAttributeType.N
+        model.sortKey.get().tableKeyType() == KeyType.RANGE
+        model.getPartitionKey("status-index").get().attributeType() == ScalarAttributeType.S
+        model.getSortKey("status-index").get().attributeName() == "createdAt"
+        model.indexNames == ["status-index"] as Set
+    }
+
+    def 'should resolve each entity only once'() {
+        expect:
+        registry.get(AccountEntity).is(new EntityKeyModelRegistry().get(AccountEntity))
+    }
+
+    def 'should reject boolean keys'() {
+        when:
+        registry.get(BooleanKeyEntity)
+
+        then:
+        thrown(EntityDefinitionException)
+    }
+
+    def 'should resolve the write shards of the partition key'() {
+        expect:
+        registry.get(EventEntity).writeShards == 4
+        registry.get(EventEntity).writeSharded
+        registry.get(AccountEntity).writeShards == 1
+    }
+
+    def 'should reject write shards without a sort key'() {
+        when:
+        registry.get(ShardedWithoutSortKeyEntity)
+
+        then:
+        def e = thrown(EntityDefinitionException)
+        e.message.contains("no @DynamoDbSortKey")
+    }
+
+    def 'should only map the bean getters to attributes'() {
+        expect: 'the toString and hashCode methods generated by Lombok are left out'
+        registry.get(AccountEntity).attributeNames == ["account_id", "createdAt", "status"] as Set
+    }
+
+    static class BooleanKeyEntity {
+        @DynamoDbPartitionKey
+        Boolean getEnabled() {
+            return true
+        }
+    }
+
+    static class ShardedWithoutSortKeyEntity {
+        @DynamoDbPartitionKey
+        @DynamoDbWriteShards(8)
+        String getId() {
+            return "id"
+        }
+    }
+}
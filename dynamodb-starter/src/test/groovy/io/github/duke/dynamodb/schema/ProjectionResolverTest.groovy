@@ -0,0 +1,65 @@
+package io.github.duke.dynamodb.schema
+
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.annotation.DynamoDbIndexProjection
+import io.github.duke.dynamodb.exception.EntityDefinitionException
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import spock.lang.Specification
+
+class ProjectionResolverTest extends Specification {
+
+    def registry = new EntityKeyModelRegistry()
+    def resolver = new ProjectionResolver()
+
+    def 'should project all attributes of indexes without a declared projection'() {
+        expect:
+        resolver.resolve(registry.get(AccountEntity))["status-index"].projectionType() == ProjectionType.ALL
+    }
+
+    def 'should resolve declared projections'() {
+        when:
+        def projections = resolver.resolve(registry.get(ProjectedEntity))
+
+        then:
+        projections["name-index"].projectionType() == ProjectionType.KEYS_ONLY
+        projections["email-index"].projectionType() == ProjectionType.INCLUDE
+        projections["email-index"].nonKeyAttributes() == ["display_name"]
+    }
+
+    def 'should reject projections of unknown attributes'() {
+        when:
+        resolver.resolve(registry.get(UnknownAttributeEntity))
+
+        then:
+        def e = thrown(EntityDefinitionException)
+        e.message.contains("missing is not an attribute")
+    }
+
+    @DynamoDbIndexProjection(indexName = "name-index", type = ProjectionType.KEYS_ONLY)
+    @DynamoDbIndexProjection(indexName = "email-index", type = ProjectionType.INCLUDE, nonKeyAttributes = "display_name")
+    static class ProjectedEntity {
+        @DynamoDbPartitionKey
+        String getId() { "id" }
+
+        @DynamoDbSecondaryPartitionKey(indexNames = "name-index")
+        String getName() { "name" }
+
+        @DynamoDbSecondaryPartitionKey(indexNames = "email-index")
+        String getEmail() { "email" }
+
+        @DynamoDbAttribute("display_name")
+        String getDisplayName() { "displayName" }
+    }
+
+    @DynamoDbIndexProjection(indexName = "email-index", type = ProjectionType.INCLUDE, nonKeyAttributes = "missing")
+    static class UnknownAttributeEntity {
+        @DynamoDbPartitionKey
+        String getId() { "id" }
+
+        @DynamoDbSecondaryPartitionKey(indexNames = "email-index")
+        String getEmail() { "email" }
+    }
+}
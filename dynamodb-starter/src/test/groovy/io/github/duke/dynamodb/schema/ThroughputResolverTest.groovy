@@ -0,0 +1,68 @@
+package io.github.duke.dynamodb.schema
+
+import io.github.duke.dynamodb.annotation.DynamoDbThroughput
+import org.springframework.mock.env.MockEnvironment
+import spock.lang.Specification
+
+class ThroughputResolverTest extends Specification {
+
+    def 'should resolve the table throughput from properties, then annotation, then defaults'() {
+        given:
+        def environment = new MockEnvironment()
+                .withProperty("dynamodb.starter.throughput.tables.orders.readCapacity", "500")
+        def resolver = new ThroughputResolver(environment)
+
+        when:
+        def throughput = resolver.provisioned(OrderEntity, "orders", 10, 10)
+
+        then:
+        throughput.readCapacityUnits() == 500
+        throughput.writeCapacityUnits() == 100
+    }
+
+    def 'should fall back to the table throughput for indexes without declared throughput'() {
+        given:
+        def resolver = new ThroughputResolver(new MockEnvironment())
+        def tableThroughput = resolver.provisioned(OrderEntity, "orders", 10, 10)
+
+        expect:
+        resolver.provisioned(OrderEntity, "orders", "customer-index", tableThroughput).readCapacityUnits() == 50
+        resolver.provisioned(OrderEntity, "orders", "customer-index", tableThroughput).writeCapacityUnits() == 100
+        resolver.provisioned(OrderEntity, "orders", "status-index", tableThroughput) == tableThroughput
+    }
+
+    def 'should only cap on demand throughput when a maximum is declared'() {
+        given:
+        def environment = new MockEnvironment()
+                .withProperty("dynamodb.starter.throughput.tables.orders.indexes.status-index.maxWriteRequestUnits", "20")
+        def resolver = new ThroughputResolver(environment)
+
+        expect:
+        resolver.onDemand(OrderEntity, "orders") == null
+        resolver.onDemand(OrderEntity, "orders", "status-index").maxWriteRequestUnits() == 20
+        resolver.onDemand(OrderEntity, "orders", "status-index").maxReadRequestUnits() == null
+    }
+
+    def 'should fall back to the table maximum on demand throughput for indexes'() {
+        given:
+        def environment = new MockEnvironment()
+                .withProperty("dynamodb.starter.throughput.tables.invoices.indexes.status-index.maxWriteRequestUnits", "20")
+        def resolver = new ThroughputResolver(environment)
+
+        expect:
+        resolver.onDemand(InvoiceEntity, "invoices", "customer-index").maxReadRequestUnits() == 5
+        resolver.onDemand(InvoiceEntity, "invoices", "customer-index").maxWriteRequestUnits() == 100
+        resolver.onDemand(InvoiceEntity, "invoices", "status-index").maxReadRequestUnits() == 500
+        resolver.onDemand(InvoiceEntity, "invoices", "status-index").maxWriteRequestUnits() == 20
+    }
+
+    @DynamoDbThroughput(maxReadRequestUnits = 500L, maxWriteRequestUnits = 100L)
+    @DynamoDbThroughput(indexName = "customer-index", maxReadRequestUnits = 5L)
+    static class InvoiceEntity {
+    }
+
+    @DynamoDbThroughput(writeCapacity = 100L)
+    @DynamoDbThroughput(indexName = "customer-index", readCapacity = 50L)
+    static class OrderEntity {
+    }
+}
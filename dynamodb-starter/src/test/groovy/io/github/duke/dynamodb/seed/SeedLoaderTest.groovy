@@ -0,0 +1,96 @@
+package io.github.duke.dynamodb.seed
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.AccountEntity
+import io.github.duke.dynamodb.batch.BatchEngine
+import io.github.duke.dynamodb.exception.SeedLoadingException
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import org.springframework.core.io.DefaultResourceLoader
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class SeedLoaderTest extends Specification {
+
+    @TempDir
+    Path fixtures
+
+    def dynamoDbClient = Mock(DynamoDbClient)
+    def batchEngine = new BatchEngine(dynamoDbClient, (DynamoDbAsyncClient) null, new DefaultDynamoDbTableNameResolver(),
+            new EntityKeyModelRegistry(), new TableSchemaRegistry(), 2, 3, 1, 5)
+
+    def cleanup() {
+        batchEngine.destroy()
+    }
+
+    def 'should seed rows from an NDJSON fixture'() {
+        given:
+        fixture("account_entity.ndjson", (1..30)
+                .collect { """{"account_id":"a-$it","createdAt":$it,"status":"ACTIVE"}""" }
+                .join("\n"))
+        def written = Collections.synchronizedList([])
+
+        when:
+        def result = loader().seed(AccountEntity, "local_account_entity")
+
+        then:
+        2 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { BatchWriteItemRequest request ->
+            written.addAll(request.requestItems().values().flatten())
+            BatchWriteItemResponse.builder().build()
+        }
+        result.get().items() == 30
+        written.size() == 30
+        (written[0] as WriteRequest).putRequest().item().containsKey("account_id")
+    }
+
+    def 'should seed rows from a CSV fixture with quoted fields'() {
+        given:
+        fixture("account_entity.csv", 'account_id,createdAt,status\n"a,1",1,ACTIVE\n"a ""2""",2,\n')
+        def items = []
+
+        when:
+        loader().seed(AccountEntity, "local_account_entity")
+
+        then:
+        1 * dynamoDbClient.batchWriteItem(_ as BatchWriteItemRequest) >> { BatchWriteItemRequest request ->
+            items.addAll(request.requestItems().values().flatten()*.putRequest()*.item())
+            BatchWriteItemResponse.builder().build()
+        }
+        items*.get("account_id")*.s() == ['a,1', 'a "2"']
+        items[0].get("createdAt").n() == "1"
+        !items[1].containsKey("status")
+    }
+
+    def 'should skip tables without fixture'() {
+        expect:
+        loader().seed(AccountEntity, "local_account_entity").isEmpty()
+    }
+
+    def 'should report rows which do not fit the entity'() {
+        given:
+        fixture("account_entity.ndjson", '{"account_id":"a-1","createdAt":"not a number"}')
+
+        when:
+        loader().seed(AccountEntity, "local_account_entity")
+
+        then:
+        thrown(SeedLoadingException)
+    }
+
+    private void fixture(String name, String content) {
+        Files.writeString(fixtures.resolve(name), content)
+    }
+
+    private SeedLoader loader() {
+        new SeedLoader(batchEngine, new TableSchemaRegistry(), new DefaultResourceLoader(), true,
+                fixtures.toUri().toString(), "local_")
+    }
+}
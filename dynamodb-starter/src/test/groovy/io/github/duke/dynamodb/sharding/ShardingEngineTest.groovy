@@ -0,0 +1,106 @@
+package io.github.duke.dynamodb.sharding
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.EventEntity
+import io.github.duke.dynamodb.batch.BatchEngine
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest
+import spock.lang.Specification
+
+class ShardingEngineTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+    def tableNameResolver = new DefaultDynamoDbTableNameResolver()
+    def tableName = tableNameResolver.resolve(EventEntity)
+    def engine = new ShardingEngine(client, (DynamoDbAsyncClient) null, tableNameResolver,
+            new EntityKeyModelRegistry(), new TableSchemaRegistry(), 2)
+
+    def setup() {
+        client.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("type").keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName("occurredAt").keyType(KeyType.RANGE).build())
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName("type").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("occurredAt").attributeType(ScalarAttributeType.N).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest)
+    }
+
+    def cleanup() {
+        engine.destroy()
+    }
+
+    def 'should spread the items of a partition key value over its shards'() {
+        when:
+        (1..20).each { engine.put(EventEntity, new EventEntity("login", it, "event-" + it)) }
+
+        then:
+        def stored = client.scan(ScanRequest.builder().tableName(tableName).build() as ScanRequest).items()
+        stored*.get("type")*.s().toSet() == ["login#0", "login#1", "login#2", "login#3"] as Set
+        engine.get(EventEntity, new EventEntity("login", 7, null)).get().payload == "event-7"
+    }
+
+    def 'should merge the shards by sort key'() {
+        given:
+        [5, 12, 1, 20, 8, 3, 17].each { engine.put(EventEntity, new EventEntity("login", it, null)) }
+        engine.put(EventEntity, new EventEntity("logout", 2, null))
+
+        expect:
+        engine.query(EventEntity, "login")*.occurredAt == [1, 3, 5, 8, 12, 17, 20]
+        engine.query(EventEntity, "login")*.type.toSet() == ["login"] as Set
+        engine.query(EventEntity, "login", "#sk > :from", [":from": AttributeValue.fromN("4")], false, 3)
+                *.occurredAt == [20, 17, 12]
+    }
+
+    def 'should query the shards through the async client'() {
+        given:
+        def asyncEngine = new ShardingEngine(client, new InMemoryDynamoDbAsyncClient(client), tableNameResolver,
+                new EntityKeyModelRegistry(), new TableSchemaRegistry(), 1)
+        (1..10).each { asyncEngine.put(EventEntity, new EventEntity("login", it, null)) }
+
+        when:
+        asyncEngine.delete(EventEntity, new EventEntity("login", 4, null))
+
+        then:
+        asyncEngine.query(EventEntity, "login")*.occurredAt == [1, 2, 3, 5, 6, 7, 8, 9, 10]
+        !asyncEngine.get(EventEntity, new EventEntity("login", 4, null)).isPresent()
+    }
+
+    def 'should read back the items written in batch'() {
+        given:
+        def batchEngine = new BatchEngine(client, (DynamoDbAsyncClient) null, tableNameResolver,
+                new EntityKeyModelRegistry(), new TableSchemaRegistry(), 2, 3, 1, 5)
+
+        when:
+        batchEngine.putAll(EventEntity, (1..20).collect { new EventEntity("login", it, "event-" + it) })
+        batchEngine.deleteAll(EventEntity, [new EventEntity("login", 4, null)])
+
+        then:
+        engine.query(EventEntity, "login")*.occurredAt == (1..20) - 4
+        engine.get(EventEntity, new EventEntity("login", 7, null)).get().payload == "event-7"
+        batchEngine.getAll(EventEntity, [new EventEntity("login", 7, null)])*.type == ["login"]
+        client.scan(ScanRequest.builder().tableName(tableName).build() as ScanRequest).items()*.get("type")*.s()
+                .every { it.startsWith("login#") }
+
+        cleanup:
+        batchEngine.destroy()
+    }
+
+    def 'should order sort keys like DynamoDB'() {
+        expect:
+        ShardingEngine.compare(AttributeValue.fromN("9"), AttributeValue.fromN("10")) < 0
+        ShardingEngine.compare(AttributeValue.fromS("z"), AttributeValue.fromS("é")) < 0
+    }
+}
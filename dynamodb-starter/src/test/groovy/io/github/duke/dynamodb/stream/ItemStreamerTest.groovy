@@ -0,0 +1,179 @@
+package io.github.duke.dynamodb.stream
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.EventEntity
+import io.github.duke.dynamodb.UserEntity
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.test.InMemoryDynamoDbAsyncClient
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+
+class ItemStreamerTest extends Specification {
+
+    def client = new InMemoryDynamoDbClient()
+    def queries = new AtomicInteger()
+    def asyncClient = new InMemoryDynamoDbAsyncClient(client) {
+        @Override
+        CompletableFuture<QueryResponse> query(QueryRequest request) {
+            queries.incrementAndGet()
+            super.query(request)
+        }
+    }
+    def tableNameResolver = new DefaultDynamoDbTableNameResolver()
+    def tableName = tableNameResolver.resolve(UserEntity)
+    def streamer = new ItemStreamer(asyncClient, tableNameResolver, new EntityKeyModelRegistry(),
+            new TableSchemaRegistry(), 2, 3)
+
+    def setup() {
+        client.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(key("id", KeyType.HASH), key("dob", KeyType.RANGE))
+                .attributeDefinitions(attribute("id", ScalarAttributeType.S), attribute("dob", ScalarAttributeType.N),
+                        attribute("email", ScalarAttributeType.S), attribute("type", ScalarAttributeType.N))
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("index1")
+                        .keySchema(key("email", KeyType.HASH), key("type", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest)
+        (1..30).each {
+            client.putItem(PutItemRequest.builder().tableName(tableName).item([
+                    id   : AttributeValue.fromS("user-$it"),
+                    dob  : AttributeValue.fromN("$it"),
+                    email: AttributeValue.fromS(it % 2 == 0 ? "even@duke.io" : "odd@duke.io"),
+                    type : AttributeValue.fromN("$it")]).build() as PutItemRequest)
+        }
+    }
+
+    def 'should stream a query on an index page by page within the requested items'() {
+        given:
+        def subscriber = new TestSubscriber()
+        def publisher = streamer.query(UserEntity, "index1", QueryRequest.builder()
+                .keyConditionExpression("email = :email")
+                .expressionAttributeValues([":email": AttributeValue.fromS("even@duke.io")])
+                .limit(2)
+                .build() as QueryRequest)
+
+        when:
+        publisher.subscribe(subscriber)
+        subscriber.subscription.request(3)
+
+        then: 'no more than two pages are buffered ahead of the subscriber'
+        subscriber.items*.type == [2L, 4L, 6L]
+        queries.get() == 3
+
+        when:
+        subscriber.subscription.request(Long.MAX_VALUE)
+
+        then:
+        subscriber.items*.type == (2L..30L).step(2)
+        subscriber.completed
+        subscriber.error == null
+    }
+
+    def 'should merge the segments of a parallel scan into one stream'() {
+        given:
+        def subscriber = new TestSubscriber()
+
+        when:
+        streamer.scan(ScanRequest.builder().tableName(tableName).limit(4).build() as ScanRequest)
+                .subscribe(subscriber)
+        subscriber.subscription.request(Long.MAX_VALUE)
+
+        then:
+        subscriber.items*.get("id")*.s() as Set == (1..30).collect { "user-$it".toString() } as Set
+        subscriber.items.size() == 30
+        subscriber.completed
+    }
+
+    def 'should stop fetching pages once cancelled'() {
+        given:
+        def subscriber = new TestSubscriber()
+        streamer.query(QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("id = :id")
+                .expressionAttributeValues([":id": AttributeValue.fromS("user-1")])
+                .build() as QueryRequest).subscribe(subscriber)
+
+        when:
+        subscriber.subscription.cancel()
+        subscriber.subscription.request(10)
+
+        then:
+        subscriber.items.isEmpty()
+        queries.get() == 0
+        !subscriber.completed
+    }
+
+    def 'should reject indexes the entity does not declare'() {
+        when:
+        streamer.query(UserEntity, "index3", QueryRequest.builder().build())
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def 'should reject entities with write shards'() {
+        when:
+        streamer.scan(EventEntity, null, ScanRequest.builder().build())
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static KeySchemaElement key(String name, KeyType keyType) {
+        KeySchemaElement.builder().attributeName(name).keyType(keyType).build()
+    }
+
+    private static AttributeDefinition attribute(String name, ScalarAttributeType type) {
+        AttributeDefinition.builder().attributeName(name).attributeType(type).build()
+    }
+
+    static class TestSubscriber implements Subscriber<Object> {
+        Subscription subscription
+        List<Object> items = [].asSynchronized()
+        boolean completed
+        Throwable error
+
+        @Override
+        void onSubscribe(Subscription subscription) {
+            this.subscription = subscription
+        }
+
+        @Override
+        void onNext(Object item) {
+            items << item
+        }
+
+        @Override
+        void onError(Throwable error) {
+            this.error = error
+        }
+
+        @Override
+        void onComplete() {
+            completed = true
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.duke.dynamodb.tenant
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.UserEntity
+import io.github.duke.dynamodb.config.DynamoDbBeanListener
+import io.github.duke.dynamodb.exception.TableProvisioningException
+import io.github.duke.dynamodb.coordination.ProvisioningLock
+import io.github.duke.dynamodb.inventory.TableInventory
+import io.github.duke.dynamodb.manifest.SchemaManifest
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.provisioning.ControlPlaneRateLimiter
+import io.github.duke.dynamodb.provisioning.ProvisioningMode
+import io.github.duke.dynamodb.provisioning.TableProvisioner
+import io.github.duke.dynamodb.readiness.TableReadiness
+import io.github.duke.dynamodb.reconcile.IndexReconciler
+import io.github.duke.dynamodb.schema.DynamoDbTableRegistry
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.ProjectionResolver
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.schema.ThroughputResolver
+import io.github.duke.dynamodb.seed.SeedLoader
+import io.github.duke.dynamodb.warmup.TableWarmer
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import org.springframework.core.env.StandardEnvironment
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class TenantProvisionerTest extends Specification {
+
+    def tablePrefix = "test_"
+
+    def rejections = new AtomicInteger()
+
+    def dynamoDbClient = new InMemoryDynamoDbClient() {
+        @Override
+        CreateTableResponse createTable(CreateTableRequest request) {
+            // the control plane rejects the first calls of the fan-out
+            if (rejections.getAndIncrement() < 2) {
+                throw LimitExceededException.builder().message("Too many tables being created").build()
+            }
+            return super.createTable(request)
+        }
+    }
+
+    def tableResolver = new DefaultDynamoDbTableNameResolver(tablePrefix)
+
+    def metrics = ProvisioningMetrics.disabled()
+
+    def tableProvisioner = new TableProvisioner(dynamoDbClient, (DynamoDbAsyncClient) null, 10, 60, metrics,
+            new ControlPlaneRateLimiter(0, 1, 8, 10, 50))
+
+    def tableInventory = new TableInventory(dynamoDbClient, (DynamoDbAsyncClient) null, tablePrefix, 10)
+
+    def tableReadiness = new TableReadiness(tableResolver)
+
+    def 'should create the entity tables of every tenant and retry rejected creations'() {
+        given:
+        def tenantProvisioner = tenantProvisioner("")
+        def entityTables = listener().resolveEntityTables()*.tableName()
+
+        when:
+        def result = tenantProvisioner.provision(["tenant1_", "tenant2_"])
+
+        then:
+        result.created().size() == 2 * entityTables.size()
+        rejections.get() == 2 * entityTables.size() + 2
+        dynamoDbClient.listTables().tableNames().containsAll(entityTables.collect { it.replace(tablePrefix, "tenant2_") })
+        tableReadiness.isReady("tenant1_" + tableResolver.resolve(UserEntity).substring(tablePrefix.length()))
+    }
+
+    def 'should skip the tables of tenants already onboarded'() {
+        given:
+        def tenantProvisioner = tenantProvisioner("")
+        tenantProvisioner.provision(["tenant1_"])
+
+        when:
+        def result = tenantProvisioner.provision(["tenant1_", "tenant2_"])
+
+        then:
+        result.createdTableNames().every { it.startsWith("tenant2_") }
+        !result.created().isEmpty()
+    }
+
+    def 'should provision the configured tenants at startup'() {
+        given:
+        def tenantProvisioner = tenantProvisioner(" tenant1_, tenant2_ ")
+
+        when:
+        tenantProvisioner.onApplicationEvent(null)
+
+        then:
+        dynamoDbClient.listTables().tableNames().count { it.startsWith("tenant") } ==
+                2 * listener().resolveEntityTables().size()
+    }
+
+    def 'should keep the tenant tables out of the inventory'() {
+        given:
+        def tenantProvisioner = tenantProvisioner("")
+
+        when:
+        tenantProvisioner.provision(["tenant1_"])
+
+        then:
+        tableInventory.getSnapshot().tableNames().every { it.startsWith(tablePrefix) }
+    }
+
+    def 'should fail the readiness of the tenant tables when the background provisioning fails'() {
+        given:
+        rejections.set(Integer.MIN_VALUE)
+        def tenantProvisioner = tenantProvisioner("tenant1_", ProvisioningMode.BACKGROUND)
+        def tableName = "tenant1_" + tableResolver.resolve(UserEntity).substring(tablePrefix.length())
+        def table = tableReadiness.whenReady(tableName)
+        tableReadiness.markAllReady()
+
+        when:
+        tenantProvisioner.onApplicationEvent(null)
+        tableReadiness.awaitReady(Duration.ofSeconds(30), tableName)
+
+        then:
+        thrown(TableProvisioningException)
+        table.isCompletedExceptionally()
+        !tableReadiness.isReady(tableName)
+
+        cleanup:
+        tenantProvisioner.destroy()
+    }
+
+    def 'should reject the prefix of the entity tables as tenant prefix'() {
+        when:
+        tenantProvisioner("").tenantTables(tablePrefix)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private TenantProvisioner tenantProvisioner(String tenantPrefixes, ProvisioningMode mode = ProvisioningMode.BLOCKING) {
+        return new TenantProvisioner(dynamoDbClient, listener(), tableProvisioner, tableReadiness,
+                tablePrefix, tenantPrefixes, mode)
+    }
+
+    private DynamoDbBeanListener listener() {
+        return new DynamoDbBeanListener(tableProvisioner, tableInventory, SchemaManifest.disabled(),
+                IndexReconciler.disabled(), new EntityKeyModelRegistry(), new ThroughputResolver(new StandardEnvironment()),
+                new ProjectionResolver(), tableReadiness, SeedLoader.disabled(), TableWarmer.disabled(),
+                new DynamoDbTableRegistry(dynamoDbClient, (DynamoDbAsyncClient) null, new TableSchemaRegistry(), tableResolver),
+                ProvisioningLock.disabled(),
+                metrics, tableResolver, "io.github.duke.dynamodb", BillingMode.PAY_PER_REQUEST, 0, 0, ProvisioningMode.BLOCKING)
+    }
+}
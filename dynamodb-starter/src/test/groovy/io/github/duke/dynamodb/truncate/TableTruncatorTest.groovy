@@ -0,0 +1,127 @@
+package io.github.duke.dynamodb.truncate
+
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableNameResolver
+import io.github.duke.dynamodb.EventEntity
+import io.github.duke.dynamodb.UserEntity
+import io.github.duke.dynamodb.batch.BatchEngine
+import io.github.duke.dynamodb.config.DynamoDbBeanListener
+import io.github.duke.dynamodb.coordination.ProvisioningLock
+import io.github.duke.dynamodb.inventory.TableInventory
+import io.github.duke.dynamodb.manifest.SchemaManifest
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.provisioning.ProvisioningMode
+import io.github.duke.dynamodb.provisioning.TableProvisioner
+import io.github.duke.dynamodb.readiness.TableReadiness
+import io.github.duke.dynamodb.reconcile.IndexReconciler
+import io.github.duke.dynamodb.schema.DynamoDbTableRegistry
+import io.github.duke.dynamodb.schema.EntityKeyModelRegistry
+import io.github.duke.dynamodb.schema.ProjectionResolver
+import io.github.duke.dynamodb.schema.TableSchemaRegistry
+import io.github.duke.dynamodb.schema.ThroughputResolver
+import io.github.duke.dynamodb.seed.SeedLoader
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import io.github.duke.dynamodb.warmup.TableWarmer
+import org.springframework.context.support.StaticApplicationContext
+import org.springframework.core.env.StandardEnvironment
+import org.springframework.test.context.TestContext
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest
+import spock.lang.Specification
+
+class TableTruncatorTest extends Specification {
+
+    def dynamoDbClient = new InMemoryDynamoDbClient()
+
+    def tableResolver = new DefaultDynamoDbTableNameResolver()
+
+    def metrics = ProvisioningMetrics.disabled()
+
+    def listener = new DynamoDbBeanListener(
+            new TableProvisioner(dynamoDbClient, (DynamoDbAsyncClient) null, 10, 60, metrics),
+            new TableInventory(dynamoDbClient, (DynamoDbAsyncClient) null, "", 10), SchemaManifest.disabled(),
+            IndexReconciler.disabled(), new EntityKeyModelRegistry(), new ThroughputResolver(new StandardEnvironment()),
+            new ProjectionResolver(), new TableReadiness(tableResolver), SeedLoader.disabled(), TableWarmer.disabled(),
+            new DynamoDbTableRegistry(dynamoDbClient, (DynamoDbAsyncClient) null, new TableSchemaRegistry(), tableResolver),
+            ProvisioningLock.disabled(),
+            metrics, tableResolver, "io.github.duke.dynamodb", BillingMode.PAY_PER_REQUEST, 0, 0,
+            ProvisioningMode.BLOCKING)
+
+    def batchEngine = new BatchEngine(dynamoDbClient, (DynamoDbAsyncClient) null, tableResolver,
+            new EntityKeyModelRegistry(), new TableSchemaRegistry(), 4, 3, 1, 5)
+
+    def truncator = new TableTruncator(dynamoDbClient, listener, batchEngine, tableResolver, true, 3, 4)
+
+    def setup() {
+        listener.resolveEntityTables().each { dynamoDbClient.createTable(it) }
+        (1..120).each { i ->
+            put(UserEntity, [id: AttributeValue.fromS("user-$i"), dob: AttributeValue.fromN("$i")])
+            put(EventEntity, [type: AttributeValue.fromS("login#${i % 4}"), occurredAt: AttributeValue.fromN("$i")])
+        }
+    }
+
+    def cleanup() {
+        truncator.destroy()
+        batchEngine.destroy()
+    }
+
+    def 'should delete every item of every entity table and keep the tables'() {
+        when:
+        def deleted = truncator.truncateAll()
+
+        then:
+        deleted == 240
+        count(UserEntity) == 0
+        count(EventEntity) == 0
+        dynamoDbClient.listTables().tableNames().containsAll(listener.resolveEntityTables()*.tableName())
+    }
+
+    def 'should only truncate the tables of the given entities'() {
+        when:
+        def deleted = truncator.truncate(EventEntity)
+
+        then:
+        deleted == 120
+        count(EventEntity) == 0
+        count(UserEntity) == 120
+    }
+
+    def 'should refuse to truncate unless enabled'() {
+        given:
+        def disabled = new TableTruncator(dynamoDbClient, listener, batchEngine, tableResolver, false, 3, 4)
+
+        when:
+        disabled.truncateAll()
+
+        then:
+        thrown(IllegalStateException)
+        count(UserEntity) == 120
+    }
+
+    def 'should truncate the tables of the test application context before each test method'() {
+        given:
+        def context = new StaticApplicationContext()
+        context.beanFactory.registerSingleton("tableTruncator", truncator)
+        def testContext = Mock(TestContext) {
+            getApplicationContext() >> context
+            getTestMethod() >> Object.getMethod("toString")
+        }
+
+        when:
+        new TruncateTablesTestExecutionListener().beforeTestMethod(testContext)
+
+        then:
+        count(UserEntity) == 0
+        count(EventEntity) == 0
+    }
+
+    private void put(Class<?> entity, Map<String, AttributeValue> item) {
+        dynamoDbClient.putItem(PutItemRequest.builder().tableName(tableResolver.resolve(entity)).item(item).build())
+    }
+
+    private int count(Class<?> entity) {
+        return dynamoDbClient.scan(ScanRequest.builder().tableName(tableResolver.resolve(entity)).build()).count()
+    }
+}
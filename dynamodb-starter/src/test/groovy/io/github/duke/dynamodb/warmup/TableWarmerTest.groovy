@@ -0,0 +1,183 @@
+package io.github.duke.dynamodb.warmup
+
+import io.github.duke.dynamodb.metrics.ProvisioningMetrics
+import io.github.duke.dynamodb.provisioning.ControlPlaneRateLimiter
+import io.github.duke.dynamodb.test.InMemoryDynamoDbClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition
+import software.amazon.awssdk.services.dynamodb.model.BillingMode
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex
+import software.amazon.awssdk.services.dynamodb.model.InternalServerErrorException
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement
+import software.amazon.awssdk.services.dynamodb.model.KeyType
+import software.amazon.awssdk.services.dynamodb.model.Projection
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableRequest
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableResponse
+import spock.lang.Specification
+
+class TableWarmerTest extends Specification {
+
+    def 'should create new tables at the warm throughput and settle them to their resolved billing mode'() {
+        given:
+        def client = new InMemoryDynamoDbClient()
+        def warmer = new TableWarmer(client, (DynamoDbAsyncClient) null, ProvisioningMetrics.disabled(), ControlPlaneRateLimiter.unlimited(),
+                false, 0, 30, 400, 200)
+        def request = table("app_event")
+
+        when:
+        def warmRequest = warmer.prewarm(request)
+        client.createTable(warmRequest)
+
+        then:
+        warmRequest.billingMode() == BillingMode.PROVISIONED
+        warmRequest.provisionedThroughput().readCapacityUnits() == 400
+        warmRequest.provisionedThroughput().writeCapacityUnits() == 200
+        warmRequest.globalSecondaryIndexes()[0].provisionedThroughput().readCapacityUnits() == 400
+
+        when:
+        warmer.settle([request], ["app_event"])
+        def table = client.describeTable(DescribeTableRequest.builder().tableName("app_event").build()).table()
+
+        then:
+        table.billingModeSummary().billingMode() == BillingMode.PAY_PER_REQUEST
+    }
+
+    def 'should retry settling a busy table and report the tables left warm'() {
+        given:
+        def attempts = [:].withDefault { 0 }
+        def client = new InMemoryDynamoDbClient() {
+            @Override
+            UpdateTableResponse updateTable(UpdateTableRequest request) {
+                if (request.tableName() == "app_audit" || attempts[request.tableName()]++ < 2) {
+                    throw ResourceInUseException.builder().message("Table is being updated").build()
+                }
+                return super.updateTable(request)
+            }
+        }
+        def metrics = ProvisioningMetrics.disabled()
+        def warmer = new TableWarmer(client, (DynamoDbAsyncClient) null, metrics, new ControlPlaneRateLimiter(0, 1, 4, 1, 5),
+                false, 0, 30, 400, 200)
+        def requests = [table("app_event"), table("app_audit")]
+        requests.each { client.createTable(warmer.prewarm(it)) }
+
+        when:
+        warmer.settle(requests, ["app_event", "app_audit"])
+
+        then:
+        client.describeTable(DescribeTableRequest.builder().tableName("app_event").build()).table()
+                .billingModeSummary().billingMode() == BillingMode.PAY_PER_REQUEST
+        attempts["app_event"] == 3
+        metrics.report().unsettled() == ["app_audit"]
+    }
+
+    def 'should only switch the provisioned throughput raised to create the table warm'() {
+        given:
+        def updates = []
+        def client = new InMemoryDynamoDbClient() {
+            @Override
+            UpdateTableResponse updateTable(UpdateTableRequest request) {
+                updates << request
+                return super.updateTable(request)
+            }
+        }
+        def metrics = ProvisioningMetrics.disabled()
+        def warmer = new TableWarmer(client, (DynamoDbAsyncClient) null, metrics, ControlPlaneRateLimiter.unlimited(),
+                false, 0, 30, 400, 200)
+        def indexRaised = provisioned("app_event", throughput(500, 300), throughput(10, 10))
+        def notRaised = provisioned("app_audit", throughput(500, 300), throughput(400, 200))
+        [indexRaised, notRaised].each { client.createTable(warmer.prewarm(it)) }
+
+        when:
+        warmer.settle([indexRaised, notRaised], ["app_event", "app_audit"])
+
+        then:
+        updates*.tableName() == ["app_event"]
+        updates[0].provisionedThroughput() == null
+        updates[0].globalSecondaryIndexUpdates()*.update()*.provisionedThroughput() == [throughput(10, 10)]
+        metrics.report().unsettled().isEmpty()
+    }
+
+    def 'should leave the requests untouched without warm throughput'() {
+        given:
+        def request = table("app_event")
+
+        expect:
+        TableWarmer.disabled().prewarm(request).is(request)
+    }
+
+    def 'should open the connections and probe every table with a key of its key schema'() {
+        given:
+        def client = Mock(DynamoDbClient)
+        def warmer = new TableWarmer(client, (DynamoDbAsyncClient) null, ProvisioningMetrics.disabled(), ControlPlaneRateLimiter.unlimited(),
+                true, 4, 30, 0, 0)
+
+        when:
+        warmer.warm([table("app_event"), table("app_user")])
+
+        then:
+        4 * client.describeTable(_ as DescribeTableRequest)
+        1 * client.getItem({ GetItemRequest r -> r.tableName() == "app_event" && r.key()["type"].s() && r.key()["occurredAt"].n() == "0" })
+        1 * client.getItem({ GetItemRequest r -> r.tableName() == "app_user" })
+
+        cleanup:
+        warmer.destroy()
+    }
+
+    def 'should not fail the startup when probes fail'() {
+        given:
+        def client = Mock(DynamoDbClient) {
+            describeTable(_) >> { throw InternalServerErrorException.builder().message("unavailable").build() }
+        }
+        def warmer = new TableWarmer(client, (DynamoDbAsyncClient) null, ProvisioningMetrics.disabled(), ControlPlaneRateLimiter.unlimited(),
+                true, 2, 30, 0, 0)
+
+        when:
+        warmer.warm([table("app_event")])
+
+        then:
+        noExceptionThrown()
+
+        cleanup:
+        warmer.destroy()
+    }
+
+    private static CreateTableRequest provisioned(String tableName, ProvisionedThroughput tableThroughput,
+                                                  ProvisionedThroughput indexThroughput) {
+        def request = table(tableName)
+        return request.toBuilder()
+                .billingMode(BillingMode.PROVISIONED)
+                .provisionedThroughput(tableThroughput)
+                .globalSecondaryIndexes(request.globalSecondaryIndexes()[0].toBuilder()
+                        .provisionedThroughput(indexThroughput).build())
+                .build() as CreateTableRequest
+    }
+
+    private static ProvisionedThroughput throughput(long read, long write) {
+        return ProvisionedThroughput.builder().readCapacityUnits(read).writeCapacityUnits(write).build()
+    }
+
+    private static CreateTableRequest table(String tableName) {
+        return CreateTableRequest.builder()
+                .tableName(tableName)
+                .keySchema(KeySchemaElement.builder().attributeName("type").keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName("occurredAt").keyType(KeyType.RANGE).build())
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName("type").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("occurredAt").attributeType(ScalarAttributeType.N).build())
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName("by_occurred_at")
+                        .keySchema(KeySchemaElement.builder().attributeName("occurredAt").keyType(KeyType.HASH).build())
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build() as CreateTableRequest
+    }
+}
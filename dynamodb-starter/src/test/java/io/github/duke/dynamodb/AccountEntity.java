@@ -0,0 +1,37 @@
+package io.github.duke.dynamodb;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountEntity {
+    private String accountId;
+    private long createdAt;
+    private Status status;
+
+    public enum Status {
+        ACTIVE, CLOSED
+    }
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("account_id")
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @DynamoDbSortKey
+    @DynamoDbSecondarySortKey(indexNames = "status-index")
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = "status-index")
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.duke.dynamodb;
+
+import io.github.duke.dynamodb.annotation.DynamoDbWriteShards;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventEntity {
+    private String type;
+    private long occurredAt;
+    private String payload;
+
+    @DynamoDbPartitionKey
+    @DynamoDbWriteShards(4)
+    public String getType() {
+        return type;
+    }
+
+    @DynamoDbSortKey
+    public long getOccurredAt() {
+        return occurredAt;
+    }
+}